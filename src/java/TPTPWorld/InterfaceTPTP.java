@@ -504,7 +504,7 @@ public class InterfaceTPTP {
 		SUMOformulaToTPTPformula stptp = new SUMOformulaToTPTPformula();
     	stptp._f = conjectureFormula;
     	stptp.tptpParse(conjectureFormula,true, kb);
-		Iterator<String> it = conjectureFormula.theTptpFormulas.iterator();
+		Iterator<String> it = conjectureFormula.peekTheTptpFormulas().iterator();
 		String theTPTPFormula = (String) it.next();
 		String originalConjecture = theTPTPFormula;
 		if (isQuestion) 
@@ -404,7 +404,7 @@ public class CCheck implements Runnable {
             Collection<Formula> allFormulas = kb.formulaMap.values();
             Collection<String> allTPTP= new ArrayList<String>();
             for (Formula f : allFormulas) {
-                allTPTP.addAll(f.theTptpFormulas);
+                allTPTP.addAll(f.peekTheTptpFormulas());
             }
             Iterator<String> it = allTPTP.iterator();
             pw.println("  <entries>");
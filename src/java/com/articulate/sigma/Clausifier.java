@@ -1,13 +1,12 @@
-
-/* This code is copyright Articulate Software (c) 2003.  
+/* This code is copyright Articulate Software (c) 2003.
 This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
 Users of this code are also requested, to credit Articulate Software in any
-writings, briefings, publications, presentations, or 
+writings, briefings, publications, presentations, or
 other representations of any software which incorporates,
 builds on, or uses this code. Please cite the following
 article in any publication with references:
 
-Pease, A., (2003). The Sigma Ontology Development Environment, 
+Pease, A., (2003). The Sigma Ontology Development Environment,
 in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
 August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
 */
@@ -18,6 +17,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.util.*;
+import java.util.regex.Pattern;
 
 import com.articulate.sigma.utils.StringUtil;
 
@@ -25,14 +25,18 @@ import com.articulate.sigma.utils.StringUtil;
  *  The code in the section below implements an algorithm for
  *    translating SUO-KIF expressions to clausal form.  The
  *    public methods are:
- * 
+ *
  *    public Formula clausify()
  *    public ArrayList clausifyWithRenameInfo()
  *    public ArrayList toNegAndPosLitsWithRenameInfo()
- * 
+ *
  * The result is a single formula in conjunctive normal form
  * (CNF), which is actually a set of (possibly negated) clauses
  * surrounded by an "or".
+ *
+ * The formula is parsed once into a tree of Term(s) and every
+ * step of the conversion is a rewrite of that tree.  Formula
+ * objects are only created again for the final result.
  */
 public class Clausifier  {
 
@@ -48,6 +52,229 @@ public class Clausifier  {
 
     public static boolean resetSkolem = false;
 
+    // The largest number of clauses that distributing 'or' over 'and'
+    // may create for one formula.  Above this, subformulas are replaced
+    // by new definitional literals (a Tseitin-style translation), which
+    // keeps the clause count linear.  A value less than 1 turns this off.
+    public static int maxDistributedClauses = 1000;
+
+    public static final String DEF_PREF = "DefPred";
+
+    // The index of the definitional predicates of each formula that
+    // needed them, by the normalized text of the formula.
+    private static final HashMap<String,Integer> definitionIndexes = new HashMap<>();
+
+    private static final Pattern SKOLEM_PATTERN =
+            Pattern.compile("^.?" + Formula.SK_PREF + "\\S*\\s*\\d+");
+
+    /** ***************************************************************
+     * A compact, immutable parse tree for a SUO-KIF expression.  An
+     * atom has a non-null atom String and null args, while a list has
+     * a null atom and a (possibly empty) array of args.  Since terms are
+     * shared between the results of successive rewrites, they must never
+     * be altered once they are created.
+     */
+    static final class Term {
+
+        final String atom;
+        final Term[] args;
+
+        static final Term[] NO_ARGS = new Term[0];
+        static final Term EMPTY = new Term("", null);
+
+        private Term(String atom, Term[] args) {
+            this.atom = atom;
+            this.args = args;
+        }
+
+        /** ***************************************************************
+         */
+        static Term atom(String s) {
+            return new Term(s, null);
+        }
+
+        /** ***************************************************************
+         */
+        static Term list(Term... args) {
+            return new Term(null, args);
+        }
+
+        /** ***************************************************************
+         */
+        static Term list(List<Term> args) {
+            return new Term(null, args.toArray(new Term[args.size()]));
+        }
+
+        /** ***************************************************************
+         */
+        boolean isList() {
+            return args != null;
+        }
+
+        /** ***************************************************************
+         */
+        boolean isEmptyList() {
+            return args != null && args.length == 0;
+        }
+
+        /** ***************************************************************
+         */
+        int size() {
+            return args == null ? 0 : args.length;
+        }
+
+        /** ***************************************************************
+         * @return the argument at the given position, or the empty atom
+         * if there is none, mirroring Formula.getStringArgument()
+         */
+        Term arg(int i) {
+
+            if (args == null || i >= args.length)
+                return EMPTY;
+            return args[i];
+        }
+
+        /** ***************************************************************
+         * @return the predicate or operator of a list, or null if this
+         * is an atom, an empty list, or a list whose first element is
+         * itself a list
+         */
+        String head() {
+
+            if (args == null || args.length == 0)
+                return null;
+            return args[0].atom;
+        }
+
+        /** ***************************************************************
+         */
+        boolean isVariable() {
+            return atom != null && Formula.isVariable(atom);
+        }
+
+        /** ***************************************************************
+         * Parse a String into a Term.  Elements of a list are split
+         * exactly as Formula.car() and Formula.cdr() would split them,
+         * including the handling of single and double quotes, so that
+         * the Term prints back as the same String that a series of
+         * car()/cdr()/cons() operations would have produced.
+         */
+        static Term parse(String s) {
+
+            String str = s.trim();
+            if (!Formula.listP(str))
+                return new Term(str, null);
+            ArrayList<Term> elements = new ArrayList<>();
+            int end = str.length() - 1;
+            int i = 1;
+            while (true) {
+                while (i < end && Character.isWhitespace(str.charAt(i)))
+                    i++;
+                if (i >= end)
+                    break;
+                int start = i;
+                int stop = end;
+                int level = 0;
+                char prev = '0';
+                boolean insideQuote = false;
+                char quoteCharInForce = '0';
+                while (i < end) {
+                    char ch = str.charAt(i);
+                    if (!insideQuote) {
+                        if (ch == '(')
+                            level++;
+                        else if (ch == ')') {
+                            level--;
+                            if (level <= 0) {
+                                stop = ++i;
+                                break;
+                            }
+                        }
+                        else if (Character.isWhitespace(ch) && (level <= 0)) {
+                            stop = i++;
+                            break;
+                        }
+                        else if ((ch == '"' || ch == '\'') && (prev != '\\')) {
+                            insideQuote = true;
+                            quoteCharInForce = ch;
+                        }
+                    }
+                    else if ((ch == quoteCharInForce) && (prev != '\\')) {
+                        insideQuote = false;
+                        quoteCharInForce = '0';
+                        if (level <= 0) {
+                            stop = ++i;
+                            break;
+                        }
+                    }
+                    prev = ch;
+                    i++;
+                }
+                elements.add(parse(str.substring(start, stop)));
+            }
+            if (elements.isEmpty())
+                return new Term(null, NO_ARGS);
+            return list(elements);
+        }
+
+        /** ***************************************************************
+         */
+        void appendTo(StringBuilder sb) {
+
+            if (args == null) {
+                sb.append(atom);
+                return;
+            }
+            sb.append(Formula.LP);
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) sb.append(Formula.SPACE);
+                args[i].appendTo(sb);
+            }
+            sb.append(Formula.RP);
+        }
+
+        /** ***************************************************************
+         */
+        public String toString() {
+
+            if (args == null)
+                return atom;
+            StringBuilder sb = new StringBuilder();
+            appendTo(sb);
+            return sb.toString();
+        }
+
+        /** ***************************************************************
+         */
+        public boolean equals(Object o) {
+
+            if (this == o)
+                return true;
+            if (!(o instanceof Term))
+                return false;
+            Term t = (Term) o;
+            if (args == null)
+                return t.args == null && atom.equals(t.atom);
+            return Arrays.equals(args, t.args);
+        }
+
+        /** ***************************************************************
+         */
+        public int hashCode() {
+
+            if (args == null)
+                return atom.hashCode();
+            return Arrays.hashCode(args);
+        }
+    }
+
+    private static final Term AND_T = Term.atom(Formula.AND);
+    private static final Term OR_T = Term.atom(Formula.OR);
+    private static final Term NOT_T = Term.atom(Formula.NOT);
+    private static final Term IF_T = Term.atom(Formula.IF);
+    private static final Term UQUANT_T = Term.atom(Formula.UQUANT);
+    private static final Term EQUANT_T = Term.atom(Formula.EQUANT);
+
     /** ***************************************************************
      */
     public Clausifier(String s) {
@@ -66,25 +293,38 @@ public class Clausifier  {
 
         return thisFormula.getFormula();
     }
-    
+
+    /** ***************************************************************
+     * Convert a Term back to a Formula at the boundary of the
+     * clausification steps.
+     */
+    private static Formula toFormula(Term t) {
+
+        Formula f = new Formula();
+        f.read(t.toString());
+        return f;
+    }
+
+    /** ***************************************************************
+     */
+    private Term thisTerm() {
+
+        return Term.parse(thisFormula.getFormula());
+    }
+
     /** ***************************************************************
      *  Turn a conjunction into an ArrayList of separate statements
      */
     public ArrayList<Formula> separateConjunctions() {
 
-        if (!thisFormula.car().equals("and")) {
+        Term t = thisTerm();
+        if (!Formula.AND.equals(t.head())) {
             System.out.println("Error Formula.separateConjunctions(): not a conjunction " + thisFormula);
             return null;
         }
         ArrayList<Formula> result = new ArrayList<Formula>();
-        Formula temp = new Formula();
-        temp.read(thisFormula.cdr());
-        while (!temp.empty()) {
-            Formula clause = new Formula();
-            clause.read(temp.car());
-            result.add(clause);
-            temp.read(temp.cdr());
-        }
+        for (int i = 1; i < t.size(); i++)
+            result.add(toFormula(t.args[i]));
         return result;
     }
 
@@ -106,9 +346,36 @@ public class Clausifier  {
         return temp.clausify();
     }
 
+    /** ***************************************************************
+     * Run all the steps of the conversion to clausal form on the
+     * parsed formula.
+     *
+     * @param allRenames A Map from all new vars in the Formula to
+     * their old counterparts, which is filled in by this method.
+     *
+     * @return the clausal form as a Term
+     */
+    private Term clausifyTerm(Map<String,String> allRenames) {
+
+        Map<String,String> topLevelVars  = new HashMap<>();
+        Map<String,String> scopedRenames = new HashMap<>();
+        Map<String,String> standardizedRenames = new HashMap<>();
+        Term t = thisTerm();
+        t = equivalencesOut(t);
+        t = implicationsOut(t);
+        t = negationsIn(t, false);
+        t = renameVariables(t, topLevelVars, scopedRenames, allRenames);
+        t = existentialsOut(t);
+        t = universalsOut(t);
+        t = disjunctionsIn(t);
+        t = standardizeApart(t, standardizedRenames);
+        allRenames.putAll(standardizedRenames);
+        return t;
+    }
+
     /** ***************************************************************
      * Note this returns a List of mixed types!  Fixme!
-     * 
+     *
      * @return an ArrayList that contains three items: The new
      * clausal-form Formula, the original (input) SUO-KIF Formula, and
      * a Map containing a graph of all the variable substitions done
@@ -125,31 +392,19 @@ public class Clausifier  {
     public ArrayList clausifyWithRenameInfo() {
 
         Formula old = new Formula(thisFormula.getFormula());
-        ArrayList result = new ArrayList();
-        Formula ans = null;
-        HashMap topLevelVars  = new HashMap();
-        HashMap scopedRenames = new HashMap();
-        HashMap allRenames    = new HashMap();
-        HashMap standardizedRenames = new HashMap();
-        thisFormula = equivalencesOut();
-        thisFormula = implicationsOut();
-        thisFormula = negationsIn();
-        thisFormula = renameVariables(topLevelVars, scopedRenames, allRenames);
-        thisFormula = existentialsOut();
-        thisFormula = universalsOut();
-        thisFormula = disjunctionsIn();
-        thisFormula = standardizeApart(standardizedRenames);
-        allRenames.putAll(standardizedRenames);
+        ArrayList<Object> result = new ArrayList<>();
+        HashMap<String,String> allRenames = new HashMap<>();
+        if (!StringUtil.emptyString(thisFormula.getFormula()))
+            thisFormula = toFormula(clausifyTerm(allRenames));
         result.add(thisFormula);
         result.add(old);
         result.add(allRenames);
-        // resetClausifyIndices();
         return result;
     }
 
     /** ***************************************************************
      * TODO: Note mixed types in return List!  Fixme!
-     * 
+     *
      * This method converts the SUO-KIF Formula to an ArrayList of
      * clauses.  Each clause is an ArrayList containing an ArrayList
      * of negative literals, and an ArrayList of positive literals.
@@ -173,25 +428,25 @@ public class Clausifier  {
      * @see clausifyWithRenameInfo()
      * @see toCanonicalClausalForm();
      *
-     * @return A three-element ArrayList, 
+     * @return A three-element ArrayList,
      *
-     * [ 
+     * [
      *   // 1. clauses
-     *   [ 
+     *   [
      *     // a clause
-     *     [ 
+     *     [
      *       // negative literals
      *       [ Formula1, Formula2, ..., FormulaN ],
      *       // positive literals
-     *       [ Formula1, Formula2, ..., FormulaN ] 
+     *       [ Formula1, Formula2, ..., FormulaN ]
      *     ],
      *
      *     // another clause
-     *     [ 
+     *     [
      *       // negative literals
      *       [ Formula1, Formula2, ..., FormulaN ],
      *       // positive literals
-     *       [ Formula1, Formula2, ..., FormulaN ] 
+     *       [ Formula1, Formula2, ..., FormulaN ]
      *     ],
      *
      *     ...,
@@ -207,57 +462,40 @@ public class Clausifier  {
      */
     public ArrayList toNegAndPosLitsWithRenameInfo() {
 
-        ArrayList ans = new ArrayList();
-        List<Formula> clausesWithRenameInfo = this.clausifyWithRenameInfo();
-        if (clausesWithRenameInfo.size() == 3) {
-            Formula clausalForm = (Formula) clausesWithRenameInfo.get(0);
-            Clausifier cForm = new Clausifier(clausalForm.getFormula());
-            ArrayList clauses = cForm.operatorsOut();
-            if ((clauses != null) && !clauses.isEmpty()) {
-                // System.out.println("\nclauses == " + clauses);
-                ArrayList newClauses = new ArrayList();
-                Formula clause = null;
-                for (Iterator<Formula> it = clauses.iterator(); it.hasNext();) {
-                	ArrayList<Formula> negLits = new ArrayList<Formula>();
-                	ArrayList<Formula> posLits = new ArrayList<Formula>();
-                	ArrayList literals = new ArrayList();
-                    literals.add(negLits);
-                    literals.add(posLits);
-                    clause = (Formula) it.next();
-                    if (clause.listP()) {
-                        while (!clause.empty()) {
-                            boolean isNegLit = false;
-                            String lit = clause.car();
-                            Formula litF = new Formula();
-                            litF.read(lit);
-                            if (litF.listP() && litF.car().equals(Formula.NOT)) {
-                                litF.read(litF.cadr());
-                                isNegLit = true;
-                            }
-                            if (litF.getFormula().equals(Formula.LOG_FALSE))
-                                isNegLit = true;                                
-                            if (isNegLit) 
-                                negLits.add(litF);                                
-                            else 
-                                posLits.add(litF);                                
-                            clause = clause.cdrAsFormula();
-                        }
+        ArrayList<Object> ans = new ArrayList<>();
+        if (StringUtil.emptyString(thisFormula.getFormula()))
+            return ans;
+        Formula old = new Formula(thisFormula.getFormula());
+        HashMap<String,String> allRenames = new HashMap<>();
+        Term clausalForm = clausifyTerm(allRenames);
+        thisFormula = toFormula(clausalForm);
+        ArrayList<ArrayList<Term>> clauses = operatorsOut(clausalForm);
+        if (!clauses.isEmpty()) {
+            ArrayList<ArrayList<ArrayList<Formula>>> newClauses = new ArrayList<>();
+            for (ArrayList<Term> clause : clauses) {
+                ArrayList<Formula> negLits = new ArrayList<Formula>();
+                ArrayList<Formula> posLits = new ArrayList<Formula>();
+                ArrayList<ArrayList<Formula>> literals = new ArrayList<>();
+                literals.add(negLits);
+                literals.add(posLits);
+                for (Term lit : clause) {
+                    boolean isNegLit = false;
+                    if (Formula.NOT.equals(lit.head())) {
+                        lit = lit.arg(1);
+                        isNegLit = true;
                     }
-                    else if (clause.getFormula().equals(Formula.LOG_FALSE))
-                        negLits.add(clause);                        
-                    else 
-                        posLits.add(clause);                        
-                    newClauses.add(literals);
+                    if (Formula.LOG_FALSE.equals(lit.atom))
+                        isNegLit = true;
+                    if (isNegLit)
+                        negLits.add(toFormula(lit));
+                    else
+                        posLits.add(toFormula(lit));
                 }
-                // Collections.sort(negLits);
-                // Collections.sort(posLits);
-                ans.add(newClauses);
-            }
-            if (ans.size() == 1) {
-                int cwriLen = clausesWithRenameInfo.size();
-                for (int j = 1; j < cwriLen; j++)           
-                    ans.add(clausesWithRenameInfo.get(j));                    
+                newClauses.add(literals);
             }
+            ans.add(newClauses);
+            ans.add(old);
+            ans.add(allRenames);
         }
         return ans;
     }
@@ -290,7 +528,7 @@ public class Clausifier  {
 
         Formula ans = new Formula();
         List clauseData = this.toNegAndPosLitsWithRenameInfo();
-        if (clauseData.isEmpty()) 
+        if (clauseData.isEmpty())
             ans = thisFormula;
         else {
             List clauses = (List) clauseData.get(0);
@@ -488,6 +726,7 @@ public class Clausifier  {
         return temp.toCanonicalKifSpecialForm(preserveSharedVariables);
     }
 
+
     /** ***************************************************************
      * Returns a String in which all variables and row variables have
      * been normalized -- renamed, in depth-first order of occurrence,
@@ -528,11 +767,9 @@ public class Clausifier  {
      */
     protected static String normalizeVariables(String input, boolean replaceSkolemTerms) {
 
-        String result = input;
         int[] idxs = {1, 1};
-        Map vmap = new HashMap();
-        result = normalizeVariables_1(input, idxs, vmap, replaceSkolemTerms);
-        return result;
+        Map<String,String> vmap = new HashMap<>();
+        return normalizeVariables_1(input, idxs, vmap, replaceSkolemTerms);
     }
 
     /** ***************************************************************
@@ -553,126 +790,163 @@ public class Clausifier  {
      * part of a Formula.
      */
     protected static String normalizeVariables_1(String input,int[] idxs, 
-                                                 Map vmap, boolean replaceSkolemTerms) {
+                                                 Map<String,String> vmap, boolean replaceSkolemTerms) {
 
-        String result = "";
-        String vbase = Formula.VVAR;
-        String rvbase = (Formula.RVAR + "VAR");
-        StringBuilder sb = new StringBuilder();
-        String flist = input.trim();
-        boolean isSkolem = Formula.isSkolemTerm(flist);
-        if ((replaceSkolemTerms && isSkolem) || Formula.isVariable(flist)) {
-            String newvar = (String) vmap.get(flist);
+        StringBuilder sb = new StringBuilder(input.length());
+        normalizeVariables_1(Term.parse(input), idxs, vmap, replaceSkolemTerms, sb);
+        return sb.toString();
+    }
+
+    /** ***************************************************************
+     * Write the normalized form of a parsed Term to the StringBuilder.
+     *
+     * @see normalizeVariables_1(String,int[],Map,boolean)
+     */
+    private static void normalizeVariables_1(Term t, int[] idxs, Map<String,String> vmap,
+                                             boolean replaceSkolemTerms, StringBuilder sb) {
+
+        if (t.isList()) {
+            sb.append(Formula.LP);
+            for (int i = 0; i < t.args.length; i++) {
+                if (i > 0) sb.append(Formula.SPACE);
+                normalizeVariables_1(t.args[i], idxs, vmap, replaceSkolemTerms, sb);
+            }
+            sb.append(Formula.RP);
+            return;
+        }
+        String flist = t.atom;
+        boolean isVar = Formula.isVariable(flist);
+        boolean isSkolem = (replaceSkolemTerms || (isVar && !flist.startsWith(Formula.V_PREF)))
+                && isSkolemAtom(flist);
+        if ((replaceSkolemTerms && isSkolem) || isVar) {
+            String newvar = vmap.get(flist);
             if (newvar == null) {
                 newvar = ((flist.startsWith(Formula.V_PREF) || isSkolem)
-                          ? (vbase + idxs[0]++)
-                          : (rvbase + idxs[1]++));
+                          ? (Formula.VVAR + idxs[0]++)
+                          : (Formula.RVAR + "VAR" + idxs[1]++));
                 vmap.put(flist, newvar);
             }
             sb.append(newvar);
         }
-        else if (Formula.listP(flist)) {
-            if (Formula.empty(flist)) 
-                sb.append(flist);                
-            else {
-                Formula f = new Formula();
-                f.read(flist);
-                List tuple = f.literalToArrayList();
-                sb.append(Formula.LP);
-                int i = 0;
-                for (Iterator it = tuple.iterator(); it.hasNext(); i++) {
-                    if (i > 0) sb.append(Formula.SPACE);
-                    sb.append(normalizeVariables_1((String) it.next(),idxs,
-                                                   vmap,replaceSkolemTerms));
-                }
-                sb.append(Formula.RP);
+        else
+            sb.append(flist);
+    }
+
+    /** ***************************************************************
+     * Same test as Formula.isSkolemTerm() for a single trimmed atom,
+     * but without compiling the regular expression on every call.
+     */
+    private static boolean isSkolemAtom(String s) {
+
+        if (!s.startsWith(Formula.SK_PREF) && !s.startsWith(Formula.SK_PREF, 1))
+            return false;
+        return SKOLEM_PATTERN.matcher(s).matches();
+    }
+
+    /** ***************************************************************
+     * A single rewrite step applied to a Term.
+     */
+    private interface Rewrite {
+        Term apply(Term t);
+    }
+
+    /** ***************************************************************
+     * Apply a rewrite to every element of a list, in order.  The
+     * original Term is returned if no element changes, so that
+     * unchanged subtrees are shared rather than copied.
+     */
+    private static Term mapArgs(Term t, Rewrite r) {
+
+        Term[] newArgs = null;
+        for (int i = 0; i < t.args.length; i++) {
+            Term arg = t.args[i];
+            Term newArg = r.apply(arg);
+            if (newArg != arg) {
+                if (newArgs == null)
+                    newArgs = t.args.clone();
+                newArgs[i] = newArg;
             }
         }
-        else 
-            sb.append(flist);            
-        result = sb.toString();
-        return result;
+        return (newArgs == null) ? t : Term.list(newArgs);
     }
 
+    private static final Rewrite EQUIVALENCES_OUT = new Rewrite() {
+        public Term apply(Term t) { return equivalencesOut(t); }
+    };
+
+    private static final Rewrite IMPLICATIONS_OUT = new Rewrite() {
+        public Term apply(Term t) { return implicationsOut(t); }
+    };
+
+    private static final Rewrite NEGATIONS_IN = new Rewrite() {
+        public Term apply(Term t) { return negationsIn(t, false); }
+    };
+
+    private static final Rewrite UNIVERSALS_OUT = new Rewrite() {
+        public Term apply(Term t) { return universalsOut(t); }
+    };
+
+    private static final Rewrite NESTED_OPERATORS_OUT = new Rewrite() {
+        public Term apply(Term t) { return nestedOperatorsOut_1(t); }
+    };
+
+    private static final Rewrite DISJUNCTIONS_IN = new Rewrite() {
+        public Term apply(Term t) { return disjunctionsIn_1(t); }
+    };
+
     /** ***************************************************************
      * This method converts every occurrence of '<=>' in the Formula
      * to a conjunct with two occurrences of '=>'.
-     * 
+     *
      * @return A Formula with no occurrences of '<=>'.
      *
      */
     private Formula equivalencesOut() {
 
-        Formula ans = thisFormula;
-        String theNewFormula = null;
-        if (thisFormula.listP() && !(thisFormula.empty())) {
-            String head = thisFormula.car();
-            if (!StringUtil.emptyString(head) && Formula.listP(head)) {
-                Clausifier headF = new Clausifier(head);
-                String newHead = headF.equivalencesOut().getFormula();
-                Clausifier theNewClausifier = new Clausifier(thisFormula.cdr());
-                theNewFormula = theNewClausifier.equivalencesOut().cons(newHead).getFormula();
-            }
-            else if (head.equals(Formula.IFF)) {
-                String second = thisFormula.cadr();
-                Clausifier secondF = new Clausifier(second);
-                String newSecond = secondF.equivalencesOut().getFormula();
-                String third = thisFormula.caddr();
-                Clausifier thirdF = new Clausifier(third);
-                String newThird = thirdF.equivalencesOut().getFormula();
-                theNewFormula = ("(and (=> " + newSecond + " " + newThird
-                                 + ") (=> " + newThird + " " + newSecond + "))");
-            }
-            else {
-                Clausifier fourth = new Clausifier(thisFormula.cdrAsFormula().getFormula());
-                theNewFormula = fourth.equivalencesOut().cons(head).getFormula();
-            }
-            if (theNewFormula != null) {
-                ans = new Formula();
-                ans.read(theNewFormula);
-            }
+        return toFormula(equivalencesOut(thisTerm()));
+    }
+
+    /** ***************************************************************
+     * @see equivalencesOut()
+     */
+    private static Term equivalencesOut(Term t) {
+
+        if (!t.isList() || t.isEmptyList())
+            return t;
+        if (Formula.IFF.equals(t.head())) {
+            Term newSecond = equivalencesOut(t.arg(1));
+            Term newThird = equivalencesOut(t.arg(2));
+            return Term.list(AND_T, Term.list(IF_T, newSecond, newThird),
+                             Term.list(IF_T, newThird, newSecond));
         }
-        return ans;
+        return mapArgs(t, EQUIVALENCES_OUT);
     }
 
     /** ***************************************************************
      * This method converts every occurrence of '(=> LHS RHS' in the
      * Formula to a disjunct of the form '(or (not LHS) RHS)'.
-     * 
+     *
      * @return A Formula with no occurrences of '=>'.
      *
      */
     private Formula implicationsOut() {
 
-        Formula ans = thisFormula;
-        String theNewFormula = null;
-        if (thisFormula.listP() && !thisFormula.empty()) {
-            String head = thisFormula.car();
-            if (!StringUtil.emptyString(head) && Formula.listP(head)) {
-                Clausifier headF = new Clausifier(head);
-                String newHead = headF.implicationsOut().getFormula();
-                Clausifier theNewClausifier = new Clausifier(thisFormula.cdr());
-                theNewFormula = theNewClausifier.implicationsOut().cons(newHead).getFormula();
-            }
-            else if (head.equals(Formula.IF)) {
-                String second = thisFormula.cadr();
-                Clausifier secondF = new Clausifier(second);
-                String newSecond = secondF.implicationsOut().getFormula();
-                String third = thisFormula.caddr();
-                Clausifier thirdF = new Clausifier(third);
-                String newThird = thirdF.implicationsOut().getFormula();
-                theNewFormula = ("(or (not " + newSecond + ") " + newThird + ")");
-            }
-            else {
-                Clausifier fourth = new Clausifier(thisFormula.cdrAsFormula().getFormula());
-                theNewFormula = fourth.implicationsOut().cons(head).getFormula();
-            }
-            if (theNewFormula != null) {
-                ans = new Formula();
-                ans.read(theNewFormula);
-            }
+        return toFormula(implicationsOut(thisTerm()));
+    }
+
+    /** ***************************************************************
+     * @see implicationsOut()
+     */
+    private static Term implicationsOut(Term t) {
+
+        if (!t.isList() || t.isEmptyList())
+            return t;
+        if (Formula.IF.equals(t.head())) {
+            Term newSecond = implicationsOut(t.arg(1));
+            Term newThird = implicationsOut(t.arg(2));
+            return Term.list(OR_T, Term.list(NOT_T, newSecond), newThird);
         }
-        return ans;
+        return mapArgs(t, IMPLICATIONS_OUT);
     }
 
     /** ***************************************************************
@@ -680,158 +954,57 @@ public class Clausifier  {
      * occurrence has the narrowest possible scope, and also removes
      * from the Formula all occurrences of '(not (not ...))'.
      *
-     * @see negationsIn_1().
+     * @see negationsIn(Term, boolean).
      *
      * @return A Formula with all occurrences of 'not' accorded
      * narrowest scope, and no occurrences of '(not (not ...))'.
      */
     private Formula negationsIn() {
 
-        Formula f = thisFormula;
-        Formula ans = negationsIn_1();
-        // Repeatedly apply negationsIn_1() until there are no more changes
-        while (!f.getFormula().equals(ans.getFormula())) {
-            f = ans;
-            ans = negationsIn_1(f);
-        }
-        return ans;
+        return toFormula(negationsIn(thisTerm(), false));
     }
 
     /** ***************************************************************
-     * This method is used in negationsIn().  It recursively 'pushes
-     * in' all occurrences of 'not', so that each occurrence has the
-     * narrowest possible scope, and also removes from the Formula all
-     * occurrences of '(not (not ...))'.
+     * Convert a Term to negation normal form in a single pass, by
+     * carrying down whether the current subterm is in the scope of
+     * an odd number of negations.  Negations are pushed through 'and',
+     * 'or' and the quantifiers, and pairs of negations cancel.
      *
-     * @see negationsIn().
+     * @param negate true if the Term appears under a negation that
+     * has not yet been placed
      *
-     * @return A Formula with all occurrences of 'not' accorded
+     * @return A Term with all occurrences of 'not' accorded
      * narrowest scope, and no occurrences of '(not (not ...))'.
      */
-    private Formula negationsIn_1() {  
-
-        if (thisFormula.listP()) {
-            if (thisFormula.empty()) { return thisFormula; }
-            String arg0 = thisFormula.car();
-            String arg1 = thisFormula.cadr();
-            if (arg0.equals(Formula.NOT) && Formula.listP(arg1)) {
-                Formula arg1F = new Formula();
-                arg1F.read(arg1);
-                String arg0_of_arg1 = arg1F.car();
-                if (arg0_of_arg1.equals(Formula.NOT)) {
-                    String arg1_of_arg1 = arg1F.cadr();
-                    Formula arg1_of_arg1F = new Formula();
-                    arg1_of_arg1F.read(arg1_of_arg1);
-                    return arg1_of_arg1F;
-                }
-                if (Formula.isCommutative(arg0_of_arg1)) {
-                    String newOp = null;
-                    if (arg0_of_arg1.equals(Formula.AND))
-                    	newOp = Formula.OR; 
-                    else
-                    	newOp = Formula.AND;
-                    return listAll(arg1F.cdrAsFormula(),"(not ", ")").cons(newOp);
-                }
-                if (Formula.isQuantifier(arg0_of_arg1)) {
-                    String vars = arg1F.cadr();
-                    String arg2_of_arg1 = arg1F.caddr();
-                    String quant = null;
-                    if (arg0_of_arg1.equals(Formula.UQUANT))
-                    	quant = Formula.EQUANT;
-                    else
-                    	quant = Formula.UQUANT;
-                    arg2_of_arg1 = ("(not " + arg2_of_arg1 + ")");
-                    Formula arg2_of_arg1F = new Formula();
-                    arg2_of_arg1F.read(arg2_of_arg1);
-                    String theNewFormula = ("(" + quant + " " + vars + " " 
-                                            + negationsIn_1(arg2_of_arg1F).getFormula() + ")");
-                    Formula newF = new Formula();
-                    newF.read(theNewFormula);
-                    return newF;
-                }
-                String theNewFormula = ("(not " + negationsIn_1(arg1F).getFormula() + ")");
-                Formula newF = new Formula();
-                newF.read(theNewFormula);
-                return newF;
-            }
-            if (Formula.isQuantifier(arg0)) {
-                String arg2 = thisFormula.caddr();
-                Formula arg2F = new Formula();
-                arg2F.read(arg2);
-                String newArg2 = negationsIn_1(arg2F).getFormula();
-                String theNewFormula = ("(" + arg0 + " " + arg1 + " " + newArg2 + ")");
-                Formula newF = new Formula();
-                newF.read(theNewFormula);
-                return newF;
-            }
-            if (Formula.listP(arg0)) {
-                Formula arg0F = new Formula();
-                arg0F.read(arg0);
-                return negationsIn_1(thisFormula.cdrAsFormula()).cons(negationsIn_1(arg0F).getFormula());
-            }
-            return negationsIn_1(thisFormula.cdrAsFormula()).cons(arg0);
+    private static Term negationsIn(Term t, boolean negate) {
+
+        if (!t.isList() || t.isEmptyList())
+            return negate ? Term.list(NOT_T, t) : t;
+        String arg0 = t.head();
+        if (Formula.NOT.equals(arg0) && t.size() > 1) {
+            Term arg1 = t.args[1];
+            if (arg1.isList())
+                return negationsIn(arg1, !negate);
+            if (t.size() == 2)
+                return negate ? arg1 : t;
         }
-        return thisFormula;
-    }
-
-    /** ***************************************************************
-     *  convenience method
-     */
-    private static Formula negationsIn_1(Formula f) {  
-        Clausifier temp = new Clausifier(f.getFormula());
-        return temp.negationsIn_1();
-    }
-
-    /** ***************************************************************
-     * This method augments each element of the Formula by
-     * concatenating optional Strings before and after the element.
-     *
-     * Note that in most cases the input Formula will be simply a
-     * list, not a well-formed SUO-KIF Formula, and that the output
-     * will therefore not necessarily be a well-formed Formula.
-     *
-     * @param before A String that, if present, is prepended to every
-     * element of the Formula.
-     *
-     * @param after A String that, if present, is postpended to every
-     * element of the Formula.
-     * 
-     * @return A Formula, or, more likely, simply a list, with the
-     * String values corresponding to before and after added to each
-     * element.     
-     */
-    private Formula listAll(String before, String after) {
-
-        Formula ans = thisFormula;
-        String theNewFormula = null;
-        if (thisFormula.listP()) {
-            theNewFormula = "";
-            Formula f = thisFormula;
-            while (!(f.empty())) {
-                String element = f.car();
-                if (!StringUtil.emptyString(before)) 
-                    element = (before + element);                
-                if (!StringUtil.emptyString(after)) 
-                    element += after;                
-                theNewFormula += (Formula.SPACE + element);
-                f = f.cdrAsFormula();
-            }
-            theNewFormula = (Formula.LP + theNewFormula.trim() + Formula.RP);
-            if (!StringUtil.emptyString(theNewFormula)) {
-                ans = new Formula();
-                ans.read(theNewFormula);
-            }
+        if (Formula.isCommutative(arg0)) {
+            if (!negate)
+                return mapArgs(t, NEGATIONS_IN);
+            Term[] newArgs = new Term[t.size()];
+            newArgs[0] = arg0.equals(Formula.AND) ? OR_T : AND_T;
+            for (int i = 1; i < newArgs.length; i++)
+                newArgs[i] = negationsIn(t.args[i], true);
+            return Term.list(newArgs);
         }
-        return ans;
-    }
-
-    /** ***************************************************************
-     *  convenience method
-     */
-    private static Formula listAll(Formula f, String before, String after) {  
-
-        Clausifier temp = new Clausifier(f.getFormula());
-        return temp.listAll(before,after);
+        if (Formula.isQuantifier(arg0)) {
+            Term quant = t.args[0];
+            if (negate)
+                quant = arg0.equals(Formula.UQUANT) ? EQUANT_T : UQUANT_T;
+            return Term.list(quant, t.arg(1), negationsIn(t.arg(2), negate));
+        }
+        Term ans = mapArgs(t, NEGATIONS_IN);
+        return negate ? Term.list(NOT_T, ans) : ans;
     }
 
     /** ***************************************************************
@@ -1037,9 +1210,9 @@ public class Clausifier  {
      */
     private Formula renameVariables() {
 
-        HashMap topLevelVars = new HashMap();
-        HashMap scopedRenames = new HashMap();
-        HashMap allRenames = new HashMap();
+        HashMap<String,String> topLevelVars = new HashMap<>();
+        HashMap<String,String> scopedRenames = new HashMap<>();
+        HashMap<String,String> allRenames = new HashMap<>();
         return renameVariables(topLevelVars, scopedRenames, allRenames);
     }
 
@@ -1055,7 +1228,8 @@ public class Clausifier  {
     /** ***************************************************************
      *  convenience method
      */
-    public static Formula renameVariables(Formula f, Map topLevelVars, Map scopedRenames, Map allRenames) {  
+    public static Formula renameVariables(Formula f, Map<String,String> topLevelVars,
+                                          Map<String,String> scopedRenames, Map<String,String> allRenames) {  
 
         Clausifier temp = new Clausifier(f.getFormula());
         return temp.renameVariables(topLevelVars,scopedRenames,allRenames);
@@ -1080,63 +1254,50 @@ public class Clausifier  {
      */
     private Formula renameVariables(Map<String,String> topLevelVars, Map<String,String> scopedRenames, Map<String,String> allRenames) {
 
-        if (thisFormula.listP()) {
-            if (thisFormula.empty()) { return thisFormula; }
-            String arg0 = thisFormula.car();
-            if (Formula.isQuantifier(arg0)) {          
+        return toFormula(renameVariables(thisTerm(), topLevelVars, scopedRenames, allRenames));
+    }
+
+    /** ***************************************************************
+     * @see renameVariables(Map topLevelVars, Map scopedRenames, Map allRenames)
+     */
+    private static Term renameVariables(Term t, Map<String,String> topLevelVars,
+                                        Map<String,String> scopedRenames, Map<String,String> allRenames) {
+
+        if (t.isList()) {
+            if (t.isEmptyList()) { return t; }
+            if (Formula.isQuantifier(t.head())) {
                 // Copy the scopedRenames map to protect variable scope as we descend below this quantifier.
                 Map<String,String> newScopedRenames = new HashMap<String,String>(scopedRenames);
-                String oldVars = thisFormula.cadr();
-                Formula oldVarsF = new Formula();
-                oldVarsF.read(oldVars);
-                String newVars = "";
-                while (oldVarsF != null && !oldVarsF.empty()) {
-                    String oldVar = oldVarsF.car();
+                Term oldVars = t.arg(1);
+                Term[] newVars = new Term[oldVars.size()];
+                for (int i = 0; i < newVars.length; i++) {
+                    String oldVar = oldVars.args[i].toString();
                     String newVar = newVar();
                     newScopedRenames.put(oldVar, newVar);
                     allRenames.put(newVar, oldVar);
-                    newVars += (Formula.SPACE + newVar);
-                    oldVarsF = oldVarsF.cdrAsFormula();
+                    newVars[i] = Term.atom(newVar);
                 }
-                newVars = (Formula.LP + newVars.trim() + Formula.RP);
-                String arg2 = thisFormula.caddr();
-                Formula arg2F = new Formula();
-                arg2F.read(arg2);
-                String newArg2 = Clausifier.renameVariables(arg2F,topLevelVars,newScopedRenames,
-                                                       allRenames).getFormula();
-                String theNewFormula = (Formula.LP + arg0 + Formula.SPACE + newVars + Formula.SPACE + newArg2 + Formula.RP);
-                Formula newF = new Formula();
-                newF.read(theNewFormula);
-                return newF;
+                Term newArg2 = renameVariables(t.arg(2), topLevelVars, newScopedRenames, allRenames);
+                return Term.list(t.args[0], Term.list(newVars), newArg2);
             }
-            Formula arg0F = new Formula();
-            arg0F.read(arg0);
-            String newArg0 = Clausifier.renameVariables(arg0F,topLevelVars,scopedRenames,
-                                                   allRenames).getFormula();
-            String newRest = Clausifier.renameVariables(thisFormula.cdrAsFormula(),topLevelVars,scopedRenames,
-                                                                 allRenames).getFormula();
-            Formula newRestF = new Formula();
-            newRestF.read(newRest);
-            String theNewFormula = newRestF.cons(newArg0).getFormula();
-            Formula newF = new Formula();
-            newF.read(theNewFormula);
-            return newF;
-        }
-        if (Formula.isVariable(thisFormula.getFormula())) {
-            String rnv = (String) scopedRenames.get(thisFormula.getFormula());
+            Term[] newArgs = new Term[t.args.length];
+            for (int i = 0; i < newArgs.length; i++)
+                newArgs[i] = renameVariables(t.args[i], topLevelVars, scopedRenames, allRenames);
+            return Term.list(newArgs);
+        }
+        if (t.isVariable()) {
+            String rnv = scopedRenames.get(t.atom);
             if (StringUtil.emptyString(rnv)) {
-                rnv = (String) topLevelVars.get(thisFormula.getFormula());
+                rnv = topLevelVars.get(t.atom);
                 if (StringUtil.emptyString(rnv)) {
                     rnv = newVar();
-                    topLevelVars.put(thisFormula.getFormula(), rnv);
-                    allRenames.put(rnv, thisFormula.getFormula());
+                    topLevelVars.put(t.atom, rnv);
+                    allRenames.put(rnv, t.atom);
                 }
             }
-            Formula newF = new Formula();
-            newF.read(rnv);
-            return newF;
+            return Term.atom(rnv);
         }
-        return thisFormula;
+        return t;
     }
 
     /** ***************************************************************
@@ -1147,44 +1308,47 @@ public class Clausifier  {
      * variables that potentially define the skolem term.  The set may
      * be empty.
      *
-     * @return A String.  The string will be a skolem functional term
+     * @return A Term.  The term will be a skolem functional term
      * (a list) if vars contains variables.  Otherwise, it will be an
      * atomic constant.
      */
-    private static String newSkolemTerm(TreeSet<String> vars) {
+    private static Term newSkolemTerm(TreeSet<String> vars) {
 
-        String ans = Formula.SK_PREF;
         int idx = incSkolemIndex();
         if ((vars != null) && !vars.isEmpty()) {
-//            ans += (Formula.FN_SUFF + Formula.SPACE + idx);
-            ans += (Formula.FN_SUFF + idx);
-            Iterator<String> it = vars.iterator();
-            while (it.hasNext()) {
-                String var = (String) it.next();
-                ans += (Formula.SPACE + var);
-            }
-            ans = (Formula.LP + ans + Formula.RP);
+            Term[] args = new Term[vars.size() + 1];
+            args[0] = Term.atom(Formula.SK_PREF + Formula.FN_SUFF + idx);
+            int i = 1;
+            for (String var : vars)
+                args[i++] = Term.atom(var);
+            return Term.list(args);
         }
-        else 
-            ans += idx;        
-        return ans;
+        return Term.atom(Formula.SK_PREF + idx);
     }      
 
     /** ***************************************************************
      * This method returns a new Formula in which all existentially
      * quantified variables have been replaced by Skolem terms.
      *
-     * @see existentialsOut(Map evSubs, TreeSet iUQVs, TreeSet scopedUQVs)
-     * @see collectIUQVars(TreeSet iuqvs, TreeSet scopedVars)
+     * @see existentialsOut(Term, Map evSubs, TreeSet iUQVs, TreeSet scopedUQVs)
+     * @see collectIUQVars(Term, TreeSet iuqvs, TreeSet scopedVars)
      *
      * @return A new SUO-KIF Formula without existentially quantified
      * variables.
      */
     private Formula existentialsOut() {
 
+        return toFormula(existentialsOut(thisTerm()));
+    }
+
+    /** ***************************************************************
+     * @see existentialsOut()
+     */
+    private static Term existentialsOut(Term t) {
+
         // Existentially quantified variable substitution pairs:
         // var -> skolem term.
-        Map<String,String> evSubs = new HashMap<String,String>();
+        Map<String,Term> evSubs = new HashMap<String,Term>();
 
         // Implicitly universally quantified variables.
         TreeSet<String> iUQVs = new TreeSet<String>();
@@ -1197,14 +1361,14 @@ public class Clausifier  {
 
         // Collect the implicitly universally qualified variables from
         // the Formula.
-        collectIUQVars(iUQVs, scopedVars);
+        collectIUQVars(t, iUQVs, scopedVars);
 
         // Do the recursive term replacement, and return the results.
-        return existentialsOut(evSubs, iUQVs, scopedUQVs);
+        return existentialsOut(t, evSubs, iUQVs, scopedUQVs);
     }
 
     /** ***************************************************************
-     * This method returns a new Formula in which all existentially
+     * This method returns a new Term in which all existentially
      * quantified variables have been replaced by Skolem terms.
      *
      * @see existentialsOut()
@@ -1218,82 +1382,47 @@ public class Clausifier  {
      * @param scopedUQVs A TreeSet of explicitly universally
      * quantified variables.
      *
-     * @return A new SUO-KIF Formula without existentially quantified
+     * @return A new Term without existentially quantified
      * variables.
      */
-    private Formula existentialsOut(Map<String,String> evSubs, TreeSet<String> iUQVs, TreeSet<String> scopedUQVs) {
-        
-        if (thisFormula.listP()) {
-            if (thisFormula.empty()) { return thisFormula; }
-            String arg0 = thisFormula.car();
-            if (arg0.equals(Formula.UQUANT)) {          
+    private static Term existentialsOut(Term t, Map<String,Term> evSubs, TreeSet<String> iUQVs,
+                                        TreeSet<String> scopedUQVs) {
+
+        if (t.isList()) {
+            if (t.isEmptyList()) { return t; }
+            String arg0 = t.head();
+            if (Formula.UQUANT.equals(arg0)) {
                 // Copy the scoped variables set to protect variable scope as we descend below this
                 // quantifier.
                 TreeSet<String> newScopedUQVs = new TreeSet<String>(scopedUQVs);
-                String varList = thisFormula.cadr();           
-                Formula varListF = new Formula();
-                varListF.read(varList);
-                while (!(varListF.empty())) {
-                    String var = varListF.car();
-                    newScopedUQVs.add(var);
-                    varListF.read(varListF.cdr());
-                }
-                String arg2 = thisFormula.caddr();
-                Formula arg2F = new Formula();
-                arg2F.read(arg2);
-                String theNewFormula = ("(forall " + varList + " " 
-                                        + existentialsOut(arg2F, evSubs, iUQVs, 
-                                                          newScopedUQVs).getFormula() + ")");
-                thisFormula.read(theNewFormula);
-                return thisFormula;
+                Term varList = t.arg(1);
+                for (int i = 0; i < varList.size(); i++)
+                    newScopedUQVs.add(varList.args[i].toString());
+                return Term.list(UQUANT_T, varList,
+                                 existentialsOut(t.arg(2), evSubs, iUQVs, newScopedUQVs));
             }
-            if (arg0.equals(Formula.EQUANT)) { 
+            if (Formula.EQUANT.equals(arg0)) {
                 // Collect the relevant universally quantified variables.
                 TreeSet<String> uQVs = new TreeSet<String>(iUQVs);
                 uQVs.addAll(scopedUQVs);
-                // Collect the existentially quantified variables.
-                ArrayList<String> eQVs = new ArrayList<String>();
-                String varList = thisFormula.cadr();           
-                Formula varListF = new Formula();
-                varListF.read(varList);
-                while (!(varListF.empty())) {
-                    String var = varListF.car();
-                    eQVs.add(var);
-                    varListF.read(varListF.cdr());
-                }           
                 // For each existentially quantified variable, create a corresponding skolem term, and
                 // store the pair in the evSubs map.
-                for (int i = 0; i < eQVs.size() ; i++) {
-                    String var = (String) eQVs.get(i);
-                    String skTerm = newSkolemTerm(uQVs);
-                    evSubs.put(var, skTerm);
-                }
-                String arg2 = thisFormula.caddr();
-                Formula arg2F = new Formula();
-                arg2F.read(arg2);
-                return existentialsOut(arg2F,evSubs, iUQVs, scopedUQVs);
+                Term varList = t.arg(1);
+                for (int i = 0; i < varList.size(); i++)
+                    evSubs.put(varList.args[i].toString(), newSkolemTerm(uQVs));
+                return existentialsOut(t.arg(2), evSubs, iUQVs, scopedUQVs);
             }
-            Formula arg0F = new Formula();
-            arg0F.read(arg0);
-            String newArg0 = existentialsOut(arg0F,evSubs,iUQVs,scopedUQVs).getFormula();
-            return existentialsOut(thisFormula.cdrAsFormula(),evSubs, iUQVs, scopedUQVs).cons(newArg0);
-        }
-        if (Formula.isVariable(thisFormula.getFormula())) {
-            String newTerm = (String) evSubs.get(thisFormula.getFormula());
-            if (!StringUtil.emptyString(newTerm)) 
-                thisFormula.read(newTerm);                
-            return thisFormula;
+            Term[] newArgs = new Term[t.args.length];
+            for (int i = 0; i < newArgs.length; i++)
+                newArgs[i] = existentialsOut(t.args[i], evSubs, iUQVs, scopedUQVs);
+            return Term.list(newArgs);
         }
-        return thisFormula;
-    }
-
-    /** ***************************************************************
-     *  convenience method
-     */
-    private static Formula existentialsOut(Formula f, Map evSubs, TreeSet iUQVs, TreeSet scopedUQVs) {  
-
-        Clausifier temp = new Clausifier(f.getFormula());
-        return temp.existentialsOut(evSubs, iUQVs, scopedUQVs);
+        if (t.isVariable()) {
+            Term newTerm = evSubs.get(t.atom);
+            if (newTerm != null)
+                return newTerm;
+        }
+        return t;
     }
 
     /** ***************************************************************
@@ -1309,47 +1438,24 @@ public class Clausifier  {
      *
      * @return void
      */
-    private void collectIUQVars(TreeSet iuqvs, TreeSet scopedVars) {
+    private static void collectIUQVars(Term t, TreeSet<String> iuqvs, TreeSet<String> scopedVars) {
 
-        if (thisFormula.listP() && !thisFormula.empty()) {
-            String arg0 = thisFormula.car();
-            if (Formula.isQuantifier(arg0)) {           
+        if (t.isList() && !t.isEmptyList()) {
+            if (Formula.isQuantifier(t.head())) {
                 // Copy the scopedVars set to protect variable  scope as we descend below this quantifier.
-                TreeSet newScopedVars = new TreeSet(scopedVars);
-
-                String varList = thisFormula.cadr();
-                Formula varListF = new Formula();
-                varListF.read(varList);
-                while (!(varListF.empty())) {
-                    String var = varListF.car();
-                    newScopedVars.add(var);
-                    varListF = varListF.cdrAsFormula();
-                }
-                String arg2 = thisFormula.caddr();
-                Formula arg2F = new Formula();
-                arg2F.read(arg2);
-                collectIUQVars(arg2F,iuqvs,newScopedVars);
+                TreeSet<String> newScopedVars = new TreeSet<String>(scopedVars);
+                Term varList = t.arg(1);
+                for (int i = 0; i < varList.size(); i++)
+                    newScopedVars.add(varList.args[i].toString());
+                collectIUQVars(t.arg(2), iuqvs, newScopedVars);
             }
             else {
-                Formula arg0F = new Formula();
-                arg0F.read(arg0);
-                collectIUQVars(arg0F,iuqvs,scopedVars);
-                collectIUQVars(thisFormula.cdrAsFormula(),iuqvs,scopedVars);
+                for (Term arg : t.args)
+                    collectIUQVars(arg, iuqvs, scopedVars);
             }
         }
-        else if (Formula.isVariable(thisFormula.getFormula())
-                 && !(scopedVars.contains(thisFormula.getFormula()))) {
-            iuqvs.add(thisFormula.getFormula());
-        }
-    }
-
-    /** ***************************************************************
-     *  convenience method
-     */
-    private static void collectIUQVars(Formula f, TreeSet iuqvs, TreeSet scopedVars) {  
-
-        Clausifier temp = new Clausifier(f.getFormula());
-        temp.collectIUQVars(iuqvs,scopedVars);
+        else if (t.isVariable() && !scopedVars.contains(t.atom))
+            iuqvs.add(t.atom);
     }
 
     /** ***************************************************************
@@ -1363,20 +1469,7 @@ public class Clausifier  {
      */
     private Formula universalsOut() {
 
-        if (thisFormula.listP()) {
-            if (thisFormula.empty()) { return thisFormula; }
-            String arg0 = thisFormula.car();
-            if (arg0.equals(Formula.UQUANT)) {
-                String arg2 = thisFormula.caddr();
-                thisFormula.read(arg2);
-                return universalsOut(thisFormula);
-            }
-            Formula arg0F = new Formula();
-            arg0F.read(arg0);
-            String newArg0 = universalsOut(arg0F).getFormula();
-            return universalsOut(thisFormula.cdrAsFormula()).cons(newArg0);
-        }
-        return thisFormula;
+        return toFormula(universalsOut(thisTerm()));
     }
 
     /** ***************************************************************
@@ -1389,7 +1482,19 @@ public class Clausifier  {
     }
 
     /** ***************************************************************
-     * This method returns a new Formula in which nested 'and', 'or',
+     * @see universalsOut()
+     */
+    private static Term universalsOut(Term t) {
+
+        if (!t.isList() || t.isEmptyList())
+            return t;
+        if (Formula.UQUANT.equals(t.head()))
+            return universalsOut(t.arg(2));
+        return mapArgs(t, UNIVERSALS_OUT);
+    }
+
+    /** ***************************************************************
+     * This method returns a new Term in which nested 'and', 'or',
      * and 'not' operators have been unnested:
      *
      * (not (not <literal> ...)) -> <literal>
@@ -1401,101 +1506,60 @@ public class Clausifier  {
      * @see clausify()
      * @see nestedOperatorsOut_1()
      *
-     * @return A new SUO-KIF Formula in which nested commutative
+     * @return A new Term in which nested commutative
      * operators and 'not' have been unnested.
      */
-    private Formula nestedOperatorsOut() {
+    private static Term nestedOperatorsOut(Term t) {
 
-        Formula f = thisFormula;
-        Formula ans = nestedOperatorsOut_1();
+        Term f = t;
+        Term ans = nestedOperatorsOut_1(t);
         // Here we repeatedly apply nestedOperatorsOut_1() until there are no
         // more changes.
-        while (!f.getFormula().equals(ans.getFormula())) {
-            //System.out.println();
-            //System.out.println("f.theFormula == " + f.theFormula);
-            //System.out.println("ans.theFormula == " + ans.theFormula + "\n");
+        while (!f.equals(ans)) {
             f = ans;
             ans = nestedOperatorsOut_1(f);
         }
         return ans;
     }
 
-    /** ***************************************************************
-     *  convenience method
-     */
-    private static Formula nestedOperatorsOut(Formula f) {  
-
-        Clausifier temp = new Clausifier(f.getFormula());
-        return temp.nestedOperatorsOut();
-    }
-
     /** ***************************************************************
      * @see clausify()
-     * @see nestedOperatorsOut_1()
-     *
-     * @return A new SUO-KIF Formula in which nested commutative
-     * operators and 'not' have been unnested.
-     */
-    private Formula nestedOperatorsOut_1() {
-
-        if (thisFormula.listP()) {
-            if (thisFormula.empty()) { return thisFormula; }
-            String arg0 = thisFormula.car();
-            if (Formula.isCommutative(arg0) || arg0.equals(Formula.NOT)) {
-                ArrayList literals = new ArrayList();
-                Formula restF = thisFormula.cdrAsFormula();
-                while (!(restF.empty())) {
-                    String lit = restF.car();
-                    Formula litF = new Formula();
-                    litF.read (lit);
-                    if (litF.listP()) {
-                        String litFarg0 = litF.car();
-                        if (litFarg0.equals(arg0)) {
-                            if (arg0.equals(Formula.NOT)) {
-                                String theNewFormula = litF.cadr();
-                                Formula newF = new Formula();
-                                newF.read(theNewFormula);
-                                return nestedOperatorsOut_1(newF);
-                            }
-                            Formula rest2F = litF.cdrAsFormula();
-                            while (!(rest2F.empty())) {
-                                String rest2arg0 = rest2F.car();
-                                Formula rest2arg0F = new Formula();
-                                rest2arg0F.read(rest2arg0);
-                                literals.add(nestedOperatorsOut_1(rest2arg0F).getFormula());
-                                rest2F = rest2F.cdrAsFormula();
-                            }
-                        }
-                        else 
-                            literals.add(nestedOperatorsOut_1(litF).getFormula());
+     * @see nestedOperatorsOut()
+     *
+     * @return A new Term in which nested commutative
+     * operators and 'not' have been unnested by one level.
+     */
+    private static Term nestedOperatorsOut_1(Term t) {
+
+        if (!t.isList() || t.isEmptyList())
+            return t;
+        String arg0 = t.head();
+        if (Formula.isCommutative(arg0) || Formula.NOT.equals(arg0)) {
+            ArrayList<Term> literals = new ArrayList<>(t.size());
+            literals.add(t.args[0]);
+            boolean changed = false;
+            for (int i = 1; i < t.size(); i++) {
+                Term lit = t.args[i];
+                if (lit.isList()) {
+                    if (arg0.equals(lit.head())) {
+                        if (arg0.equals(Formula.NOT))
+                            return nestedOperatorsOut_1(lit.arg(1));
+                        for (int j = 1; j < lit.size(); j++)
+                            literals.add(nestedOperatorsOut_1(lit.args[j]));
+                        changed = true;
+                    }
+                    else {
+                        Term newLit = nestedOperatorsOut_1(lit);
+                        changed = changed || (newLit != lit);
+                        literals.add(newLit);
                     }
-                    else 
-                        literals.add(lit);                        
-                    restF = restF.cdrAsFormula();
                 }
-                String theNewFormula = (Formula.LP + arg0);
-                for (int i = 0 ; i < literals.size() ; i++) 
-                    theNewFormula += (Formula.SPACE + (String)literals.get(i));                    
-                theNewFormula += Formula.RP;
-                Formula newF = new Formula();
-                newF.read(theNewFormula);
-                return newF;
+                else
+                    literals.add(lit);
             }
-            Formula arg0F = new Formula();
-            arg0F.read(arg0);
-            String newArg0 = nestedOperatorsOut_1(arg0F).getFormula();
-            return nestedOperatorsOut_1(thisFormula.cdrAsFormula()).cons(newArg0);
+            return changed ? Term.list(literals) : t;
         }
-        return thisFormula;
-    }
-
-    /** ***************************************************************
-     *  convenience method
-     */
-    private static Formula nestedOperatorsOut_1(Formula f) {  
-
-        Clausifier temp = new Clausifier(f.getFormula());
-        return temp.nestedOperatorsOut_1();
+        return mapArgs(t, NESTED_OPERATORS_OUT);
     }
 
     /** ***************************************************************
@@ -1512,134 +1576,249 @@ public class Clausifier  {
      */
     private Formula disjunctionsIn() {
 
-        Formula f = thisFormula;
-        Formula ans = disjunctionsIn_1(nestedOperatorsOut());
+        return toFormula(disjunctionsIn(thisTerm()));
+    }
+
+    /** ***************************************************************
+     * @see disjunctionsIn()
+     */
+    private static Term disjunctionsIn(Term t) {
+
+        t = nestedOperatorsOut(t);
+        if (maxDistributedClauses > 0 && clauseCount(t) > maxDistributedClauses) {
+            ArrayList<Term> defs = new ArrayList<>();
+            t = introduceDefinitions(t, defs, definitionPrefix(t));
+            if (!defs.isEmpty()) {
+                defs.add(0, t);
+                defs.add(0, AND_T);
+                t = nestedOperatorsOut(Term.list(defs));
+            }
+        }
+        Term f = t;
+        Term ans = disjunctionsIn_1(t);
         // Here we repeatedly apply disjunctionIn_1() until there are no more changes
-        while (! f.getFormula().equals(ans.getFormula())) {
+        while (!f.equals(ans)) {
             f = ans;
             ans = disjunctionsIn_1(nestedOperatorsOut(f));
         }
         return ans;
     }
- 
+
     /** ***************************************************************
      * @see clausify()
      * @see disjunctionsIn()
      *
-     * @return A new SUO-KIF Formula in which occurrences of 'or' have
-     * been 'moved in' as far as possible.
-     */
-    private Formula disjunctionsIn_1() {
-
-        if (thisFormula.listP()) {
-            if (thisFormula.empty()) { return thisFormula; }
-            String arg0 = thisFormula.car();
-            if (arg0.equals(Formula.OR)) {
-                List<String> disjuncts = new ArrayList<String>();
-                List<String> conjuncts = new ArrayList<String>();
-                Formula restF = thisFormula.cdrAsFormula();
-                while (!(restF.empty())) {
-                    String disjunct = restF.car();
-                    Formula disjunctF = new Formula();
-                    disjunctF.read(disjunct);
-                    if (disjunctF.listP() 
-                        && disjunctF.car().equals(Formula.AND) 
-                        && conjuncts.isEmpty()) {
-                        Formula rest2F = disjunctionsIn_1(disjunctF.cdrAsFormula());
-                        while (!(rest2F.empty())) {
-                            conjuncts.add(rest2F.car());
-                            rest2F = rest2F.cdrAsFormula();
-                        }
-                    }
-                    else 
-                        disjuncts.add(disjunct);                        
-                    restF = restF.cdrAsFormula();
+     * @return A new Term in which occurrences of 'or' have
+     * been 'moved in' by one step.
+     */
+    private static Term disjunctionsIn_1(Term t) {
+
+        if (!t.isList() || t.isEmptyList())
+            return t;
+        if (Formula.OR.equals(t.head())) {
+            List<Term> disjuncts = new ArrayList<Term>();
+            List<Term> conjuncts = new ArrayList<Term>();
+            for (int i = 1; i < t.size(); i++) {
+                Term disjunct = t.args[i];
+                if (Formula.AND.equals(disjunct.head()) && conjuncts.isEmpty()) {
+                    for (int j = 1; j < disjunct.size(); j++)
+                        conjuncts.add(disjunctionsIn_1(disjunct.args[j]));
                 }
+                else
+                    disjuncts.add(disjunct);
+            }
 
-                if (conjuncts.isEmpty()) { return thisFormula; }
-
-                Formula resultF = new Formula();
-                resultF.read("()");
-                String disjunctsString = "";
-                for (int i = 0; i < disjuncts.size() ; i++) 
-                    disjunctsString += (Formula.SPACE + (String)disjuncts.get(i));                    
-                disjunctsString = (Formula.LP + disjunctsString.trim() + Formula.RP);
-                Formula disjunctsF = new Formula();
-                disjunctsF.read(disjunctsString);
-                for (int ci = 0 ; ci < conjuncts.size() ; ci++) {
-                    String newDisjuncts = 
-                        disjunctionsIn_1(disjunctsF.cons((String)conjuncts.get(ci)).cons(Formula.OR)).getFormula();
-                    resultF = resultF.cons(newDisjuncts);
-                }
-                resultF = resultF.cons(Formula.AND);
-                return resultF;
+            if (conjuncts.isEmpty()) { return t; }
+
+            // the distributed disjunctions are collected in reverse order
+            int n = conjuncts.size();
+            Term[] result = new Term[n + 1];
+            result[0] = AND_T;
+            for (int ci = 0 ; ci < n ; ci++) {
+                Term[] newDisjuncts = new Term[disjuncts.size() + 2];
+                newDisjuncts[0] = OR_T;
+                newDisjuncts[1] = conjuncts.get(ci);
+                for (int i = 0; i < disjuncts.size(); i++)
+                    newDisjuncts[i + 2] = disjuncts.get(i);
+                result[n - ci] = disjunctionsIn_1(Term.list(newDisjuncts));
             }
-            Formula arg0F = new Formula();
-            arg0F.read(arg0);
-            String newArg0 = disjunctionsIn_1(arg0F).getFormula();
-            return disjunctionsIn_1(thisFormula.cdrAsFormula()).cons(newArg0);
+            return Term.list(result);
         }
-        return thisFormula;
+        return mapArgs(t, DISJUNCTIONS_IN);
     }
 
     /** ***************************************************************
-     *  convenience method
+     * @return the number of clauses that the Term would produce if
+     * 'or' were distributed over 'and' throughout, saturating at
+     * Long.MAX_VALUE
      */
-    private static Formula disjunctionsIn_1(Formula f) {  
+    private static long clauseCount(Term t) {
 
-        Clausifier temp = new Clausifier(f.getFormula());
-        return temp.disjunctionsIn_1();
+        String arg0 = t.head();
+        if (Formula.AND.equals(arg0)) {
+            long sum = 0;
+            for (int i = 1; i < t.size(); i++) {
+                sum += clauseCount(t.args[i]);
+                if (sum < 0) return Long.MAX_VALUE;
+            }
+            return sum;
+        }
+        if (Formula.OR.equals(arg0)) {
+            long product = 1;
+            for (int i = 1; i < t.size(); i++) {
+                long count = clauseCount(t.args[i]);
+                if (count != 0 && product > Long.MAX_VALUE / count) return Long.MAX_VALUE;
+                product *= count;
+            }
+            return product;
+        }
+        return 1;
+    }
+
+    /** ***************************************************************
+     * Replace subformulas of disjunctions whose distribution would
+     * create more than maxDistributedClauses clauses with new
+     * definitional literals, working bottom up and always replacing
+     * the disjunct that would contribute the most clauses.  For each
+     * replaced subformula F with variables ?V1 ... ?Vn a definition
+     * (or (not (DefPredK_N ?V1 ... ?Vn)) F) is added to defs.  Only
+     * this direction of the equivalence is needed since, after
+     * negations have been moved in, F only occurs positively.
+     *
+     * @param defs a List that collects the definitions
+     * @param prefix the name of the definitional predicates of the
+     *               formula, as definitionPrefix() returns it
+     *
+     * @return the Term with large subformulas replaced
+     */
+    private static Term introduceDefinitions(Term t, List<Term> defs, String prefix) {
+
+        String arg0 = t.head();
+        if (!Formula.AND.equals(arg0) && !Formula.OR.equals(arg0))
+            return t;
+        Term[] newArgs = t.args.clone();
+        for (int i = 1; i < newArgs.length; i++)
+            newArgs[i] = introduceDefinitions(newArgs[i], defs, prefix);
+        if (Formula.OR.equals(arg0)) {
+            long[] counts = new long[newArgs.length];
+            for (int i = 1; i < newArgs.length; i++)
+                counts[i] = clauseCount(newArgs[i]);
+            while (product(counts) > maxDistributedClauses) {
+                int largest = 0;
+                for (int i = 1; i < counts.length; i++)
+                    if (counts[i] > 1 && (largest == 0 || counts[i] > counts[largest]))
+                        largest = i;
+                if (largest == 0)
+                    break;
+                Term defLit = newDefinitionLiteral(newArgs[largest], prefix + (defs.size() + 1));
+                defs.add(Term.list(OR_T, Term.list(NOT_T, defLit), newArgs[largest]));
+                newArgs[largest] = defLit;
+                counts[largest] = 1;
+            }
+        }
+        return Term.list(newArgs);
+    }
+
+    /** ***************************************************************
+     * @return the saturated product of all but the first element
+     */
+    private static long product(long[] counts) {
+
+        long product = 1;
+        for (int i = 1; i < counts.length; i++) {
+            if (counts[i] != 0 && product > Long.MAX_VALUE / counts[i]) return Long.MAX_VALUE;
+            product *= counts[i];
+        }
+        return product;
+    }
+
+    /** ***************************************************************
+     * The definitional predicates of a formula are named DefPredK_N,
+     * where K is the index allocated to the formula, with its variables
+     * normalized, before any definitions are introduced, and N counts
+     * the definitions of that formula from 1.  So the names do not
+     * depend on how many definitions were made before, the same formula
+     * always gets the same names, and formulas that differ never share
+     * definitional predicates.
+     *
+     * @return the name of the definitional predicates of t, without N
+     */
+    private static String definitionPrefix(Term t) {
+
+        String key = normalizeVariables(t.toString());
+        synchronized (definitionIndexes) {
+            Integer index = definitionIndexes.get(key);
+            if (index == null) {
+                index = definitionIndexes.size() + 1;
+                definitionIndexes.put(key, index);
+            }
+            return DEF_PREF + index + "_";
+        }
+    }
+    /** ***************************************************************
+     * @return a new definitional literal with the given predicate over
+     * all the variables of t, in order of their first occurrence
+     */
+    private static Term newDefinitionLiteral(Term t, String pred) {
+
+        LinkedHashSet<String> vars = new LinkedHashSet<>();
+        collectVariables(t, vars);
+        if (vars.isEmpty())
+            return Term.atom(pred);
+        Term[] args = new Term[vars.size() + 1];
+        args[0] = Term.atom(pred);
+        int i = 1;
+        for (String var : vars)
+            args[i++] = Term.atom(var);
+        return Term.list(args);
+    }
+
+    /** ***************************************************************
+     */
+    private static void collectVariables(Term t, Set<String> vars) {
+
+        if (t.isList()) {
+            for (Term arg : t.args)
+                collectVariables(arg, vars);
+        }
+        else if (t.isVariable())
+            vars.add(t.atom);
     }
 
     /** ***************************************************************
      * This method returns an ArrayList of clauses.  Each clause is a
-     * LISP list (really, a Formula) containing one or more Formulas.
-     * The LISP list is assumed to be a disjunction, but there is no
-     * 'or' at the head.
+     * list of the literals in one disjunction, in the reverse of
+     * their order in the formula, which is the order in which earlier
+     * versions of this method returned them.
      *
      * @see clausify()
      *
-     * @return An ArrayList of LISP lists, each of which contains one
-     * or more Formulas.
+     * @return An ArrayList of clauses, each of which contains one
+     * or more literals.
      */
-    private ArrayList<Formula> operatorsOut() {
+    private static ArrayList<ArrayList<Term>> operatorsOut(Term t) {
 
-        ArrayList<Formula> result = new ArrayList<Formula>();
-        ArrayList<Formula> clauses = new ArrayList<Formula>();
-        if (!StringUtil.emptyString(thisFormula.getFormula())) {
-            if (thisFormula.listP()) {
-                String arg0 = thisFormula.car();
-                if (arg0.equals(Formula.AND)) {
-                    Formula restF = thisFormula.cdrAsFormula();
-                    while (!(restF.empty())) {
-                        String fStr = restF.car();
-                        Formula newF = new Formula();
-                        newF.read(fStr);
-                        clauses.add(newF);
-                        restF = restF.cdrAsFormula();
-                    }
-                }
-            }
-            if (clauses.isEmpty()) 
-                clauses.add(thisFormula);                
-            for (int i = 0 ; i < clauses.size() ; i++) {
-                Formula clauseF = new Formula();
-                clauseF.read("()");
-                Formula f = (Formula) clauses.get(i);
-                if (f.listP()) {
-                    if (f.car().equals(Formula.OR)) {
-                        f = f.cdrAsFormula();
-                        while (!(f.empty())) {
-                            String lit = f.car();
-                            clauseF = clauseF.cons(lit);
-                            f = f.cdrAsFormula();
-                        }
-                    }
-                }
-                if (clauseF.empty()) 
-                    clauseF = clauseF.cons(f.getFormula());
-                result.add(clauseF);
+        ArrayList<ArrayList<Term>> result = new ArrayList<>();
+        ArrayList<Term> clauses = new ArrayList<>();
+        if (!t.isList() && StringUtil.emptyString(t.atom))
+            return result;
+        if (Formula.AND.equals(t.head())) {
+            for (int i = 1; i < t.size(); i++)
+                clauses.add(t.args[i]);
+        }
+        if (clauses.isEmpty())
+            clauses.add(t);
+        for (Term f : clauses) {
+            ArrayList<Term> clause = new ArrayList<>();
+            if (Formula.OR.equals(f.head())) {
+                for (int i = f.size() - 1; i > 0; i--)
+                    clause.add(f.args[i]);
+                if (clause.isEmpty())
+                    clause.add(Term.list(Term.NO_ARGS));
             }
+            if (clause.isEmpty())
+                clause.add(f);
+            result.add(clause);
         }
         return result;
     }
@@ -1649,98 +1828,67 @@ public class Clausifier  {
      * clauses have been 'standardized apart'.
      *
      * @see clausify()
-     * @see standardizeApart(Map renameMap)
-     * @see standardizeApart_1(Map renames, Map reverseRenames)
+     * @see standardizeApart(Term, Map renameMap)
+     * @see standardizeApart_1(Term, Map renames, Map reverseRenames)
      *
      * @return A Formula.
      */
     private Formula standardizeApart() {
-        HashMap<String, String> reverseRenames = new HashMap<String, String>();
-        return standardizeApart(thisFormula,reverseRenames);
-    }
-
-    /** ***************************************************************
-     *  convenience method
-     */
-    private static Formula standardizeApart(Formula f, Map<String, String> renameMap) {  
 
-        Clausifier temp = new Clausifier(f.getFormula());
-        return temp.standardizeApart(renameMap);
+        HashMap<String, String> reverseRenames = new HashMap<String, String>();
+        return toFormula(standardizeApart(thisTerm(), reverseRenames));
     }
 
     /** ***************************************************************
-     * This method returns a Formula in which variables for separate
+     * This method returns a Term in which variables for separate
      * clauses have been 'standardized apart'.
      *
      * @see clausify()
      * @see standardizeApart()
-     * @see standardizeApart_1(Map renames, Map reverseRenames)
+     * @see standardizeApart_1(Term, Map renames, Map reverseRenames)
      *
      * @param renameMap A Map for capturing one-to-one variable rename
      * correspondences.  Keys are new variables.  Values are old
      * variables.
      *
-     * @return A Formula.
+     * @return A Term.
      */
-    private Formula standardizeApart(Map<String,String> renameMap) {
-       
-        Formula result = thisFormula;
-        Map<String,String> reverseRenames = null;
-        if (renameMap instanceof Map) 
-            reverseRenames = renameMap;            
-        else 
-            reverseRenames = new HashMap();            
-        // First, break the Formula into separate clauses, if necessary.
-        ArrayList<Formula> clauses = new ArrayList<Formula>();
-        if (!StringUtil.emptyString(thisFormula.getFormula())) {
-            if (thisFormula.listP()) {
-                String arg0 = thisFormula.car();
-                if (arg0.equals(Formula.AND)) {
-                    Formula restF = thisFormula.cdrAsFormula();
-                    while (!(restF.empty())) {
-                        String fStr = restF.car();
-                        Formula newF = new Formula();
-                        newF.read(fStr);
-                        clauses.add(newF);
-                        restF = restF.cdrAsFormula();
-                    }
-                }
-            }
-            if (clauses.isEmpty()) 
-                clauses.add(thisFormula);                
-            // 'Standardize apart' by renaming the variables in each clause.
-            int n = clauses.size();
-            for (int i = 0 ; i < n ; i++) {
-                HashMap<String, String> renames = new HashMap<String, String>();
-                Formula oldClause = (Formula) clauses.remove(0);
-                clauses.add(standardizeApart_1(oldClause,renames,reverseRenames));
-            }
+    private static Term standardizeApart(Term t, Map<String,String> renameMap) {
 
-            // Construct the new Formula to return.
-            if (n > 1) {
-                String theNewFormula = "(and";
-                for (int i = 0 ; i < n ; i++) {
-                    Formula f = (Formula) clauses.get(i);
-                    theNewFormula += (Formula.SPACE + f.getFormula());
-                }
-                theNewFormula += Formula.RP;
-                Formula newF = new Formula();
-                newF.read(theNewFormula);
-                result = newF;
-            }
-            else 
-                result = clauses.get(0);                
+        Map<String,String> reverseRenames = renameMap;
+        if (reverseRenames == null)
+            reverseRenames = new HashMap<>();
+        if (!t.isList() && StringUtil.emptyString(t.atom))
+            return t;
+        // First, break the Term into separate clauses, if necessary.
+        ArrayList<Term> clauses = new ArrayList<Term>();
+        if (Formula.AND.equals(t.head())) {
+            for (int i = 1; i < t.size(); i++)
+                clauses.add(t.args[i]);
         }
-        return result;
+        if (clauses.isEmpty())
+            clauses.add(t);
+        // 'Standardize apart' by renaming the variables in each clause.
+        int n = clauses.size();
+        for (int i = 0 ; i < n ; i++) {
+            HashMap<String, String> renames = new HashMap<String, String>();
+            clauses.set(i, standardizeApart_1(clauses.get(i), renames, reverseRenames));
+        }
+        // Construct the new Term to return.
+        if (n > 1) {
+            clauses.add(0, AND_T);
+            return Term.list(clauses);
+        }
+        return clauses.get(0);
     }
 
     /** ***************************************************************
      * This is a helper method for standardizeApart(renameMap).  It
-     * assumes that the Formula will be a single clause.
+     * assumes that the Term will be a single clause.
      *
      * @see clausify()
      * @see standardizeApart()
-     * @see standardizeApart(Map renameMap)
+     * @see standardizeApart(Term, Map renameMap)
      *
      * @param renames A Map of correspondences between old variables
      * and new variables.
@@ -1748,39 +1896,27 @@ public class Clausifier  {
      * @param reverseRenames A Map of correspondences between new
      * variables and old variables.
      *
-     * @return A Formula
+     * @return A Term
      */
-    private Formula standardizeApart_1(Map<String, String> renames, Map<String, String> reverseRenames) {
+    private static Term standardizeApart_1(Term t, Map<String, String> renames, Map<String, String> reverseRenames) {
 
-        Formula ans = thisFormula;
-        if (thisFormula.listP() && !(thisFormula.empty())) {
-            String arg0 = thisFormula.car();
-            Formula arg0F = new Formula();
-            arg0F.read(arg0);
-            arg0F = standardizeApart_1(arg0F,renames,reverseRenames);
-            ans = standardizeApart_1(thisFormula.cdrAsFormula(),renames,reverseRenames).cons(arg0F.getFormula());
+        if (t.isList()) {
+            if (t.isEmptyList()) { return t; }
+            Term[] newArgs = new Term[t.args.length];
+            for (int i = 0; i < newArgs.length; i++)
+                newArgs[i] = standardizeApart_1(t.args[i], renames, reverseRenames);
+            return Term.list(newArgs);
         }
-        else if (Formula.isVariable(thisFormula.getFormula())) {
-            String rnv = (String) renames.get(thisFormula.getFormula());
+        if (t.isVariable()) {
+            String rnv = renames.get(t.atom);
             if (StringUtil.emptyString(rnv)) {
                 rnv = newVar();
-                renames.put(thisFormula.getFormula(), rnv);
-                reverseRenames.put(rnv, thisFormula.getFormula());
+                renames.put(t.atom, rnv);
+                reverseRenames.put(rnv, t.atom);
             }
-            Formula rnvF = new Formula();
-            rnvF.read(rnv);
-            ans = rnvF;
+            return Term.atom(rnv);
         }
-        return ans;
-    }
-
-    /** ***************************************************************
-     *  convenience method
-     */
-    private static Formula standardizeApart_1(Formula f, Map<String, String> renames, Map<String, String> reverseRenames) {  
-
-        Clausifier temp = new Clausifier(f.getFormula());
-        return temp.standardizeApart_1(renames, reverseRenames);
+        return t;
     }
 
     /** ***************************************************************
@@ -1836,6 +1972,12 @@ public class Clausifier  {
      * removal of all commutative logical operators, and the result
      * would not be well-formed SUO-KIF.</p>
      *
+     * <p>If distributing disjunctions over conjunctions would produce
+     * more than maxDistributedClauses clauses, the offending
+     * subformulas are replaced by new DefPred literals and their
+     * definitions added as further clauses, so the result is then
+     * equisatisfiable with, rather than equivalent to, the input.</p>
+     *
      * @see clausifyWithRenameInfo()
      * @see toNegAndPosLitsWithRenameInfo()
      * @see toCanonicalClausalForm();
@@ -1845,17 +1987,13 @@ public class Clausifier  {
      */
     public Formula clausify() {
 
-        thisFormula = equivalencesOut();
-        thisFormula = implicationsOut();
-        thisFormula = negationsIn();
-        thisFormula = renameVariables();
-        thisFormula = existentialsOut();
-        thisFormula = universalsOut();
-        thisFormula = disjunctionsIn();
-        thisFormula = standardizeApart();
+        if (StringUtil.emptyString(thisFormula.getFormula()))
+            return thisFormula;
+        thisFormula = toFormula(clausifyTerm(new HashMap<String,String>()));
         return thisFormula;
     }
     
+    
     /** ***************************************************************
      * A test method.
      */
@@ -1194,8 +1194,9 @@ public class DB {
 
         //System.out.println("INFO in DB.getWordSenses()");
         ArrayList<String> result = new ArrayList<String>();
+        int[] context = WSD.contextVector(al);
         for (int i = 0; i < al.size(); i++) {
-            String term = WordNet.wn.getSUMOMapping(WSD.findWordSenseInContext(al.get(i),al));
+            String term = WordNet.wn.getSUMOMapping(WSD.findWordSenseInContext(al.get(i),context));
             if (!DB.emptyString(term))
                 result.add(term);
             else {
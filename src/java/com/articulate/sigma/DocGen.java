@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -36,6 +38,12 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.articulate.sigma.nlg.NLGUtils;
 import com.articulate.sigma.utils.AVPair;
@@ -81,6 +89,16 @@ public class DocGen {
      * for a set of HTML output files.
      */
     protected static String INDEX_FILE_NAME = "index.html";
+
+    /** *************************************************************
+     * The file in an output directory that holds the hash of what
+     * each term page was made from, so that a page whose inputs
+     * haven't changed since the last run is not rendered again.
+     */
+    protected static String PAGE_HASH_FILE_NAME = ".page-hashes";
+
+    /** The number of threads that render the term pages of generateHTML() */
+    public static int threads = Runtime.getRuntime().availableProcessors();
     protected int localCounter = 0;
     protected static final String DEFAULT_KEY = "docgen_default";
     protected static Hashtable DOC_GEN_INSTANCES = new Hashtable();
@@ -543,9 +561,10 @@ public class DocGen {
     }
 
     /** *************************************************************
-     * A Set of Strings.
+     * A Set of Strings, replaced as a whole once it is built so that
+     * page rendering threads see either nothing or the whole Set.
      */
-    protected Set codedIdentifiers = null;
+    protected volatile Set<String> codedIdentifiers = null;
 
     /** **************************************************************
      * Collects and returns the Set containing all known coded
@@ -557,25 +576,30 @@ public class DocGen {
      *  @return A Set of all the terms that denote ISO code values and
      *  other coded identifiers
      */
-    protected Set getCodedIdentifiers(KB kb) {
+    protected Set<String> getCodedIdentifiers(KB kb) {
 
         try {
-            if (codedIdentifiers == null) {
-                codedIdentifiers = new TreeSet();
-            }
-            if (codedIdentifiers.isEmpty()) {
-                Set codes = kb.kbCache.instanceOf.get("CodedIdentifier");
-                Set classNames = kb.kbCache.instanceOf.get("CodedIdentifier");
-                classNames.add("CodedIdentifier");
-                Object[] namesArr = classNames.toArray();
-                if (namesArr != null) {
-                    String className = null;
-                    for (int i = 0; i < namesArr.length; i++) {
-                        className = (String) namesArr[i];
-                        codes.addAll(kb.getTermsViaPredicateSubsumption("instance",2,className,1,false));
+            if ((codedIdentifiers == null) || codedIdentifiers.isEmpty()) {
+                synchronized (this) {
+                    if ((codedIdentifiers == null) || codedIdentifiers.isEmpty()) {
+                        // copies, since the sets of kbCache are shared
+                        Set<String> codes = new TreeSet<String>();
+                        Set<String> classNames = new TreeSet<String>();
+                        Set<String> cached = kb.kbCache.instanceOf.get("CodedIdentifier");
+                        if (cached != null) {
+                            codes.addAll(cached);
+                            classNames.addAll(cached);
+                        }
+                        classNames.add("CodedIdentifier");
+                        Object[] namesArr = classNames.toArray();
+                        String className = null;
+                        for (int i = 0; i < namesArr.length; i++) {
+                            className = (String) namesArr[i];
+                            codes.addAll(kb.getTermsViaPredicateSubsumption("instance",2,className,1,false));
+                        }
+                        codedIdentifiers = codes;
                     }
                 }
-                codedIdentifiers.addAll(codes);
             }
         }
         catch (Exception ex) {
@@ -749,12 +773,12 @@ public class DocGen {
      * parsing or rendering problems (e.g., apparently, in XSD files).
      *
      */
-    protected Map stringReplacementMap = null;
+    protected volatile Map<String,String> stringReplacementMap = null;
     /** *************************************************************
      * Sets the Map to be used for HTML character entity to ASCII 
      * replacements.
      */
-    public void setStringReplacementMap(Map keyValPairs) {
+    public void setStringReplacementMap(Map<String,String> keyValPairs) {
         this.stringReplacementMap = keyValPairs;
         return;
     }
@@ -765,31 +789,35 @@ public class DocGen {
      * docGenCodeMapTranslation statements found in the KB if the Map
      * does not already exist.
      */
-    public Map getStringReplacementMap() {
+    public Map<String,String> getStringReplacementMap() {
         try {
             if (stringReplacementMap == null) {
-                Map srMap = new HashMap();
-                KB kb = getKB();
-                if (kb != null) {
-                    List formulae = kb.ask("arg", 0, "docGenCodeMapTranslation");
-                    if (formulae != null) {
-                        Formula f = null;
-                        for (Iterator it = formulae.iterator(); it.hasNext();) {
-                            f = (Formula) it.next();
-                            srMap.put(StringUtil.removeEnclosingQuotes(f.getStringArgument(2)),
-                                      StringUtil.removeEnclosingQuotes(f.getStringArgument(4)));
+                synchronized (this) {
+                    if (stringReplacementMap == null) {
+                        Map<String,String> srMap = new HashMap<String,String>();
+                        KB kb = getKB();
+                        if (kb != null) {
+                            List formulae = kb.ask("arg", 0, "docGenCodeMapTranslation");
+                            if (formulae != null) {
+                                Formula f = null;
+                                for (Iterator it = formulae.iterator(); it.hasNext();) {
+                                    f = (Formula) it.next();
+                                    srMap.put(StringUtil.removeEnclosingQuotes(f.getStringArgument(2)),
+                                              StringUtil.removeEnclosingQuotes(f.getStringArgument(4)));
+                                }
+                            }
+                        }
+                        else {
+                            System.out.println("WARNING in DocGen.getStringReplacementMap()");
+                            System.out.println("  DocGen.defaultKB is not set");
                         }
+                        if (srMap.isEmpty()) {
+                            System.out.println("WARNING in DocGen.getStringReplacementMap()");
+                            System.out.println("  DocGen.stringReplacementMap is empty");
+                        }
+                        setStringReplacementMap(srMap);
                     }
                 }
-                else {
-                    System.out.println("WARNING in DocGen.getStringReplacementMap()");
-                    System.out.println("  DocGen.defaultKB is not set");
-                }
-                if (srMap.isEmpty()) {
-                    System.out.println("WARNING in DocGen.getStringReplacementMap()");
-                    System.out.println("  DocGen.stringReplacementMap is empty");
-                }
-                setStringReplacementMap(srMap);
             }
         }
         catch (Exception ex) {
@@ -825,7 +853,7 @@ public class DocGen {
     }
 
     /** A set of the predicates that should not be displayed to the user. */
-    protected Set inhibitDisplayRelations = null;
+    protected volatile Set<String> inhibitDisplayRelations = null;
 
     /** *************************************************************
      * Sets the predicates for which diplay should be suppressed to
@@ -834,7 +862,7 @@ public class DocGen {
      * @param relations A Set of predicate names
      *
      */
-    public void setInhibitDisplayRelations(Set relations) {
+    public void setInhibitDisplayRelations(Set<String> relations) {
         this.inhibitDisplayRelations = relations;
         return;
     }
@@ -847,24 +875,28 @@ public class DocGen {
      *
      * @return a Set of predicate names
      */
-    public Set getInhibitDisplayRelations() {
+    public Set<String> getInhibitDisplayRelations() {
 
         try {
             if (inhibitDisplayRelations == null) {
-                KB kb = getKB();
-                String ontology = getOntology();
-                Set idr = new TreeSet();
-                if ((kb != null) && StringUtil.isNonEmptyString(ontology)) {
-                    idr.addAll(kb.getTermsViaAskWithRestriction(0, 
-                                                                "docGenInhibitDisplayRelation", 
-                                                                1, 
-                                                                ontology,
-                                                                2));
-                }
-                setInhibitDisplayRelations(idr);
-                if (inhibitDisplayRelations.isEmpty()) {
-                    System.out.println("WARNING in DocGen.getInhibitDisplayRelations()");
-                    System.out.println("  DocGen.inihibitDisplayRelations is empty");
+                synchronized (this) {
+                    if (inhibitDisplayRelations == null) {
+                        KB kb = getKB();
+                        String ontology = getOntology();
+                        Set<String> idr = new TreeSet<String>();
+                        if ((kb != null) && StringUtil.isNonEmptyString(ontology)) {
+                            idr.addAll(kb.getTermsViaAskWithRestriction(0, 
+                                                                        "docGenInhibitDisplayRelation", 
+                                                                        1, 
+                                                                        ontology,
+                                                                        2));
+                        }
+                        setInhibitDisplayRelations(idr);
+                        if (inhibitDisplayRelations.isEmpty()) {
+                            System.out.println("WARNING in DocGen.getInhibitDisplayRelations()");
+                            System.out.println("  DocGen.inihibitDisplayRelations is empty");
+                        }
+                    }
                 }
             }
         }
@@ -953,7 +985,8 @@ public class DocGen {
 
     /** *************************************************************
      * A Map in which each key is a KB name and the corresponding
-     * value is a List of the Predicates defined in the KB.
+     * value is a List of the Predicates defined in the KB.  Accessed
+     * while holding the Map, since pages are rendered in parallel.
      */
     protected HashMap relationsByKB = new HashMap();
     public HashMap getRelationsByKB() {
@@ -1303,7 +1336,8 @@ public class DocGen {
         try {
             if (alphaList.isEmpty()) {
                 synchronized (alphaList) {
-                    createAlphaList(kb);
+                    if (alphaList.isEmpty())
+                        createAlphaList(kb);
                 }
             }
         }
@@ -1530,11 +1564,12 @@ public class DocGen {
             }
         }
         DisplayFilter df = new DisplayFilter() {
-                Map boolMap = new HashMap();
+                // filled by the threads of generateHTMLPages()
+                Map<String,String> boolMap = new ConcurrentHashMap<String,String>();
                 public boolean isLegalForDisplay(DocGen dg, String term) {
                     boolean ans = StringUtil.isNonEmptyString(term);
                     try {
-                        String boolStr = (String) boolMap.get(term);
+                        String boolStr = boolMap.get(term);
                         if (StringUtil.isNonEmptyString(boolStr)) {
                             ans = Boolean.parseBoolean(boolStr);
                         }
@@ -2184,9 +2219,53 @@ public class DocGen {
     }
 
     /** *************************************************************
-     * A List of currently known namespace prefixes.
+     * A List of currently known namespace prefixes.  This and
+     * namespaces are built into new Lists that then replace the old
+     * ones while holding namespaceLock, so that threads rendering
+     * pages never see a List that is being filled.
      */
-    protected ArrayList<String> namespacePrefixes = new ArrayList<String>();
+    protected volatile ArrayList<String> namespacePrefixes = new ArrayList<String>();
+
+    /** The lock held while namespaces and namespacePrefixes are built */
+    protected final Object namespaceLock = new Object();
+
+    /** *************************************************************
+     * @return the prefixes, made from each of namespaces followed by
+     * each known namespace delimiter, sorted by length from longest
+     * to shortest
+     */
+    private ArrayList<String> makeNamespacePrefixes(List<String> namespaces) {
+
+        Set<String> delims = new HashSet<String>(getAllNamespaceDelimiters());
+        delims.addAll(Arrays.asList(StringUtil.getKifNamespaceDelimiter(),
+                                    StringUtil.getW3cNamespaceDelimiter(),
+                                    StringUtil.getSafeNamespaceDelimiter()));
+        ArrayList<String> nsprefs = new ArrayList<String>();
+        for (String delim : delims) {
+            nsprefs.add("ns" + delim);
+        }
+        ArrayList<String> result = new ArrayList<String>();
+        String prefix = null;
+        int idx = -1;
+        for (String term : namespaces) {
+            prefix = term;
+            for (String nspref : nsprefs) {
+                if (term.startsWith(nspref)) {
+                    idx = nspref.length();
+                    if (idx < term.length()) {
+                        prefix = prefix.substring(idx);
+                        break;
+                    }
+                }
+            }
+            for (String delim : delims) {
+                result.add(prefix + delim);
+            }
+        }
+        if (result.size() > 1)
+            sortByTermLength(result);
+        return result;
+    }
 
     /** **************************************************************
      * Returns an ArrayList of all known namespace prefixes sorted by
@@ -2198,34 +2277,9 @@ public class DocGen {
 
         try {
             if (namespacePrefixes.isEmpty()) {
-                synchronized (namespacePrefixes) {
-                    Set<String> delims = new HashSet<String>(getAllNamespaceDelimiters());
-                    delims.addAll(Arrays.asList(StringUtil.getKifNamespaceDelimiter(),
-                                                StringUtil.getW3cNamespaceDelimiter(),
-                                                StringUtil.getSafeNamespaceDelimiter()));
-                    ArrayList<String> nsprefs = new ArrayList<String>();
-                    for (String delim : delims) {
-                        nsprefs.add("ns" + delim);
-                    }
-                    String prefix = null;
-                    int idx = -1;
-                    for (String term : getNamespaces()) {
-                        prefix = term;
-                        for (String nspref : nsprefs) {
-                            if (term.startsWith(nspref)) {
-                                idx = nspref.length();
-                                if (idx < term.length()) {
-                                    prefix = prefix.substring(idx);
-                                    break;
-                                }
-                            }
-                        }
-                        for (String delim : delims) {
-                            namespacePrefixes.add(prefix + delim);
-                        }
-                    }
-                    if (namespacePrefixes.size() > 1)
-                        sortByTermLength(namespacePrefixes);
+                synchronized (namespaceLock) {
+                    if (namespacePrefixes.isEmpty())
+                        namespacePrefixes = makeNamespacePrefixes(getNamespaces());
                     // System.out.println("");
                     // System.out.println("  namespacePrefixes == " + namespacePrefixes);
                     // System.out.println("");
@@ -2241,7 +2295,7 @@ public class DocGen {
     /** *************************************************************
      * A List of currently known namespaces.
      */
-    protected ArrayList<String> namespaces = new ArrayList<String>();
+    protected volatile ArrayList<String> namespaces = new ArrayList<String>();
                 
     /** **************************************************************
      * Returns a List of all SUO-KIF terms that denote namespaces in
@@ -2255,20 +2309,22 @@ public class DocGen {
     public ArrayList<String> getNamespaces() {
 
         try {
-            synchronized (namespaces) {
-                if (namespaces.isEmpty()) {
-                    HashSet<String> reduce = new HashSet<String>();
-                    KB kb = null;
-                    for (Iterator it = KBmanager.getMgr().kbs.values().iterator(); it.hasNext();) {
-                        kb = (KB) it.next();
-                        reduce.addAll(kb.getTermsViaAsk(0,"inNamespace",2));
-                        reduce.addAll(kb.getTermsViaAsk(0,"ontologyNamespace",2));
-                        reduce.addAll(kb.kbCache.instanceOf.get("Namespace"));
+            if (namespaces.isEmpty()) {
+                synchronized (namespaceLock) {
+                    if (namespaces.isEmpty()) {
+                        HashSet<String> reduce = new HashSet<String>();
+                        KB kb = null;
+                        for (Iterator it = KBmanager.getMgr().kbs.values().iterator(); it.hasNext();) {
+                            kb = (KB) it.next();
+                            reduce.addAll(kb.getTermsViaAsk(0,"inNamespace",2));
+                            reduce.addAll(kb.getTermsViaAsk(0,"ontologyNamespace",2));
+                            reduce.addAll(kb.kbCache.instanceOf.get("Namespace"));
+                        }
+                        ArrayList<String> ns = new ArrayList<String>(reduce);
+                        if (ns.size() > 1)
+                            sortByTermLength(ns);
+                        namespaces = ns;
                     }
-                    if (!reduce.isEmpty()) 
-                        namespaces.addAll(reduce);
-                    if (namespaces.size() > 1)
-                        sortByTermLength(namespaces);
                 }
             }
         }
@@ -2300,61 +2356,38 @@ public class DocGen {
     protected ArrayList<String> getNamespaces(KB kb, String ontology, boolean force) {
 
         try {
-            // if (StringUtil.isNonEmptyString(ontology)) {
-            synchronized (namespaces) {
-                if (namespaces.isEmpty() || force) {
-                    if (force) {
-                        namespaces.clear();
-                        namespacePrefixes.clear();
-                    }
-                    HashSet<String> reduce = new HashSet<String>();
-                    reduce.addAll(kb.getTermsViaAsk(0, "inNamespace", 2));
-                    if (StringUtil.emptyString(ontology)) {
-                        ontology = getOntology();
-                    }
-                    if (StringUtil.isNonEmptyString(ontology)) {
-                        reduce.addAll(getOntologyNamespaces(kb, ontology));
-                    }
-                    reduce.addAll(kb.kbCache.instanceOf.get("Namespace"));
-                    namespaces.addAll(reduce);
-                    if (namespaces.size() > 1)
-                        sortByTermLength(namespaces);
-                    if (!namespaces.isEmpty()) {
-                        Set<String> delims = new HashSet<String>(getAllNamespaceDelimiters());
-                        delims.addAll(Arrays.asList(StringUtil.getKifNamespaceDelimiter(), 
-                                                    StringUtil.getW3cNamespaceDelimiter(),
-                                                    StringUtil.getSafeNamespaceDelimiter()));
-                        ArrayList<String> nsprefs = new ArrayList<String>();
-                        for (String delim : delims) {
-                            nsprefs.add("ns" + delim);
+            if (namespaces.isEmpty() || force) {
+                synchronized (namespaceLock) {
+                    if (namespaces.isEmpty() || force) {
+                        HashSet<String> reduce = new HashSet<String>();
+                        reduce.addAll(kb.getTermsViaAsk(0, "inNamespace", 2));
+                        if (StringUtil.emptyString(ontology)) {
+                            ontology = getOntology();
                         }
-                        String prefix = null;
-                        int idx = -1;
-                        for (String term : namespaces) {
-                            prefix = term;
-                            for (String nspref : nsprefs) {
-                                if (term.startsWith(nspref)) {
-                                    idx = nspref.length();
-                                    if (idx < term.length()) {
-                                        prefix = prefix.substring(idx);
-                                        break;
-                                    }
-                                }
-                            }
-                            for (String delim : delims) {
-                                namespacePrefixes.add(prefix + delim);
-                            }
+                        if (StringUtil.isNonEmptyString(ontology)) {
+                            reduce.addAll(getOntologyNamespaces(kb, ontology));
                         }
-                        if (namespacePrefixes.size() > 1)
-                            sortByTermLength(namespacePrefixes);
+                        reduce.addAll(kb.kbCache.instanceOf.get("Namespace"));
+                        ArrayList<String> ns = new ArrayList<String>(reduce);
+                        if (ns.size() > 1)
+                            sortByTermLength(ns);
+                        ArrayList<String> prefixes = (force
+                                                      ? new ArrayList<String>()
+                                                      : new ArrayList<String>(namespacePrefixes));
+                        if (!ns.isEmpty()) {
+                            prefixes.addAll(makeNamespacePrefixes(ns));
+                            if (prefixes.size() > 1)
+                                sortByTermLength(prefixes);
+                        }
+                        namespaces = ns;
+                        namespacePrefixes = prefixes;
+                        // System.out.println("");
+                        // System.out.println("  namespaces == " + namespaces);
+                        // System.out.println("  namespacePrefixes == " + namespacePrefixes);
+                        // System.out.println("");
                     }
-                    // System.out.println("");
-                    // System.out.println("  namespaces == " + namespaces);
-                    // System.out.println("  namespacePrefixes == " + namespacePrefixes);
-                    // System.out.println("");
                 }
             }
-            // }
         }
         catch (Exception ex) {
             ex.printStackTrace();
@@ -2492,12 +2525,16 @@ public class DocGen {
 
         ArrayList cached = null;
         try {
-            cached = (ArrayList) getRelationsByKB().get(kb);
+            synchronized (getRelationsByKB()) {
+                cached = (ArrayList) getRelationsByKB().get(kb);
+            }
             if (cached == null) {
                 TreeSet predSet = new TreeSet();
-                Set classNames = kb.kbCache.instanceOf.get("Predicate");
+                Set<String> classNames = kb.kbCache.instanceOf.get("Predicate");
                 if (classNames == null)
                     return null;
+                // a copy, since the sets of kbCache are shared
+                classNames = new TreeSet<String>(classNames);
                 classNames.add("Predicate");
                 classNames.add("BinaryPredicate");
                 Iterator it = classNames.iterator();
@@ -2600,7 +2637,9 @@ public class DocGen {
                     }
                 }
                 cached = new ArrayList(predSet);
-                getRelationsByKB().put(kb, cached);
+                synchronized (getRelationsByKB()) {
+                    getRelationsByKB().put(kb, cached);
+                }
             }
         }
         catch (Exception ex) {
@@ -3908,7 +3947,8 @@ public class DocGen {
                         }
                     }
                 }
-                instances.addAll(kb.kbCache.instanceOf.get(term));
+                if (kb.kbCache.instanceOf.get(term) != null)
+                    instances.addAll(kb.kbCache.instanceOf.get(term));
                 Set instSet = new HashSet();
                 for (Iterator its = instances.iterator(); its.hasNext();) {
                     inst = (String) its.next();
@@ -5455,68 +5495,6 @@ public class DocGen {
         return;
     }
 
-    /** *************************************************************
-     *  Save pages below the KBs directory in a directory called
-     *  HTML.  If that already exists, use HTML1, HTML2 etc.
-     */
-    protected void printHTMLPages(TreeMap pageList, String dirpath) {
-
-        long t1 = System.currentTimeMillis();
-        System.out.println("ENTER DocGen.printHTMLPages("
-                           + "[map with " + pageList.size() + " entries], "
-                           + dirpath + ")");
-        FileWriter fw = null;
-        PrintWriter pw = null;
-        String term = null;
-        String page = null;
-        File outfile = null;
-        String filename = null;
-        try {
-            File outdir = new File(dirpath);
-            for (Iterator it = pageList.keySet().iterator(); it.hasNext();) {
-                term = (String) it.next();
-                page = (String) pageList.get(term);
-                outfile = new File(outdir, StringUtil.toSafeNamespaceDelimiter(term) + ".html");
-                filename = outfile.getCanonicalPath();
-                //System.out.println("Info in DocGen.printPages(): filename == " + filename);
-                try {
-                    pw = new PrintWriter(new FileWriter(filename));
-                    pw.println(page);
-                }
-                catch (Exception e) {
-                    System.out.println("ERROR in DocGen.printHTMLPages("
-                                       + "[map with " + pageList.keySet().size() + " keys], "
-                                       + dirpath + ")");
-                    System.out.println("Error writing file " 
-                                       + filename
-                                       + StringUtil.getLineSeparator() + ": "
-                                       + e.getMessage());
-                    e.printStackTrace();
-                }
-                finally {
-                    try {
-                        if (pw != null) {
-                            pw.close();
-                        }
-                    }
-                    catch (Exception e2) {
-                        e2.printStackTrace();
-                    }
-                }
-            }
-        }
-        catch (Exception oe) {
-            oe.printStackTrace();
-        }
-        System.out.println("EXIT DocGen.printHTMLPages("
-                           + "[map with " + pageList.size() + " entries], "
-                           + dirpath + ")");
-        System.out.println("  "
-                           + ((System.currentTimeMillis() - t1) / 1000.0)
-                           + " seconds elapsed time");
-        return;
-    }
-
     /** **************************************************************
      * Creates a subdirectory of SIGMA_HOME/files/, in which output
      * files of the type specified by token are saved.  token is also
@@ -5604,81 +5582,321 @@ public class DocGen {
     }
 
     /** *************************************************************
+     * The state shared by the threads of one run of
+     * generateHTMLPages()
+     */
+    private static class PageRun {
+
+        File outdir;
+        String language;
+        String formatToken;
+        TreeMap<?,?> alphaList;
+        // a hash of what every page shows, such as the index header
+        String siteHash;
+        TermIndex index;
+        Map<String,String> formats;
+        Map<String,String> termFormats;
+        // the input hash of each page in the last and in this run
+        Map<String,String> oldHashes;
+        Map<String,String> hashes = new ConcurrentHashMap<String,String>();
+        // see neighbourDigest()
+        Map<String,String> termDigests = new ConcurrentHashMap<String,String>();
+        AtomicInteger count = new AtomicInteger();
+        AtomicInteger rendered = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+    }
+
+    /** *************************************************************
+     * Render the page of each term that can be displayed and write it
+     * to dirpath as soon as it is ready, on a pool of threads (see
+     * threads), so that no more than one page per thread is held in
+     * memory.  Before a page is rendered, a hash of what it is made
+     * from is compared with the one in the PAGE_HASH_FILE_NAME file
+     * of an earlier run (see pageInputHash()), and if they are the
+     * same and the file is still there, the page is neither rendered
+     * nor written.
+     *
      * @param alphaList a TreeMap of TreeMaps of ArrayLists.  @see
      *                   createAlphaList()
+     * @return the number of pages written
      */
-    protected TreeMap generateHTMLPages(KB kb, 
-                                        TreeMap alphaList,
-                                        String language,
-                                        String formatToken) {
+    protected int generateHTMLPages(KB kb,
+                                    TreeMap alphaList,
+                                    String language,
+                                    String formatToken,
+                                    String dirpath) {
 
         long t1 = System.currentTimeMillis();
         System.out.println("ENTER DocGen.generateHTMLPages("
                            + kb.name + ", "
                            + "[map with " + alphaList.keySet().size() + " keys], "
-                           // + "[map with " + inverseHeadwordMap.keySet().size() + " keys], "
                            + language + ", "
-                           + formatToken + ")");
-        TreeMap pageList = new TreeMap();
-        TreeSet rejectedTerms = new TreeSet();
-        try {
-            String formattedTerm = null;
-            List termNames = null;
-            String realTermName = null;
-            int count = 0;
-            synchronized (kb.getTerms()) {
-                for (Iterator it = kb.getTerms().iterator();
-                     // inverseHeadwordMap.keySet().iterator(); 
-                     it.hasNext();) {
-                    // formattedTerm = (String) it.next();
-                    // termNames = (List) inverseHeadwordMap.get(formattedTerm);
-                    // for (Iterator tni = termNames.iterator(); tni.hasNext();) {
-                    // realTermName = (String) tni.next();
-                    realTermName = (String) it.next();
-                    if (isLegalForDisplay(realTermName)) {
-                        if (isComposite(kb, realTermName)) {
-                            pageList.put(realTermName,
-                                         createCompositePage(kb,
-                                                             "",
-                                                             realTermName,
-                                                             alphaList,
-                                                             200,
-                                                             language,
-                                                             formatToken));
-                        }
-                        else {
-                            pageList.put(realTermName,createPage(kb,
-                                                                 "",
-                                                                 realTermName,
-                                                                 alphaList,
-                                                                 200,
-                                                                 language,
-                                                                 formatToken));
-                        }
-                        if ((count++ % 100) == 1) System.out.print(".");
+                           + formatToken + ", "
+                           + dirpath + ")");
+        PageRun run = new PageRun();
+        run.outdir = new File(dirpath);
+        run.language = language;
+        run.formatToken = formatToken;
+        run.alphaList = alphaList;
+        run.oldHashes = readPageHashes(run.outdir);
+        run.index = kb.getTermIndex();
+        run.formats = kb.getFormatMap(language);
+        run.termFormats = kb.getTermFormatMap(language);
+        run.siteHash = pageHash(getClass().getName() + "\n"
+                                + language + "\n"
+                                + formatToken + "\n"
+                                + getOntology() + "\n"
+                                + getDefaultNamespace() + "\n"
+                                + getDefaultPredicateNamespace() + "\n"
+                                + getSimplified() + "\n"
+                                + generateTocHeader(kb, alphaList, INDEX_FILE_NAME) + "\n"
+                                + generateHtmlFooter(""));
+        ArrayList<String> terms = new ArrayList<String>();
+        int rejected = 0;
+        synchronized (kb.getTerms()) {
+            for (String term : kb.getTerms()) {
+                if (isLegalForDisplay(term))
+                    terms.add(term);
+                else
+                    rejected++;
+            }
+        }
+        if (threads < 2 || terms.size() < 2) {
+            for (String term : terms)
+                saveHTMLPage(kb, term, run);
+        }
+        else {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+                for (String term : terms)
+                    futures.add(pool.submit(() -> saveHTMLPage(kb, term, run)));
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        futures.get(i).get();
                     }
-                    else {
-                        rejectedTerms.add(realTermName);
+                    catch (InterruptedException | ExecutionException e) {
+                        System.out.println("Error in DocGen.generateHTMLPages(): page for "
+                                           + terms.get(i) + ": " + e.getMessage());
+                        e.printStackTrace();
                     }
-                    // }
                 }
-                System.out.println("x");
+            }
+            finally {
+                pool.shutdown();
             }
         }
-        catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        System.out.println("x");
+        savePageHashes(run.outdir, run.hashes);
         System.out.println("EXIT DocGen.generateHTMLPages("
                            + kb.name + ", "
                            + "[map with " + alphaList.keySet().size() + " keys], "
-                           // + "[map with " + inverseHeadwordMap.keySet().size() + " keys], "
                            + language + ", "
-                           + formatToken + ")");
-        System.out.println("  " + rejectedTerms.size() + " terms rejected");
+                           + formatToken + ", "
+                           + dirpath + ")");
+        System.out.println("  " + rejected + " terms rejected");
+        System.out.println("  " + run.rendered.get() + " of " + terms.size() + " pages rendered, "
+                           + run.written.get() + " written");
         System.out.println("  " 
                            + ((System.currentTimeMillis() - t1) / 1000.0)
                            + " seconds elapsed time");
-        return pageList;
+        return run.written.get();
+    }
+
+    /** *************************************************************
+     * Render the page of one term and write it to the output
+     * directory, unless its input hash is the same as in the last run
+     * and its file is still there.  Called from several threads at
+     * once by generateHTMLPages().
+     */
+    private void saveHTMLPage(KB kb, String term, PageRun run) {
+
+        if ((run.count.getAndIncrement() % 100) == 1) System.out.print(".");
+        File outfile = new File(run.outdir, StringUtil.toSafeNamespaceDelimiter(term) + ".html");
+        String hash = pageInputHash(kb, term, run);
+        if (hash.equals(run.oldHashes.get(term)) && outfile.exists()) {
+            run.hashes.put(term, hash);
+            return;
+        }
+        String page = null;
+        try {
+            if (isComposite(kb, term))
+                page = createCompositePage(kb, "", term, run.alphaList, 200, run.language, run.formatToken);
+            else
+                page = createPage(kb, "", term, run.alphaList, 200, run.language, run.formatToken);
+        }
+        catch (Exception e) {
+            System.out.println("Error in DocGen.saveHTMLPage(): rendering " + term + ": " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+        run.rendered.incrementAndGet();
+        try (PrintWriter pw = new PrintWriter(new FileWriter(outfile))) {
+            pw.println(page);
+            if (pw.checkError())
+                System.out.println("Error in DocGen.saveHTMLPage(): writing " + outfile);
+            else {
+                run.written.incrementAndGet();
+                run.hashes.put(term, hash);
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Error in DocGen.saveHTMLPage(): writing " + outfile + ": " + e.getMessage());
+        }
+    }
+
+    /** *************************************************************
+     * @return a hash of what the page of term is made from: the parts
+     * that every page shows, the formulas that mention term, the
+     * terms above and below it in the class hierarchy, and how each
+     * term those mention is shown (see neighbourDigest()).  A change
+     * to any formula that the page could show, or to how a term it
+     * links to is named or described, changes the hash.
+     */
+    private String pageInputHash(KB kb, String term, PageRun run) {
+
+        ArrayList<String> lines = new ArrayList<String>();
+        TreeSet<String> neighbours = new TreeSet<String>();
+        // building run.index filled the term cache that collectTerms()
+        // returns, so the threads only read it
+        for (Formula f : run.index.formulas(term)) {
+            lines.add(f.sourceFile + "\t" + f.getFormula());
+            Set<String> mentioned = f.collectTerms();
+            if (mentioned != null)
+                neighbours.addAll(mentioned);
+        }
+        Collections.sort(lines);
+        StringBuilder sb = new StringBuilder(run.siteHash);
+        for (String line : lines)
+            sb.append('\n').append(line);
+        for (Set<String> related : hierarchy(kb, term)) {
+            TreeSet<String> sorted = new TreeSet<String>(related);
+            sb.append('\n').append(sorted);
+            neighbours.addAll(sorted);
+        }
+        neighbours.add(term);
+        for (String n : neighbours) {
+            if (!n.startsWith("?") && !n.startsWith("@") && !n.startsWith("\""))
+                sb.append('\n').append(n).append('\t').append(neighbourDigest(kb, n, run));
+        }
+        return pageHash(sb.toString());
+    }
+
+    /** *************************************************************
+     * @return the classes that term is an instance of, the classes
+     * above and below it and its instances, from the caches of kb,
+     * leaving out those that are not there
+     */
+    private static List<Set<String>> hierarchy(KB kb, String term) {
+
+        ArrayList<Set<String>> result = new ArrayList<Set<String>>();
+        if (kb.kbCache == null)
+            return result;
+        Set<String> s = kb.kbCache.instanceOf.get(term);
+        if (s != null)
+            result.add(s);
+        s = kb.kbCache.getParentClasses(term);
+        if (s != null)
+            result.add(s);
+        s = kb.kbCache.getChildClasses(term);
+        if (s != null)
+            result.add(s);
+        s = kb.kbCache.instances.get(term);
+        if (s != null)
+            result.add(s);
+        return result;
+    }
+
+    /** *************************************************************
+     * @return a hash of what a page shows of a term that it links to:
+     * its format strings, the classes it is an instance of and the
+     * formulas with the term as first argument, such as its
+     * documentation.  Formulas that only use the term elsewhere, as
+     * the many that use a relation or a language do, are left out, so
+     * that a new statement does not change the hash of every page
+     * that links to its relation.  Computed once per term in a run,
+     * since a term is usually linked from many pages.
+     */
+    private String neighbourDigest(KB kb, String term, PageRun run) {
+
+        String result = run.termDigests.get(term);
+        if (result != null)
+            return result;
+        ArrayList<String> lines = new ArrayList<String>();
+        for (Formula f : kb.ask("arg", 1, term)) {
+            String pred = f.car();
+            if (!"format".equals(pred) && !"termFormat".equals(pred))
+                lines.add(f.sourceFile + "\t" + f.getFormula());
+        }
+        Collections.sort(lines);
+        StringBuilder sb = new StringBuilder();
+        sb.append(run.formats.get(term)).append('\n').append(run.termFormats.get(term));
+        for (String line : lines)
+            sb.append('\n').append(line);
+        Set<String> classes = (kb.kbCache == null) ? null : kb.kbCache.instanceOf.get(term);
+        if (classes != null)
+            sb.append('\n').append(new TreeSet<String>(classes));
+        result = pageHash(sb.toString());
+        run.termDigests.put(term, result);
+        return result;
+    }
+
+    /** *************************************************************
+     * @return a hex SHA-256 hash of the page
+     */
+    protected static String pageHash(String page) {
+
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] digest = md.digest(page.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return sb.toString();
+        }
+        catch (java.security.NoSuchAlgorithmException e) {
+            return Integer.toHexString(page.hashCode()) + "-" + page.length();
+        }
+    }
+
+    /** *************************************************************
+     * @return the page hashes of the last run into dir, with term
+     * keys, or an empty map if there are none
+     */
+    protected static Map<String,String> readPageHashes(File dir) {
+
+        HashMap<String,String> result = new HashMap<String,String>();
+        File f = new File(dir, PAGE_HASH_FILE_NAME);
+        if (!f.exists())
+            return result;
+        try (LineNumberReader lr = new LineNumberReader(new FileReader(f))) {
+            String line = null;
+            while ((line = lr.readLine()) != null) {
+                int tab = line.lastIndexOf('\t');
+                if (tab > 0)
+                    result.put(line.substring(0, tab), line.substring(tab + 1));
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Error in DocGen.readPageHashes(): reading " + f + ": " + e.getMessage());
+        }
+        return result;
+    }
+
+    /** *************************************************************
+     * Write the page hashes of this run into dir, one tab separated
+     * term and hash per line
+     */
+    protected static void savePageHashes(File dir, Map<String,String> hashes) {
+
+        File f = new File(dir, PAGE_HASH_FILE_NAME);
+        try (PrintWriter pw = new PrintWriter(new FileWriter(f))) {
+            for (String term : new TreeSet<String>(hashes.keySet()))
+                pw.println(term + "\t" + hashes.get(term));
+        }
+        catch (IOException e) {
+            System.out.println("Error in DocGen.savePageHashes(): writing " + f + ": " + e.getMessage());
+        }
     }
 
     /** *************************************************************
@@ -5737,13 +5955,8 @@ public class DocGen {
             // System.out.println("  INFO in DocGen.generateHTML(): saving index pages");
             saveIndexPages(kb, alphaList, dir, context);
             // System.out.println("  INFO in DocGen.generateHTML(): generating HTML pages");
-            // Keys are formatted term names, values are HTML pages
-            TreeMap pageList = generateHTMLPages(kb, 
-                                                 alphaList, 
-                                                 // inverseHeadwordMap, 
-                                                 context, 
-                                                 formatToken);
-            printHTMLPages(pageList, dir);
+            // each page is written to dir as it is rendered
+            generateHTMLPages(kb, alphaList, context, formatToken, dir);
             // System.out.println("  INFO in DocGen.generateHTML(): creating single index page");
             generateSingleHTML(kb, dir, alphaList, context, simplified);
         }
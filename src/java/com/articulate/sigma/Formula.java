@@ -131,11 +131,12 @@ public class Formula implements Comparable, Serializable {
     public long endFilePosition = -1L;
     
     // An ArrayList of String messages with a message that has a reserved character of ':' 
-    // dividing the message from a formula or term that will be hyperlinked and formmated
-	public TreeSet<String> errors = new TreeSet<String>();
+    // dividing the message from a formula or term that will be hyperlinked and formmated.
+    // null until the first error, see getErrors()
+	public TreeSet<String> errors = null;
 
-    /** Warnings found during execution. */
-    public TreeSet<String> warnings = new TreeSet<String>();
+    /** Warnings found during execution, null until the first warning. */
+    public TreeSet<String> warnings = null;
 
     /** The formula in textual forms. */
     private String theFormula;
@@ -152,9 +153,9 @@ public class Formula implements Comparable, Serializable {
     public boolean isGround = true; // assume true unless a variable is found during parsing
     public String relation = null;
 
-    public ArrayList<String> stringArgs = new ArrayList<>(); // cached - only in the case of a simpleClause
+    public ArrayList<String> stringArgs = null; // cached - only in the case of a simpleClause
 
-    public ArrayList<Formula> args = new ArrayList<>();
+    public ArrayList<Formula> args = null; // cached, null until an argument is requested
 
     public String getSourceFile() {
         return this.sourceFile;
@@ -163,43 +164,65 @@ public class Formula implements Comparable, Serializable {
     public void setSourceFile(String filename) { this.sourceFile = filename; }
 
 	public TreeSet<String> getErrors() {
+        if (errors == null)
+            errors = new TreeSet<String>();
 		return this.errors;
 	}
 
-	public static boolean debug = false;
-
-    // caches of frequently computed sets of variables in the formula
-    public HashSet<String> allVarsCache = new HashSet<>();
-
-    /* an ArrayList
-     * containing a pair of ArrayLists.  The first contains all
-     * explicitly quantified variables in the Formula.  The second
-     * contains all variables in Formula that are not within the scope
-     * of some explicit quantifier. */
-    public ArrayList<HashSet<String>> allVarsPairCache = new ArrayList<HashSet<String>>();
+    /** ***************************************************************
+     */
+    public TreeSet<String> getWarnings() {
+        if (warnings == null)
+            warnings = new TreeSet<String>();
+        return this.warnings;
+    }
 
-    public HashSet<String> quantVarsCache = new HashSet<>();
-    public HashSet<String> unquantVarsCache = new HashSet<>();
-    public HashSet<String> existVarsCache = new HashSet<>();
-    public HashSet<String> univVarsCache = new HashSet<>();
-    public HashSet<String> termCache = new HashSet<>();
+	public static boolean debug = false;
 
     public HashSet<String> predVarCache = null; // null if not set, empty if no pred vars
     public HashSet<String> rowVarCache = null; // null if not set, empty if no row vars
 
-    // includes the leading '?'.  Does not include row variables
-    public HashMap<String,HashSet<String>> varTypeCache = new HashMap<>();
-
     /** ***************************************************************
-     * A list of TPTP formulas (Strings) that together constitute the
-     * translation of theFormula.  This member is a Set, because
-     * predicate variable instantiation and row variable expansion
-     * might cause theFormula to expand to several TPTP formulas.
+     * The caches of values computed from a formula, and its translations.
+     * Most formulas, especially on a server that is only browsed, never
+     * need most of them, so they are kept here rather than in the Formula,
+     * and both this object and each of its members are only allocated
+     * when first used.  clearCaches() drops them all.
      */
-    public HashSet<String> theTptpFormulas = new HashSet<>();
+    public static class Caches implements Serializable {
+
+        private static final long serialVersionUID = 1L;
 
-    //any extra sort signatures not computed in advance
-    public HashSet<String> tffSorts = new HashSet<>();
+        // caches of frequently computed sets of variables in the formula
+        public HashSet<String> allVarsCache = null;
+
+        /* an ArrayList
+         * containing a pair of ArrayLists.  The first contains all
+         * explicitly quantified variables in the Formula.  The second
+         * contains all variables in Formula that are not within the scope
+         * of some explicit quantifier. */
+        public ArrayList<HashSet<String>> allVarsPairCache = null;
+
+        public HashSet<String> quantVarsCache = null;
+        public HashSet<String> unquantVarsCache = null;
+        public HashSet<String> existVarsCache = null;
+        public HashSet<String> univVarsCache = null;
+        public HashSet<String> termCache = null;
+
+        // includes the leading '?'.  Does not include row variables
+        public HashMap<String,HashSet<String>> varTypeCache = null;
+
+        /** A list of TPTP formulas (Strings) that together constitute the
+         * translation of theFormula.  This member is a Set, because
+         * predicate variable instantiation and row variable expansion
+         * might cause theFormula to expand to several TPTP formulas. */
+        public HashSet<String> theTptpFormulas = null;
+
+        //any extra sort signatures not computed in advance
+        public HashSet<String> tffSorts = null;
+    }
+
+    private Caches caches = null;
 
     /** *****************************************************************
      * A list of clausal (resolution) forms generated from this
@@ -221,12 +244,24 @@ public class Formula implements Comparable, Serializable {
 		this.comment = f.comment;
 		if (f.higherOrder)
 		    this.higherOrder = true;
-        this.allVarsPairCache.addAll(f.allVarsPairCache);
-        this.quantVarsCache.addAll(f.quantVarsCache);
-        this.unquantVarsCache.addAll(f.unquantVarsCache);
-        this.existVarsCache.addAll(f.existVarsCache);
-        this.univVarsCache.addAll(f.univVarsCache);
-        this.termCache.addAll(f.termCache);
+        if (f.caches != null) {
+            Caches c = f.caches;
+            caches = new Caches();
+            if (c.allVarsPairCache != null)
+                caches.allVarsPairCache = new ArrayList<>(c.allVarsPairCache);
+            if (c.quantVarsCache != null)
+                caches.quantVarsCache = new HashSet<>(c.quantVarsCache);
+            if (c.unquantVarsCache != null)
+                caches.unquantVarsCache = new HashSet<>(c.unquantVarsCache);
+            if (c.existVarsCache != null)
+                caches.existVarsCache = new HashSet<>(c.existVarsCache);
+            if (c.univVarsCache != null)
+                caches.univVarsCache = new HashSet<>(c.univVarsCache);
+            if (c.termCache != null)
+                caches.termCache = new HashSet<>(c.termCache);
+            if (c.varTypeCache != null)
+                caches.varTypeCache = new HashMap<>(c.varTypeCache);
+        }
         if (f.predVarCache != null) {
             this.predVarCache = new HashSet<>();
             this.predVarCache.addAll(f.predVarCache);
@@ -235,7 +270,6 @@ public class Formula implements Comparable, Serializable {
             this.rowVarCache = new HashSet<>();
             this.rowVarCache.addAll(f.rowVarCache);
         }
-        this.varTypeCache.putAll(f.varTypeCache);
         this.isGround = f.isGround;
 	}
 	
@@ -280,19 +314,156 @@ public class Formula implements Comparable, Serializable {
      */
     public void printCaches() {
 
+        Caches c = caches == null ? new Caches() : caches;
         System.out.println("Formula: " + this);
-        System.out.println("all vars: " + allVarsCache);
-        System.out.println("all vars pair: " + allVarsPairCache);
-        System.out.println("quant vars: " + quantVarsCache);
-        System.out.println("unquant vars: " + unquantVarsCache);
-        System.out.println("exist vars: " + existVarsCache);
-        System.out.println("univ vars: " + univVarsCache);
-        System.out.println("terms: " + termCache);
+        System.out.println("all vars: " + c.allVarsCache);
+        System.out.println("all vars pair: " + c.allVarsPairCache);
+        System.out.println("quant vars: " + c.quantVarsCache);
+        System.out.println("unquant vars: " + c.unquantVarsCache);
+        System.out.println("exist vars: " + c.existVarsCache);
+        System.out.println("univ vars: " + c.univVarsCache);
+        System.out.println("terms: " + c.termCache);
 
         System.out.println("pred vars: " + predVarCache);
         System.out.println("row vars: " + rowVarCache);
     }
 
+    /** *****************************************************************
+     */
+    private Caches caches() {
+
+        if (caches == null)
+            caches = new Caches();
+        return caches;
+    }
+
+    /** *****************************************************************
+     * Drop all the cached values and translations of this formula, such
+     * as after it has been exported.  They are recomputed as needed.
+     */
+    public void clearCaches() {
+
+        caches = null;
+        args = null;
+        stringArgs = null;
+    }
+
+    /** *****************************************************************
+     * Drop the cached values of this formula as clearCaches() does, but
+     * keep its TPTP translation, which the browser shows and which can
+     * only be recomputed by translating the whole KB again
+     */
+    public void clearCachesExceptTptp() {
+
+        HashSet<String> tptp = (caches == null) ? null : caches.theTptpFormulas;
+        clearCaches();
+        if (tptp != null && !tptp.isEmpty())
+            caches().theTptpFormulas = tptp;
+    }
+
+    /** *****************************************************************
+     * @return whether any caches or translations have been allocated
+     */
+    public boolean hasCaches() {
+
+        return caches != null || args != null || stringArgs != null;
+    }
+
+    /** *****************************************************************
+     * The terms in the formula, as filled by collectTerms() and the parser
+     */
+    public HashSet<String> getTermCache() {
+
+        Caches c = caches();
+        if (c.termCache == null)
+            c.termCache = new HashSet<>();
+        return c.termCache;
+    }
+
+    /** *****************************************************************
+     * The types of the variables in the formula, which includes the
+     * leading '?'.  Does not include row variables.
+     */
+    public HashMap<String,HashSet<String>> getVarTypeCache() {
+
+        Caches c = caches();
+        if (c.varTypeCache == null)
+            c.varTypeCache = new HashMap<>();
+        return c.varTypeCache;
+    }
+
+    /** *****************************************************************
+     * The same as getVarTypeCache() for a reader, which gets an empty map
+     * rather than allocating one if there is none
+     */
+    public Map<String,HashSet<String>> peekVarTypeCache() {
+
+        if (caches == null || caches.varTypeCache == null)
+            return Collections.emptyMap();
+        return caches.varTypeCache;
+    }
+
+    /** *****************************************************************
+     */
+    public void setVarTypeCache(HashMap<String,HashSet<String>> types) {
+
+        caches().varTypeCache = types;
+    }
+
+    /** *****************************************************************
+     * The TPTP formulas that together constitute the translation of
+     * this formula, of which there may be several because of predicate
+     * variable instantiation and row variable expansion.
+     */
+    public HashSet<String> getTheTptpFormulas() {
+
+        Caches c = caches();
+        if (c.theTptpFormulas == null)
+            c.theTptpFormulas = new HashSet<>();
+        return c.theTptpFormulas;
+    }
+
+    /** *****************************************************************
+     * The same as getTheTptpFormulas() for a reader, such as a browser
+     * page, which gets an empty set rather than allocating one if the
+     * formula has not been translated
+     */
+    public Set<String> peekTheTptpFormulas() {
+
+        if (caches == null || caches.theTptpFormulas == null)
+            return Collections.emptySet();
+        return caches.theTptpFormulas;
+    }
+
+    /** *****************************************************************
+     */
+    public void setTheTptpFormulas(HashSet<String> tptp) {
+
+        caches().theTptpFormulas = tptp;
+    }
+
+    /** *****************************************************************
+     * Any extra TFF sort signatures not computed in advance
+     */
+    public HashSet<String> getTffSorts() {
+
+        Caches c = caches();
+        if (c.tffSorts == null)
+            c.tffSorts = new HashSet<>();
+        return c.tffSorts;
+    }
+
+    /** *****************************************************************
+     * The same as getTffSorts() for a reader, which gets an empty set
+     * rather than allocating one if there are none
+     */
+    public Set<String> peekTffSorts() {
+
+        if (caches == null || caches.tffSorts == null)
+            return Collections.emptySet();
+        return caches.tffSorts;
+    }
+
     /** ***************************************************************
      * Returns a List of the clauses that together constitute the
      * resolution form of this Formula.  The list could be empty if
@@ -363,11 +534,7 @@ public class Formula implements Comparable, Serializable {
      */
     public HashMap<String,HashSet<String>> getVarTypes(KB kb) {
 
-        if (varTypeCache != null)
-            return varTypeCache;
-        FormulaPreprocessor fp = new FormulaPreprocessor();
-        varTypeCache = fp.computeVariableTypes(this,kb);
-        return varTypeCache;
+        return getVarTypeCache();
     }
 
     /** ***************************************************************
@@ -394,15 +561,17 @@ public class Formula implements Comparable, Serializable {
     public void read(String s) {
 
         theFormula = s;
-        allVarsCache = new HashSet<>();
-        allVarsPairCache = new ArrayList<HashSet<String>>();
-        quantVarsCache = new HashSet<>();
-        unquantVarsCache = new HashSet<>();
-        existVarsCache = new HashSet<>();
-        univVarsCache = new HashSet<>();
-        termCache = new HashSet<>();
-        args = new ArrayList<>();
-        stringArgs = new ArrayList<>();
+        if (caches != null) {
+            caches.allVarsCache = null;
+            caches.allVarsPairCache = null;
+            caches.quantVarsCache = null;
+            caches.unquantVarsCache = null;
+            caches.existVarsCache = null;
+            caches.univVarsCache = null;
+            caches.termCache = null;
+        }
+        args = null;
+        stringArgs = null;
     }
 
     /** ***************************************************************
@@ -923,14 +1092,14 @@ public class Formula implements Comparable, Serializable {
         if (pred.equals(AND) || pred.equals(OR)) {
             if (argCount < 2) {            	
                 String errString = "Too few arguments for 'and' or 'or' at " + location + ": " + f.toString();
-                errors.add(errString);
+                getErrors().add(errString);
                 return errString;
             }
         }
         else if (pred.equals(UQUANT) || pred.equals(EQUANT)) {
             if (argCount != 2) {
                 String errString = "Wrong number of arguments for quantifer at " + location + ": " + f.toString();
-                errors.add(errString);
+                getErrors().add(errString);
                 return errString;
             }
             else {
@@ -938,7 +1107,7 @@ public class Formula implements Comparable, Serializable {
                 quantF.read(rest);
                 if (!listP(quantF.car())) {
                     String errString = "No var list for quantifier at " + location + ": " + f.toString();
-                    errors.add(errString);
+                    getErrors().add(errString);
                     return errString;
                 }
             }
@@ -946,14 +1115,14 @@ public class Formula implements Comparable, Serializable {
         else if (pred.equals(IFF) || pred.equals(IF)) {
             if (argCount != 2) {
                 String errString = "Wrong number of arguments for '<=>' or '=>' at " + location + ": " + f.toString();
-                errors.add(errString);
+                getErrors().add(errString);
                 return errString;
             }
         }
         else if (pred.equals(EQUAL)) {
             if (argCount != 2) {
                 String errString = "Wrong number of arguments for 'equals' at " + location + ": " + f.toString();
-                errors.add(errString);
+                getErrors().add(errString);
                 return errString;
             }
         }
@@ -961,7 +1130,7 @@ public class Formula implements Comparable, Serializable {
             //System.out.println("info in KIF.parse(): pred: " + pred);
             //System.out.println("info in KIF.parse(): " + this);
 			String errString = "Maybe too many arguments at " + location + ": " + f.toString();
-            errors.add(errString);
+            getErrors().add(errString);
             return errString;        
         }
         return "";
@@ -1591,6 +1760,8 @@ public class Formula implements Comparable, Serializable {
         if (debug) System.out.println("Formula.argumentsToArrayList(): stringArgs: " + stringArgs);
         ArrayList<String> result = new ArrayList<>();
         if (args != null && args.size() > 0) {
+            if (stringArgs == null)
+                stringArgs = new ArrayList<>();
             if (start == 0)
                 return stringArgs;
             if (start > stringArgs.size()) {
@@ -1707,11 +1878,15 @@ public class Formula implements Comparable, Serializable {
      */
     public ArrayList<HashSet<String>> collectVariables() {
 
-        if (allVarsPairCache.size() > 0 && KBmanager.initialized)
-            return allVarsPairCache;
+        Caches c = caches();
+        if (c.allVarsPairCache != null && c.allVarsPairCache.size() > 0 && KBmanager.initialized)
+            return c.allVarsPairCache;
         ArrayList<HashSet<String>> ans = new ArrayList<HashSet<String>>();
         ans.add(new HashSet());
         ans.add(new HashSet());
+        if (c.allVarsPairCache == null)
+            c.allVarsPairCache = new ArrayList<HashSet<String>>();
+        ArrayList<HashSet<String>> allVarsPairCache = c.allVarsPairCache;
         allVarsPairCache.add(new HashSet());
         allVarsPairCache.add(new HashSet());
     	HashSet<String> quantified = new HashSet<String>();
@@ -1825,8 +2000,8 @@ public class Formula implements Comparable, Serializable {
      */
     public Set<String> collectAllVariables() {
 
-        if (allVarsCache.size() > 0)
-            return allVarsCache;
+        if (caches != null && caches.allVarsCache != null && caches.allVarsCache.size() > 0)
+            return caches.allVarsCache;
     	//ArrayList<String> result = new ArrayList<String>();
     	HashSet<String> resultSet = new HashSet<String>();
     	if (listLength() < 1)
@@ -1848,10 +2023,22 @@ public class Formula implements Comparable, Serializable {
     			resultSet.addAll(fcdr.collectAllVariables());
     	}
     	//result.addAll(resultSet);
-        allVarsCache.addAll(resultSet);
+        addAllVars(resultSet);
     	return resultSet;
     }
 
+    /** ***************************************************************
+     */
+    private void addAllVars(Collection<String> vars) {
+
+        if (vars.isEmpty())
+            return;
+        Caches c = caches();
+        if (c.allVarsCache == null)
+            c.allVarsCache = new HashSet<>();
+        c.allVarsCache.addAll(vars);
+    }
+
     /** ***************************************************************
      * Collects all variables in this Formula in lexical order.  Returns an ArrayList
      * of String variable names (with initial '?'). Note that unlike
@@ -1883,7 +2070,7 @@ public class Formula implements Comparable, Serializable {
             if (fcdr.listP())
                 result.addAll(fcdr.collectAllVariablesOrdered());
         }
-        allVarsCache.addAll(result);
+        addAllVars(result);
         return result;
     }
 
@@ -1932,8 +2119,8 @@ public class Formula implements Comparable, Serializable {
      */
     public Set<String> collectQuantifiedVariables() {
 
-        if (quantVarsCache.size() > 0)
-            return quantVarsCache;
+        if (caches != null && caches.quantVarsCache != null && caches.quantVarsCache.size() > 0)
+            return caches.quantVarsCache;
     	HashSet<String> resultSet = new HashSet<String>();
     	if (empty())
     		return resultSet;
@@ -1956,7 +2143,12 @@ public class Formula implements Comparable, Serializable {
     			resultSet.addAll(fcar.collectQuantifiedVariables());
     		resultSet.addAll(this.cdrAsFormula().collectQuantifiedVariables());
     	}
-        quantVarsCache.addAll(resultSet);
+        if (!resultSet.isEmpty()) {
+            Caches c = caches();
+            if (c.quantVarsCache == null)
+                c.quantVarsCache = new HashSet<>();
+            c.quantVarsCache.addAll(resultSet);
+        }
     	return resultSet;
     }
 
@@ -1982,12 +2174,12 @@ public class Formula implements Comparable, Serializable {
         if (this.empty())
             return resultSet;
         if (this.atom()) {
-            termCache.add(theFormula);
+            getTermCache().add(theFormula);
             resultSet.add(theFormula);
         }
         else {
-            if (termCache.size() > 0)
-            return termCache;
+            if (caches != null && caches.termCache != null && caches.termCache.size() > 0)
+            return caches.termCache;
             Formula f = new Formula();
             f.read(theFormula);
             while (!f.empty() && f.theFormula != null && f.theFormula != "") {
@@ -1998,7 +2190,8 @@ public class Formula implements Comparable, Serializable {
             }
         }
         //ArrayList<String> result = new ArrayList(resultSet);
-        termCache.addAll(resultSet);
+        if (!resultSet.isEmpty())
+            getTermCache().addAll(resultSet);
         return resultSet;
     }
 
@@ -2236,9 +2429,9 @@ public class Formula implements Comparable, Serializable {
     public boolean isHigherOrder(KB kb) {
 
         if (debug) System.out.println("Formula.isHigherOrder(): " + this);
-        if (varTypeCache == null || varTypeCache.keySet().size() == 0) {
+        if (caches == null || caches.varTypeCache == null || caches.varTypeCache.keySet().size() == 0) {
             FormulaPreprocessor fp = new FormulaPreprocessor();
-            varTypeCache = fp.findAllTypeRestrictions(this,kb);
+            setVarTypeCache(fp.findAllTypeRestrictions(this,kb));
         }
         if (!KBmanager.getMgr().initialized)
             return false;
@@ -2258,8 +2451,8 @@ public class Formula implements Comparable, Serializable {
             for (String arg : al) {
                 Formula f = new Formula();
                 f.read(arg);
-                f.varTypeCache = this.varTypeCache;
-                if (debug) System.out.println("Formula.isHigherOrder(): varTypeCache: " + varTypeCache);
+                f.setVarTypeCache(this.caches.varTypeCache);
+                if (debug) System.out.println("Formula.isHigherOrder(): varTypeCache: " + caches.varTypeCache);
                 if (debug) System.out.println("Formula.isHigherOrder(): arg: " + arg);
                 if (debug) System.out.println("Formula.isHigherOrder(): atom: " + atom(arg));
                 if (debug) System.out.println("Formula.isHigherOrder(): isFunctional: " + kb.isFunctional(f));
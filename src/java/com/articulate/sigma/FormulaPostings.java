@@ -0,0 +1,145 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma;
+
+import java.util.*;
+
+/** ***************************************************************
+ * One list of KB.formulas, such as "arg-1-Entity", in the order the
+ * browser shows it, which is the order of the formula strings, with
+ * a bitmap of the formulas that come from a cache file.  A page of
+ * the list, with or without the cached formulas, can then be taken
+ * without creating, filtering or sorting the whole list.  KB builds
+ * the postings of a key from a KBSnapshot the first time it is browsed
+ * and builds them again once the list or the number of formulas has
+ * changed.
+ */
+public class FormulaPostings {
+
+    // the list the postings were built from and the sizes of it and of
+    // formulaMap at the time
+    final List<String> source;
+    final int sourceSize;
+    final int formulaMapSize;
+
+    // formula strings in sorted order
+    private final String[] sorted;
+    // bit i is set if sorted[i] is from a cache file
+    private final long[] cached;
+    private final int cachedCount;
+
+    /** ***************************************************************
+     * @param source a list of the snapshot, or null for no formulas
+     */
+    public FormulaPostings(KBSnapshot snap, List<String> source) {
+
+        this.source = source;
+        sourceSize = (source == null) ? 0 : source.size();
+        formulaMapSize = snap.formulaCount();
+        ArrayList<String> present = new ArrayList<>(sourceSize);
+        for (int i = 0; i < sourceSize; i++) {
+            String s = source.get(i);
+            if (snap.formula(s) != null)
+                present.add(s);
+            else
+                System.out.println("Error in FormulaPostings(): null formula for key: " + s);
+        }
+        sorted = present.toArray(new String[0]);
+        Arrays.sort(sorted);
+        cached = new long[(sorted.length + 63) >>> 6];
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            Formula f = snap.formula(sorted[i]);
+            if (f.sourceFile != null && KButilities.isCacheFile(f.sourceFile)) {
+                cached[i >>> 6] |= 1L << i;
+                count++;
+            }
+        }
+        cachedCount = count;
+    }
+
+    /** ***************************************************************
+     * @return whether the postings still match the list and the
+     * formulas of the snapshot
+     */
+    boolean isCurrent(KBSnapshot snap, List<String> list) {
+
+        return list == source && sourceSize == ((list == null) ? 0 : list.size()) &&
+                formulaMapSize == snap.formulaCount();
+    }
+
+    /** ***************************************************************
+     */
+    private boolean isCached(int i) {
+
+        return (cached[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /** ***************************************************************
+     * @return the number of formulas, with or without the cached ones
+     */
+    public int size(boolean showCached) {
+
+        return showCached ? sorted.length : sorted.length - cachedCount;
+    }
+
+    /** ***************************************************************
+     * @return the position in the sorted list of the uncached formula
+     * with the given rank, or the length of the list if there is none
+     */
+    private int uncachedPosition(int rank) {
+
+        int word = 0;
+        while (word < cached.length) {
+            int bits = Math.min(64, sorted.length - (word << 6));
+            int uncached = bits - Long.bitCount(cached[word]);
+            if (rank < uncached)
+                break;
+            rank -= uncached;
+            word++;
+        }
+        int i = word << 6;
+        for (; i < sorted.length; i++) {
+            if (!isCached(i)) {
+                if (rank == 0)
+                    return i;
+                rank--;
+            }
+        }
+        return sorted.length;
+    }
+
+    /** ***************************************************************
+     * @param start the rank of the first formula of the page
+     * @param limit the most formulas to return, or 0 for all the rest
+     * @param showCached whether to count and return cached formulas
+     * @return the formulas of the page, in sorted order
+     */
+    public ArrayList<Formula> page(KB kb, int start, int limit, boolean showCached) {
+
+        ArrayList<Formula> result = new ArrayList<>();
+        if (start < 0 || start >= size(showCached))
+            return result;
+        KBSnapshot snap = kb.snapshot();
+        int i = showCached ? start : uncachedPosition(start);
+        for (; i < sorted.length && (limit <= 0 || result.size() < limit); i++) {
+            if (!showCached && isCached(i))
+                continue;
+            Formula f = snap.formula(sorted[i]);
+            if (f != null)
+                result.add(f);
+        }
+        return result;
+    }
+}
@@ -638,9 +638,9 @@ public class FormulaPreprocessor {
      */
     public HashMap<String,HashSet<String>> computeVariableTypes(Formula form, KB kb) {
 
-        if (form.varTypeCache.keySet().size() > 0 && KBmanager.initialized) { // type lists can change as KBs are read
+        if (form.peekVarTypeCache().keySet().size() > 0 && KBmanager.initialized) { // type lists can change as KBs are read
             if (debug) System.out.println("INFO in FormulaPreprocessor.computeVariableTypes(): returning cached types for \n" + form);
-            return form.varTypeCache;
+            return form.getVarTypeCache();
         }
         if (debug) System.out.println("INFO in FormulaPreprocessor.computeVariableTypes(): \n" + form);
         Formula f = new Formula();
@@ -745,7 +745,7 @@ public class FormulaPreprocessor {
         } */
         if (debug) System.out.println("INFO in FormulaPreprocessor.computeVariableTypesRecurse(): exiting from\n" + f);
         if (debug) System.out.println("INFO in FormulaPreprocessor.computeVariableTypesRecurse(): with result:" + result);
-        f.varTypeCache.putAll(result);
+        f.getVarTypeCache().putAll(result);
         return result;
     }
 
@@ -885,7 +885,7 @@ public class FormulaPreprocessor {
                 for (Formula f : working) {
                     Set<Formula> instantiations = PredVarInst.instantiatePredVars(f,kb);
                     if (debug) System.out.println("FormulaPreprocessor.preProcess(): pred vars repl: " + f + "\n" + instantiations);
-                    form.errors.addAll(f.getErrors());
+                    form.getErrors().addAll(f.getErrors());
 
                     // If the accumulator is null -- the formula can't be instantiated at all and has been marked "reject",
                     //    don't add anything
@@ -1057,7 +1057,7 @@ public class FormulaPreprocessor {
             if (!form.isBalancedList()) {
                 String errStr = "Unbalanced parentheses or quotes in: " + form.getFormula();
                 System.out.println("Error in preProcess(): " + errStr);
-                form.errors.add(errStr);
+                form.getErrors().add(errStr);
                 return results;
             }
             boolean ignoreStrings = false;
@@ -1070,7 +1070,7 @@ public class FormulaPreprocessor {
 
             boolean addHoldsPrefix = mgr.getPref("holdsPrefix").equalsIgnoreCase("yes");
             ArrayList<Formula> variableReplacements = replacePredVarsAndRowVars(form,kb, addHoldsPrefix);
-            form.errors.addAll(f.getErrors());
+            form.getErrors().addAll(f.getErrors());
 
             ArrayList<Formula> accumulator = addInstancesOfSetOrClass(form,kb, isQuery, variableReplacements);
             // Iterate over the formulae resulting from predicate variable instantiation and row variable expansion,
@@ -1085,7 +1085,7 @@ public class FormulaPreprocessor {
                     theNewFormula = fp.preProcessRecurse(fnew,"",ignoreStrings,translateIneq,translateMath,kb);
                     fnew.read(theNewFormula);
                     //if (debug) System.out.println("preProcess: fnew: " + fnew);
-                    form.errors.addAll(fnew.getErrors());
+                    form.getErrors().addAll(fnew.getErrors());
                     fnew.sourceFile = form.sourceFile;
                     if (!StringUtil.emptyString(theNewFormula))
                         results.add(fnew);
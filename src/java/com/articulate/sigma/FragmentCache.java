@@ -0,0 +1,325 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma;
+
+import com.articulate.sigma.utils.StringUtil;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/** ***************************************************************
+ * A cache of the HTML fragments of the term browser, such as one
+ * section of formulas of a term.  The key of a fragment holds the KB
+ * name, the KB version of KB.getVersion() and whatever else the
+ * fragment depends on.  Once a KB changes, its fragments no longer
+ * match and the first new fragment stored for the KB removes them.
+ * The cache holds at most fragmentCacheSize megabytes of keys and
+ * fragments, as two bytes per character, and drops the least
+ * recently used fragments beyond that.  It also counts how often each
+ * term is browsed, so that HTMLformatter.prewarm() can render the
+ * most browsed terms after a KB is loaded.
+ */
+public class FragmentCache {
+
+    // the most characters held when there is no fragmentCacheSize
+    // preference
+    public static long defaultMaxChars = 16L << 20;
+
+    // browses of a KB between writes of its counts file
+    public static int saveEvery = 1000;
+
+    private static final FragmentCache cache = new FragmentCache();
+
+    private final LinkedHashMap<String,String> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long chars = 0;
+    private long maxChars = -1;  // -1 to read the preference
+    // the version of the KB of each name that entries are stored for
+    private final HashMap<String,Long> versions = new HashMap<>();
+
+    private final ConcurrentHashMap<String,ConcurrentHashMap<String,AtomicInteger>> browseCounts =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String,AtomicInteger> browses = new ConcurrentHashMap<>();
+    // held while a counts file is written, rather than the monitor of
+    // the cache, which get() and put() wait on
+    private final Object countsLock = new Object();
+
+    public long hits = 0;
+    public long misses = 0;
+
+    /** ***************************************************************
+     * @return the cache of the server
+     */
+    public static FragmentCache getCache() {
+
+        return cache;
+    }
+
+    /** ***************************************************************
+     * @return a key for a fragment of the current version of the KB
+     * that depends on the given parts
+     */
+    public static String key(KB kb, Object... parts) {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(kb.name).append('\t').append(kb.getVersion());
+        for (Object p : parts)
+            sb.append('\t').append(p);
+        return sb.toString();
+    }
+
+    /** ***************************************************************
+     * Set the most characters to hold, or -1 to take the
+     * fragmentCacheSize preference in megabytes, and drop fragments
+     * beyond it
+     */
+    public synchronized void setMaxChars(long max) {
+
+        maxChars = max;
+        evict();
+    }
+
+    /** ***************************************************************
+     */
+    private long maxChars() {
+
+        if (maxChars >= 0)
+            return maxChars;
+        String size = KBmanager.getMgr().getPref("fragmentCacheSize");
+        if (!StringUtil.emptyString(size)) {
+            try {
+                return Long.parseLong(size.trim()) << 19;
+            }
+            catch (NumberFormatException e) {
+                System.out.println("Error in FragmentCache.maxChars(): bad fragmentCacheSize " + size);
+            }
+        }
+        return defaultMaxChars;
+    }
+
+    /** ***************************************************************
+     */
+    private void evict() {
+
+        long max = maxChars();
+        Iterator<Map.Entry<String,String>> it = entries.entrySet().iterator();
+        while (chars > max && it.hasNext()) {
+            Map.Entry<String,String> e = it.next();
+            chars -= e.getKey().length() + e.getValue().length();
+            it.remove();
+        }
+    }
+
+    /** ***************************************************************
+     * @return the fragment with the key, which is rendered and stored
+     * if it is not in the cache.  Rendering is done without holding
+     * the lock of the cache.
+     */
+    public String get(KB kb, String key, Supplier<String> render) {
+
+        synchronized (this) {
+            String html = entries.get(key);
+            if (html != null) {
+                hits++;
+                return html;
+            }
+            misses++;
+        }
+        String html = render.get();
+        if (html != null)
+            put(kb, key, html);
+        return html;
+    }
+
+    /** ***************************************************************
+     * Store a fragment for the current version of the KB, first
+     * removing any fragments of an older version
+     */
+    public synchronized void put(KB kb, String key, String html) {
+
+        long version = kb.getVersion();
+        Long stored = versions.get(kb.name);
+        if (stored == null || stored != version) {
+            remove(kb.name);
+            versions.put(kb.name, version);
+        }
+        if (!key.startsWith(kb.name + "\t" + version + "\t"))
+            return;  // rendered from a version that has since changed
+        String old = entries.put(key, html);
+        if (old != null)
+            chars -= key.length() + old.length();
+        chars += key.length() + html.length();
+        evict();
+    }
+
+    /** ***************************************************************
+     * Remove all the fragments of the KB with the name
+     */
+    public synchronized void remove(String kbName) {
+
+        String prefix = kbName + "\t";
+        Iterator<Map.Entry<String,String>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String,String> e = it.next();
+            if (e.getKey().startsWith(prefix)) {
+                chars -= e.getKey().length() + e.getValue().length();
+                it.remove();
+            }
+        }
+        versions.remove(kbName);
+    }
+
+    /** ***************************************************************
+     */
+    public synchronized void clear() {
+
+        entries.clear();
+        versions.clear();
+        chars = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    /** ***************************************************************
+     * @return the number of fragments held
+     */
+    public synchronized int size() {
+
+        return entries.size();
+    }
+
+    /** ***************************************************************
+     * @return the number of characters of the keys and fragments held
+     */
+    public synchronized long chars() {
+
+        return chars;
+    }
+
+    /** ***************************************************************
+     * Count a browse of the term, and write the counts of the KB
+     * every saveEvery browses
+     */
+    public void recordBrowse(KB kb, String term) {
+
+        if (kb == null || StringUtil.emptyString(term))
+            return;
+        browseCounts.computeIfAbsent(kb.name, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(term, t -> new AtomicInteger()).incrementAndGet();
+        int n = browses.computeIfAbsent(kb.name, k -> new AtomicInteger()).incrementAndGet();
+        if (saveEvery > 0 && n % saveEvery == 0)
+            saveCounts(kb);
+    }
+
+    /** ***************************************************************
+     * @return the n most browsed terms of the KB, most browsed first
+     */
+    public List<String> topTerms(String kbName, int n) {
+
+        ArrayList<String> result = new ArrayList<>();
+        Map<String,AtomicInteger> counts = browseCounts.get(kbName);
+        if (counts == null || n <= 0)
+            return result;
+        ArrayList<Map.Entry<String,AtomicInteger>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort((a, b) -> {
+            int c = Integer.compare(b.getValue().get(), a.getValue().get());
+            return (c != 0) ? c : a.getKey().compareTo(b.getKey());
+        });
+        for (int i = 0; i < n && i < sorted.size(); i++)
+            result.add(sorted.get(i).getKey());
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the file of browse counts of the KB, in its kbDir
+     */
+    public static File countsFile(KB kb) {
+
+        String dir = kb.kbDir;
+        if (StringUtil.emptyString(dir))
+            dir = KBmanager.getMgr().getPref("kbDir");
+        return new File(dir, kb.name + "_browse.txt");
+    }
+
+    /** ***************************************************************
+     * Write the browse counts of the KB, one tab separated term and
+     * count per line, to a temporary file that then replaces the
+     * counts file, so that a reader never sees a partly written one.
+     * Renders are not held up while the file is written.
+     */
+    public void saveCounts(KB kb) {
+
+        Map<String,AtomicInteger> counts = browseCounts.get(kb.name);
+        if (counts == null)
+            return;
+        ArrayList<String> lines = new ArrayList<>();
+        for (Map.Entry<String,AtomicInteger> e : counts.entrySet())
+            lines.add(e.getKey() + "\t" + e.getValue().get());
+        File f = countsFile(kb);
+        File tmp = new File(f.getPath() + ".tmp");
+        synchronized (countsLock) {
+            try {
+                try (PrintWriter pw = new PrintWriter(new FileWriter(tmp))) {
+                    for (String line : lines)
+                        pw.println(line);
+                }
+                try {
+                    Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (IOException e) {
+                    Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            catch (IOException e) {
+                System.out.println("Error in FragmentCache.saveCounts(): writing " + f + ": " + e.getMessage());
+                tmp.delete();
+            }
+        }
+    }
+
+    /** ***************************************************************
+     * Add the counts of the KB written by an earlier run, if any
+     */
+    public void readCounts(KB kb) {
+
+        File f = countsFile(kb);
+        if (!f.exists())
+            return;
+        ConcurrentHashMap<String,AtomicInteger> counts =
+                browseCounts.computeIfAbsent(kb.name, k -> new ConcurrentHashMap<>());
+        try (BufferedReader r = new BufferedReader(new FileReader(f))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                int tab = line.lastIndexOf('\t');
+                if (tab < 1)
+                    continue;
+                try {
+                    int n = Integer.parseInt(line.substring(tab + 1).trim());
+                    counts.computeIfAbsent(line.substring(0, tab), t -> new AtomicInteger()).addAndGet(n);
+                }
+                catch (NumberFormatException e) {
+                    System.out.println("Error in FragmentCache.readCounts(): bad line in " + f + ": " + line);
+                }
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Error in FragmentCache.readCounts(): reading " + f + ": " + e.getMessage());
+        }
+    }
+}
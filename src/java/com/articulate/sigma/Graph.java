@@ -32,6 +32,11 @@ public class Graph {
 	
 	  // a limit counter to prevent pathologically large graphs
     private int graphsize = 0;                    
+
+      // the adminBrowserLimit preference and the link to the browser,
+      // set once per graph by createGraph() and createBoundedSizeGraph()
+    private int graphMax = 0;
+    private String kbHref = "";
     
       // A map of the fields to display in the graph in addition to the 
       // indented term name with option names as keys and "yes", "no" as values.
@@ -64,11 +69,8 @@ public class Graph {
         relations.add("subAttribute");
 
         int count = 0;
-        for (int i = 0; i < relations.size(); i++) {
-            ArrayList<Formula> children = kb.askWithRestriction(0,relations.get(i),2,term);
-            if (children != null) 
-                count = count + children.size();
-        }
+        for (int i = 0; i < relations.size(); i++)
+            count = count + kb.getHierarchy(relations.get(i)).childCount(term);
         if (count > 0)
             return Integer.toString(count);       
         else
@@ -177,6 +179,31 @@ public class Graph {
         return result.toString();
     }
 
+    /** *************************************************************
+     * Read the preferences that a graph depends on once, rather than
+     * for each term of the graph.
+     */
+    private void setLimits(KB kb) {
+
+        graphMax = 100;
+        String limit = KBmanager.getMgr().getPref("adminBrowserLimit");
+        if (!StringUtil.emptyString(limit)) {
+            try {
+                graphMax = Integer.parseInt(limit.trim());
+            }
+            catch (NumberFormatException e) {
+                System.out.println("Error in Graph.setLimits(): bad adminBrowserLimit " + limit);
+            }
+        }
+        String hostname = KBmanager.getMgr().getPref("hostname");
+        if (hostname == null)
+            hostname = "localhost";
+        String port = KBmanager.getMgr().getPref("port");
+        if (port == null)
+            port = "8080";
+        kbHref = "http://" + hostname + ":" + port + "/sigma/Browse.jsp?lang=" + kb.language + "&kb=" + kb.name;
+    }
+
     /** *************************************************************
      * Create a graph of a bounded size by incrementing the number of
      * levels above and below until the limit is reached or there are
@@ -186,6 +213,7 @@ public class Graph {
     public LinkedHashSet<String> createBoundedSizeGraph(KB kb, String term, String relation,
                                         int size, boolean instances, String language) {
 
+        setLimits(kb);
         LinkedHashSet<String> result = new LinkedHashSet<String>();
         LinkedHashSet<String> oldresult = new LinkedHashSet<String>();
         int above = 1;
@@ -221,6 +249,7 @@ public class Graph {
                                  int above, int below, int termLimit, boolean instances, String language) {
 
         graphsize = 0;
+        setLimits(kb);
         LinkedHashSet<String> result = new LinkedHashSet<String>();  // a list of Strings
         HashSet<String> checkAbove = new HashSet<String>();
         HashSet<String> checkBelow = new HashSet<String>();
@@ -237,25 +266,20 @@ public class Graph {
      * HTML-formatted display of terms.
      * @param check collects all the terms added to the graph so
      *              far, which is used to prevent cycles
+     * The parents and children of each term come from KB.getHierarchy().
      */
     private LinkedHashSet<String> createGraphBody(KB kb, Set<String> check, String term, String relation,
                                       int above, int below, int level,
                                       boolean show, boolean instances, String language) {
 
         LinkedHashSet<String> result = new LinkedHashSet<String>();
-        int graphMax = Integer.valueOf(KBmanager.getMgr().getPref("adminBrowserLimit")).intValue();
         if (!check.contains(term) && graphsize < graphMax) {
+            Hierarchy hierarchy = kb.getHierarchy(relation);
+            int id = hierarchy.id(term);
             if (above > 0) {
-                ArrayList<Formula> stmtAbove = new ArrayList<Formula>();
-                if (!DB.emptyString(relation) && relation.equals("all"))
-                    stmtAbove = kb.ask("arg",1,term);
-                else 
-                    stmtAbove = kb.askWithRestriction(0,relation,1,term);
-                for (int i = 0; i < stmtAbove.size(); i++) {
-                    Formula f = stmtAbove.get(i);
-                    String newTerm = f.getStringArgument(2);
-                    if (!newTerm.equals(term) && !KButilities.isCacheFile(f.sourceFile))
-                        result.addAll(createGraphBody(kb,check,newTerm,relation,above-1,0,level-1,true,instances,language));
+                for (int parent : hierarchy.parentIds(id)) {
+                    String newTerm = hierarchy.name(parent);
+                    result.addAll(createGraphBody(kb,check,newTerm,relation,above-1,0,level-1,true,instances,language));
                     check.add(term);
                 }
             }
@@ -264,13 +288,6 @@ public class Graph {
             for (int i = 0; i < level; i++)
                 prefix = prefix.append(indent);
 
-            String hostname = KBmanager.getMgr().getPref("hostname");
-            if (hostname == null)
-                hostname = "localhost";
-            String port = KBmanager.getMgr().getPref("port");
-            if (port == null)
-                port = "8080";
-            String kbHref = "http://" + hostname + ":" + port + "/sigma/Browse.jsp?lang=" + kb.language + "&kb=" + kb.name;
             if (show) {
                 graphsize++;
                 if (graphsize < 100)                 
@@ -283,21 +300,17 @@ public class Graph {
                 }
             }
             if (below > 0) {
-                ArrayList<Formula> stmtBelow = kb.askWithRestriction(0,relation,2,term);
-                for (int i = 0; i < stmtBelow.size(); i++) {
-                    Formula f = stmtBelow.get(i);
-                    String newTerm = f.getStringArgument(1);
-                    if (!newTerm.equals(term) && !KButilities.isCacheFile(f.sourceFile))
-                        result.addAll(createGraphBody(kb,check,newTerm,relation,0,below-1,level+1,true,instances,language));
+                int[] children = hierarchy.childIds(id);
+                for (int child : children) {
+                    String newTerm = hierarchy.name(child);
+                    result.addAll(createGraphBody(kb,check,newTerm,relation,0,below-1,level+1,true,instances,language));
                     check.add(term);
                 }
-                if (instances && (stmtBelow == null || stmtBelow.size() == 0) && relation.equals("subclass")) {
-                    stmtBelow = kb.askWithRestriction(0,"instance",2,term);
-                    for (int i = 0; i < stmtBelow.size(); i++) {
-                        Formula f = stmtBelow.get(i);
-                        String newTerm = f.getStringArgument(1);
-                        if (!newTerm.equals(term) && !KButilities.isCacheFile(f.sourceFile))
-                            result.addAll(createGraphBody(kb,check,newTerm,relation,0,below-1,level+1,true,instances,language));
+                if (instances && children.length == 0 && relation.equals("subclass")) {
+                    Hierarchy instHierarchy = kb.getHierarchy("instance");
+                    for (int inst : instHierarchy.childIds(instHierarchy.id(term))) {
+                        String newTerm = instHierarchy.name(inst);
+                        result.addAll(createGraphBody(kb,check,newTerm,relation,0,below-1,level+1,true,instances,language));
                         check.add(term);
                     }
                 }
@@ -343,9 +356,8 @@ public class Graph {
             if (relation.equals("all"))
                 result = createDotGraphNetBody(kb, start, checked, limitInt, fileRestrict);
             else {
-                result = createDotGraphBody(kb, start, checked, relation, above, below, true);
-                start.add(term);
-                result.addAll(createDotGraphBody(kb, start, checked, relation, above, below, false));
+                result = createDotGraphBody(kb, term, relation, above, true);
+                result.addAll(createDotGraphBody(kb, term, relation, below, false));
             }
             pw.println("digraph G {");
             pw.println("  rankdir=LR");
@@ -516,74 +528,28 @@ public class Graph {
     }
 
     /** *************************************************************
-     * The main body for createDotGraph().
+     * The main body for createDotGraph().  Adds an edge for each
+     * statement of the relation up to the given number of levels above
+     * or below the term, found with Hierarchy.edges(), until the graph
+     * has 100 edges.
      */
-    private HashSet<String> createDotGraphBody(KB kb, HashSet<String> startSet, HashSet<String> checkedSet, 
-                                   String relation, int above, int below, boolean upSearch) {
+    private HashSet<String> createDotGraphBody(KB kb, String term, String relation,
+                                               int levels, boolean upSearch) {
 
-        System.out.println("createDotGraph(): start set: " + startSet);
+        System.out.println("createDotGraph(): start term: " + term);
         HashSet<String> result = new HashSet<String>();
-        HashSet<String> newStartSet = new HashSet<String>();
-        newStartSet.addAll(startSet);
-        
-        if (upSearch) {
-            above--;
-            if (above < 0) return result;
-        }
-        else {
-            below--;
-            if (below < 0) return result;
-        }
-        while (startSet.size() > 0) {
-            Iterator<String> it = startSet.iterator();
-            String term = (String) it.next();
-            System.out.println("createDotGraph(): checking term: " + term);
-            boolean removed = startSet.remove(term);
-            if (!removed) {
-                String err = "Error in Graph.createDotGraphBody(): " + term + " not removed";
-                errors.add(err);
-                System.out.println(err);
-            }
-            if (StringUtil.isQuotedString(term))
-                continue;
-            ArrayList<Formula> stmts;
-            if (upSearch) {
-                stmts = kb.askWithRestriction(0, relation, 1, term);
-            }
-            else {
-                stmts = kb.askWithRestriction(0, relation, 2, term);
-            }
-
-            for (int i = 0; i < stmts.size(); i++) {
-                Formula f = stmts.get(i);
-                if (f.isCached())
-                    continue;
-                else {
-                    String child = f.getStringArgument(1);
-                    String parent = f.getStringArgument(2);
-                    String link = "";
-                    String arrow = "->";
-                    String rel = f.getStringArgument(0);
-                    if (relation.equals("all")) {
-                        link = "[ label = \"" + rel + "\" ]";
-                        arrow = "--";
-                    }
-                    String s = "  \"" + parent + "\"" + arrow + "\"" + child + "\" " + link + ";";
-                    graphsize++;
-                    if (graphsize < 100)
-                        result.add(s);
-                    else
-                        return result;
-                    checkedSet.add(term);
-                    if (upSearch) {
-                        newStartSet.add(parent);
-                    }
-                    else {
-                        newStartSet.add(child);
-                    }
-                }
-                result.addAll(createDotGraphBody(kb,newStartSet,checkedSet,relation,above,below,upSearch));
-            } 
+        if (StringUtil.isQuotedString(term))
+            return result;
+        Hierarchy hierarchy = kb.getHierarchy(relation);
+        for (int[] edge : hierarchy.edges(term, upSearch, levels, 100)) {
+            String child = hierarchy.name(edge[0]);
+            String parent = hierarchy.name(edge[1]);
+            String s = "  \"" + parent + "\"->\"" + child + "\" ;";
+            graphsize++;
+            if (graphsize < 100)
+                result.add(s);
+            else
+                return result;
         }
         return result;
     }
@@ -36,10 +36,9 @@ public class HTMLformatter {
                 + "</td></tr>"
                 + "</table><br><br>\n");
 
-    // set by BrowseBody.jsp or SimpleBrowseBody.jsp
+    // used by the methods that take no RenderContext.  Pages pass a
+    // RenderContext of their own instead of setting these.
     public static String kbHref = "";
-
-    // set by BrowseBody.jsp or SimpleBrowseBody.jsp
     public static String language = "EnglishLanguage";
 
     public static ArrayList<String> availableFormalLanguages =
@@ -298,6 +297,13 @@ public class HTMLformatter {
      */
     public static String showStatistics(KB kb) {
 
+        return FragmentCache.getCache().get(kb,FragmentCache.key(kb,"statistics"),() -> renderStatistics(kb));
+    }
+
+    /** *************************************************************
+     */
+    private static String renderStatistics(KB kb) {
+
         StringBuilder show = new StringBuilder();
         show.append("<b>Knowledge base statistics: </b><br><table>");
         show.append("<tr bgcolor=#eeeeee><td>Total Terms</td><td>Total Axioms</td><td>Total Rules</td><tr><tr align='center'>\n");
@@ -316,6 +322,14 @@ public class HTMLformatter {
      */
     public static String showLanguageStats(KB kb, String lang) {
 
+        return FragmentCache.getCache().get(kb,FragmentCache.key(kb,"languageStats",lang),
+                () -> renderLanguageStats(kb,lang));
+    }
+
+    /** *************************************************************
+     */
+    private static String renderLanguageStats(KB kb, String lang) {
+
         StringBuilder show = new StringBuilder();
         show.append("<tr><td>termFormats: </td><td align=right>" + KButilities.getCountTermFormats(kb,lang) + "</td></tr>\n");
         show.append("<tr><td>unique terms in termFormats: </td><td align=right> " + KButilities.getCountUniqueTermFormats(kb,lang) + "</td></tr>\n");
@@ -356,7 +370,8 @@ public class HTMLformatter {
      */
     public static String showPictures(KB kb, String term) {
 
-        return showNumberPictures(kb,term,4);
+        return FragmentCache.getCache().get(kb,FragmentCache.key(kb,"pictures",term),
+                () -> showNumberPictures(kb,term,4));
     }
 
     /** *************************************************************
@@ -404,11 +419,28 @@ public class HTMLformatter {
     	return HTMLformatter.showNeighborTerms(kb, term, term);
     }
 
+    /** *************************************************************
+     */
+    public static String showNeighborTerms(RenderContext ctx, KB kb, String term) {
+        return HTMLformatter.showNeighborTerms(ctx, kb, term, term);
+    }
+
     /** *************************************************************
      *  Show alphabetic list of neighbor terms
      */
     public static String showNeighborTerms(KB kb, String nonRelTerm, String relTerm) {
+
+        return showNeighborTerms(new RenderContext(kbHref,language,null),kb,nonRelTerm,relTerm);
+    }
+
+    /** *************************************************************
+     *  Show alphabetic list of neighbor terms, with links and term
+     *  names from the context
+     */
+    public static String showNeighborTerms(RenderContext ctx, KB kb, String nonRelTerm, String relTerm) {
     	
+        String kbHref = ctx.kbHref;
+        String language = ctx.language;
         String markup = "";
         try {
             StringBuilder show = new StringBuilder();
@@ -479,7 +511,17 @@ public class HTMLformatter {
     * at the top of the list. They are passed into the method to keep track of what 30 terms are being viewed. 
     */
     public static String showREMatches(KB kb, String relREmatch, String nonRelREmatch, String term) {
+
+        return showREMatches(new RenderContext(kbHref,language,null),kb,relREmatch,nonRelREmatch,term);
+    }
+
+    /** *****************************************************
+     * Show list of 30 relation & nonRelation terms that contain a match
+     * to the input RE term, with links from the context.
+     */
+    public static String showREMatches(RenderContext ctx, KB kb, String relREmatch, String nonRelREmatch, String term) {
     	
+        String kbHref = ctx.kbHref;
         String markup = "";
         try {	
         	StringBuilder show = new StringBuilder();
@@ -591,6 +633,19 @@ public class HTMLformatter {
     public static String formatFormulaList(ArrayList<Formula> forms, String header, KB kb,
             String language, String flang, int start, int localLimit, String limitString) {
 
+        return formatFormulaList(new RenderContext(kbHref,language,flang),forms,header,kb,start,localLimit,limitString);
+    }
+
+    /** *************************************************************
+     *  Create the HTML for a section of the Sigma term browser page in
+     *  the languages of the context, with links from the context.
+     */
+    public static String formatFormulaList(RenderContext ctx, ArrayList<Formula> forms, String header, KB kb,
+            int start, int localLimit, String limitString) {
+
+        String kbHref = ctx.kbHref;
+        String language = ctx.language;
+        String flang = ctx.flang;
         HashSet<String> printedForms = new HashSet<>();
         boolean traditionalLogic = false;
         if (flang.equals("traditionalLogic"))
@@ -643,10 +698,7 @@ public class HTMLformatter {
                 show.append("</td>\n<td width=\"40%\" valign=\"top\">");
                 String pph = null;
                 if (!Formula.DOC_PREDICATES.contains(arg0))
-                    pph = NLGUtils.htmlParaphrase(kbHref, f.getFormula(),
-                            kb.getFormatMap(language),
-                            kb.getTermFormatMap(language),
-                            kb, language);
+                    pph = NLGUtils.htmlParaphrase(ctx, f.getFormula(), kb);
                 if (StringUtil.emptyString(pph))
                     pph = "";
                 else if (isArabic)
@@ -698,24 +750,50 @@ public class HTMLformatter {
     }
 
     /** *************************************************************
-     *  Create the HTML for a section of the Sigma term browser page.
+     *  Create the HTML for a section of the Sigma term browser page,
+     *  or take it from the FragmentCache if the section was shown
+     *  before for the same version of the KB.
      */
     public static String browserSectionFormatLimit(String term, String header, KB kb,
             String language, String flang, int start, int limit,
             int arg, String type) {
 
-        ArrayList<Formula> forms = kb.ask(type,arg,term);
+        return browserSectionFormatLimit(new RenderContext(kbHref,language,flang),term,header,kb,start,limit,arg,type);
+    }
+
+    /** *************************************************************
+     *  Create the HTML for a section of the Sigma term browser page in
+     *  the languages of the context, or take it from the FragmentCache.
+     */
+    public static String browserSectionFormatLimit(RenderContext ctx, String term, String header, KB kb,
+            int start, int limit, int arg, String type) {
+
+        KBmanager mgr = KBmanager.getMgr();
+        String key = FragmentCache.key(kb,"section",ctx.kbHref,term,header,ctx.language,ctx.flang,
+                start,limit,arg,type,mgr.getPref("showcached"),mgr.getPref("jedit"));
+        return FragmentCache.getCache().get(kb,key,
+                () -> renderSection(ctx,term,header,kb,start,limit,arg,type));
+    }
+
+    /** *************************************************************
+     *  Create the HTML for a section of the Sigma term browser page.
+     */
+    private static String renderSection(RenderContext ctx, String term, String header, KB kb,
+            int start, int limit, int arg, String type) {
+
+        String language = ctx.language;
+        String flang = ctx.flang;
+        boolean showCached = KBmanager.getMgr().getPref("showcached").equalsIgnoreCase("yes");
+        FormulaPostings postings = kb.getPostings(type,arg,term);
+        int total = postings.size(showCached);
         StringBuilder show = new StringBuilder();
         String limitString = "";
         int localLimit = start + limit;
-        if (forms != null && !KBmanager.getMgr().getPref("showcached").equalsIgnoreCase("yes"))
-            forms = TaxoModel.removeCached(forms);
-        if (forms != null && !forms.isEmpty()) {
-            Collections.sort(forms);
+        if (total > 0) {
             show.append(htmlDivider(header));
             show.append("<table width=\"95%\">");
-            if (forms.size() < localLimit || localLimit == 0)
-                localLimit = forms.size();
+            if (total < localLimit || localLimit == 0)
+                localLimit = total;
             else
                 limitString = ("<tr><td><br></td></tr><tr><td>Display limited to "
                         + limit + " items. "
@@ -723,14 +801,54 @@ public class HTMLformatter {
                         + "&kb=" + kb.name + "&start=" + (start+limit)
                         + "&arg=" + arg + "&type=" + type + "\">Show next "
                         + limit + "</a></td></tr>\n");
-
-            show.append(formatFormulaList(forms,header,kb,language,flang,start,localLimit,limitString));
+            ArrayList<Formula> forms = new ArrayList<>();
+            if (localLimit > start)
+                forms = postings.page(kb,start,localLimit - start,showCached);
+            show.append(formatFormulaList(ctx,forms,header,kb,0,0,limitString));
             show.append(limitString);
             show.append("</table>\n");
         }
         return show.toString();
     }
 
+    /** *************************************************************
+     *  Render the formula sections of the Browse.jsp page of the n
+     *  most browsed terms of the KB into the FragmentCache, as a guest
+     *  would see them with the default language and formal language.
+     *  @return the number of terms rendered
+     */
+    public static int prewarm(KB kb, int n) {
+
+        if (kb == null || n <= 0)
+            return 0;
+        long millis = System.currentTimeMillis();
+        KBmanager mgr = KBmanager.getMgr();
+        int limit = 25;
+        try {
+            limit = Integer.parseInt(mgr.getPref("userBrowserLimit"));
+        }
+        catch (NumberFormatException e) {
+            System.out.println("Error in HTMLformatter.prewarm(): bad userBrowserLimit");
+        }
+        RenderContext ctx = RenderContext.forPage("Browse.jsp",kb.name,"EnglishLanguage","SUO-KIF");
+        int count = 0;
+        for (String term : FragmentCache.getCache().topTerms(kb.name,n)) {
+            if (!kb.containsTerm(term))
+                continue;
+            showPictures(kb,term);
+            for (int arg = 1; arg < 6; arg++)
+                browserSectionFormatLimit(ctx,term,"appearance as argument number " + arg,kb,0,limit,arg,"arg");
+            browserSectionFormatLimit(ctx,term,"antecedent",kb,0,limit,0,"ant");
+            browserSectionFormatLimit(ctx,term,"consequent",kb,0,limit,0,"cons");
+            browserSectionFormatLimit(ctx,term,"statement",kb,0,limit,0,"stmt");
+            browserSectionFormatLimit(ctx,term,"appearance as argument number 0",kb,0,limit,0,"arg");
+            count++;
+        }
+        System.out.println("INFO in HTMLformatter.prewarm(): rendered " + count + " terms of " + kb.name +
+                " in seconds: " + (System.currentTimeMillis() - millis) / 1000.0);
+        return count;
+    }
+
     /** *************************************************************
      *  Create the HTML for a section of the Sigma term browser page.
      */
@@ -843,8 +961,17 @@ public class HTMLformatter {
      * a colon, and then the axiom.  There must be no other colon
      * characters.
      */
-    public static String formatErrorsWarnings(TreeSet<String> list, KB kb) {
+    public static String formatErrorsWarnings(Set<String> list, KB kb) {
+
+        return formatErrorsWarnings(new RenderContext(kbHref,language,null),list,kb);
+    }
+
+    /** *************************************************************
+     * hyperlink formulas in error messages with links from the context
+     */
+    public static String formatErrorsWarnings(RenderContext ctx, Set<String> list, KB kb) {
         
+        String kbHref = ctx.kbHref;
         System.out.println("INFO in HTMLformatter.formatErrors(): href: " + kbHref);
         StringBuilder result = new StringBuilder();
         Iterator<String> it = list.iterator();
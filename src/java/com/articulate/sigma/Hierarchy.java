@@ -0,0 +1,251 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma;
+
+import com.articulate.sigma.utils.StringUtil;
+
+import java.util.*;
+
+/** ***************************************************************
+ * The parents and children of every term under one binary relation,
+ * such as subclass, as arrays of term numbers, so that Graph and
+ * TaxoModel can walk a hierarchy without asking the KB at each term.
+ * A statement (relation child parent) is an edge from child to
+ * parent.  Statements from cache files and statements that relate a
+ * term to itself are left out.  The parents of a term are in the
+ * order of KB.askWithRestriction(0,relation,1,term) and its children
+ * in the order of KB.askWithRestriction(0,relation,2,term).  For the
+ * relation "all" the edges are those of any statement whose first two
+ * arguments are atoms, in no particular order.  KB.getHierarchy()
+ * builds one for each relation from a KBSnapshot and builds it again
+ * once the KB version changes.
+ */
+public class Hierarchy {
+
+    private static final int[] NONE = new int[0];
+
+    public final String relation;
+    final long version;
+
+    private final HashMap<String,Integer> ids = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+    private final int[][] parents;
+    private final int[][] children;
+
+    /** ***************************************************************
+     */
+    public Hierarchy(KBSnapshot snap, String relation) {
+
+        this.relation = relation;
+        version = snap.version;
+        int[] from = new int[64];
+        int[] to = new int[64];
+        int count = 0;
+        HashSet<Long> seen = new HashSet<>();
+        for (Formula f : edgeFormulas(snap, relation)) {
+            if (f == null || f.isCached() || f.listLength() < 3)
+                continue;
+            String child = f.getStringArgument(1);
+            String parent = f.getStringArgument(2);
+            if (StringUtil.emptyString(child) || StringUtil.emptyString(parent) || child.equals(parent))
+                continue;
+            if (relation.equals("all") && !(Formula.atom(child) && Formula.atom(parent)))
+                continue;
+            int c = intern(child);
+            int p = intern(parent);
+            if (!seen.add(((long) c << 32) | p))
+                continue;
+            if (count == from.length) {
+                from = Arrays.copyOf(from, count * 2);
+                to = Arrays.copyOf(to, count * 2);
+            }
+            from[count] = c;
+            to[count] = p;
+            count++;
+        }
+        parents = group(from, to, count, names.size());
+        children = group(to, from, count, names.size());
+    }
+
+    /** ***************************************************************
+     * @return the statements that may be edges of the relation, in the
+     * order they were added to the KB unless the relation is "all"
+     */
+    private static Collection<Formula> edgeFormulas(KBSnapshot snap, String relation) {
+
+        if (relation.equals("all"))
+            return snap.formulas();
+        ArrayList<Formula> result = new ArrayList<>();
+        List<String> list = snap.keyed("arg-0-" + relation);
+        if (list != null) {
+            for (String s : list)
+                result.add(snap.formula(s));
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    private int intern(String term) {
+
+        Integer id = ids.get(term);
+        if (id == null) {
+            id = names.size();
+            ids.put(term, id);
+            names.add(term);
+        }
+        return id;
+    }
+
+    /** ***************************************************************
+     * @return for each term number, the values of the edges whose key
+     * is that term, in the order of the edges
+     */
+    private static int[][] group(int[] keys, int[] values, int count, int size) {
+
+        int[] degree = new int[size];
+        for (int i = 0; i < count; i++)
+            degree[keys[i]]++;
+        int[][] result = new int[size][];
+        for (int i = 0; i < size; i++)
+            result[i] = (degree[i] == 0) ? NONE : new int[degree[i]];
+        Arrays.fill(degree, 0);
+        for (int i = 0; i < count; i++)
+            result[keys[i]][degree[keys[i]]++] = values[i];
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the number of the term, or -1 if it has no edges
+     */
+    public int id(String term) {
+
+        Integer id = ids.get(term);
+        return (id == null) ? -1 : id;
+    }
+
+    /** ***************************************************************
+     * @return the term with the number
+     */
+    public String name(int id) {
+
+        return names.get(id);
+    }
+
+    /** ***************************************************************
+     * @return the numbers of the parents of the term number
+     */
+    public int[] parentIds(int id) {
+
+        return (id < 0) ? NONE : parents[id];
+    }
+
+    /** ***************************************************************
+     * @return the numbers of the children of the term number
+     */
+    public int[] childIds(int id) {
+
+        return (id < 0) ? NONE : children[id];
+    }
+
+    /** ***************************************************************
+     * @return the parents of the term
+     */
+    public ArrayList<String> parents(String term) {
+
+        return names(parentIds(id(term)));
+    }
+
+    /** ***************************************************************
+     * @return the children of the term
+     */
+    public ArrayList<String> children(String term) {
+
+        return names(childIds(id(term)));
+    }
+
+    /** ***************************************************************
+     */
+    private ArrayList<String> names(int[] idList) {
+
+        ArrayList<String> result = new ArrayList<>(idList.length);
+        for (int id : idList)
+            result.add(names.get(id));
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the number of children of the term
+     */
+    public int childCount(String term) {
+
+        return childIds(id(term)).length;
+    }
+
+    /** ***************************************************************
+     * @return whether the term has a parent
+     */
+    public boolean hasParents(String term) {
+
+        return parentIds(id(term)).length > 0;
+    }
+
+    /** ***************************************************************
+     * The edges found by a breadth first search from the term, up to
+     * its parents or down to its children.  Each edge is a pair of term
+     * numbers, the child first, and an edge is reached at most once.
+     *
+     * @param levels the most edges between the term and a term reached
+     * @param limit the most edges to return, or 0 for no limit
+     * @return the child and parent numbers of each edge in the order
+     * they were reached
+     */
+    public ArrayList<int[]> edges(String term, boolean up, int levels, int limit) {
+
+        ArrayList<int[]> result = new ArrayList<>();
+        int start = id(term);
+        if (start < 0 || levels <= 0)
+            return result;
+        BitSet reached = new BitSet(names.size());
+        reached.set(start);
+        int[] frontier = {start};
+        for (int level = 0; level < levels && frontier.length > 0; level++) {
+            int[] next = new int[16];
+            int n = 0;
+            for (int t : frontier) {
+                for (int other : up ? parents[t] : children[t]) {
+                    result.add(up ? new int[] {t, other} : new int[] {other, t});
+                    if (limit > 0 && result.size() >= limit)
+                        return result;
+                    if (!reached.get(other)) {
+                        reached.set(other);
+                        if (n == next.length)
+                            next = Arrays.copyOf(next, n * 2);
+                        next[n++] = other;
+                    }
+                }
+            }
+            frontier = Arrays.copyOf(next, n);
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the number of terms with an edge
+     */
+    public int size() {
+
+        return names.size();
+    }
+}
@@ -63,6 +63,7 @@ import com.articulate.sigma.tp.EProver;
 import com.articulate.sigma.tp.Vampire;
 import com.articulate.sigma.trans.*;
 import com.articulate.sigma.utils.FileUtil;
+import com.articulate.sigma.utils.LoadProfiler;
 import com.articulate.sigma.utils.Pair;
 import com.articulate.sigma.utils.SetUtil;
 import com.articulate.sigma.utils.StringUtil;
@@ -73,6 +74,10 @@ import com.google.common.collect.Sets;
 import java.io.*;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -132,17 +137,58 @@ public class KB implements Serializable {
      * the returned String as the key for the variable formulaMap     */
     public HashMap<String, ArrayList<String>> formulas = new HashMap<String, ArrayList<String>>();
 
+    /* The sorted postings of the keys of formulas that have been browsed,
+     * built by getPostings()     */
+    private transient Map<String, FormulaPostings> postings = null;
+
+    /* The parents and children of terms under each relation that has
+     * been walked, built by getHierarchy()     */
+    private transient Map<String, Hierarchy> hierarchies = null;
+
+    /* The formulas that mention each term, built by getTermIndex()     */
+    private transient volatile TermIndex termIndex = null;
+
+    /* A number that changes whenever the formulas or format maps of the
+     * KB change, unique across KBs, see getVersion()     */
+    private transient volatile long version = 0;
+    private static final AtomicLong versions = new AtomicLong();
+
+    /* Held by a thread while it changes the formulas, terms or format
+     * maps of the KB, and while a snapshot is built, see snapshot()     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /* The last snapshot published by snapshot()     */
+    private transient volatile KBSnapshot snapshot = null;
+
+    /* The keys of formulas changed since the last snapshot, or null if
+     * any of them may have changed     */
+    private transient HashSet<String> changedKeys = null;
+
+    /* Those of changedKeys whose lists may have been changed other than
+     * by adding formulas to their end     */
+    private transient HashSet<String> replacedKeys = null;
+
+    /* The keys of formulaMap changed since the last snapshot, or null
+     * if any of them may have changed     */
+    private transient HashSet<String> changedFormulas = null;
+
+    /* The terms added since the last snapshot, or null if any term may
+     * have been added or removed     */
+    private transient HashSet<String> addedTerms = null;
+
     /* The natural language formatting strings for relations in the KB. It is a
      * HashMap of language keys and HashMap values. The interior HashMap is term
      * name keys and String values.     */
-    private HashMap<String, HashMap<String, String>> formatMap = new HashMap<String, HashMap<String, String>>();
+    private volatile HashMap<String, HashMap<String, String>> formatMap = new HashMap<String, HashMap<String, String>>();
 
     /* language keys and HashMap values. The interior HashMap is term name keys
      * and String values.     */
-    private HashMap<String, HashMap<String, String>> termFormatMap = new HashMap<String, HashMap<String, String>>();
+    private volatile HashMap<String, HashMap<String, String>> termFormatMap = new HashMap<String, HashMap<String, String>>();
 
-    /** Errors found during loading of the KB constituents. */
-    public TreeSet<String> errors = new TreeSet<String>();
+    /** Errors found during loading of the KB constituents.  A
+     * concurrent set, since loading, ask() and the JSPs that show it
+     * may run at the same time. */
+    public final SortedSet<String> errors = new ConcurrentSkipListSet<String>();
 
     /** Warnings found during loading of the KB constituents. */
     public TreeSet<String> warnings = new TreeSet<String>();
@@ -243,7 +289,7 @@ public class KB implements Serializable {
         }
 
         if (kbIn.errors != null) {
-            this.errors = Sets.newTreeSet(kbIn.errors);
+            this.errors.addAll(kbIn.errors);
         }
 
         this.modifiedContents = kbIn.modifiedContents;
@@ -338,7 +384,7 @@ public class KB implements Serializable {
             else
                 p = Pattern.compile(term);
             ArrayList<String> matchesList = new ArrayList<String>();
-            for (String t : getTerms()) {
+            for (String t : snapshot().terms) {
                 Matcher m = p.matcher(t);
                 if (m.matches())
                     matchesList.add(t);
@@ -357,8 +403,15 @@ public class KB implements Serializable {
      */
     public void setTerms(SortedSet<String> newTerms) {
 
-        getTerms().clear();
-        this.terms = Collections.synchronizedSortedSet(newTerms);
+        writeLock.lock();
+        try {
+            getTerms().clear();
+            this.terms = Collections.synchronizedSortedSet(newTerms);
+            changed();
+        }
+        finally {
+            writeLock.unlock();
+        }
         return;
     }
 
@@ -436,6 +489,25 @@ public class KB implements Serializable {
         System.out.println("KB.checkArity(): seconds: " + (System.currentTimeMillis() - millis) / 1000);
     }
 
+    /***************************************************************
+     * Drop the cached variables, terms and types of every formula, such
+     * as once the KB has been exported, so that a server that only
+     * browses the KB doesn't keep them.  The TPTP translations are kept
+     * for the TPTP view of the browser.
+     * @return the number of formulas that had caches
+     */
+    public int clearFormulaCaches() {
+
+        int count = 0;
+        for (Formula f : formulaMap.values()) {
+            if (f.hasCaches()) {
+                f.clearCachesExceptTptp();
+                count++;
+            }
+        }
+        return count;
+    }
+
     /***************************************************************
      * Returns the
      * type (SUO-KIF SetOrClass name) for any argument in argPos position of an
@@ -1075,14 +1147,14 @@ public class KB implements Serializable {
 
     /***************************************************************
      */
-    private ArrayList<Formula> stringsToFormulas(ArrayList<String> strings) {
+    private static ArrayList<Formula> stringsToFormulas(KBSnapshot snap, List<String> strings) {
 
         ArrayList<Formula> result = new ArrayList<Formula>();
         if (strings == null)
             return result;
         for (int i = 0; i < strings.size(); i++) {
             String s = strings.get(i);
-            Formula f = formulaMap.get(s);
+            Formula f = snap.formula(s);
             if (f != null)
                 result.add(f);
             else
@@ -1118,19 +1190,249 @@ public class KB implements Serializable {
             errors.add(msg);
         }
         ArrayList<Formula> tmp = null;
-        String key = null;
-        if (kind.equals("arg"))
-            key = kind + "-" + argnum + "-" + term;
-        else
-            key = kind + "-" + term;
-        ArrayList<String> alstr = formulas.get(key);
+        KBSnapshot snap = snapshot();
+        List<String> alstr = snap.keyed(askKey(kind, argnum, term));
 
-        tmp = stringsToFormulas(alstr);
+        tmp = stringsToFormulas(snap, alstr);
         if (tmp != null)
             result.addAll(tmp);
         return result;
     }
 
+    /***************************************************************
+     * @return the version of the contents of the KB, for caches of
+     * things derived from them such as FragmentCache.  It is never 0
+     * and no two KBs, or two states of one KB, share a version.
+     */
+    public long getVersion() {
+
+        if (version == 0) {
+            synchronized (this) {
+                if (version == 0)
+                    version = versions.incrementAndGet();
+            }
+        }
+        return version;
+    }
+
+    /***************************************************************
+     * Give the KB a new version after a change to its contents
+     */
+    public void changed() {
+
+        writeLock.lock();
+        try {
+            version = versions.incrementAndGet();
+            changedKeys = null;
+            replacedKeys = null;
+            changedFormulas = null;
+            addedTerms = null;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /***************************************************************
+     * Give the KB a new version after a change to the formulas of the
+     * given keys only
+     *
+     * @param appended whether the lists of the keys have only had
+     *                 formulas added to their end
+     */
+    private void changed(Collection<String> keys, boolean appended) {
+
+        writeLock.lock();
+        try {
+            version = versions.incrementAndGet();
+            if (changedKeys != null)
+                changedKeys.addAll(keys);
+            if (replacedKeys != null && !appended)
+                replacedKeys.addAll(keys);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /***************************************************************
+     * Put a formula in formulaMap and record the change for the next
+     * snapshot.  The write lock must be held.
+     */
+    private void putFormula(String s, Formula f) {
+
+        formulaMap.put(s, f);
+        if (changedFormulas != null)
+            changedFormulas.add(s);
+    }
+
+    /***************************************************************
+     * Add terms to the terms of the KB and record the change for the
+     * next snapshot.  The write lock must be held.
+     */
+    private void addTerms(Collection<String> newTerms) {
+
+        getTerms().addAll(newTerms);
+        if (addedTerms != null)
+            addedTerms.addAll(newTerms);
+    }
+
+    /***************************************************************
+     * Add a term that is not in any formula, such as a relation that
+     * KBcache.extendInstance() makes, and give the KB a new version so
+     * that the next snapshot has the term.
+     */
+    public void addTerm(String term) {
+
+        writeLock.lock();
+        try {
+            changed(Collections.<String>emptySet(), true);
+            addTerms(Collections.singleton(term));
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /***************************************************************
+     * Returns the terms, formulas and formula index of the current
+     * version of the KB, which do not change afterwards, so that a
+     * reader such as a browser page sees one consistent state of the
+     * KB even while another thread changes it.  A new snapshot is
+     * built on the first request after a change.  While another thread
+     * holds the write lock, the last snapshot is returned instead of
+     * waiting for that thread to finish.
+     */
+    public KBSnapshot snapshot() {
+
+        KBSnapshot result = snapshot;
+        if (result != null && result.version == getVersion())
+            return result;
+        if (result == null || writeLock.isHeldByCurrentThread())
+            writeLock.lock();
+        else if (!writeLock.tryLock())
+            return result;
+        try {
+            result = snapshot;
+            if (result == null || result.version != getVersion()) {
+                result = new KBSnapshot(this, result, changedKeys, replacedKeys, changedFormulas, addedTerms);
+                snapshot = result;
+                changedKeys = new HashSet<>();
+                replacedKeys = new HashSet<>();
+                changedFormulas = new HashSet<>();
+                addedTerms = new HashSet<>();
+            }
+        }
+        finally {
+            writeLock.unlock();
+        }
+        return result;
+    }
+
+    /***************************************************************
+     * @return the key of formulas for an ask(), see KIF.createKey()
+     */
+    private static String askKey(String kind, int argnum, String term) {
+
+        if (kind.equals("arg"))
+            return kind + "-" + argnum + "-" + term;
+        else
+            return kind + "-" + term;
+    }
+
+    /***************************************************************
+     * Returns the formulas that ask() would return, sorted, with a
+     * bitmap of the ones from cache files, so that a page of them can
+     * be taken without sorting or filtering them all.  They are built
+     * on the first request for a key and again once the formulas of
+     * the key or the KB have changed.
+     *
+     * @param kind   May be one of "ant", "cons", "stmt", or "arg"
+     * @param argnum The argument position of the term for "arg"
+     * @param term   The term that appears in the statements
+     */
+    public FormulaPostings getPostings(String kind, int argnum, String term) {
+
+        Map<String, FormulaPostings> map = postings;
+        if (map == null) {
+            synchronized (this) {
+                if (postings == null)
+                    postings = new ConcurrentHashMap<>();
+                map = postings;
+            }
+        }
+        String key = askKey(kind, argnum, term);
+        KBSnapshot snap = snapshot();
+        List<String> list = snap.keyed(key);
+        FormulaPostings result = map.get(key);
+        if (result == null || !result.isCurrent(snap, list)) {
+            result = new FormulaPostings(snap, list);
+            map.put(key, result);
+        }
+        return result;
+    }
+
+    /***************************************************************
+     * Returns the parents and children of every term under a binary
+     * relation, built on the first request for the relation and again
+     * once the KB version has changed.
+     *
+     * @param relation a relation such as subclass, or "all" for the
+     *                 first two arguments of any statement
+     */
+    public Hierarchy getHierarchy(String relation) {
+
+        Map<String, Hierarchy> map = hierarchies;
+        if (map == null) {
+            synchronized (this) {
+                if (hierarchies == null)
+                    hierarchies = new ConcurrentHashMap<>();
+                map = hierarchies;
+            }
+        }
+        Hierarchy result = map.get(relation);
+        KBSnapshot snap = snapshot();
+        if (result == null || result.version != snap.version) {
+            result = new Hierarchy(snap, relation);
+            map.put(relation, result);
+        }
+        return result;
+    }
+
+    /***************************************************************
+     * Returns the formulas that mention each term at any depth, built
+     * on the first request and again once the KB version has changed.
+     */
+    public TermIndex getTermIndex() {
+
+        TermIndex result = termIndex;
+        KBSnapshot snap = snapshot();
+        if (result == null || result.version != snap.version) {
+            synchronized (this) {
+                result = termIndex;
+                if (result == null || result.version != snap.version) {
+                    result = new TermIndex(snap);
+                    termIndex = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /***************************************************************
+     * Returns one page of the formulas that ask() would return, in the
+     * sorted order of their strings.
+     *
+     * @param start      the number of formulas to skip
+     * @param limit      the most formulas to return, or 0 for all
+     * @param showCached whether to include formulas from cache files
+     */
+    public ArrayList<Formula> askPage(String kind, int argnum, String term,
+                                      int start, int limit, boolean showCached) {
+
+        return getPostings(kind, argnum, term).page(this, start, limit, showCached);
+    }
+
     /***************************************************************
      * Returns an
      * ArrayList containing the Formulae retrieved, possibly via multiple asks
@@ -1410,9 +1712,26 @@ public class KB implements Serializable {
      */
     public ArrayList<Formula> merge(KIF kif, String pathname) {
 
+        writeLock.lock();
+        try {
+            changed(kif.formulas.keySet(), true);
+            return mergeFormulas(kif, pathname);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /***************************************************************
+     * The body of merge(), called with the write lock held
+     */
+    private ArrayList<Formula> mergeFormulas(KIF kif, String pathname) {
+
         ArrayList<Formula> formulasPresent = new ArrayList<Formula>();
         // Add all the terms from the new formula into the KB's current list
-        getTerms().addAll(kif.terms);
+        addTerms(kif.terms);
+        // the formulas this merge adds to formulaMap
+        HashSet<String> merged = new HashSet<String>();
         Set<String> keys = kif.formulas.keySet();
         Iterator<String> it = keys.iterator();
         while (it.hasNext()) {
@@ -1420,24 +1739,31 @@ public class KB implements Serializable {
             ArrayList<String> newFormulas = new ArrayList<String>(kif.formulas.get(key));
             if (formulas.containsKey(key)) {
                 ArrayList<String> oldFormulas = formulas.get(key);
+                HashSet<String> appended = new HashSet<String>();
                 for (int i = 0; i < newFormulas.size(); i++) {
                     Formula newFormula = kif.formulaMap.get(newFormulas.get(i));
                     if (pathname != null)
                         newFormula.sourceFile = pathname;
+                    // the keys of a formula come from its text, so a formula
+                    // of formulaMap with the same text that was there before
+                    // this merge, or was just added to this key, is one of
+                    // oldFormulas, found without scanning them all
                     boolean found = false;
-                    for (int j = 0; j < oldFormulas.size(); j++) {
-                        Formula oldFormula = formulaMap.get(oldFormulas.get(j));
-                        if (oldFormula != null && newFormula.getFormula().equals(oldFormula.getFormula())) {
-                            found = true;
-                            // no duplicate formulas are allowed in
-                            // formulasPresent
-                            if (formulasPresent != null && !formulasPresent.contains(oldFormula))
-                                formulasPresent.add(oldFormula);
-                        }
+                    String text = newFormula.getFormula();
+                    Formula oldFormula = formulaMap.get(text);
+                    if (oldFormula != null && text.equals(oldFormula.getFormula()) &&
+                            (!merged.contains(text) || appended.contains(text))) {
+                        found = true;
+                        // no duplicate formulas are allowed in
+                        // formulasPresent
+                        if (formulasPresent != null && !formulasPresent.contains(oldFormula))
+                            formulasPresent.add(oldFormula);
                     }
                     if (!found) {
                         oldFormulas.add(newFormula.getFormula());
-                        formulaMap.put(newFormula.getFormula().intern(), newFormula);
+                        putFormula(newFormula.getFormula().intern(), newFormula);
+                        merged.add(text);
+                        appended.add(text);
                     }
                 }
             }
@@ -1449,11 +1775,13 @@ public class KB implements Serializable {
                     String newformulaStr = it2.next();
                     Formula newFormula = kif.formulaMap.get(newformulaStr);
                     f = formulaMap.get(newformulaStr);
-                    if (f == null) // If kb.formulaMap does not contain the new
+                    if (f == null) { // If kb.formulaMap does not contain the new
                         // formula, should we add it into the kb?
-                        formulaMap.put(newFormula.getFormula().intern(), newFormula);
+                        putFormula(newFormula.getFormula().intern(), newFormula);
+                        merged.add(newFormula.getFormula());
+                    }
                     else if (StringUtil.isNonEmptyString(f.getFormula()))
-                        formulaMap.put(f.getFormula().intern(), f);
+                        putFormula(f.getFormula().intern(), f);
                 }
             }
         }
@@ -1467,16 +1795,23 @@ public class KB implements Serializable {
      */
     public void rename(String term2, String term1) {
 
-        HashSet<Formula> formulas = new HashSet<Formula>();
-        for (int i = 0; i < 7; i++)
-            formulas.addAll(ask("arg", i, term2));
-        formulas.addAll(ask("ant", 0, term2));
-        formulas.addAll(ask("cons", 0, term2));
-        formulas.addAll(ask("stmt", 0, term2));
-        Iterator<Formula> it = formulas.iterator();
-        while (it.hasNext()) {
-            Formula f = it.next();
-            f.read(f.rename(term2, term1).getFormula());
+        writeLock.lock();
+        try {
+            HashSet<Formula> formulas = new HashSet<Formula>();
+            for (int i = 0; i < 7; i++)
+                formulas.addAll(ask("arg", i, term2));
+            formulas.addAll(ask("ant", 0, term2));
+            formulas.addAll(ask("cons", 0, term2));
+            formulas.addAll(ask("stmt", 0, term2));
+            Iterator<Formula> it = formulas.iterator();
+            while (it.hasNext()) {
+                Formula f = it.next();
+                f.read(f.rename(term2, term1).getFormula());
+            }
+            changed();
+        }
+        finally {
+            writeLock.unlock();
         }
     }
 
@@ -2231,7 +2566,7 @@ public class KB implements Serializable {
      */
     public boolean containsFormula(String formula) {
 
-        return formulaMap.containsKey(formula.intern());
+        return snapshot().formula(formula.intern()) != null;
     }
 
     /*****************************************************************
@@ -2264,7 +2599,7 @@ public class KB implements Serializable {
      */
     public int getCountAxioms() {
 
-        return formulaMap.size();
+        return snapshot().formulaCount();
     }
 
     /*****************************************************************
@@ -2284,9 +2619,10 @@ public class KB implements Serializable {
     public Formula getFormulaByKey(String key) {
 
         Formula f = null;
-        ArrayList<String> al = formulas.get(key);
+        KBSnapshot snap = snapshot();
+        List<String> al = snap.keyed(key);
         if ((al != null) && !al.isEmpty())
-            f = formulaMap.get(al.get(0));
+            f = snap.formula(al.get(0));
         return f;
     }
 
@@ -2449,72 +2785,133 @@ public class KB implements Serializable {
      */
     public void loadFormatMaps(String lang) {
 
-        if (formatMap == null)
-            formatMap = new HashMap<String, HashMap<String, String>>();
-        if (termFormatMap == null)
-            termFormatMap = new HashMap<String, HashMap<String, String>>();
-        if (formatMap.get(lang) == null)
-            formatMap.put(lang, new HashMap<String, String>());
-        if (termFormatMap.get(lang) == null)
-            termFormatMap.put(lang, new HashMap<String, String>());
-
-        if (!loadFormatMapsAttempted.contains(lang)) {
-            ArrayList<Formula> col = askWithRestriction(0, "format", 1, lang);
-            if ((col == null) || col.isEmpty())
-                System.out.println("Error in KB.loadFormatMaps(): No relation format file loaded for language " + lang);
-            else {
-                HashMap<String, String> langFormatMap = formatMap.get(lang);
-                for (Formula f : col) {
-                    String key = f.getStringArgument(2);
-                    String format = f.getStringArgument(3);
-                    format = StringUtil.removeEnclosingQuotes(format);
-                    langFormatMap.put(key, format);
-                }
+        loadFormatMaps(lang, true);
+    }
+
+    /****************************************************************
+     * Populates the format maps for language lang, if wait or if no
+     * other thread holds the write lock.
+     *
+     * @return false if another thread holds the write lock and the maps
+     * were left as they are
+     */
+    private boolean loadFormatMaps(String lang, boolean wait) {
+
+        if (wait || writeLock.isHeldByCurrentThread())
+            writeLock.lock();
+        else if (!writeLock.tryLock())
+            return false;
+        try {
+            // maps that have been returned are never changed, a new map
+            // is published in their place
+            HashMap<String, HashMap<String, String>> newFormatMap = new HashMap<String, HashMap<String, String>>();
+            if (formatMap != null)
+                newFormatMap.putAll(formatMap);
+            HashMap<String, HashMap<String, String>> newTermFormatMap = new HashMap<String, HashMap<String, String>>();
+            if (termFormatMap != null)
+                newTermFormatMap.putAll(termFormatMap);
+            HashMap<String, String> langFormatMap = new HashMap<String, String>();
+            if (newFormatMap.get(lang) != null)
+                langFormatMap.putAll(newFormatMap.get(lang));
+            HashMap<String, String> langTermFormatMap = new HashMap<String, String>();
+            if (newTermFormatMap.get(lang) != null)
+                langTermFormatMap.putAll(newTermFormatMap.get(lang));
+            if (!loadFormatMapsAttempted.contains(lang)) {
+                addFormats(lang, langFormatMap, langTermFormatMap);
+                loadFormatMapsAttempted.add(lang);
+            }
+            newFormatMap.put(lang, langFormatMap);
+            newTermFormatMap.put(lang, langTermFormatMap);
+            formatMap = newFormatMap;
+            termFormatMap = newTermFormatMap;
+            language = lang;
+        }
+        finally {
+            writeLock.unlock();
+        }
+        return true;
+    }
+
+    /****************************************************************
+     * Add the format and termFormat strings of the KB for language lang
+     * to the given maps
+     */
+    private void addFormats(String lang, HashMap<String, String> langFormatMap,
+                            HashMap<String, String> langTermFormatMap) {
+
+        ArrayList<Formula> col = askWithRestriction(0, "format", 1, lang);
+        if ((col == null) || col.isEmpty())
+            System.out.println("Error in KB.loadFormatMaps(): No relation format file loaded for language " + lang);
+        else {
+            for (Formula f : col) {
+                String key = f.getStringArgument(2);
+                String format = f.getStringArgument(3);
+                format = StringUtil.removeEnclosingQuotes(format);
+                langFormatMap.put(key, format);
             }
-            col = askWithRestriction(0, "termFormat", 1, lang);
-            if ((col == null) || col.isEmpty())
-                System.out.println("Error in KB.loadFormatMaps(): No term format file loaded for language: " + lang);
-            else {
-                HashMap<String, String> langTermFormatMap = termFormatMap.get(lang);
-                for (Formula f : col) {
-                    String key = f.getStringArgument(2);
-                    String format = f.getStringArgument(3);
-                    format = StringUtil.removeEnclosingQuotes(format);
-                    langTermFormatMap.put(key, format);
-                }
+        }
+        col = askWithRestriction(0, "termFormat", 1, lang);
+        if ((col == null) || col.isEmpty())
+            System.out.println("Error in KB.loadFormatMaps(): No term format file loaded for language: " + lang);
+        else {
+            for (Formula f : col) {
+                String key = f.getStringArgument(2);
+                String format = f.getStringArgument(3);
+                format = StringUtil.removeEnclosingQuotes(format);
+                langTermFormatMap.put(key, format);
             }
-            loadFormatMapsAttempted.add(lang);
         }
-        language = lang;
     }
 
     /*****************************************************************
      * Clears all loaded format and termFormat maps, for all languages.
+     * Maps already returned by getFormatMap() and getTermFormatMap()
+     * are left as they are for the readers that hold them.
      */
     protected void clearFormatMaps() {
 
-        if (formatMap != null) {
-            Iterator<HashMap<String, String>> itf = formatMap.values().iterator();
-            while (itf.hasNext()) {
-                HashMap<String, String> m = itf.next();
-                if (m != null)
-                    m.clear();
-            }
-            formatMap.clear();
+        writeLock.lock();
+        try {
+            formatMap = new HashMap<String, HashMap<String, String>>();
+            termFormatMap = new HashMap<String, HashMap<String, String>>();
+            loadFormatMapsAttempted.clear();
+            changed();
         }
-        if (termFormatMap != null) {
-            Iterator<HashMap<String, String>> itf = termFormatMap.values().iterator();
-            while (itf.hasNext()) {
-                HashMap<String, String> m = itf.next();
-                if (m != null)
-                    m.clear();
-            }
-            termFormatMap.clear();
+        finally {
+            writeLock.unlock();
         }
-        loadFormatMapsAttempted.clear();
         return;
     }
 
+    /*****************************************************************
+     * Rebuild the format maps of the languages already loaded from the
+     * current formulas of the KB and publish them in place of the old
+     * ones, which readers keep using until then.  The write lock must
+     * be held.
+     */
+    private void rebuildFormatMaps() {
+
+        HashSet<String> langs = new HashSet<String>();
+        if (formatMap != null)
+            langs.addAll(formatMap.keySet());
+        if (termFormatMap != null)
+            langs.addAll(termFormatMap.keySet());
+        loadFormatMapsAttempted.clear();
+        HashMap<String, HashMap<String, String>> newFormatMap = new HashMap<String, HashMap<String, String>>();
+        HashMap<String, HashMap<String, String>> newTermFormatMap = new HashMap<String, HashMap<String, String>>();
+        for (String lang : langs) {
+            HashMap<String, String> langFormatMap = new HashMap<String, String>();
+            HashMap<String, String> langTermFormatMap = new HashMap<String, String>();
+            addFormats(lang, langFormatMap, langTermFormatMap);
+            loadFormatMapsAttempted.add(lang);
+            newFormatMap.put(lang, langFormatMap);
+            newTermFormatMap.put(lang, langTermFormatMap);
+        }
+        formatMap = newFormatMap;
+        termFormatMap = newTermFormatMap;
+        changed();
+    }
+
     /*****************************************************************
      * This method creates a dictionary (Map) of SUO-KIF term symbols -- the keys --
      * and a natural language string for each key that is the preferred name for
@@ -2529,12 +2926,17 @@ public class KB implements Serializable {
 
         if (!StringUtil.isNonEmptyString(lang))
             lang = "EnglishLanguage";
-        if ((termFormatMap == null) || termFormatMap.isEmpty())
-            loadFormatMaps(lang);
-        HashMap<String, String> langTermFormatMap = termFormatMap.get(lang);
-        if ((langTermFormatMap == null) || langTermFormatMap.isEmpty())
-            loadFormatMaps(lang);
-        return (HashMap<String, String>) termFormatMap.get(lang);
+        HashMap<String, HashMap<String, String>> maps = termFormatMap;
+        HashMap<String, String> langTermFormatMap = (maps == null) ? null : maps.get(lang);
+        if ((langTermFormatMap == null) || langTermFormatMap.isEmpty()) {
+            // while another thread changes the KB, use the maps it last
+            // published rather than wait for it
+            if (loadFormatMaps(lang, false))
+                langTermFormatMap = termFormatMap.get(lang);
+            if (langTermFormatMap == null)
+                langTermFormatMap = new HashMap<String, String>();
+        }
+        return langTermFormatMap;
     }
 
     /*****************************************************************
@@ -2550,12 +2952,17 @@ public class KB implements Serializable {
 
         if (!StringUtil.isNonEmptyString(lang))
             lang = "EnglishLanguage";
-        if ((formatMap == null) || formatMap.isEmpty())
-            loadFormatMaps(lang);
-        HashMap<String, String> langFormatMap = formatMap.get(lang);
-        if ((langFormatMap == null) || langFormatMap.isEmpty())
-            loadFormatMaps(lang);
-        return formatMap.get(lang);
+        HashMap<String, HashMap<String, String>> maps = formatMap;
+        HashMap<String, String> langFormatMap = (maps == null) ? null : maps.get(lang);
+        if ((langFormatMap == null) || langFormatMap.isEmpty()) {
+            // while another thread changes the KB, use the maps it last
+            // published rather than wait for it
+            if (loadFormatMaps(lang, false))
+                langFormatMap = formatMap.get(lang);
+            if (langFormatMap == null)
+                langFormatMap = new HashMap<String, String>();
+        }
+        return langFormatMap;
     }
 
     /*****************************************************************
@@ -2647,6 +3054,21 @@ public class KB implements Serializable {
      */
     public void addConstituentInfo(KIF file) {
 
+        writeLock.lock();
+        try {
+            changed(file.formulas.keySet(), false);
+            addFormulas(file);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /***************************************************************
+     * The body of addConstituentInfo(), called with the write lock held
+     */
+    private void addFormulas(KIF file) {
+
         for (Map.Entry<String, Integer> entry : file.termFrequency.entrySet()) {
             if (!termFrequency.containsKey(entry.getKey())) {
                 termFrequency.put(entry.getKey(), entry.getValue());
@@ -2682,9 +3104,9 @@ public class KB implements Serializable {
             if ((count % 4000) == 1)
                 System.out.println("\nINFO in KB.addConstituent(): still adding values");
             if (!formulaMap.containsKey(internedFormula))
-                formulaMap.put(internedFormula, f);
+                putFormula(internedFormula, f);
         }
-        this.getTerms().addAll(file.terms);
+        addTerms(file.terms);
         if (!constituents.contains(file.filename))
             constituents.add(file.filename);
     }
@@ -2700,8 +3122,12 @@ public class KB implements Serializable {
 
         long millis = System.currentTimeMillis();
         System.out.println("INFO in KB.addConstituent(): " + filename);
+        LoadProfiler.begin("KIF.parse");
         KIF file = readConstituent(filename);
+        LoadProfiler.end("KIF.parse");
+        LoadProfiler.begin("KB.addConstituentInfo");
         addConstituentInfo(file);
+        LoadProfiler.end("KB.addConstituentInfo");
         System.out.println("INFO in KB.addConstituent(): added " + file.formulaMap.values().size() + " formulas and "
                 + file.terms.size() + " terms.");
         System.out.println("INFO in KB.addConstituent(): " + file.filename + " loaded in seconds: " + (System.currentTimeMillis() - millis) / 1000);
@@ -2714,7 +3140,8 @@ public class KB implements Serializable {
     public String reload() {
 
         ArrayList<String> newConstituents = new ArrayList<String>();
-        synchronized (this.getTerms()) {
+        writeLock.lock();
+        try {
             Iterator<String> ci = constituents.iterator();
             while (ci.hasNext()) {
                 String cName = ci.next();
@@ -2725,7 +3152,6 @@ public class KB implements Serializable {
             formulas.clear();
             formulaMap.clear();
             terms.clear();
-            clearFormatMaps();
             errors.clear();
             Iterator<String> nci = newConstituents.iterator();
             if (nci.hasNext())
@@ -2735,6 +3161,9 @@ public class KB implements Serializable {
                 addConstituent(cName);
                 // addConstituent(cName, false, false, false);
             }
+            // the old format maps stay published for readers until the
+            // new ones are built
+            rebuildFormatMaps();
             // build kb cache when "cache" = "yes"
             if (KBmanager.getMgr().getPref("cache").equalsIgnoreCase("yes")) {
                 kbCache = new KBcache(this);
@@ -2754,6 +3183,9 @@ public class KB implements Serializable {
             if (KBmanager.getMgr().prover == KBmanager.Prover.VAMPIRE)
                 loadVampire();
         }
+        finally {
+            writeLock.unlock();
+        }
         return "";
     }
 
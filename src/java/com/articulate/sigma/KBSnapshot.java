@@ -0,0 +1,497 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma;
+
+import java.util.*;
+
+/** ***************************************************************
+ * The terms, formulas and formula index of a KB as they were at one
+ * KB version.  A snapshot is never changed once built, so any number
+ * of threads may read it with no lock while KB.tell(), merge() or
+ * reload() change the KB.  KB.snapshot() builds a new one under the
+ * KB's write lock once the version has changed and publishes it in a
+ * single volatile write.  The Formula objects are those of the KB and
+ * are shared.
+ *
+ * The terms and maps of a snapshot are stacks of layers that are
+ * never changed once built.  A snapshot built after a change to some
+ * formulas, index keys and terms only shares the layers of the last
+ * snapshot and adds a layer with the changed entries, so a tell()
+ * followed by a read costs about the size of the change rather than
+ * the size of the KB.  A layer is merged into the one below it when
+ * it grows to half its size, which keeps the number of layers
+ * logarithmic in the size of the KB.
+ */
+public class KBSnapshot {
+
+    public final long version;
+
+    /** All the terms of the KB, in the order of KB.getTerms() */
+    public final SortedSet<String> terms;
+
+    private final LayeredMap<Formula> formulaMap;
+    private final LayeredMap<List<String>> formulas;
+
+    /** ***************************************************************
+     * Copy the KB, which must not change until this returns.
+     *
+     * @param previous the last snapshot of the KB, or null
+     * @param changedKeys the keys of KB.formulas changed since
+     *                    previous, or null if any may have changed
+     * @param replacedKeys those of changedKeys whose lists may have
+     *                     been changed other than by adding to their end
+     * @param changedFormulas the keys of KB.formulaMap changed since
+     *                        previous, or null if any may have changed
+     * @param addedTerms the terms added to the KB since previous, which
+     *                   must be null if any term may have been removed
+     */
+    KBSnapshot(KB kb, KBSnapshot previous, Set<String> changedKeys, Set<String> replacedKeys,
+               Set<String> changedFormulas, Set<String> addedTerms) {
+
+        version = kb.getVersion();
+        SortedSet<String> kbTerms = kb.getTerms();
+        if (previous == null || addedTerms == null ||
+                !Objects.equals(kbTerms.comparator(), previous.terms.comparator())) {
+            TreeSet<String> termSet = new TreeSet<>(kbTerms.comparator());
+            termSet.addAll(Arrays.asList(kbTerms.toArray(new String[0])));
+            terms = new LayeredSet(termSet);
+        }
+        else
+            terms = ((LayeredSet) previous.terms).with(addedTerms);
+
+        if (previous == null || changedFormulas == null)
+            formulaMap = new LayeredMap<>(new HashMap<>(kb.formulaMap));
+        else {
+            HashMap<String,Formula> changes = new HashMap<>();
+            for (String s : changedFormulas)
+                changes.put(s, kb.formulaMap.get(s));
+            formulaMap = previous.formulaMap.with(changes);
+        }
+
+        if (previous == null || changedKeys == null) {
+            HashMap<String,List<String>> all = new HashMap<>(kb.formulas.size() * 4 / 3 + 1);
+            for (Map.Entry<String,ArrayList<String>> e : kb.formulas.entrySet())
+                all.put(e.getKey(), freeze(e.getValue()));
+            formulas = new LayeredMap<>(all);
+        }
+        else {
+            HashMap<String,List<String>> changes = new HashMap<>();
+            for (String key : changedKeys) {
+                ArrayList<String> list = kb.formulas.get(key);
+                List<String> old = previous.formulas.get(key);
+                if (list != null && old != null && !replacedKeys.contains(key) && list.size() >= old.size())
+                    changes.put(key, ((ChunkedList) old).append(list.subList(old.size(), list.size())));
+                else
+                    changes.put(key, (list == null) ? null : freeze(list));
+            }
+            formulas = previous.formulas.with(changes);
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private static List<String> freeze(ArrayList<String> list) {
+
+        return new ChunkedList(list);
+    }
+
+    /** ***************************************************************
+     * @return the formula with the string, or null if there is none
+     */
+    public Formula formula(String s) {
+
+        return formulaMap.get(s);
+    }
+
+    /** ***************************************************************
+     * @return the formula strings of a key of KB.formulas, see
+     * KIF.createKey(), or null if there are none.  The list is the same
+     * object in every snapshot until the formulas of the key change.
+     */
+    public List<String> keyed(String key) {
+
+        return formulas.get(key);
+    }
+
+    /** ***************************************************************
+     * @return all the formulas of the KB, in no particular order
+     */
+    public Collection<Formula> formulas() {
+
+        return formulaMap.values();
+    }
+
+    /** ***************************************************************
+     * @return the number of formulas
+     */
+    public int formulaCount() {
+
+        return formulaMap.size();
+    }
+
+    /** ***************************************************************
+     * @return the number of layers of the formulas, which is at most
+     * about the logarithm of their number
+     */
+    int depth() {
+
+        return formulaMap.layers.size();
+    }
+
+    /** ***************************************************************
+     * A map from strings that is a stack of layers, newest last, where
+     * the entry of a key in a newer layer hides those below it, and a
+     * null value marks a key as removed.  The layers are never changed
+     * once built and are shared by the maps made from them by with().
+     */
+    static class LayeredMap<V> {
+
+        private final ArrayList<HashMap<String,V>> layers;
+        private final int size;
+
+        /** ***************************************************************
+         * A map of one layer, which must not be changed afterwards
+         */
+        LayeredMap(HashMap<String,V> all) {
+
+            all.values().removeIf(Objects::isNull);
+            layers = new ArrayList<>();
+            layers.add(all);
+            size = all.size();
+        }
+
+        /** ***************************************************************
+         */
+        private LayeredMap(ArrayList<HashMap<String,V>> layers, int size) {
+
+            this.layers = layers;
+            this.size = size;
+        }
+
+        /** ***************************************************************
+         * @return the value of the key, or null if there is none
+         */
+        V get(String key) {
+
+            for (int i = layers.size() - 1; i >= 0; i--) {
+                HashMap<String,V> layer = layers.get(i);
+                if (layer.containsKey(key))
+                    return layer.get(key);
+            }
+            return null;
+        }
+
+        /** ***************************************************************
+         */
+        int size() {
+
+            return size;
+        }
+
+        /** ***************************************************************
+         * @return a map with the entries of this one and the changes,
+         * which must not be changed afterwards, where a null value
+         * removes a key
+         */
+        LayeredMap<V> with(HashMap<String,V> changes) {
+
+            if (changes.isEmpty())
+                return this;
+            int newSize = size;
+            for (Map.Entry<String,V> e : changes.entrySet()) {
+                boolean had = get(e.getKey()) != null;
+                if (e.getValue() != null && !had)
+                    newSize++;
+                else if (e.getValue() == null && had)
+                    newSize--;
+            }
+            ArrayList<HashMap<String,V>> newLayers = new ArrayList<>(layers);
+            newLayers.add(changes);
+            while (newLayers.size() > 1 &&
+                    newLayers.get(newLayers.size() - 1).size() * 2 >= newLayers.get(newLayers.size() - 2).size()) {
+                HashMap<String,V> top = newLayers.remove(newLayers.size() - 1);
+                HashMap<String,V> merged = new HashMap<>(newLayers.get(newLayers.size() - 1));
+                merged.putAll(top);
+                if (newLayers.size() == 1)
+                    merged.values().removeIf(Objects::isNull);
+                newLayers.set(newLayers.size() - 1, merged);
+            }
+            return new LayeredMap<>(newLayers, newSize);
+        }
+
+        /** ***************************************************************
+         * @return the values of the map, in no particular order
+         */
+        Collection<V> values() {
+
+            if (layers.size() == 1)
+                return Collections.unmodifiableCollection(layers.get(0).values());
+            HashMap<String,V> all = new HashMap<>(layers.get(0));
+            for (int i = 1; i < layers.size(); i++)
+                all.putAll(layers.get(i));
+            all.values().removeIf(Objects::isNull);
+            return Collections.unmodifiableCollection(all.values());
+        }
+    }
+
+    /** ***************************************************************
+     * An unmodifiable list of strings stored as chunks that are never
+     * changed once built, so that a list made by append() shares the
+     * chunks of the one it was made from.  A chunk is merged into the
+     * one before it when it grows to half its size.
+     */
+    static class ChunkedList extends AbstractList<String> implements RandomAccess {
+
+        private final ArrayList<String[]> chunks;
+        // the index of the first string of each chunk
+        private final int[] starts;
+        private final int size;
+
+        /** ***************************************************************
+         */
+        ChunkedList(List<String> all) {
+
+            chunks = new ArrayList<>();
+            chunks.add(all.toArray(new String[0]));
+            starts = new int[] {0};
+            size = all.size();
+        }
+
+        /** ***************************************************************
+         */
+        private ChunkedList(ArrayList<String[]> chunks) {
+
+            this.chunks = chunks;
+            starts = new int[chunks.size()];
+            int n = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                starts[i] = n;
+                n += chunks.get(i).length;
+            }
+            size = n;
+        }
+
+        /** ***************************************************************
+         * @return a list of the strings of this one followed by more
+         */
+        ChunkedList append(List<String> more) {
+
+            if (more.isEmpty())
+                return this;
+            ArrayList<String[]> newChunks = new ArrayList<>(chunks);
+            newChunks.add(more.toArray(new String[0]));
+            while (newChunks.size() > 1 &&
+                    newChunks.get(newChunks.size() - 1).length * 2 >= newChunks.get(newChunks.size() - 2).length) {
+                String[] top = newChunks.remove(newChunks.size() - 1);
+                String[] below = newChunks.get(newChunks.size() - 1);
+                String[] merged = Arrays.copyOf(below, below.length + top.length);
+                System.arraycopy(top, 0, merged, below.length, top.length);
+                newChunks.set(newChunks.size() - 1, merged);
+            }
+            return new ChunkedList(newChunks);
+        }
+
+        @Override
+        public String get(int index) {
+
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            int c = Arrays.binarySearch(starts, index);
+            if (c < 0)
+                c = -c - 2;
+            while (chunks.get(c).length == 0)
+                c++;
+            return chunks.get(c)[index - starts[c]];
+        }
+
+        @Override
+        public int size() {
+
+            return size;
+        }
+    }
+
+    /** ***************************************************************
+     * A sorted set of strings that is a stack of disjoint sorted layers
+     * that are never changed once built, iterated by merging them.  The
+     * views of subSet(), headSet() and tailSet() are copies.
+     */
+    static class LayeredSet extends AbstractSet<String> implements SortedSet<String> {
+
+        private final ArrayList<TreeSet<String>> layers;
+        private final Comparator<? super String> order;
+        private final int size;
+
+        /** ***************************************************************
+         * A set of one layer, which must not be changed afterwards
+         */
+        LayeredSet(TreeSet<String> all) {
+
+            layers = new ArrayList<>();
+            layers.add(all);
+            order = all.comparator();
+            size = all.size();
+        }
+
+        /** ***************************************************************
+         */
+        private LayeredSet(ArrayList<TreeSet<String>> layers, Comparator<? super String> order, int size) {
+
+            this.layers = layers;
+            this.order = order;
+            this.size = size;
+        }
+
+        /** ***************************************************************
+         * @return a set with the strings of this one and the added ones
+         */
+        LayeredSet with(Collection<String> added) {
+
+            TreeSet<String> layer = new TreeSet<>(order);
+            for (String s : added) {
+                if (!contains(s))
+                    layer.add(s);
+            }
+            if (layer.isEmpty())
+                return this;
+            ArrayList<TreeSet<String>> newLayers = new ArrayList<>(layers);
+            newLayers.add(layer);
+            while (newLayers.size() > 1 &&
+                    newLayers.get(newLayers.size() - 1).size() * 2 >= newLayers.get(newLayers.size() - 2).size()) {
+                TreeSet<String> top = newLayers.remove(newLayers.size() - 1);
+                TreeSet<String> merged = new TreeSet<>(newLayers.get(newLayers.size() - 1));
+                merged.addAll(top);
+                newLayers.set(newLayers.size() - 1, merged);
+            }
+            return new LayeredSet(newLayers, order, size + layer.size());
+        }
+
+        /** ***************************************************************
+         */
+        @SuppressWarnings("unchecked")
+        private int compare(String a, String b) {
+
+            if (order != null)
+                return order.compare(a, b);
+            return ((Comparable<String>) a).compareTo(b);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+
+            for (TreeSet<String> layer : layers)
+                if (layer.contains(o))
+                    return true;
+            return false;
+        }
+
+        @Override
+        public int size() {
+
+            return size;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+
+            if (layers.size() == 1)
+                return Collections.unmodifiableSortedSet(layers.get(0)).iterator();
+            ArrayList<Iterator<String>> its = new ArrayList<>();
+            for (TreeSet<String> layer : layers)
+                its.add(layer.iterator());
+            String[] heads = new String[its.size()];
+            for (int i = 0; i < heads.length; i++)
+                heads[i] = its.get(i).hasNext() ? its.get(i).next() : null;
+            return new Iterator<String>() {
+
+                public boolean hasNext() {
+                    for (String h : heads)
+                        if (h != null)
+                            return true;
+                    return false;
+                }
+
+                public String next() {
+                    int min = -1;
+                    for (int i = 0; i < heads.length; i++) {
+                        if (heads[i] != null && (min < 0 || compare(heads[i], heads[min]) < 0))
+                            min = i;
+                    }
+                    if (min < 0)
+                        throw new NoSuchElementException();
+                    String result = heads[min];
+                    heads[min] = its.get(min).hasNext() ? its.get(min).next() : null;
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super String> comparator() {
+
+            return order;
+        }
+
+        /** ***************************************************************
+         */
+        private SortedSet<String> copy() {
+
+            TreeSet<String> result = new TreeSet<>(order);
+            result.addAll(this);
+            return Collections.unmodifiableSortedSet(result);
+        }
+
+        @Override
+        public SortedSet<String> subSet(String from, String to) {
+
+            return copy().subSet(from, to);
+        }
+
+        @Override
+        public SortedSet<String> headSet(String to) {
+
+            return copy().headSet(to);
+        }
+
+        @Override
+        public SortedSet<String> tailSet(String from) {
+
+            return copy().tailSet(from);
+        }
+
+        @Override
+        public String first() {
+
+            String result = null;
+            for (TreeSet<String> layer : layers)
+                if (!layer.isEmpty() && (result == null || compare(layer.first(), result) < 0))
+                    result = layer.first();
+            if (result == null)
+                throw new NoSuchElementException();
+            return result;
+        }
+
+        @Override
+        public String last() {
+
+            String result = null;
+            for (TreeSet<String> layer : layers)
+                if (!layer.isEmpty() && (result == null || compare(layer.last(), result) > 0))
+                    result = layer.last();
+            if (result == null)
+                throw new NoSuchElementException();
+            return result;
+        }
+    }
+}
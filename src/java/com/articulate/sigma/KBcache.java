@@ -394,7 +394,7 @@ public class KBcache implements Serializable {
         String newTerm = term + sep + suffix;
         if (kb.terms.contains(newTerm))
             System.out.println("Warning in KBcache.extendInstance(): term already exists: " + newTerm);
-        kb.terms.add(newTerm);
+        kb.addTerm(newTerm);
         HashSet<String> iset = instanceOf.get(term);
         instanceOf.put(newTerm,iset);
         //if (newTerm.endsWith("Fn"))
@@ -1664,6 +1664,8 @@ public class KBcache implements Serializable {
         millis = System.currentTimeMillis();
         System.out.println("INFO in KBcache.buildCaches(): size: " + instanceOf.keySet().size());
         System.out.println("KBcache.buildCaches(): total seconds: " + (System.currentTimeMillis() - startMillis) / 1000);
+        if (kb != null)
+            kb.changed(); // the cached formulas and taxonomy are part of what the browser shows
         initialized = true;
     }
 
@@ -20,6 +20,7 @@ package com.articulate.sigma;
 import com.articulate.sigma.CCheckManager.CCheckStatus;
 import com.articulate.sigma.VerbNet.VerbNet;
 import com.articulate.sigma.nlg.NLGUtils;
+import com.articulate.sigma.utils.LoadProfiler;
 import com.articulate.sigma.utils.PythonAPI;
 import com.articulate.sigma.utils.StringUtil;
 import com.articulate.sigma.wordNet.OMWordnet;
@@ -44,6 +45,12 @@ public class KBmanager implements Serializable {
     public static boolean initialized = false;
     public static boolean initializing = false;
     public static boolean debug = false;
+
+    // if false, always load from sources, even if kbmanager.ser is current
+    public static boolean useSerialized = true;
+
+    // if false, don't write kbmanager.ser after loading from sources
+    public static boolean writeSerialized = true;
     private String error = "";
 
     public static final List<String> configKeys =
@@ -56,7 +63,8 @@ public class KBmanager implements Serializable {
                     "tptpHomeDir","showcached","leoExecutable","holdsPrefix","logDir",
                     "englishPCFG","multiWordAnnotatorType","dbpediaSrcDir", "vampire",
                     "reportDup", "reportFnError", "verbnet", "jedit", "editdir", "termFormats",
-                    "loadLexicons");
+                    "loadLexicons", "dropFormulaCaches", "omwLanguages",
+                    "fragmentCacheSize", "fragmentCachePrewarm");
 
     public static final List<String> fileKeys =
             Arrays.asList("testOutputDir", "eprover", "inferenceTestDir", "baseDir",
@@ -247,8 +255,11 @@ public class KBmanager implements Serializable {
             preferences.put("cache","yes");
             preferences.put("TPTP","yes");
             preferences.put("TPTPDisplay","no");
+            preferences.put("dropFormulaCaches","no");
             preferences.put("userBrowserLimit","25");
             preferences.put("adminBrowserLimit","200");
+            preferences.put("fragmentCacheSize","32");
+            preferences.put("fragmentCachePrewarm","0");
             preferences.put("port","8080");
             preferences.put("hostname","localhost");
             preferences.put("https","false");
@@ -409,6 +420,32 @@ public class KBmanager implements Serializable {
                 kb.loadEProver();
             }
         }
+        if (KBmanager.getMgr().prefEquals("dropFormulaCaches","yes")) { // e.g. for a server that only browses
+            int count = kb.clearFormulaCaches();
+            System.out.println("KBmanager.loadKBforInference(): dropped caches of " + count + " formulas");
+        }
+    }
+
+    /** ***************************************************************
+     * Read the browse counts of each KB from the last run and render
+     * the pages of the fragmentCachePrewarm most browsed terms
+     */
+    private void prewarmFragments() {
+
+        int n = 0;
+        try {
+            if (!StringUtil.emptyString(getPref("fragmentCachePrewarm")))
+                n = Integer.parseInt(getPref("fragmentCachePrewarm").trim());
+        }
+        catch (NumberFormatException e) {
+            System.out.println("Error in KBmanager.prewarmFragments(): bad fragmentCachePrewarm " +
+                    getPref("fragmentCachePrewarm"));
+        }
+        for (KB kb : kbs.values()) {
+            FragmentCache.getCache().readCounts(kb);
+            if (n > 0)
+                HTMLformatter.prewarm(kb, n);
+        }
     }
 
     /** ***************************************************************
@@ -442,9 +479,13 @@ public class KBmanager implements Serializable {
         }
 
         long millis = System.currentTimeMillis();
+        LoadProfiler.begin("KBcache.buildCaches");
         kb.kbCache = new KBcache(kb);
         kb.kbCache.buildCaches();
+        LoadProfiler.end("KBcache.buildCaches");
+        LoadProfiler.begin("KB.checkArity");
         kb.checkArity();
+        LoadProfiler.end("KB.checkArity");
         System.out.println("KBmanager.loadKB(): seconds: " + (System.currentTimeMillis() - millis) / 1000);
         return true;
     }
@@ -608,7 +649,7 @@ public class KBmanager implements Serializable {
             SimpleElement configuration = readConfiguration(configFileDir);
             if (configuration == null)
                 throw new Exception("Error reading configuration file in KBmanager.initializeOnce()");
-            if (serializedExists() && !serializedOld(configuration)) {
+            if (useSerialized && serializedExists() && !serializedOld(configuration)) {
                 if (debug) System.out.println("KBmanager.initializeOnce(): serialized exists and is not old ");
                 loaded = loadSerialized();
                 if (loaded) {
@@ -647,11 +688,17 @@ public class KBmanager implements Serializable {
                     setDefaultAttributes();
                 System.out.println("Info in KBmanager.initializeOnce(): completed initialization");
                 if (debug) System.out.println("KBmanager.initializeOnce(): kbs: " + manager.kbs.values());
-                serialize();
+                if (writeSerialized) {
+                    LoadProfiler.begin("KBmanager.serialize");
+                    serialize();
+                    LoadProfiler.end("KBmanager.serialize");
+                }
                 initializing = false;
                 initialized = true;
+                LoadProfiler.begin("TPTP export");
                 for (KB kb : kbs.values())  // transform to TPTP only once all other initialization complete
                     loadKBforInference(kb);
+                LoadProfiler.end("TPTP export");
             }
         }
         catch (Exception ex) {
@@ -659,6 +706,8 @@ public class KBmanager implements Serializable {
             ex.printStackTrace();
             return;
         }
+        if (initialized)
+            prewarmFragments();
         System.out.println("Info in KBmanager.initializeOnce(): initialized is " + initialized);
         if (debug) System.out.println("KBmanager.initializeOnce(): number of preferences: " +
                 preferences.keySet().size());
@@ -681,10 +730,14 @@ public class KBmanager implements Serializable {
         long milis = System.currentTimeMillis();
         NLGUtils.init(kbDir);
         if (!prefEquals("loadLexicons","false")) {
+            LoadProfiler.begin("WordNet.initOnce");
             WordNet.wn.initOnce();
+            LoadProfiler.end("WordNet.initOnce");
+            LoadProfiler.begin("VerbNet and OMWordnet");
             VerbNet.initOnce();
             VerbNet.processVerbs();
             OMWordnet.readOMWfiles();
+            LoadProfiler.end("VerbNet and OMWordnet");
         }
         System.out.println("KBmanager.setConfiguration(): linguistics load time: " + (System.currentTimeMillis() - milis) / 1000);
         if (kbs != null && kbs.size() > 0 && !WordNet.initNeeded) {
@@ -951,6 +1004,11 @@ public class KBmanager implements Serializable {
      * gateway = JavaGateway()             # connect to the JVM
      * sigma_app = gateway.entry_point     # get the KB instance
      * print(sigma_app.getTerms())         # call a method
+     *
+     * For the batch methods of PythonAPI, start the gateway with
+     * JavaGateway(gateway_parameters=GatewayParameters(auto_convert=True))
+     * so that a Python list can be passed, and read the JSON result
+     * json.loads(sigma_app.getAllSubBatch(["Animal", "Plant"], "subclass"))
      */
     public static void pythonServer() {
 
@@ -361,81 +361,131 @@ public class KButilities {
     }
 
     /** *************************************************************
+     * @return the arcs of the semantic network around the term, and
+     * those around each term reached from it in up to count more arcs,
+     * where a term is reached by the arcs that have it as a target.
+     * The formulas of each term come from KB.getTermIndex() and the
+     * arcs of each term are found once.
      */
     public Set<GraphArc> generateSemNetNeighbors(KB kb, boolean cached, boolean strings, boolean links, String term, int count) {
 
         if (debug) System.out.println("generateSemNetNeighbors(): term: " + term + " count: " + count);
+        TermIndex index = kb.getTermIndex();
         TreeSet<GraphArc> resultSet = new TreeSet<>();
-        TreeSet<String> targets = new TreeSet<>();
-        for (Formula f : kb.formulaMap.values()) {          // look at all formulas in the KB
-            //if (debug) System.out.println("generateSemNetNeighbors(): check formula: " + f);
-            if (isCacheFile(f.sourceFile)  && !cached) {
-                if (debug) System.out.println("generateSemNetNeighbors(): cached: ");
-                continue;
+        HashSet<String> expanded = new HashSet<>();
+        TreeSet<String> frontier = new TreeSet<>();
+        frontier.add(term);
+        expanded.add(term);
+        for (int level = 0; level <= count && !frontier.isEmpty(); level++) {
+            TreeSet<String> targets = new TreeSet<>();
+            for (String t : frontier) {
+                for (int id : index.ids(t))
+                    semNetArcs(kb, index.formula(id), t, cached, strings, links, resultSet, targets);
             }
-            if ((!f.isSimpleClause(kb) || !f.isGround()) && links) {
-                if (debug) System.out.println("generateSemNetNeighbors(): not simple");
-                Set<String> terms = f.collectTerms();
-                for (String term1 : terms) {
-                    if (!term1.equals(term))
-                        continue;
-                    if (Formula.isLogicalOperator(term1) || Formula.isVariable(term1) || (!strings && StringUtil.isQuotedString(term1)))
-                        continue;
-                    for (String term2 : terms) {
-                        if (Formula.isLogicalOperator(term2) || Formula.isVariable(term2) || (!strings && StringUtil.isQuotedString(term2)))
-                            continue;
-                        if (!term1.equals(term2)) {
-                            GraphArc ga = new GraphArc(term1,"link",term2);
-                            resultSet.add(ga);
-                            targets.add(term2);
-                        }
-                    }
-                    GraphArc ga = new GraphArc(term1,"inAxiom", "\"" + f.getFormula() + "\"");
+            frontier = new TreeSet<>();
+            for (String t : targets) {
+                if (expanded.add(t))
+                    frontier.add(t);
+            }
+        }
+        //System.out.println("generateSemNetNeighbors(): returning: " + resultSet);
+        return resultSet;
+    }
+
+    /** *************************************************************
+     * Add the arcs of the semantic network that one formula gives the
+     * term, and the terms they lead to, as for generateSemanticNetwork()
+     */
+    private void semNetArcs(KB kb, Formula f, String term, boolean cached, boolean strings, boolean links,
+                            Set<GraphArc> resultSet, Set<String> targets) {
+
+        if (isCacheFile(f.sourceFile)  && !cached) {
+            if (debug) System.out.println("generateSemNetNeighbors(): cached: ");
+            return;
+        }
+        if ((!f.isSimpleClause(kb) || !f.isGround()) && links) {
+            if (debug) System.out.println("generateSemNetNeighbors(): not simple");
+            Set<String> terms = f.collectTerms();
+            if (terms == null || !terms.contains(term))
+                return;
+            if (Formula.isLogicalOperator(term) || Formula.isVariable(term) || (!strings && StringUtil.isQuotedString(term)))
+                return;
+            for (String term2 : terms) {
+                if (Formula.isLogicalOperator(term2) || Formula.isVariable(term2) || (!strings && StringUtil.isQuotedString(term2)))
+                    continue;
+                if (!term.equals(term2)) {
+                    GraphArc ga = new GraphArc(term,"link",term2);
                     resultSet.add(ga);
+                    targets.add(term2);
                 }
             }
-            else {
-                String predicate = f.getStringArgument(0);
-                if (debug) System.out.println("generateSemNetNeighbors(): simple");
-                ArrayList<String> args = f.argumentsToArrayListString(0);
-                if ((args != null && args.size() == 3) || args.get(0).equals("documentation")) { // could have a function which would return null
-                    String arg1 = f.getStringArgument(1);
-                    if (arg1.equals(term)) {
-                        if (debug) System.out.println("generateSemNetNeighbors(): check ground formula: " + f);
-                        String arg2 = f.getStringArgument(2);
-                        if (args.get(0).equals("documentation"))
-                            arg2 = f.getStringArgument(3);
-                        if (!Formula.isVariable(arg1) && !Formula.isVariable(arg2) &&
-                                (strings || !StringUtil.isQuotedString(arg1)) && (strings || !StringUtil.isQuotedString(arg2))) {
-                            if (StringUtil.isQuotedString(arg2))
-                                arg2 = StringUtil.removeEnclosingQuotes(arg2);
-                            GraphArc ga = new GraphArc(arg1, predicate, arg2);
-                            resultSet.add(ga);
-                            targets.add(arg2);
-                        }
+            GraphArc ga = new GraphArc(term,"inAxiom", "\"" + f.getFormula() + "\"");
+            resultSet.add(ga);
+        }
+        else {
+            String predicate = f.getStringArgument(0);
+            if (debug) System.out.println("generateSemNetNeighbors(): simple");
+            ArrayList<String> args = f.argumentsToArrayListString(0);
+            if (args == null)  // an argument is a formula or function
+                return;
+            if (args.size() == 3 || args.get(0).equals("documentation")) {
+                String arg1 = f.getStringArgument(1);
+                if (arg1.equals(term)) {
+                    if (debug) System.out.println("generateSemNetNeighbors(): check ground formula: " + f);
+                    String arg2 = f.getStringArgument(2);
+                    if (args.get(0).equals("documentation"))
+                        arg2 = f.getStringArgument(3);
+                    if (!Formula.isVariable(arg1) && !Formula.isVariable(arg2) &&
+                            (strings || !StringUtil.isQuotedString(arg1)) && (strings || !StringUtil.isQuotedString(arg2))) {
+                        if (StringUtil.isQuotedString(arg2))
+                            arg2 = StringUtil.removeEnclosingQuotes(arg2);
+                        GraphArc ga = new GraphArc(arg1, predicate, arg2);
+                        resultSet.add(ga);
+                        targets.add(arg2);
                     }
-                    arg1 = f.getStringArgument(2);
-                    if (arg1.equals(term)) {
-                        if (debug) System.out.println("generateSemNetNeighbors(): check ground formula: " + f);
-                        String arg2 = f.getStringArgument(1);
-                        if (!Formula.isVariable(arg1) && !Formula.isVariable(arg2) &&
-                                (strings || !StringUtil.isQuotedString(arg1)) && (strings || !StringUtil.isQuotedString(arg2))) {
-                            if (StringUtil.isQuotedString(arg1))
-                                arg2 = StringUtil.removeEnclosingQuotes(arg1);
-                            GraphArc ga = new GraphArc(arg2, predicate, arg1);
-                            resultSet.add(ga);
-                            targets.add(arg2);
-                        }
+                }
+                arg1 = f.getStringArgument(2);
+                if (arg1.equals(term)) {
+                    if (debug) System.out.println("generateSemNetNeighbors(): check ground formula: " + f);
+                    String arg2 = f.getStringArgument(1);
+                    if (!Formula.isVariable(arg1) && !Formula.isVariable(arg2) &&
+                            (strings || !StringUtil.isQuotedString(arg1)) && (strings || !StringUtil.isQuotedString(arg2))) {
+                        if (StringUtil.isQuotedString(arg1))
+                            arg2 = StringUtil.removeEnclosingQuotes(arg1);
+                        GraphArc ga = new GraphArc(arg2, predicate, arg1);
+                        resultSet.add(ga);
+                        targets.add(arg2);
                     }
                 }
             }
         }
-        //System.out.println("generateSemNetNeighbors(): before recursion: " + resultSet);
-        if (count > 0)
-            for (String s : targets)
-                resultSet.addAll(generateSemNetNeighbors(kb,cached,strings,links,s,count-1));
-        //System.out.println("generateSemNetNeighbors(): returning: " + resultSet);
-        return resultSet;
+    }
+
+    /** *************************************************************
+     * Write the arcs as a JSON array, one arc at a time, in the form of
+     * JSONValue.toJSONString()
+     */
+    public static void writeJSON(Collection<GraphArc> arcs, Writer w) throws IOException {
+
+        w.write('[');
+        boolean first = true;
+        for (GraphArc ga : arcs) {
+            if (!first)
+                w.write(',');
+            w.write(ga.toJSONString());
+            first = false;
+        }
+        w.write(']');
+        w.flush();
+    }
+
+    /** *************************************************************
+     * Write the arcs of generateSemNetNeighbors() as JSON
+     */
+    public void semNetNeighborsAsJSON(KB kb, boolean cached, boolean strings, boolean links,
+                                      String term, int count, Writer w) throws IOException {
+
+        writeJSON(generateSemNetNeighbors(kb,cached,strings,links,term,count),w);
     }
 
     /** *************************************************************
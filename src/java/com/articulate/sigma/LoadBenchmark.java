@@ -0,0 +1,271 @@
+package com.articulate.sigma;
+
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.
+*/
+
+import com.articulate.sigma.utils.LoadProfiler;
+import com.articulate.sigma.utils.StringUtil;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/** ***************************************************************
+ * A command line benchmark of loading Sigma from sources with
+ * KBmanager.initializeOnce().  The constituents loaded are those in
+ * the config.xml of the given directory, so a config.xml that lists
+ * a fixed set of files gives comparable runs.  The serialized
+ * kbmanager.ser is neither read nor written, so a benchmark run
+ * leaves the one of a normal installation as it was.  Each run writes
+ * a JSON report, for comparison with later runs, and an HTML version
+ * of it.
+ */
+public class LoadBenchmark {
+
+    // phases that take less than this in the baseline are not checked
+    // for regressions, since their timings are mostly noise
+    public static long minMillis = 100;
+
+    /** ***************************************************************
+     * Load Sigma from the config.xml in configDir and return the report.
+     * The json-simple classes are raw Maps and Lists, hence the
+     * suppressed warnings.
+     */
+    @SuppressWarnings("unchecked")
+    public static JSONObject run(String configDir) {
+
+        LoadProfiler.reset();
+        LoadProfiler.enabled = true;
+        boolean useSerialized = KBmanager.useSerialized;
+        boolean writeSerialized = KBmanager.writeSerialized;
+        KBmanager.useSerialized = false;
+        KBmanager.writeSerialized = false;
+        long wall = System.nanoTime();
+        long cpu = LoadProfiler.cpuNanos();
+        try {
+            KBmanager.getMgr().initializeOnce(configDir);
+        }
+        finally {
+            KBmanager.useSerialized = useSerialized;
+            KBmanager.writeSerialized = writeSerialized;
+        }
+        wall = System.nanoTime() - wall;
+        cpu = LoadProfiler.cpuNanos() - cpu;
+        LoadProfiler.enabled = false;
+
+        JSONObject report = new JSONObject();
+        report.put("date", new Date().toString());
+        report.put("java", System.getProperty("java.version"));
+        report.put("config", configDir);
+        report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        report.put("totalWallMillis", wall / 1000000);
+        report.put("totalCpuMillis", cpu / 1000000);
+        JSONObject kbs = new JSONObject();
+        for (KB kb : KBmanager.getMgr().kbs.values()) {
+            JSONArray files = new JSONArray();
+            for (String c : kb.constituents) {
+                JSONObject file = new JSONObject();
+                file.put("name", new File(c).getName());
+                file.put("bytes", new File(c).length());
+                files.add(file);
+            }
+            kbs.put(kb.name, files);
+        }
+        report.put("kbs", kbs);
+        JSONArray phases = new JSONArray();
+        for (LoadProfiler.Phase p : LoadProfiler.getPhases().values()) {
+            JSONObject phase = new JSONObject();
+            phase.put("name", p.name);
+            phase.put("count", p.count);
+            phase.put("wallMillis", p.wallNanos / 1000000);
+            phase.put("cpuMillis", p.cpuNanos / 1000000);
+            phase.put("allocatedBytes", p.allocatedBytes);
+            phase.put("peakHeapBytes", p.peakHeapBytes);
+            phases.add(phase);
+        }
+        report.put("phases", phases);
+        return report;
+    }
+
+    /** ***************************************************************
+     * @return the report as an HTML page
+     */
+    public static String toHTML(JSONObject report) {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("<html><head><title>Sigma load benchmark</title></head><body>\n");
+        sb.append("<h2>Sigma load benchmark</h2>\n");
+        sb.append("<p>" + report.get("date") + ", Java " + report.get("java") + ", config " +
+                report.get("config") + "<br>\n");
+        sb.append("total wall ms: " + report.get("totalWallMillis") + ", total CPU ms: " +
+                report.get("totalCpuMillis") + "</p>\n");
+        sb.append("<table border=\"1\">\n<tr><th>phase</th><th>count</th><th>wall ms</th><th>CPU ms</th>" +
+                "<th>allocated MB</th><th>peak heap MB</th></tr>\n");
+        for (Object o : (JSONArray) report.get("phases")) {
+            JSONObject p = (JSONObject) o;
+            sb.append("<tr><td>" + p.get("name") + "</td><td>" + p.get("count") + "</td><td>" +
+                    p.get("wallMillis") + "</td><td>" + p.get("cpuMillis") + "</td><td>" +
+                    toMB(p.get("allocatedBytes")) + "</td><td>" + toMB(p.get("peakHeapBytes")) + "</td></tr>\n");
+        }
+        sb.append("</table>\n");
+        JSONObject kbs = (JSONObject) report.get("kbs");
+        for (Object kbName : kbs.keySet()) {
+            sb.append("<p>" + kbName + ":");
+            for (Object o : (JSONArray) kbs.get(kbName)) {
+                JSONObject file = (JSONObject) o;
+                sb.append(" " + file.get("name") + " (" + file.get("bytes") + ")");
+            }
+            sb.append("</p>\n");
+        }
+        sb.append("</body></html>\n");
+        return sb.toString();
+    }
+
+    /** ***************************************************************
+     */
+    private static long toMB(Object bytes) {
+
+        return ((Number) bytes).longValue() / (1024 * 1024);
+    }
+
+    /** ***************************************************************
+     */
+    private static long getLong(JSONObject obj, String key) {
+
+        Object o = obj.get(key);
+        if (o == null)
+            return 0;
+        return ((Number) o).longValue();
+    }
+
+    /** ***************************************************************
+     * Print a comparison of two reports.
+     *
+     * @param maxPercent the largest increase in wall or CPU time of a
+     *                   phase, or of the total, that is not a regression
+     * @return the phases, including "total", that regressed
+     */
+    public static List<String> diff(JSONObject base, JSONObject current, double maxPercent) {
+
+        List<String> regressions = new ArrayList<>();
+        if (!String.valueOf(base.get("kbs")).equals(String.valueOf(current.get("kbs"))))
+            System.out.println("Warning in LoadBenchmark.diff(): the runs loaded different constituents");
+        Map<String,JSONObject> basePhases = new LinkedHashMap<>();
+        for (Object o : (JSONArray) base.get("phases"))
+            basePhases.put((String) ((JSONObject) o).get("name"), (JSONObject) o);
+        System.out.println(String.format("%-25s %12s %12s %8s %12s %12s %8s %10s %10s",
+                "phase", "base wall", "wall", "%", "base cpu", "cpu", "%", "alloc MB", "peak MB"));
+        for (Object o : (JSONArray) current.get("phases")) {
+            JSONObject p = (JSONObject) o;
+            String name = (String) p.get("name");
+            JSONObject b = basePhases.get(name);
+            if (b == null) {
+                System.out.println(String.format("%-25s %12s %12d", name, "-", getLong(p, "wallMillis")));
+                continue;
+            }
+            if (compare(name, b, p, maxPercent))
+                regressions.add(name);
+        }
+        if (compare("total", base, current, maxPercent))
+            regressions.add("total");
+        return regressions;
+    }
+
+    /** ***************************************************************
+     * Print one line of the comparison
+     * @return true if wall or CPU time went up by more than maxPercent
+     */
+    private static boolean compare(String name, JSONObject b, JSONObject p, double maxPercent) {
+
+        String wallKey = name.equals("total") ? "totalWallMillis" : "wallMillis";
+        String cpuKey = name.equals("total") ? "totalCpuMillis" : "cpuMillis";
+        long bw = getLong(b, wallKey), w = getLong(p, wallKey);
+        long bc = getLong(b, cpuKey), c = getLong(p, cpuKey);
+        double wp = bw == 0 ? 0 : 100.0 * (w - bw) / bw;
+        double cp = bc == 0 ? 0 : 100.0 * (c - bc) / bc;
+        System.out.println(String.format("%-25s %12d %12d %7.1f%% %12d %12d %7.1f%% %10d %10d",
+                name, bw, w, wp, bc, c, cp, toMB(getLong(p, "allocatedBytes")), toMB(getLong(p, "peakHeapBytes"))));
+        return (bw >= minMillis && wp > maxPercent) || (bc >= minMillis && cp > maxPercent);
+    }
+
+    /** ***************************************************************
+     */
+    public static JSONObject read(String fname) throws Exception {
+
+        String s = new String(Files.readAllBytes(Paths.get(fname)), StandardCharsets.UTF_8);
+        return (JSONObject) new JSONParser().parse(s);
+    }
+
+    /** ***************************************************************
+     */
+    public static void write(String fname, String contents) throws IOException {
+
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(fname), StandardCharsets.UTF_8)) {
+            w.write(contents);
+        }
+    }
+
+    /** ***************************************************************
+     */
+    public static void showHelp() {
+
+        System.out.println("LoadBenchmark class");
+        System.out.println("  options:");
+        System.out.println("  -h - show this help screen");
+        System.out.println("  -r <configDir> <report> - load from the config.xml in configDir and write");
+        System.out.println("       <report>.json and <report>.html");
+        System.out.println("  -d <base.json> <new.json> [maxPercent] - compare two reports, exiting with");
+        System.out.println("       status 1 if the wall or CPU time of any phase rose by more than");
+        System.out.println("       maxPercent (default 10)");
+    }
+
+    /** ***************************************************************
+     */
+    public static void main(String[] args) {
+
+        if (args == null || args.length < 1 || args[0].equals("-h")) {
+            showHelp();
+            return;
+        }
+        try {
+            if (args[0].equals("-r") && args.length > 2) {
+                JSONObject report = run(args[1]);
+                write(args[2] + ".json", report.toJSONString());
+                write(args[2] + ".html", toHTML(report));
+                System.out.println("LoadBenchmark.main(): wrote " + args[2] + ".json and .html");
+            }
+            else if (args[0].equals("-d") && args.length > 2) {
+                double maxPercent = 10;
+                if (args.length > 3 && !StringUtil.emptyString(args[3]))
+                    maxPercent = Double.parseDouble(args[3]);
+                List<String> regressions = diff(read(args[1]), read(args[2]), maxPercent);
+                if (!regressions.isEmpty()) {
+                    System.out.println("LoadBenchmark.main(): regressions over " + maxPercent + "%: " + regressions);
+                    System.exit(1);
+                }
+            }
+            else
+                showHelp();
+        }
+        catch (Exception e) {
+            System.out.println("Error in LoadBenchmark.main(): " + e.getMessage());
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+}
@@ -8,9 +8,17 @@ import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.articulate.sigma.trans.OWLtranslator;
 import com.articulate.sigma.utils.StringUtil;
@@ -38,6 +46,9 @@ public class Mapping {
         new TreeMap<String,TreeMap<Integer,String>>();
     public static char termSeparator = '!';
 
+    /** The number of threads that score the terms of mapOntologies() */
+    public static int threads = Runtime.getRuntime().availableProcessors();
+
     /** *************************************************************
      *  Write synonymousExternalConcept expressions for term pairs
      *  given in cbset.  They are strings of the form
@@ -245,7 +256,7 @@ public class Mapping {
 
     /** *************************************************************
      */
-    private static int stringMatch(String t1, String t2, String matchMethod) {
+    static int stringMatch(String t1, String t2, String matchMethod) {
 
         if (matchMethod.equals("JaroWinkler")) 
             return getJaroWinklerDistance(t1, t2);
@@ -262,92 +273,461 @@ public class Mapping {
      * (4) extra "points" for having terms that align with the same
      * structural arrangement
      * 
-     * @return a TreeMap where the key is a term from the first
-     *         ontology and the value is another TreeMap.  The
-     *         internal TreeMap has keys that are an integer mapping
-     *         score and the values are terms from the second
-     *         ontology.
+     * The result is left in mappings, a TreeMap where the key is a
+     * term from the first ontology and the value is another TreeMap.
+     * The internal TreeMap has keys that are an integer mapping
+     * score and the values are terms from the second ontology.
      */
     public static void mapOntologies(String kbName1, String kbName2, int threshold, String matchMethod) {
 
-        System.out.println("INFO in Mapping.mapOntologies()");
+        KB kb1 = KBmanager.getMgr().getKB(kbName1);
+        KB kb2 = KBmanager.getMgr().getKB(kbName2);
+        if (kb1 == null || kb2 == null) {
+            if (kb1 == null)
+                System.out.println(kbName1 + " not found<P>\n");
+            if (kb2 == null)
+                System.out.println(kbName2 + " not found<P>\n");
+            mappings = new TreeMap<String,TreeMap<Integer,String>>();
+            return;
+        }
+        mappings = mapOntologies(kb1, kb2, threshold, matchMethod);
+    }
 
+    /** *************************************************************
+     * Score each valid term of kb1 against each valid term of kb2 by
+     * the best match between their normalized names and termFormat
+     * labels, and keep the terms of kb2 that score above 0 and below
+     * threshold.  Where two terms of kb2 have the same score, the
+     * later one in the order of kb2's terms is kept.  Rather than
+     * scoring every pair of terms, the terms of kb2 that may score
+     * below threshold are found first through a Candidates index, and
+     * the terms of kb1 are scored on a pool of threads (see threads).
+     *
+     * @return the mappings, see mapOntologies(String,String,int,String)
+     */
+    public static TreeMap<String,TreeMap<Integer,String>> mapOntologies(KB kb1, KB kb2,
+                                                                      int threshold, String matchMethod) {
+
+        System.out.println("INFO in Mapping.mapOntologies()");
         long t1 = System.currentTimeMillis();
-        int mapCount = 0;
         if (!matchMethod.equals("JaroWinkler") && 
                 !matchMethod.equals("Levenshtein") &&
                 !matchMethod.equals("Substring")) {
-            matchMethod = "Substring";
             System.out.println("Error in Mapping.mapOntologies(): Invalid match method " + 
                     matchMethod + ". Defaulting to substring match.");
+            matchMethod = "Substring";
         }
+        TermStrings ts1 = new TermStrings(kb1);
+        TermStrings ts2 = new TermStrings(kb2);
+        Candidates candidates = new Candidates(ts2, matchMethod);
+        System.out.println("INFO in Mapping.mapOntologies(): " + ts1.terms.length + " x " + ts2.terms.length +
+                " terms prepared in " + ((System.currentTimeMillis() - t1) / 1000.0) + " seconds");
 
-        TreeMap result = new TreeMap();
-        int counter = 0;
-        KB kb1,kb2;
-        kb1 = KBmanager.getMgr().getKB(kbName1);
-        kb2 = KBmanager.getMgr().getKB(kbName2);
-        int totalCandidates = kb1.getTerms().size() * kb2.getTerms().size();
-        System.out.println("Time estimate to map: " + totalCandidates / 100 + " seconds.");
-        if (kb1 != null && kb2 != null) {
-            synchronized (kb1.getTerms()) {
-                synchronized (kb2.getTerms()) {
-                    Iterator it1 = kb1.getTerms().iterator();
-                    while (it1.hasNext()) {
-                        counter++;
-                        if (counter > 100) {
-                            System.out.print(".");
-                            counter = 0;
-                        }
-                        String term1 = (String) it1.next();
-                        if (isValidTerm(term1)) {
-                            String normTerm1 = normalize(term1);
-                            String normLabel1 = normalize(getTermFormat(kb1,term1));
-                            TreeMap tm = (TreeMap) result.get(term1);
-                            if (tm == null) 
-                                tm = new TreeMap();
-                            Iterator it2 = kb2.getTerms().iterator();
-                            while (it2.hasNext()) {
-                                String term2 = (String) it2.next();
-                                if (isValidTerm(term2)) {
-                                    String normTerm2 = normalize(term2);
-                                    String normLabel2 = normalize(getTermFormat(kb2,term2));
-                                    int score = Integer.MAX_VALUE; 
-                                    score = min(score,stringMatch(normTerm1, normTerm2,matchMethod));
-                                    //System.out.println(normTerm1 + " " + normTerm2);
-                                    if (normLabel1 != null && isValidTerm(normLabel1))
-                                        score = min(score,stringMatch(normLabel1,normTerm2,matchMethod));                            
-                                    if (normLabel2 != null && isValidTerm(normLabel2)) 
-                                        score = min(score,stringMatch(normTerm1, normLabel2,matchMethod));                            
-                                    if (normLabel1 != null && normLabel2 != null && 
-                                            isValidTerm(normLabel1) && isValidTerm(normLabel2)) 
-                                        score = min(score,stringMatch(normLabel1, normLabel2,matchMethod));                            
-                                    if (score > 0 && score < Integer.MAX_VALUE) {
-                                        if (score < threshold) {                                
-                                            tm.put(Integer.valueOf(score), term2);
-                                            mapCount++;
-                                        }
-                                    }
-                                }
-                            }
-                            if (tm.keySet().size() > 0)
-                                result.put(term1,tm);
-                        }
+        @SuppressWarnings("unchecked")
+        TreeMap<Integer,String>[] found = (TreeMap<Integer,String>[]) new TreeMap<?,?>[ts1.terms.length];
+        AtomicInteger mapCount = new AtomicInteger();
+        AtomicInteger scored = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        int chunks = Math.max(1, Math.min(ts1.terms.length, threads * 8));
+        String method = matchMethod;
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int start = (int) ((long) ts1.terms.length * c / chunks);
+            int end = (int) ((long) ts1.terms.length * (c + 1) / chunks);
+            tasks.add(() -> {
+                Candidates.Scratch scratch = candidates.new Scratch();
+                for (int i = start; i < end; i++) {
+                    found[i] = mapTerm(ts1, i, ts2, candidates, scratch, threshold, method, mapCount, scored);
+                    if (done.incrementAndGet() % 100 == 0)
+                        System.out.print(".");
+                }
+            });
+        }
+        if (threads < 2 || chunks < 2) {
+            for (Runnable r : tasks)
+                r.run();
+        }
+        else {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                ArrayList<Future<?>> futures = new ArrayList<>();
+                for (Runnable r : tasks)
+                    futures.add(pool.submit(r));
+                for (Future<?> f : futures) {
+                    try {
+                        f.get();
+                    }
+                    catch (InterruptedException | ExecutionException e) {
+                        System.out.println("Error in Mapping.mapOntologies(): " + e.getMessage());
+                        e.printStackTrace();
                     }
                 }
             }
+            finally {
+                pool.shutdown();
+            }
         }
-        else {
-            if (kb1 == null)
-                System.out.println(kbName1 + " not found<P>\n");
-            if (kb2 == null)
-                System.out.println(kbName2 + " not found<P>\n");            
+        TreeMap<String,TreeMap<Integer,String>> result = new TreeMap<String,TreeMap<Integer,String>>();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i] != null && found[i].keySet().size() > 0)
+                result.put(ts1.terms[i], found[i]);
         }
         System.out.println();
-        System.out.println(totalCandidates + " " + " possible mappings checked with " +
-                mapCount + " mappings found in "
+        System.out.println(((long) ts1.terms.length * ts2.terms.length) + " possible mappings, " +
+                scored.get() + " candidates scored, " + mapCount.get() + " mappings found in "
                 + ((System.currentTimeMillis() - t1) / 1000.0) + " seconds");
-        mappings = result;
+        return result;
+    }
+
+    /** *************************************************************
+     * Score the term of ts1 with number i against the candidate terms
+     * of ts2, in their order
+     *
+     * @return the terms of ts2 by score, or null if there are none
+     */
+    private static TreeMap<Integer,String> mapTerm(TermStrings ts1, int i, TermStrings ts2,
+                                                   Candidates candidates, Candidates.Scratch scratch,
+                                                   int threshold, String matchMethod,
+                                                   AtomicInteger mapCount, AtomicInteger scored) {
+
+        String normTerm1 = ts1.names[i];
+        String normLabel1 = ts1.labels[i];
+        int[] terms2 = candidates.find(scratch, normTerm1, normLabel1, threshold);
+        TreeMap<Integer,String> tm = null;
+        for (int j : terms2) {
+            String normTerm2 = ts2.names[j];
+            String normLabel2 = ts2.labels[j];
+            int score = Integer.MAX_VALUE;
+            score = min(score,boundedMatch(normTerm1, normTerm2, matchMethod, threshold));
+            if (normLabel1 != null)
+                score = min(score,boundedMatch(normLabel1, normTerm2, matchMethod, threshold));
+            if (normLabel2 != null)
+                score = min(score,boundedMatch(normTerm1, normLabel2, matchMethod, threshold));
+            if (normLabel1 != null && normLabel2 != null)
+                score = min(score,boundedMatch(normLabel1, normLabel2, matchMethod, threshold));
+            if (score > 0 && score < threshold) {
+                if (tm == null)
+                    tm = new TreeMap<Integer,String>();
+                tm.put(Integer.valueOf(score), ts2.terms[j]);
+                mapCount.incrementAndGet();
+            }
+        }
+        scored.addAndGet(terms2.length);
+        return tm;
+    }
+
+    /** *************************************************************
+     * The same as stringMatch() for a score below threshold.  A
+     * Levenshtein distance that is not below threshold is computed
+     * only as far as needed to show that it isn't, and a pair of
+     * strings that Levenshtein can't compare scores Integer.MAX_VALUE.
+     */
+    private static int boundedMatch(String t1, String t2, String matchMethod, int threshold) {
+
+        if (matchMethod.equals("Levenshtein")) {
+            if (t1.isEmpty() || t2.isEmpty())
+                return Integer.MAX_VALUE;
+            return getLevenshteinDistance(t1, t2, threshold - 1);
+        }
+        return stringMatch(t1, t2, matchMethod);
+    }
+
+    /** *************************************************************
+     * The valid terms of a KB, in the order of its terms, with their
+     * normalized names and normalized termFormat labels, computed once
+     * rather than for each pair of terms.  A label is null if there is
+     * none or if it is not a valid term.
+     */
+    static class TermStrings {
+
+        final String[] terms;
+        final String[] names;
+        final String[] labels;
+
+        TermStrings(KB kb) {
+
+            ArrayList<String> valid = new ArrayList<>();
+            for (String term : kb.snapshot().terms) {
+                if (isValidTerm(term))
+                    valid.add(term);
+            }
+            terms = valid.toArray(new String[0]);
+            names = new String[terms.length];
+            labels = new String[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                names[i] = normalize(terms[i]);
+                String label = normalize(getTermFormat(kb, terms[i]));
+                if (label != null && isValidTerm(label))
+                    labels[i] = label;
+            }
+        }
+    }
+
+    /** *************************************************************
+     * An index of the names and labels of the terms of one KB that
+     * finds, for a name and label of another KB, the terms that may
+     * match them below a threshold, without missing any that do.
+     * <ul>
+     * <li>Substring: a string contains another only if it contains
+     * each of its distinct character trigrams, which are looked up in
+     * an inverted index.  Strings of fewer than three characters are
+     * always candidates.</li>
+     * <li>Levenshtein: two strings whose lengths differ by d are at
+     * least d edits apart.</li>
+     * <li>JaroWinkler: the Winkler prefix bonus is at most 0.4 of the
+     * remaining distance and the Jaro score is bounded by the number
+     * of characters two strings have in common, which bounds both
+     * their ratio of lengths and their shared character counts.</li>
+     * </ul>
+     */
+    static class Candidates {
+
+        private final String method;
+        private final int termCount;
+        // each name and label, with the number of its term
+        private final String[] strings;
+        private final int[] termOf;
+        // for Substring: trigram postings of strings, in ascending
+        // order, the number of distinct trigrams of each string and
+        // the strings too short to have one
+        private final HashMap<String,int[]> trigrams = new HashMap<>();
+        private final int[] trigramCount;
+        private final int[] shortStrings;
+        // for Levenshtein and JaroWinkler: the strings in order of
+        // length and the position in that order of the first string of
+        // each length
+        private final int[] byLength;
+        private final int[] lengthStart;
+        // for JaroWinkler: the character counts of each string
+        private final short[][] chars;
+
+        Candidates(TermStrings ts, String method) {
+
+            this.method = method;
+            termCount = ts.terms.length;
+            ArrayList<String> s = new ArrayList<>();
+            ArrayList<Integer> t = new ArrayList<>();
+            for (int i = 0; i < ts.terms.length; i++) {
+                s.add(ts.names[i]);
+                t.add(i);
+                if (ts.labels[i] != null) {
+                    s.add(ts.labels[i]);
+                    t.add(i);
+                }
+            }
+            strings = s.toArray(new String[0]);
+            termOf = new int[strings.length];
+            for (int i = 0; i < termOf.length; i++)
+                termOf[i] = t.get(i);
+
+            trigramCount = new int[strings.length];
+            ArrayList<Integer> shorts = new ArrayList<>();
+            if (method.equals("Substring")) {
+                HashMap<String,ArrayList<Integer>> postings = new HashMap<>();
+                for (int i = 0; i < strings.length; i++) {
+                    HashSet<String> grams = trigrams(strings[i]);
+                    trigramCount[i] = grams.size();
+                    if (grams.isEmpty())
+                        shorts.add(i);
+                    for (String g : grams)
+                        postings.computeIfAbsent(g, k -> new ArrayList<>()).add(i);
+                }
+                for (String g : postings.keySet()) {
+                    ArrayList<Integer> list = postings.get(g);
+                    int[] ids = new int[list.size()];
+                    for (int i = 0; i < ids.length; i++)
+                        ids[i] = list.get(i);
+                    trigrams.put(g, ids);
+                }
+            }
+            shortStrings = new int[shorts.size()];
+            for (int i = 0; i < shortStrings.length; i++)
+                shortStrings[i] = shorts.get(i);
+
+            Integer[] order = new Integer[strings.length];
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+            Arrays.sort(order, (a, b) -> Integer.compare(strings[a].length(), strings[b].length()));
+            byLength = new int[order.length];
+            int maxLength = 0;
+            for (int i = 0; i < order.length; i++) {
+                byLength[i] = order[i];
+                maxLength = Math.max(maxLength, strings[order[i]].length());
+            }
+            lengthStart = new int[maxLength + 2];
+            int pos = 0;
+            for (int len = 0; len <= maxLength + 1; len++) {
+                while (pos < byLength.length && strings[byLength[pos]].length() < len)
+                    pos++;
+                lengthStart[len] = pos;
+            }
+
+            if (method.equals("JaroWinkler")) {
+                chars = new short[strings.length][];
+                for (int i = 0; i < strings.length; i++)
+                    chars[i] = charCounts(strings[i]);
+            }
+            else
+                chars = null;
+        }
+
+        /** *************************************************************
+         * Per thread working space for find()
+         */
+        class Scratch {
+            final int[] counts = new int[strings.length];
+            final int[] touched = new int[strings.length];
+            final boolean[] isCandidate = new boolean[termCount];
+        }
+
+        /** *************************************************************
+         * @return the distinct character trigrams of s
+         */
+        static HashSet<String> trigrams(String s) {
+
+            HashSet<String> result = new HashSet<>();
+            for (int i = 0; i + 3 <= s.length(); i++)
+                result.add(s.substring(i, i + 3));
+            return result;
+        }
+
+        /** *************************************************************
+         * @return the number of each lower case letter and digit in s,
+         * then the number of spaces, then the number of any other
+         * characters
+         */
+        static short[] charCounts(String s) {
+
+            short[] result = new short[38];
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c >= 'a' && c <= 'z')
+                    result[c - 'a']++;
+                else if (c >= '0' && c <= '9')
+                    result[26 + c - '0']++;
+                else if (c == ' ')
+                    result[36]++;
+                else
+                    result[37]++;
+            }
+            return result;
+        }
+
+        /** *************************************************************
+         * @return the numbers of the terms, in ascending order, whose
+         * name or label may match name or label, which may be null,
+         * with a score below threshold
+         */
+        int[] find(Scratch scratch, String name, String label, int threshold) {
+
+            if (threshold <= 1)
+                return new int[0];
+            boolean[] isCandidate = scratch.isCandidate;
+            Arrays.fill(isCandidate, false);
+            add(scratch, name, threshold);
+            if (label != null)
+                add(scratch, label, threshold);
+            int n = 0;
+            for (boolean b : isCandidate)
+                if (b)
+                    n++;
+            int[] result = new int[n];
+            n = 0;
+            for (int i = 0; i < isCandidate.length; i++)
+                if (isCandidate[i])
+                    result[n++] = i;
+            return result;
+        }
+
+        /** *************************************************************
+         */
+        private void add(Scratch scratch, String a, int threshold) {
+
+            boolean[] isCandidate = scratch.isCandidate;
+            if (method.equals("Substring")) {
+                HashSet<String> grams = trigrams(a);
+                if (grams.isEmpty()) {
+                    Arrays.fill(isCandidate, true);
+                    return;
+                }
+                for (int i : shortStrings)
+                    isCandidate[termOf[i]] = true;
+                int[] counts = scratch.counts;
+                int[] touched = scratch.touched;
+                int touchedCount = 0;
+                for (String g : grams) {
+                    int[] ids = trigrams.get(g);
+                    if (ids == null)
+                        continue;
+                    for (int id : ids) {
+                        if (counts[id]++ == 0)
+                            touched[touchedCount++] = id;
+                    }
+                }
+                for (int k = 0; k < touchedCount; k++) {
+                    int id = touched[k];
+                    if (counts[id] == grams.size() || counts[id] == trigramCount[id])
+                        isCandidate[termOf[id]] = true;
+                    counts[id] = 0;
+                }
+            }
+            else if (method.equals("Levenshtein")) {
+                if (a.isEmpty())
+                    return;
+                int max = threshold - 1;
+                addLengths(isCandidate, Math.max(1, a.length() - max), a.length() + max, null, 0);
+            }
+            else {
+                // the distance is (int) (100 * (1 - jw)) < threshold only
+                // if jw > 1 - threshold / 100, jw <= 0.6 * jaro + 0.4 and
+                // jaro <= (c / len1 + c / len2 + 1) / 3 for the c
+                // characters the strings have in common
+                double minJaro = (0.6 - threshold / 100.0) / 0.6 - 1e-9;
+                double minRatio = 3 * minJaro - 2;
+                if (a.isEmpty() || minRatio <= 0) {
+                    if (a.isEmpty() && threshold <= 100)
+                        return;
+                    addLengths(isCandidate, 0, Integer.MAX_VALUE, null, 0);
+                    return;
+                }
+                int len = a.length();
+                int lo = (int) Math.ceil(len * minRatio);
+                int hi = (int) Math.floor(len / minRatio);
+                addLengths(isCandidate, Math.max(1, lo), hi, charCounts(a), minJaro);
+            }
+        }
+
+        /** *************************************************************
+         * Add the terms of the strings with a length from lo to hi, and
+         * if aChars is not null, only those with enough characters in
+         * common with it for a Jaro score above minJaro
+         */
+        private void addLengths(boolean[] isCandidate, int lo, int hi, short[] aChars, double minJaro) {
+
+            if (lo >= lengthStart.length)
+                return;
+            int end = (hi + 1 >= lengthStart.length || hi == Integer.MAX_VALUE) ?
+                    byLength.length : lengthStart[hi + 1];
+            int aLength = 0;
+            if (aChars != null)
+                for (short c : aChars)
+                    aLength += c;
+            for (int p = lengthStart[lo]; p < end; p++) {
+                int id = byLength[p];
+                if (isCandidate[termOf[id]])
+                    continue;
+                if (aChars != null) {
+                    int common = 0;
+                    short[] bChars = chars[id];
+                    for (int k = 0; k < aChars.length; k++)
+                        common += Math.min(aChars[k], bChars[k]);
+                    double bound = ((double) common / aLength + (double) common / strings[id].length() + 1) / 3;
+                    if (bound <= minJaro)
+                        continue;
+                }
+                isCandidate[termOf[id]] = true;
+            }
+        }
     }
 
     /** *************************************************************
@@ -462,6 +842,52 @@ public class Mapping {
         return d[m-1][n-1];
      }
 
+    /** *************************************************************
+     *  The same as getLevenshteinDistance(s,t) for two strings that
+     *  are not empty, if that is no more than max, and otherwise
+     *  max + 1.  Only the cells of the table within max of its
+     *  diagonal are computed, and the computation stops at the first
+     *  row in which every cell is more than max.
+     */
+    public static int getLevenshteinDistance(String s, String t, int max) {
+
+        // like getLevenshteinDistance(s,t), compare all but the first
+        // characters
+        int m = s.length() - 1;
+        int n = t.length() - 1;
+        int over = max + 1;
+        if (max < 0 || Math.abs(m - n) > max)
+            return over;
+        int[] prev = new int[n + 2];
+        int[] cur = new int[n + 2];
+        for (int j = 0; j <= n + 1; j++)
+            prev[j] = (j <= max) ? j : over;
+        for (int i = 1; i <= m; i++) {
+            int lo = Math.max(1, i - max);
+            int hi = Math.min(n, i + max);
+            cur[lo - 1] = (lo == 1 && i <= max) ? i : over;
+            int rowMin = cur[lo - 1];
+            char c = s.charAt(i);
+            for (int j = lo; j <= hi; j++) {
+                int v;
+                if (c == t.charAt(j))
+                    v = prev[j-1];
+                else
+                    v = minimum(prev[j] + 1, cur[j-1] + 1, prev[j-1] + 1);
+                cur[j] = (v > over) ? over : v;
+                if (cur[j] < rowMin)
+                    rowMin = cur[j];
+            }
+            cur[hi + 1] = over;
+            if (rowMin > max)
+                return over;
+            int[] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        return (prev[n] > max) ? over : prev[n];
+    }
+
     /** *************************************************************
      *  Jaro-Winkler Mapping Method
      *  implemented by Gerard de Melo
@@ -181,18 +181,18 @@ public class PredVarInst {
         HashSet<String> predVars = gatherPredVars(kb,input);
         if (predVars.size() > 1) {
             if (rejectDoubles) {
-                SUMOtoTFAform.filterMessage = "reject axioms with more than one predicate variable";
+                SUMOtoTFAform.setFilterMessage("reject axioms with more than one predicate variable");
                 System.out.println("instantiatePredVars(): reject axioms with more than one predicate variable: \n" + input);
                 return null;
             }
             else {
                 if (!doublesHandled) {
-                    SUMOtoTFAform.filterMessage = "axiom with more than one predicate variable";
+                    SUMOtoTFAform.setFilterMessage("axiom with more than one predicate variable");
                     System.out.println("instantiatePredVars(): should handle: \n" + input);
                     return handleDoubles(kb);
                 }
                 else {
-                    SUMOtoTFAform.filterMessage = "axiom with more than one predicate variable";
+                    SUMOtoTFAform.setFilterMessage("axiom with more than one predicate variable");
                     System.out.println("instantiatePredVars(): should have already handled: \n" + input);
                     return null;
                 }
@@ -267,7 +267,7 @@ public class PredVarInst {
         if (result.size() == 0) {   // Return null if input contains predicate variables but cannot be initialized
             String errStr = "No predicate instantiations for ";
             errStr += input.getFormula();
-            input.errors.add(errStr);
+            input.getErrors().add(errStr);
             return null;
         }
         return result;
@@ -0,0 +1,61 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma;
+
+import com.articulate.sigma.utils.StringUtil;
+import edu.stanford.nlp.ling.CoreLabel;
+
+import java.util.HashMap;
+
+/** ***************************************************************
+ * What the HTML of one request depends on besides the KB: the start
+ * of the hyperlinks to terms, the natural language and the formal
+ * language.  A JSP makes one for each request and passes it to
+ * HTMLformatter and NLGUtils in place of the static
+ * HTMLformatter.kbHref, so that requests share no state and can be
+ * rendered in parallel.  A context is used by one request at a time.
+ */
+public class RenderContext {
+
+    // the anchor string up to the term= parameter
+    public final String kbHref;
+    public final String language;
+    public final String flang;
+
+    // the words of the last paraphrase and the arguments they come
+    // from, see LanguageFormatter.outputMap
+    public HashMap<String,CoreLabel> outputMap = new HashMap<>();
+
+    /** ***************************************************************
+     * @param language the natural language, or null for English
+     * @param flang the formal language, or null for SUO-KIF
+     */
+    public RenderContext(String kbHref, String language, String flang) {
+
+        this.kbHref = (kbHref == null) ? "" : kbHref;
+        this.language = StringUtil.emptyString(language) ? "EnglishLanguage" : language;
+        this.flang = StringUtil.emptyString(flang) ? "SUO-KIF" : flang;
+    }
+
+    /** ***************************************************************
+     * @param page the page that terms link to, such as Browse.jsp
+     * @return a context with links to the page for the KB
+     */
+    public static RenderContext forPage(String page, String kbName, String language, String flang) {
+
+        RenderContext ctx = new RenderContext(null, language, flang);
+        return new RenderContext(HTMLformatter.createHrefStart() + "/sigma/" + page + "?lang=" + ctx.language +
+                "&flang=" + ctx.flang + "&kb=" + kbName, ctx.language, ctx.flang);
+    }
+}
@@ -1,6 +1,7 @@
 package com.articulate.sigma;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 
 import com.articulate.sigma.KB;
 
@@ -61,6 +62,24 @@ public class TaxoModel {
         return result;
     }
 
+    /** ***************************************************************
+     * @return the parents, if up is true, or else the children of the
+     * term under the relation and its direct subrelations, as with
+     * KB.askWithPredicateSubsumption(), but from KB.getHierarchy() and
+     * without the statements of cache files.
+     */
+    public static LinkedHashSet<String> related(KB kb, String term, boolean up) {
+
+        LinkedHashSet<String> result = new LinkedHashSet<String>();
+        ArrayList<String> relations = kb.getHierarchy("subrelation").children(relation);
+        relations.add(0,relation);
+        for (String rel : relations) {
+            Hierarchy hierarchy = kb.getHierarchy(rel);
+            result.addAll(up ? hierarchy.parents(term) : hierarchy.children(term));
+        }
+        return result;
+    }
+
     /** ***************************************************************
      * Remove the parents of this node.
      */
@@ -99,12 +118,9 @@ public class TaxoModel {
         n.parents = new ArrayList<TaxoNode>();
         rootList.clear();  // = new HashMap();
         KB kb = KBmanager.getMgr().getKB(kbName);
-        ArrayList<Formula> forms = kb.askWithPredicateSubsumption(relation,1,nodeName);
-        forms = removeCached(forms);
-        for (int i = 0; i < forms.size(); i++) {
-            Formula form = (Formula) forms.get(i);
+        for (String parentName : related(kb,nodeName,true)) {
             TaxoNode parent = new TaxoNode();
-            parent.name = form.getStringArgument(2);
+            parent.name = parentName;
             if (parent.name.equals(n.name)) 
                 return;
             parent.childrenExpanded = false;
@@ -162,13 +178,9 @@ public class TaxoModel {
         n.oneChild = null;
         n.children = new ArrayList();
         KB kb = KBmanager.getMgr().getKB(kbName);
-        ArrayList forms = kb.askWithPredicateSubsumption(relation,2,nodeName);
-        // kb.askWithRestriction(0,relation,2,nodeName);
-        forms = removeCached(forms);
-        for (int i = 0; i < forms.size(); i++) {
-            Formula form = (Formula) forms.get(i);
+        for (String childName : related(kb,nodeName,false)) {
             TaxoNode child = new TaxoNode();
-            child.name = form.getStringArgument(1);
+            child.name = childName;
             n.children.add(child);
             String childKey = kbName + ":" + child.name;
             nodeMap.put(childKey,child);
@@ -37,9 +37,7 @@ public class TaxoNode {
         int width = indentLevel * 10;
         if (parents == null || parents.size() == 0) {
             KB kb = KBmanager.getMgr().getKB(TaxoModel.kbName);
-            ArrayList<Formula> forms = kb.askWithRestriction(0,TaxoModel.relation,1,name);
-            forms = TaxoModel.removeCached(forms);
-            if (forms.size() > 0) 
+            if (kb.getHierarchy(TaxoModel.relation).hasParents(name))
                 sb.append("<span style='white-space: nowrap;'><img src='pixmaps/trans.gif' width=" + width + " height=5><a href=\"" + kbHref + name + "&up=" + name + "\"><img border=0 height=11 src='pixmaps/arrowup.gif'></a>&nbsp;");
             else
                 sb.append("<span style='white-space: nowrap;'><img src='pixmaps/trans.gif' width=" + width + " height=5>&nbsp;");
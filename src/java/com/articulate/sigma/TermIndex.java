@@ -0,0 +1,124 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma;
+
+import com.articulate.sigma.utils.StringUtil;
+
+import java.util.*;
+
+/** ***************************************************************
+ * The formulas of a KBSnapshot that mention each term, at any depth,
+ * as arrays of formula numbers.  A formula is listed under each term
+ * of Formula.collectTerms() and under its first two arguments, which
+ * may be strings or numbers that KIF does not index, so that a search
+ * for the formulas of one term, such as that of
+ * KButilities.generateSemNetNeighbors(), need not look at every
+ * formula of the KB.  KB.getTermIndex() builds it and builds it again
+ * once the KB version changes.
+ */
+public class TermIndex {
+
+    private static final int[] NONE = new int[0];
+
+    final long version;
+
+    private final Formula[] forms;
+    private final HashMap<String,int[]> postings = new HashMap<>();
+
+    /** ***************************************************************
+     */
+    public TermIndex(KBSnapshot snap) {
+
+        version = snap.version;
+        forms = snap.formulas().toArray(new Formula[0]);
+        HashMap<String,int[]> building = new HashMap<>();
+        HashSet<String> terms = new HashSet<>();
+        for (int i = 0; i < forms.length; i++) {
+            Formula f = forms[i];
+            if (f == null)
+                continue;
+            terms.clear();
+            Set<String> collected = f.collectTerms();
+            if (collected != null)
+                terms.addAll(collected);
+            if (!f.atom()) {
+                for (int arg = 1; arg < 3; arg++) {
+                    String s = f.getStringArgument(arg);
+                    if (!StringUtil.emptyString(s))
+                        terms.add(s);
+                }
+            }
+            for (String term : terms)
+                add(building, term, i);
+        }
+        // trim each posting list, whose first element is its length
+        for (Map.Entry<String,int[]> e : building.entrySet()) {
+            int[] list = e.getValue();
+            postings.put(e.getKey(), Arrays.copyOfRange(list, 1, list[0] + 1));
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private static void add(HashMap<String,int[]> building, String term, int id) {
+
+        int[] list = building.get(term);
+        if (list == null) {
+            list = new int[4];
+            building.put(term, list);
+        }
+        else if (list[0] + 1 == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            building.put(term, list);
+        }
+        list[++list[0]] = id;
+    }
+
+    /** ***************************************************************
+     * @return the numbers of the formulas that mention the term
+     */
+    public int[] ids(String term) {
+
+        int[] result = postings.get(term);
+        return (result == null) ? NONE : result;
+    }
+
+    /** ***************************************************************
+     * @return the formula with the number
+     */
+    public Formula formula(int id) {
+
+        return forms[id];
+    }
+
+    /** ***************************************************************
+     * @return the formulas that mention the term
+     */
+    public ArrayList<Formula> formulas(String term) {
+
+        int[] ids = ids(term);
+        ArrayList<Formula> result = new ArrayList<>(ids.length);
+        for (int id : ids)
+            result.add(forms[id]);
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the number of terms indexed
+     */
+    public int size() {
+
+        return postings.size();
+    }
+}
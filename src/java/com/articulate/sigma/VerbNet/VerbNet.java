@@ -170,7 +170,7 @@ public class VerbNet {
     /** *************************************************************
      * @param tm Map of words with their corresponding synset numbers
      */
-    public static String formatVerbs(TreeMap<String,String> tm) {
+    public static String formatVerbs(SortedMap<String,String> tm) {
 
         StringBuffer result = new StringBuffer();
         int count = 0;
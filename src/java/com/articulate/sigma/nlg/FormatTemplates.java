@@ -0,0 +1,341 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico. See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.nlg;
+
+import com.articulate.sigma.Formula;
+import com.articulate.sigma.KB;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** ***************************************************************
+ * The format strings of one KB and language, compiled once into
+ * templates with the positions of their %1 ... %9 argument slots, so
+ * that LanguageFormatter does not handle the %n and %p directives,
+ * expand %* or search for each argument on every call.  It also holds
+ * the paraphrases of atoms and of statements with no variables, which
+ * don't depend on the statement they appear in.  One instance is
+ * shared by all the formatters of a KB and language and is made again
+ * once the KB version, the format maps or the keyword map change.
+ * All methods may be called from several threads.
+ */
+public class FormatTemplates {
+
+    // the most paraphrases of atoms and of statements to keep
+    public static int maxParaphrases = 100000;
+
+    private static final ConcurrentHashMap<String,FormatTemplates> templates = new ConcurrentHashMap<>();
+
+    private final KB kb;
+    private final long version;
+    private final String language;
+    private final Map<String,String> phraseMap;
+    private final int phraseMapSize;
+    private final Map<String,String> termMap;
+    private final int termMapSize;
+    private final Map<String,HashMap<String,String>> keywordMap;
+
+    // keys are the predicate, with a '-' in front if negated
+    private final ConcurrentHashMap<String,Template> formats = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String,String> keywords = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String,String> atoms = new ConcurrentHashMap<>();
+    // keys are the statement, with a '-' in front if negated
+    private final ConcurrentHashMap<String,String> paraphrases = new ConcurrentHashMap<>();
+
+    /** ***************************************************************
+     * A format string after the %n, %p and &% directives have been
+     * handled, and the compiled forms of it for each number of
+     * arguments.  Only a format with a %* directive depends on the
+     * number of arguments.
+     */
+    public static class Template {
+
+        public final String format;
+        private final boolean star;
+        private final Compiled compiled;
+        private final ConcurrentHashMap<Integer,Compiled> byLength;
+
+        /** ***************************************************************
+         */
+        Template(String format) {
+
+            this.format = format;
+            star = format.contains("%*");
+            compiled = star ? null : new Compiled(format);
+            byLength = star ? new ConcurrentHashMap<>() : null;
+        }
+
+        /** ***************************************************************
+         * @param f the statement being paraphrased, which is only read
+         *          if the format has a %* directive
+         */
+        public Compiled forStatement(Formula f, String language) {
+
+            if (!star)
+                return compiled;
+            return byLength.computeIfAbsent(f.listLength(),
+                    n -> new Compiled(NLGUtils.expandStar(n, format, language)));
+        }
+    }
+
+    /** ***************************************************************
+     * A format string split at its argument slots.  slots[i] is the
+     * argument number that goes between literals[i] and literals[i+1].
+     * The slots are the %1 ... %n that LanguageFormatter used to replace
+     * one after the other, until it found no %n+1.  A format that can't
+     * be split so that joining the pieces gives the same result is
+     * marked as not simple, and is filled in the old way.
+     */
+    public static class Compiled {
+
+        public final String text;
+        public final String[] literals;
+        public final int[] slots;
+        public final int args;
+        public final boolean simple;
+
+        /** ***************************************************************
+         */
+        Compiled(String text) {
+
+            this.text = text;
+            int n = 0;
+            while (n < 9 && text.contains("%" + (n + 1)))
+                n++;
+            args = n;
+            ArrayList<String> lits = new ArrayList<>();
+            ArrayList<Integer> nums = new ArrayList<>();
+            boolean ok = (n < 9);  // %10 and up are not filled as a single slot
+            int start = 0;
+            for (int i = 0; i + 1 < text.length(); i++) {
+                char c = text.charAt(i + 1);
+                if (text.charAt(i) == '%' && c >= '1' && c <= '0' + n) {
+                    if (i > start && text.charAt(i - 1) == '%')
+                        ok = false;
+                    lits.add(text.substring(start, i));
+                    nums.add(c - '0');
+                    start = i + 2;
+                    i++;
+                }
+            }
+            lits.add(text.substring(start));
+            literals = lits.toArray(new String[0]);
+            slots = new int[nums.size()];
+            for (int i = 0; i < slots.length; i++)
+                slots[i] = nums.get(i);
+            simple = ok;
+        }
+
+        /** ***************************************************************
+         * @param paras the paraphrases of arguments 1 ... args
+         * @return the format with the slots filled, or null if a
+         * paraphrase could itself be taken for a slot, in which case
+         * the caller has to replace the slots one after the other
+         */
+        public String fill(String[] paras) {
+
+            if (!simple)
+                return null;
+            for (String p : paras)
+                if (!isPlain(p))
+                    return null;
+            StringBuilder sb = new StringBuilder(text.length() + 32 * slots.length);
+            sb.append(literals[0]);
+            for (int i = 0; i < slots.length; i++) {
+                sb.append(paras[slots[i] - 1]);
+                sb.append(literals[i + 1]);
+            }
+            return sb.toString();
+        }
+
+        /** ***************************************************************
+         * @return false if the paraphrase has a '%' that a later
+         * replacement of a slot could match
+         */
+        private static boolean isPlain(String para) {
+
+            if (para == null)
+                return false;
+            int i = para.indexOf('%');
+            while (i != -1) {
+                if (i + 1 == para.length())
+                    return false;
+                char c = para.charAt(i + 1);
+                if (c >= '1' && c <= '9')
+                    return false;
+                i = para.indexOf('%', i + 1);
+            }
+            return true;
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private FormatTemplates(KB kb, String language, Map<String,String> phraseMap, Map<String,String> termMap) {
+
+        this.kb = kb;
+        version = (kb == null) ? 0 : kb.getVersion();
+        this.language = language;
+        this.phraseMap = phraseMap;
+        phraseMapSize = (phraseMap == null) ? 0 : phraseMap.size();
+        this.termMap = termMap;
+        termMapSize = (termMap == null) ? 0 : termMap.size();
+        keywordMap = NLGUtils.getKeywordMap();
+    }
+
+    /** ***************************************************************
+     * @return the templates of the KB and language for the given
+     * format maps
+     */
+    public static FormatTemplates get(KB kb, String language, Map<String,String> phraseMap,
+                                      Map<String,String> termMap) {
+
+        String key = ((kb == null) ? "" : kb.name) + "\t" + language;
+        FormatTemplates t = templates.get(key);
+        if (t == null || !t.isCurrent(kb, phraseMap, termMap)) {
+            t = new FormatTemplates(kb, language, phraseMap, termMap);
+            templates.put(key, t);
+        }
+        return t;
+    }
+
+    /** ***************************************************************
+     */
+    private boolean isCurrent(KB kb, Map<String,String> phraseMap, Map<String,String> termMap) {
+
+        return kb == this.kb && (kb == null || kb.getVersion() == version) &&
+                phraseMap == this.phraseMap && phraseMapSize == ((phraseMap == null) ? 0 : phraseMap.size()) &&
+                termMap == this.termMap && termMapSize == ((termMap == null) ? 0 : termMap.size()) &&
+                NLGUtils.getKeywordMap() == keywordMap;
+    }
+
+    /** ***************************************************************
+     * Drop the templates of all KBs and languages
+     */
+    public static void clear() {
+
+        templates.clear();
+    }
+
+    /** ***************************************************************
+     * @return the keyword of NLGUtils.getKeyword() in the language
+     */
+    public String keyword(String englishWord) {
+
+        return keywords.computeIfAbsent(englishWord, w -> NLGUtils.getKeyword(w, language));
+    }
+
+    /** ***************************************************************
+     * @return the template of the format of the predicate, or null if
+     * it has none
+     */
+    public Template template(String pred, boolean isNegMode) {
+
+        String strFormat = phraseMap.get(pred);
+        if (strFormat == null)
+            return null;
+        return formats.computeIfAbsent(isNegMode ? "-" + pred : pred,
+                k -> new Template(prepare(pred, strFormat, isNegMode)));
+    }
+
+    /** ***************************************************************
+     * Set up the term hyperlink and keep either the negative or the
+     * positive parts of the format
+     */
+    private String prepare(String pred, String strFormat, boolean isNegMode) {
+
+        if (strFormat.contains("&%"))                    // setup the term hyperlink
+            strFormat = strFormat.replaceAll("&%(\\w+)","&%" + pred + "\\$\"$1\"");
+        if (isNegMode) {                                    // handle negation
+            if (!strFormat.contains("%n")) {
+                strFormat = keyword("not") + " " + strFormat;
+            }
+            else {
+                if (!strFormat.contains("%n{")) {
+                    strFormat = strFormat.replace("%n", keyword("not"));
+                }
+                else {
+                    int start = strFormat.indexOf("%n{") + 3;
+                    int end = strFormat.indexOf("}",start);
+                    strFormat = (strFormat.substring(0,start-3)
+                            + strFormat.substring(start,end)
+                            + strFormat.substring(end+1,strFormat.length()));
+                }
+            }
+            // delete all the unused positive commands
+            strFormat = strFormat.replaceAll(" %p\\{.+?\\} "," ");
+            strFormat = strFormat.replaceAll("%p\\{.+?\\} "," ");
+        }
+        else {
+            // delete all the unused negative commands
+            strFormat = strFormat.replace(" %n "," ");
+            strFormat = strFormat.replace("%n "," ");
+            strFormat = strFormat.replaceAll(" %n\\{.+?\\} "," ");
+            strFormat = strFormat.replaceAll("%n\\{.+?\\} "," ");
+
+            if (strFormat.contains("%p{")) {
+                int start = strFormat.indexOf("%p{") + 3;
+                int end = strFormat.indexOf("}", start);
+                strFormat = (strFormat.substring(0, start-3)
+                        + strFormat.substring(start, end)
+                        + strFormat.substring(end+1, strFormat.length()));
+            }
+        }
+        return strFormat;
+    }
+
+    /** ***************************************************************
+     * @return whether the statement has no variables, so that its
+     * paraphrase can be kept
+     */
+    public static boolean isGround(String stmt) {
+
+        return stmt.indexOf('?') == -1 && stmt.indexOf('@') == -1;
+    }
+
+    /** ***************************************************************
+     * @return the paraphrase of LanguageFormatter.processAtom() for
+     * the atom
+     */
+    public String atom(String atom) {
+
+        String ans = atoms.get(atom);
+        if (ans == null) {
+            ans = LanguageFormatter.processAtom(atom, termMap);
+            if (atoms.size() >= maxParaphrases)
+                atoms.clear();
+            atoms.put(atom, ans);
+        }
+        return ans;
+    }
+
+    /** ***************************************************************
+     * @return the kept paraphrase of a statement with no variables, or
+     * null if there is none
+     */
+    public String paraphrase(String stmt, boolean isNegMode) {
+
+        return paraphrases.get(isNegMode ? "-" + stmt : stmt);
+    }
+
+    /** ***************************************************************
+     * Keep the paraphrase of a statement with no variables
+     */
+    public void putParaphrase(String stmt, boolean isNegMode, String paraphrase) {
+
+        if (paraphrases.size() >= maxParaphrases)
+            paraphrases.clear();
+        paraphrases.put(isNegMode ? "-" + stmt : stmt, paraphrase);
+    }
+}
@@ -38,7 +38,7 @@ public class LanguageFormatter {
     public static boolean debug = false;
 
     // a list of format parameters or words and the sentence words they match with
-    public static HashMap<String,CoreLabel> outputMap = new HashMap<>();
+    public final HashMap<String,CoreLabel> outputMap = new HashMap<>();
     private final String statement;
 
     private final Map<String, String> phraseMap;
@@ -46,9 +46,12 @@ public class LanguageFormatter {
     // kb.getTermFormatMap() for this language
     private final Map<String, String> termMap;
 
-    private static KB kb;
+    private final KB kb;
     private final String language;
 
+    // the compiled format strings and kept paraphrases for kb and language
+    private final FormatTemplates templates;
+
     private final Map<String, HashSet<String>> variableTypes;
 
     private final Map<String, HashSet<String>> variableToInstanceMap;
@@ -105,12 +108,12 @@ public class LanguageFormatter {
     public LanguageFormatter(String stmt, Map<String, String> phraseMap, Map<String, String> termMap,
                              KB kb, String language) {
 
-        outputMap = new HashMap<>();
         this.statement = stmt;
         this.phraseMap = phraseMap;
         this.termMap = termMap;
         this.kb = kb;
         this.language = language;
+        templates = FormatTemplates.get(kb, language, phraseMap, termMap);
 
         Formula f = new Formula();
         f.read(statement);
@@ -181,7 +184,7 @@ public class LanguageFormatter {
                 String informalNLG = theStack.doStatementLevelNatlLanguageGeneration();
                 if (! informalNLG.isEmpty())    {
                     // Resolve variables.
-                    informalNLG = LanguageFormatter.variableReplace(informalNLG, variableToInstanceMapNLG, variableTypesNLG, kb, language);
+                    informalNLG = LanguageFormatter.variableReplace(informalNLG, variableToInstanceMapNLG, variableTypesNLG, kb, language, outputMap);
                     if (debug) System.out.println("LanguageFormatter.htmlParaphrase():  " + informalNLG);
                     template = informalNLG;
                 }
@@ -190,13 +193,10 @@ public class LanguageFormatter {
 
             // Replace any variables in the template.
             if (StringUtil.isNonEmptyString(template)) {
-                Formula f = new Formula();
-                f.read(statement);
-                FormulaPreprocessor fp = new FormulaPreprocessor();
-                //HashMap varMap = fp.computeVariableTypes(kb);
+                // the types of the variables were computed by the constructor
                 HashMap<String, Set<String>> instanceMap = new HashMap<>();
                 HashMap<String, Set<String>> classMap = new HashMap<>();
-                HashMap<String, HashSet<String>> types = fp.computeVariableTypes(f, kb);
+                Map<String, HashSet<String>> types = variableTypes;
                 Iterator<String> it = types.keySet().iterator();
                 while (it.hasNext()) {
                     String var = it.next();
@@ -222,7 +222,7 @@ public class LanguageFormatter {
                 }
                 if (!instanceMap.isEmpty() || !classMap.isEmpty() ) {
                     //if ((instanceMap != null && !instanceMap.isEmpty()) || (classMap != null && !classMap.isEmpty()))
-                    template = variableReplace(template, instanceMap, classMap, kb, language);
+                    template = variableReplace(template, instanceMap, classMap, kb, language, outputMap);
                     if (debug) System.out.println("LanguageFormatter.htmlParaphrase(): template: " + template);
                 }
                 // Get rid of the percentage signs.
@@ -246,6 +246,26 @@ public class LanguageFormatter {
      */
     public String paraphraseStatement(String stmt, boolean isNegMode, int depth) {
 
+        // Without informal NLG the paraphrase of a statement with no
+        // variables doesn't depend on where it appears, so it is kept.
+        if (doInformalNLG || Formula.empty(stmt) || !FormatTemplates.isGround(stmt) ||
+                (phraseMap == null) || phraseMap.isEmpty() || (termMap == null) || termMap.isEmpty())
+            return paraphrase(stmt, isNegMode, depth);
+        String ans = templates.paraphrase(stmt, isNegMode);
+        if (ans == null) {
+            ans = paraphrase(stmt, isNegMode, depth);
+            if (ans != null)
+                templates.putParaphrase(stmt, isNegMode, ans);
+        }
+        return ans;
+    }
+
+    /******************************************************************
+     * Create a natural language paraphrase of a logical statement, for
+     * paraphraseStatement()
+     */
+    private String paraphrase(String stmt, boolean isNegMode, int depth) {
+
         if (debug) System.out.println("INFO in LanguageFormatter.paraphraseStatement(): stmt: " + stmt);
         if (Formula.empty(stmt)) {
             System.out.println("Error in LanguageFormatter.paraphraseStatement(): stmt is empty");
@@ -267,7 +287,7 @@ public class LanguageFormatter {
         theStack.insertFormulaArgs(f);
 
         if (f.atom()) {
-            ans = processAtom(stmt, termMap);
+            ans = templates.atom(stmt);
             return ans;
         }
         else {
@@ -348,7 +368,7 @@ public class LanguageFormatter {
             if (Formula.isVariable(pred))
                 result.append(pred);
             else
-                result.append(processAtom(pred, termMap));
+                result.append(templates.atom(pred));
             f.read(f.cdr());
             while (!f.empty()) {
                 if (debug) System.out.println("INFO in LanguageFormatter.paraphraseStatement(): stmt: " + f);
@@ -358,7 +378,7 @@ public class LanguageFormatter {
                 f.read(f.cdr());
                 result.append(" ");
                 if (Formula.atom(arg))
-                    result.append(processAtom(arg, termMap));
+                    result.append(templates.atom(arg));
                 else
                     result.append(paraphraseStatement(arg, isNegMode, depth + 1));
                 if (!f.empty()) {
@@ -582,22 +602,22 @@ public class LanguageFormatter {
 
         if (args.isEmpty())
             return "";
-        String COMMA = NLGUtils.getKeyword(",", language);
+        String COMMA = templates.keyword(",");
         //String QUESTION = getKeyword("?",language);
-        String IF = NLGUtils.getKeyword("if", language);
-        String THEN = NLGUtils.getKeyword("then", language);
-        String AND = NLGUtils.getKeyword("and", language);
-        String OR = NLGUtils.getKeyword("or", language);
-        String IFANDONLYIF = NLGUtils.getKeyword("if and only if", language);
-        String NOT = NLGUtils.getKeyword("not", language);
-        String FORALL = NLGUtils.getKeyword("for all", language);
-        String EXISTS = NLGUtils.getKeyword("there exists", language);
-        String EXIST = NLGUtils.getKeyword("there exist", language);
-        String NOTEXIST = NLGUtils.getKeyword("there don't exist", language);
-        String NOTEXISTS = NLGUtils.getKeyword("there doesn't exist", language);
-        String HOLDS = NLGUtils.getKeyword("holds", language);
-        String SOTHAT = NLGUtils.getKeyword("so that", language);
-        String SUCHTHAT = NLGUtils.getKeyword("such that", language);
+        String IF = templates.keyword("if");
+        String THEN = templates.keyword("then");
+        String AND = templates.keyword("and");
+        String OR = templates.keyword("or");
+        String IFANDONLYIF = templates.keyword("if and only if");
+        String NOT = templates.keyword("not");
+        String FORALL = templates.keyword("for all");
+        String EXISTS = templates.keyword("there exists");
+        String EXIST = templates.keyword("there exist");
+        String NOTEXIST = templates.keyword("there don't exist");
+        String NOTEXISTS = templates.keyword("there doesn't exist");
+        String HOLDS = templates.keyword("holds");
+        String SOTHAT = templates.keyword("so that");
+        String SUCHTHAT = templates.keyword("such that");
         if (StringUtil.emptyString(SUCHTHAT)) { SUCHTHAT = SOTHAT; }
 
         StringBuilder sb = new StringBuilder();
@@ -773,116 +793,51 @@ public class LanguageFormatter {
     private String paraphraseWithFormat(String stmt, boolean isNegMode) {
 
         if (debug) System.out.println("INFO in LanguageFormatter.paraphraseWithFormat(): Statement: " + stmt);
-        //System.out.println("neg mode: " + isNegMode);
         Formula f = new Formula();
         f.read(stmt);
         String pred = f.car();
-        String strFormat = phraseMap.get(pred);
-        //System.out.println("INFO in LanguageFormatter.paraphraseWithFormat(): 1 format: " + strFormat);
-        // System.out.println("str format: " + strFormat);
-        //int index;
-
-        if (strFormat.contains("&%"))                    // setup the term hyperlink
-            strFormat = strFormat.replaceAll("&%(\\w+)","&%" + pred + "\\$\"$1\"");
-
-        //System.out.println("INFO in LanguageFormatter.paraphraseWithFormat(): 2 format: " + strFormat);
-        if (isNegMode) {                                    // handle negation
-            if (!strFormat.contains("%n")) {
-                strFormat = NLGUtils.getKeyword("not", language) + " " + strFormat;
-            }
-            else {
-                if (!strFormat.contains("%n{")) {
-                    strFormat = strFormat.replace("%n", NLGUtils.getKeyword("not", language));
-                }
-                else {
-                    int start = strFormat.indexOf("%n{") + 3;
-                    int end = strFormat.indexOf("}",start);
-                    strFormat = (strFormat.substring(0,start-3)
-                            + strFormat.substring(start,end)
-                            + strFormat.substring(end+1,strFormat.length()));
-                }
-            }
-            // delete all the unused positive commands
-            isNegMode = false;
-            // strFormat = strFormat.replace("%p ","");
-            // strFormat = strFormat.replaceAll(" %p\\{[\\w\\']+\\} "," ");
-            // strFormat = strFormat.replaceAll("%p\\{[\\w\\']+\\} "," ");
-            strFormat = strFormat.replaceAll(" %p\\{.+?\\} "," ");
-            strFormat = strFormat.replaceAll("%p\\{.+?\\} "," ");
-        }
-        else {
-            // delete all the unused negative commands
-            strFormat = strFormat.replace(" %n "," ");
-            strFormat = strFormat.replace("%n "," ");
-            // strFormat = strFormat.replaceAll(" %n\\{[\\w\\']+\\} "," ");
-            // strFormat = strFormat.replaceAll("%n\\{[\\w\\']+\\} "," ");
-            strFormat = strFormat.replaceAll(" %n\\{.+?\\} "," ");
-            strFormat = strFormat.replaceAll("%n\\{.+?\\} "," ");
-
-            if (strFormat.contains("%p{")) {
-                int start = strFormat.indexOf("%p{") + 3;
-                int end = strFormat.indexOf("}", start);
-                strFormat = (strFormat.substring(0, start-3)
-                        + strFormat.substring(start, end)
-                        + strFormat.substring(end+1, strFormat.length()));
+        // the format with the negative or positive parts kept and any
+        // %* expanded.  Arguments are always paraphrased as positive.
+        FormatTemplates.Compiled format = templates.template(pred, isNegMode).forStatement(f, language);
+        if (debug) System.out.println("INFO in LanguageFormatter.paraphraseWithFormat(): format: " + format.text);
+        String[] paras = new String[format.args];
+        for (int num = 1; num <= format.args; num++)
+            paras[num - 1] = paraphraseArgument(f, num);
+        String result = format.fill(paras);
+        if (result == null) {              // replace the arguments one at a time
+            result = format.text;
+            int num = 1;
+            String argPointer = ("%" + num);
+            while (result.contains(argPointer)) {
+                String para = (num <= paras.length) ? paras[num - 1] : paraphraseArgument(f, num);
+                result = result.replace(argPointer, para);
+                num++;
+                argPointer = ("%" + num);
             }
         }
+        return result;
+    }
 
-        //System.out.println("INFO in LanguageFormatter.paraphraseWithFormat(): 3 format: " + strFormat);
-        if (strFormat.contains("%*"))
-            strFormat = NLGUtils.expandStar(f, strFormat, language);
+    /** ***************************************************************
+     * @return the paraphrase of argument num of the statement, for
+     * paraphraseWithFormat()
+     */
+    private String paraphraseArgument(Formula f, int num) {
 
-        //System.out.println("INFO in LanguageFormatter.paraphraseWithFormat(): 3.5 format: " + strFormat);
-        int num = 1;                                          // handle arguments
-        String argPointer = ("%" + num);
-        String arg = "";
+        if (debug) System.out.println("INFO in LanguageFormatter.paraphraseArgument(): Statement: " + f.getFormula());
+        if (debug) System.out.println("num: " + num);
+        String arg = f.getStringArgument(num);
         String para = "";
-        while (strFormat.contains(argPointer)) {
-            if (debug) System.out.println("INFO in LanguageFormatter.paraphraseWithFormat(): Statement: " + f.getFormula());
-            if (debug) System.out.println("arg: " + f.getArgument(num));
-            if (debug) System.out.println("num: " + num);
-            if (debug) System.out.println("str: " + strFormat);
-            arg = f.getStringArgument(num);
-            if (Formula.isVariable(arg))
-                para = arg;
-            else
-                para = paraphraseStatement(arg, isNegMode, 1);
-            if (debug) System.out.println("para: " + para);
-            //outputMap.add(new AVPair(pred + "-" + argPointer, para));
-            //System.out.println("para: " + para);
-            //if (!Formula.atom(para)) {
-                // Add the hyperlink placeholder for arg.
-           //     if (Formula.isVariable(argPointer))
-           //         strFormat = strFormat.replace(argPointer, para);
-            //    else {
-                    /**
-                     List splitPara = Arrays.asList(para.split("\\s+"));
-                     System.out.println("splitPara == " + splitPara);
-                     StringBuilder pb = new StringBuilder();
-                     int spLen = splitPara.size();
-                     for (int i = 0; i < spLen; i++) {
-                     if (i > 0) {
-                     pb.append(" ");
-                     }
-                     pb.append("&%");
-                     pb.append(arg);
-                     pb.append("$");
-                     pb.append((String) splitPara.get(i));
-                     }
-                     */
-            //        strFormat = strFormat.replace(argPointer, para);
-            //    }
-            //}
-            //else
-            strFormat = strFormat.replace(argPointer,para);
-            CoreLabel cl = new CoreLabel();
-            cl.setValue(para);
-            cl.set(RelationArgumentAnnotation.class,num);
-            outputMap.put(para,cl);
-            num++;
-            argPointer = ("%" + num);
-        }
-        return strFormat;
+        if (Formula.isVariable(arg))
+            para = arg;
+        else
+            para = paraphraseStatement(arg, false, 1);
+        if (debug) System.out.println("para: " + para);
+        CoreLabel cl = new CoreLabel();
+        cl.setValue(para);
+        cl.set(RelationArgumentAnnotation.class,num);
+        outputMap.put(para,cl);
+        return para;
     }
 
     /** ***************************************************************
@@ -890,7 +845,7 @@ public class LanguageFormatter {
      * spaces for readability.  Return variable unaltered.  Add
      * term format string to all other atoms.
      */
-    private static String processAtom(String atom, Map<String, String> termMap) {
+    static String processAtom(String atom, Map<String, String> termMap) {
 
         String result = atom;
         String unquoted = StringUtil.removeEnclosingQuotes(atom);
@@ -962,7 +917,7 @@ public class LanguageFormatter {
     /** ***************************************************************
      * create a map from numbered tokens to their types
      */
-    private static void createObjectMap(String form) {
+    private static void createObjectMap(String form, KB kb, HashMap<String,CoreLabel> outputMap) {
 
         form = removePreamble(form);
         form = form + " ";
@@ -1064,7 +1019,8 @@ public class LanguageFormatter {
      */
     private static String incrementalVarReplace(String form, String varString, String varType,
                                                 String varPretty, String language,
-                                                boolean isClass, HashMap<String,Integer> typeMap) {
+                                                boolean isClass, HashMap<String,Integer> typeMap,
+                                                KB kb, HashMap<String,CoreLabel> outputMap) {
 
         String argNumStr = "";
         if (debug) System.out.println("LanguageFormatter.incrementalVarReplace(): form " + form);
@@ -1081,7 +1037,7 @@ public class LanguageFormatter {
             outputMap.put(varString, cl); // create a "dummy" CoreLabel to hold the variable value
         }
         if (form.indexOf("?") < 0) // if there are variables, the replacements are not done yet
-            createObjectMap(form);
+            createObjectMap(form, kb, outputMap);
         String result = form;
         // Make necessary changes if the variable is a quoted string, i.e. a name.
 
@@ -1150,6 +1106,18 @@ public class LanguageFormatter {
     public static String variableReplace(String form, Map<String, Set<String>> instMap,
             HashMap<String, Set<String>> classMap, KB kb, String language) {
 
+        return variableReplace(form, instMap, classMap, kb, language, new HashMap<>());
+    }
+
+    /** **************************************************************
+     * Replace variables in a formula with paraphrases expressing their
+     * type, adding the words of the result to the outputMap of a
+     * formatter.
+     */
+    private static String variableReplace(String form, Map<String, Set<String>> instMap,
+            Map<String, Set<String>> classMap, KB kb, String language,
+            HashMap<String,CoreLabel> outputMap) {
+
         String result = form;
         HashMap<String,Integer> typeMap = new HashMap<>();
         ArrayList<String> varList = NLGUtils.collectOrderedVariables(form);
@@ -1163,19 +1131,19 @@ public class LanguageFormatter {
                 if (subclassArray != null && !subclassArray.isEmpty()) {
                     String varType = (String) subclassArray.toArray()[0];
                     String varPretty = kb.getTermFormatMap(language).get(varType);
-                    result = incrementalVarReplace(result, varString, varType, varPretty, language, true, typeMap);
+                    result = incrementalVarReplace(result, varString, varType, varPretty, language, true, typeMap, kb, outputMap);
                 }
                 else {
                     if (instanceArray != null && !instanceArray.isEmpty()) {
                         String varType = (String) instanceArray.toArray()[0];
                         String varPretty = kb.getTermFormatMap(language).get(varType);
-                        result = incrementalVarReplace(result, varString, varType, varPretty, language, false, typeMap);
+                        result = incrementalVarReplace(result, varString, varType, varPretty, language, false, typeMap, kb, outputMap);
                     }
                     else {
                         String varPretty = kb.getTermFormatMap(language).get("Entity");
                         if (StringUtil.emptyString(varPretty))
                             varPretty = "entity";
-                        result = incrementalVarReplace(result, varString, "Entity", varPretty, language, false, typeMap);
+                        result = incrementalVarReplace(result, varString, "Entity", varPretty, language, false, typeMap, kb, outputMap);
                     }
                 }         
             }
@@ -1289,15 +1257,17 @@ public class LanguageFormatter {
         String stmt =  "(exists (?FINANCIALTRANSACTION1 ?AGENT2 ) (broker ?FINANCIALTRANSACTION1 ?AGENT2 ))";
         Formula f = new Formula(stmt);
         System.out.println("Formula: " + f.getFormula());
-        System.out.println("result: " + StringUtil.filterHtml(NLGUtils.htmlParaphrase("", stmt, kb.getFormatMap("EnglishLanguage"), kb.getTermFormatMap("EnglishLanguage"), kb, "EnglishLanguage")));
-        System.out.println(NLGUtils.outputMap);
+        RenderContext ctx = new RenderContext("", "EnglishLanguage", "SUO-KIF");
+        System.out.println("result: " + StringUtil.filterHtml(NLGUtils.htmlParaphrase(ctx, stmt, kb)));
+        System.out.println(ctx.outputMap);
         System.out.println();
 
         stmt =  "(exists (?MOTION1 ?OBJECT2 ) (moves ?MOTION1 ?OBJECT2 ))";
         f = new Formula(stmt);
         System.out.println("Formula: " + f.getFormula());
-        System.out.println("result: " + StringUtil.filterHtml(NLGUtils.htmlParaphrase("", stmt, kb.getFormatMap("EnglishLanguage"), kb.getTermFormatMap("EnglishLanguage"), kb, "EnglishLanguage")));
-        System.out.println(NLGUtils.outputMap);
+        ctx = new RenderContext("", "EnglishLanguage", "SUO-KIF");
+        System.out.println("result: " + StringUtil.filterHtml(NLGUtils.htmlParaphrase(ctx, stmt, kb)));
+        System.out.println(ctx.outputMap);
         System.out.println();
     }
 
@@ -2,7 +2,6 @@ package com.articulate.sigma.nlg;
 
 import com.articulate.sigma.*;
 import com.articulate.sigma.utils.StringUtil;
-import edu.stanford.nlp.ling.CoreLabel;
 
 import java.io.*;
 import java.util.*;
@@ -17,7 +16,6 @@ public class NLGUtils implements Serializable {
     private static NLGUtils nlg = null;
     private HashMap<String,HashMap<String,String>> keywordMap;
     // a list of format parameters or words and the sentence words they match with
-    public static HashMap<String,CoreLabel> outputMap = new HashMap<>();
 
     /** *************************************************************
      */
@@ -508,10 +506,23 @@ public class NLGUtils implements Serializable {
                                         Map<String,String> termMap, KB kb, String language) {
 
         LanguageFormatter languageFormatter = new LanguageFormatter(stmt, phraseMap, termMap, kb, language);
-        outputMap = languageFormatter.outputMap;
         return languageFormatter.htmlParaphrase(href);
     }
 
+    /** ***************************************************************
+     * Paraphrase a statement in the language of the context, with
+     * hyperlinks from the context, and keep the words of the
+     * paraphrase in the outputMap of the context.
+     */
+    public static String htmlParaphrase(RenderContext ctx, String stmt, KB kb) {
+
+        LanguageFormatter languageFormatter = new LanguageFormatter(stmt, kb.getFormatMap(ctx.language),
+                kb.getTermFormatMap(ctx.language), kb, ctx.language);
+        String result = languageFormatter.htmlParaphrase(ctx.kbHref);
+        ctx.outputMap = languageFormatter.outputMap;
+        return result;
+    }
+
     /** ***************************************************************
      * This method expands all "star" (asterisk) directives in the input
      * format string, and returns a new format string with individually
@@ -530,10 +541,19 @@ public class NLGUtils implements Serializable {
      */
     public static String expandStar(Formula f, String strFormat, String lang) {
 
+        return expandStar(f.listLength(), strFormat, lang);
+    }
+
+    /** ***************************************************************
+     * Expand the "star" directives of the format string for a formula
+     * of flen elements, counting the predicate.  The expansion depends
+     * on nothing else of the formula, so FormatTemplates keeps it.
+     */
+    public static String expandStar(int flen, String strFormat, String lang) {
+
         String result = strFormat;
         ArrayList<String> problems = new ArrayList<>();
         try {
-            int flen = f.listLength();
             if (StringUtil.isNonEmptyString(strFormat) && (flen > 1)) {
                 int p1 = 0;
                 int p2 = strFormat.indexOf("%*");
@@ -34,6 +34,11 @@ public class SUMOKBtoTFAKB extends SUMOKBtoTPTPKB {
     public static final String REAL_SUFFIX = "Re";
     public static final String RAT_SUFFIX = "Ra";
 
+    // the TFF sort of every SUMO subclass of Integer, RationalNumber and
+    // RealNumber, for the KB cache in sortTableCache.  Other classes are $i
+    private static volatile HashMap<String,String> sortTable = null;
+    private static volatile KBcache sortTableCache = null;
+
     /** *************************************************************
      */
     public void initOnce() {
@@ -168,15 +173,43 @@ public class SUMOKBtoTFAKB extends SUMOKBtoTPTPKB {
             return "$real";
         if (s.equals("RationalNumber"))
             return "$rat";
-        if (kb.isSubclass(s,"Integer"))
-            return "$int";
-        else if (kb.isSubclass(s,"RationalNumber"))
-            return "$rat";
-        else if (kb.isSubclass(s,"RealNumber"))
-            return "$real";
+        HashMap<String,String> table = null;
+        if (sortTableCache == kb.kbCache)
+            table = sortTable;
+        else
+            table = buildSortTable(kb);
+        String sort = table.get(s);
+        if (sort != null)
+            return sort;
         return "$i";
     }
 
+    /** *************************************************************
+     * Precompute the numeric sorts so that translateSort() needs one
+     * lookup rather than three subclass tests.  Integer takes
+     * precedence over RationalNumber, and RationalNumber over
+     * RealNumber, as in the tests it replaces.
+     */
+    public static synchronized HashMap<String,String> buildSortTable(KB kb) {
+
+        if (sortTableCache == kb.kbCache)
+            return sortTable;
+        HashMap<String,String> table = new HashMap<>();
+        String[] types = {"RealNumber", "RationalNumber", "Integer"};
+        String[] sorts = {"$real", "$rat", "$int"};
+        for (int i = 0; i < types.length; i++) {
+            HashSet<String> children = kb.kbCache.getChildClasses(types[i]);
+            if (children != null) {
+                for (String c : children)
+                    if (!c.equals(types[i]))
+                        table.put(c,sorts[i]);
+            }
+        }
+        sortTable = table;
+        sortTableCache = kb.kbCache;
+        return table;
+    }
+
     /** *************************************************************
      */
     public static String translateName(String s) {
@@ -530,6 +563,7 @@ public class SUMOKBtoTFAKB extends SUMOKBtoTPTPKB {
                 }
             }
         }
+        SUMOtoTFAform.clearCaches(); // the extended relations are now functions and relations in the KB
     }
 
     /** *************************************************************
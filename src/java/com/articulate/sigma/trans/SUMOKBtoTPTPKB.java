@@ -20,6 +20,28 @@ public class SUMOKBtoTPTPKB {
 
     public ArrayList<String> alreadyWrittenTPTPs = new ArrayList<String>();
 
+    // the number of formulas preprocessed before their TFF translations
+    // are run in parallel and written out
+    public static int translationBatch = 1000;
+
+    /** *************************************************************
+     * A formula that has been preprocessed but not yet written, with
+     * the comments that go before it and, for TFF, the preprocessed
+     * forms still to be translated
+     */
+    private static class PendingFormula {
+
+        public Formula f = null;
+        public boolean skip = false;
+        public StringWriter log = new StringWriter();
+        public PrintWriter out = new PrintWriter(log);
+        public ArrayList<Formula> toTranslate = new ArrayList<>();
+
+        public PendingFormula(Formula form) {
+            f = form;
+        }
+    }
+
     /** *************************************************************
      */
     public SUMOKBtoTPTPKB() {
@@ -234,19 +256,27 @@ public class SUMOKBtoTPTPKB {
             File sf = null;
             int counter = 0;
             int formCount = 0;
+            if (lang.equals("tff"))
+                SUMOtoTFAform.kb = kb;
+            ArrayList<PendingFormula> pending = new ArrayList<>();
             for (Formula f : orderedFormulae) {
+                PendingFormula pf = new PendingFormula(f);
+                pending.add(pf);
                 if (!f.getFormula().startsWith("(documentation")) {
-                    pr.println("% f: " + f.format("", "", " "));
-                    pr.println("% " + formCount++ + " of " + orderedFormulae.size() +
+                    pf.out.println("% f: " + f.format("", "", " "));
+                    pf.out.println("% " + formCount++ + " of " + orderedFormulae.size() +
                             " from file " + f.sourceFile + " at line " + f.startLine);
                 }
                 if (f.isHigherOrder(kb)) {
-                    pr.println("% is higher order");
+                    pf.out.println("% is higher order");
+                    pf.skip = true;
                     continue;
                 }
-                if (!KBmanager.getMgr().prefEquals("cache","yes") && f.isCached())
+                if (!KBmanager.getMgr().prefEquals("cache","yes") && f.isCached()) {
+                    pf.skip = true;
                     continue;
-                pr.println("% not higher order");
+                }
+                pf.out.println("% not higher order");
                 if (counter++ == 100) System.out.print(".");
                 if ((counter % 4000) == 1)
                     System.out.println("\nSUMOKBtoTPTPKB.writeFile() : still working");
@@ -261,49 +291,24 @@ public class SUMOKBtoTPTPKB {
                         if (lang.equals("fof")) {
                             SUMOformulaToTPTPformula stptp = new SUMOformulaToTPTPformula(lang);
                             result = stptp.tptpParseSUOKIFString(f3.getFormula(), false);
-                            pr.println("% INFO in SUMOKBtoTPTPKB.writeFile(): result: " + result);
+                            pf.out.println("% INFO in SUMOKBtoTPTPKB.writeFile(): result: " + result);
                             if (result != null)
-                                f.theTptpFormulas.add(result);
-                        }
-                        else if (lang.equals("tff")) {
-                            SUMOtoTFAform stfa = new SUMOtoTFAform();
-                            SUMOtoTFAform.kb = kb;
-                            //pr.println("% tff input: " + f3.format("",""," "));
-                            stfa.sorts = stfa.missingSorts(f3);
-                            if (stfa.sorts != null && stfa.sorts.size() > 0)
-                                f3.tffSorts.addAll(stfa.sorts);
-                            result = stfa.process(f3.getFormula());
-                            if (!StringUtil.emptyString(result))
-                                f.theTptpFormulas.add(result);
-                            else
-                                if (!StringUtil.emptyString(SUMOtoTFAform.filterMessage))
-                                    pr.println("% " + SUMOtoTFAform.filterMessage);
+                                f.getTheTptpFormulas().add(result);
                         }
+                        else if (lang.equals("tff"))
+                            pf.toTranslate.add(f3); // translated in parallel by writePending()
                         else
-                            pr.println("% unhandled language option " + lang);
+                            pf.out.println("% unhandled language option " + lang);
                     }
                 }
                 else
-                    pr.println("% empty result from preprocess");
-                for (String sort : f.tffSorts) {
-                    if (!StringUtil.emptyString(sort) &&
-                            !alreadyWrittenTPTPs.contains(sort)) {
-                        pr.print(lang + "(kb_" + sanitizedKBName + "_" + axiomIndex++);
-                        pr.println(",axiom,(" + sort + ")).");
-                        alreadyWrittenTPTPs.add(sort);
-                    }
-                }
-                for (String theTPTPFormula : f.theTptpFormulas) {
-                    if (!StringUtil.emptyString(theTPTPFormula) &&
-                            !filterAxiom(f,theTPTPFormula,pr) &&
-                            !alreadyWrittenTPTPs.contains(theTPTPFormula)) {
-                        pr.print(lang + "(kb_" + sanitizedKBName + "_" + axiomIndex++);
-                        pr.println(",axiom,(" + theTPTPFormula + ")).");
-                        alreadyWrittenTPTPs.add(theTPTPFormula);
-                    }
+                    pf.out.println("% empty result from preprocess");
+                if (pending.size() >= translationBatch) {
+                    axiomIndex = writePending(pending,pr,sanitizedKBName,axiomIndex);
+                    pending.clear();
                 }
-                pr.flush();
             }
+            axiomIndex = writePending(pending,pr,sanitizedKBName,axiomIndex);
             System.out.println();
             printVariableArityRelationContent(pr,relationMap,sanitizedKBName,axiomIndex);
             if (conjecture != null) {  //----Print conjecture if one has been supplied
@@ -312,7 +317,7 @@ public class SUMOKBtoTPTPKB {
                 // below is probably unnecessary
                 String type = "conjecture";
                 if (isQuestion) type = "question";
-                for (String theTPTPFormula : conjecture.theTptpFormulas)
+                for (String theTPTPFormula : conjecture.peekTheTptpFormulas())
                     pr.println(lang + "(prove_from_" + sanitizedKBName + "," + type + ",(" + theTPTPFormula + ")).");
             }
             result = canonicalPath;
@@ -334,6 +339,57 @@ public class SUMOKBtoTPTPKB {
         return result;
     }
 
+    /** *************************************************************
+     * Translate the TFF forms of the pending formulas, in parallel,
+     * and write the results in the original order of the formulas
+     * @return the next axiom index
+     */
+    private int writePending(List<PendingFormula> pending, PrintWriter pr,
+                             String sanitizedKBName, int axiomIndex) {
+
+        ArrayList<Formula> forms = new ArrayList<>();
+        for (PendingFormula pf : pending)
+            forms.addAll(pf.toTranslate);
+        ArrayList<SUMOtoTFAform.Translation> translations = SUMOtoTFAform.translateAll(forms);
+        int t = 0;
+        for (PendingFormula pf : pending) {
+            pf.out.flush();
+            pr.print(pf.log.toString());
+            if (pf.skip)
+                continue;
+            Formula f = pf.f;
+            for (Formula f3 : pf.toTranslate) {
+                SUMOtoTFAform.Translation tr = translations.get(t++);
+                if (tr.sorts.size() > 0)
+                    f3.getTffSorts().addAll(tr.sorts);
+                if (!StringUtil.emptyString(tr.tff))
+                    f.getTheTptpFormulas().add(tr.tff);
+                else
+                    if (!StringUtil.emptyString(tr.filterMessage))
+                        pr.println("% " + tr.filterMessage);
+            }
+            for (String sort : f.peekTffSorts()) {
+                if (!StringUtil.emptyString(sort) &&
+                        !alreadyWrittenTPTPs.contains(sort)) {
+                    pr.print(lang + "(kb_" + sanitizedKBName + "_" + axiomIndex++);
+                    pr.println(",axiom,(" + sort + ")).");
+                    alreadyWrittenTPTPs.add(sort);
+                }
+            }
+            for (String theTPTPFormula : f.peekTheTptpFormulas()) {
+                if (!StringUtil.emptyString(theTPTPFormula) &&
+                        !filterAxiom(f,theTPTPFormula,pr) &&
+                        !alreadyWrittenTPTPs.contains(theTPTPFormula)) {
+                    pr.print(lang + "(kb_" + sanitizedKBName + "_" + axiomIndex++);
+                    pr.println(",axiom,(" + theTPTPFormula + ")).");
+                    alreadyWrittenTPTPs.add(theTPTPFormula);
+                }
+            }
+            pr.flush();
+        }
+        return axiomIndex;
+    }
+
     /** *************************************************************
      * @return true if the given formula is simple clause,
      *   and contains one of the excluded predicates;
@@ -794,7 +794,7 @@ public class SUMOformulaToTPTPformula {
                 kb = new KB("",mgr.getPref("kbDir"));
             if (!_f.isBalancedList()) {
                 String errStr = "Unbalanced parentheses or quotes in: " + _f.getFormula();
-                _f.errors.add(errStr);
+                _f.getErrors().add(errStr);
                 return;
             }
             Set<Formula> processed = preProcessedForms;
@@ -805,7 +805,7 @@ public class SUMOformulaToTPTPformula {
             if (debug)
                 System.out.println("INFO in SUMOformulaToTPTPformula.tptpParse(): preprocessed: " + processed);
             if (processed != null) {
-                _f.theTptpFormulas = new HashSet<String>();
+                _f.setTheTptpFormulas(new HashSet<String>());
                 //----Performs function on each current processed axiom
                 Iterator<Formula> g = processed.iterator();
                 while (g.hasNext()) {
@@ -813,7 +813,7 @@ public class SUMOformulaToTPTPformula {
                     if (!f.getFormula().contains("@") && !f.higherOrder) {
                         String tptpStr = tptpParseSUOKIFString(f.getFormula(),query);
                         if (StringUtil.isNonEmptyString(tptpStr)) 
-                            _f.theTptpFormulas.add(tptpStr);
+                            _f.getTheTptpFormulas().add(tptpStr);
                     }
                 }
             }
@@ -826,7 +826,7 @@ public class SUMOformulaToTPTPformula {
             if (ex instanceof IOException)
                 throw (IOException) ex;
         }
-        if (query || debug) System.out.println("INFO in SUMOformulaToTPTPformula.tptpParse(): result: " + _f.theTptpFormulas);
+        if (query || debug) System.out.println("INFO in SUMOformulaToTPTPformula.tptpParse(): result: " + _f.getTheTptpFormulas());
         return;
     }
 
@@ -837,7 +837,7 @@ public class SUMOformulaToTPTPformula {
     public Set<String> tptpParse(Formula input, boolean query, KB kb) throws ParseException, IOException {
 
         tptpParse(input,query, kb, null);
-        return _f.theTptpFormulas;
+        return _f.getTheTptpFormulas();
     }
     
     /** ***************************************************************
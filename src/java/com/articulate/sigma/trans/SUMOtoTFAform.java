@@ -12,6 +12,10 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,17 +28,18 @@ public class SUMOtoTFAform {
 
     public static boolean debug = false;
 
-    // a Set of types for each variable key
-    public static HashMap<String,HashSet<String>> varmap = null;
-
-    // a map of relation signatures (where function returns are index 0)
-    // modified from the original by the constraints of the axiom
-    private static HashMap<String,ArrayList<String>> signatures = null;
+    // a Set of types for each variable key, for the formula being
+    // translated by the current thread
+    private static final ThreadLocal<HashMap<String,HashSet<String>>> varmap = new ThreadLocal<>();
 
     public static boolean initialized = false;
 
     public static FormulaPreprocessor fp = new FormulaPreprocessor();
 
+    // the FormulaPreprocessor of each thread of translateAll(), so that
+    // the threads do not share fp, see preprocessor()
+    private static final ThreadLocal<FormulaPreprocessor> workerFp = new ThreadLocal<>();
+
     // constraints on numeric types
     public static HashMap<String,String> numericConstraints = new HashMap<>();
 
@@ -49,13 +54,96 @@ public class SUMOtoTFAform {
     public static HashMap<String,String> numericConstantTypes = new HashMap<>();
     public static HashMap<String,String> numericConstantValues = new HashMap<>();
 
-    // storage for a message why the formula wasn't translated
-    public static String filterMessage = "";
+    // storage for a message why the formula wasn't translated, for the
+    // formula being translated by the current thread
+    private static final ThreadLocal<String> filterMessage = new ThreadLocal<>();
+
+    // the number of threads for translateAll()
+    public static int threads = Runtime.getRuntime().availableProcessors();
+
+    // signatures extracted from the In, Re and Ra suffixes of relation
+    // names, which depend only on the name
+    private static final ConcurrentHashMap<String,ArrayList<String>> suffixSigs = new ConcurrentHashMap<>();
+
+    // sorts for relations with embedded types, from sortFromRelation()
+    private static final ConcurrentHashMap<String,String> relationSorts = new ConcurrentHashMap<>();
+
+    // subclasses of Integer and RealNumber, which may have numeric constraints
+    private static volatile HashSet<String> numericSubclasses = null;
 
     // extra sorts determined just for this formula
     public HashSet<String> sorts = new HashSet<>();
 
-    public static HashSet<String> errors = new HashSet<>();
+    // messages about rejected formulas, added to by every thread of
+    // translateAll()
+    public static Set<String> errors = ConcurrentHashMap.newKeySet();
+
+    /** *************************************************************
+     * The result of translating one formula.  Each translation has its
+     * own result so that formulas can be translated in parallel.
+     */
+    public static class Translation {
+
+        public Formula input = null;
+        public HashSet<String> sorts = new HashSet<>();
+        public String tff = "";
+        public String filterMessage = "";
+    }
+
+    /** *************************************************************
+     * @return the FormulaPreprocessor of the current thread if it is a
+     * thread of translateAll(), otherwise fp
+     */
+    private static FormulaPreprocessor preprocessor() {
+
+        FormulaPreprocessor result = workerFp.get();
+        return (result != null) ? result : fp;
+    }
+
+    /** *************************************************************
+     * @return the variable types of the formula being translated by
+     * the current thread
+     */
+    public static HashMap<String,HashSet<String>> getVarmap() {
+
+        return varmap.get();
+    }
+
+    /** *************************************************************
+     */
+    public static void setVarmap(HashMap<String,HashSet<String>> vm) {
+
+        varmap.set(vm);
+    }
+
+    /** *************************************************************
+     * @return the reason the last formula processed by the current
+     * thread wasn't translated, or an empty string
+     */
+    public static String getFilterMessage() {
+
+        String msg = filterMessage.get();
+        if (msg == null)
+            return "";
+        return msg;
+    }
+
+    /** *************************************************************
+     */
+    public static void setFilterMessage(String msg) {
+
+        filterMessage.set(msg);
+    }
+
+    /** *************************************************************
+     * Clear the cached sorts and numeric types, which must be done if
+     * the KB or its signatures change
+     */
+    public static void clearCaches() {
+
+        relationSorts.clear();
+        numericSubclasses = null;
+    }
 
     /** *************************************************************
      */
@@ -156,10 +244,14 @@ public class SUMOtoTFAform {
 
         String bareRel = rel.substring(0,rel.length() - 3);
         if (debug) System.out.println("SUMOtoTFAform.relationExtractNonNumericSig(): bareRel: " + bareRel);
-        ArrayList<String> sig = new ArrayList();
         int size = Integer.parseInt(rel.substring(rel.length()-1,rel.length()));
         if (debug) System.out.println("SUMOtoTFAform.relationExtractNonNumericSig(): size: " + size);
-        sig = kb.kbCache.signatures.get(bareRel);
+        ArrayList<String> origsig = kb.kbCache.signatures.get(bareRel);
+        if (origsig == null) {
+            System.out.println("Error in SUMOtoTFAform.relationExtractNonNumericSig(): null signature for " + rel);
+            return new ArrayList<String>();
+        }
+        ArrayList<String> sig = new ArrayList<>(origsig); // don't extend the cached signature itself
         if (debug) System.out.println("SUMOtoTFAform.relationExtractNonNumericSig(): sig: " + sig);
         String type = kb.kbCache.variableArityType(bareRel);
         if (debug) System.out.println("SUMOtoTFAform.relationExtractNonNumericSig(): type: " + type);
@@ -186,6 +278,9 @@ public class SUMOtoTFAform {
             return sig;
         if (rel.matches(".*__\\d$"))
             return relationExtractNonNumericSig(rel);
+        ArrayList<String> cached = suffixSigs.get(rel);
+        if (cached != null)
+            return new ArrayList<String>(cached);
         String text = rel.substring(under + 2, rel.length());
         Pattern pattern = Pattern.compile(patternString);
         Matcher matcher = pattern.matcher(text);
@@ -213,6 +308,7 @@ public class SUMOtoTFAform {
         }
         if (debug) System.out.println("SUMOtoTFAform.relationExtractSig(): for rel: " +
                 rel + " set sig " + sig);
+        suffixSigs.put(rel,new ArrayList<String>(sig));
         return sig;
     }
 
@@ -300,11 +396,11 @@ public class SUMOtoTFAform {
         for (int i = start; i <= 2; i++) {
             String arg = sig.get(i);
             if (Formula.isVariable(arg)) {
-                HashSet<String> types = varmap.get(arg);
+                HashSet<String> types = getVarmap().get(arg);
                 types.add(type);
                 if (debug) System.out.println("SUMOtoTFAform.constrainVarsFromFunct(): arg,types: " +
                         arg + ", " + types);
-                varmap.put(arg,types);
+                getVarmap().put(arg,types);
             }
         }
     }
@@ -336,8 +432,8 @@ public class SUMOtoTFAform {
             for (String s : args) {
                 if (debug) System.out.println("SUMOtoTFAform.convertNumericFunctions(): arg: " + s);
                 if (Formula.isVariable(s)) {
-                    if (varmap.containsKey(s)) {
-                        Set<String> types = varmap.get(s);
+                    if (getVarmap().containsKey(s)) {
+                        Set<String> types = getVarmap().get(s);
                         String type = kb.mostSpecificTerm(types);
                         if (debug) System.out.println("SUMOtoTFAform.convertNumericFunctions(): type: " + type);
                         if (type != null && (type.equals("Integer") || kb.isSubclass(type,"Integer")))
@@ -439,8 +535,8 @@ public class SUMOtoTFAform {
                 StringBuffer varStr = new StringBuffer();
                 for (String v : vars) {
                     String oneVar = SUMOformulaToTPTPformula.translateWord(v,v.charAt(0),false);
-                    if (varmap.keySet().contains(v) && !StringUtil.emptyString(varmap.get(v))) {
-                        String type = mostSpecificTerm(varmap.get(v));
+                    if (getVarmap().keySet().contains(v) && !StringUtil.emptyString(getVarmap().get(v))) {
+                        String type = mostSpecificTerm(getVarmap().get(v));
                         oneVar = oneVar + ":" + SUMOKBtoTFAKB.translateSort(kb,type);
                     }
                     varStr.append(oneVar + ", ");
@@ -674,7 +770,7 @@ public class SUMOtoTFAform {
     public static String processRecurse(Formula f) {
 
         if (debug) System.out.println("SUMOtoTFAform.processRecurse(): " + f);
-        if (debug) System.out.println("SUMOtoTFAform.processRecurse(): varmap: " + varmap);
+        if (debug) System.out.println("SUMOtoTFAform.processRecurse(): varmap: " + getVarmap());
         if (f == null)
             return "";
         if (f.atom()) {
@@ -725,9 +821,9 @@ public class SUMOtoTFAform {
     private static HashMap<String,HashSet<String>> cloneVarmap() {
 
         HashMap<String,HashSet<String>> newVarmap = new HashMap<>();
-        for (String s : varmap.keySet()) {
+        for (String s : getVarmap().keySet()) {
             HashSet<String> newSet = new HashSet<>();
-            newSet.addAll(varmap.get(s));
+            newSet.addAll(getVarmap().get(s));
             newVarmap.put(s,newSet);
         }
         return newVarmap;
@@ -804,11 +900,11 @@ public class SUMOtoTFAform {
      */
     private static ArrayList<String> collectArgTypes(ArrayList<String> args) {
 
-        if (debug) System.out.println("SUMOtoTFAform.collectArgTypes(): varmap: " + varmap);
+        if (debug) System.out.println("SUMOtoTFAform.collectArgTypes(): varmap: " + getVarmap());
         ArrayList<String> types = new ArrayList<String>();
         for (String s : args) {
             if (Formula.isVariable(s)) {
-                String vtype = kb.mostSpecificTerm(varmap.get(s));
+                String vtype = kb.mostSpecificTerm(getVarmap().get(s));
                 if (!StringUtil.emptyString(vtype))
                     types.add(vtype);
             }
@@ -858,7 +954,7 @@ public class SUMOtoTFAform {
         for (String t : args) {
             if (!Formula.isVariable(t))
                 continue;
-            HashSet<String> types = varmap.get(t);
+            HashSet<String> types = getVarmap().get(t);
             if (debug) System.out.println("SUMOtoTFAform.constrainVars(): checking var " + t + " with type " + types);
             String lowest = kb.mostSpecificTerm(types);
             if (debug) System.out.println("SUMOtoTFAform.constrainVars(): type " + type + " lowest " + lowest);
@@ -1134,7 +1230,7 @@ public class SUMOtoTFAform {
                         if (debug) System.out.println("SUMOtoTFAform.constrainOp(): suffix(1): " + suffix);
                     }
                     if (Formula.isVariable(justArg)) {
-                        String t = mostSpecificTerm(varmap.get(justArg));
+                        String t = mostSpecificTerm(getVarmap().get(justArg));
                         if (StringUtil.emptyString(t))
                             System.out.println("Error in SUMOtoTFAform.constrainOp(): empty variable type for " + justArg);
                         suffix = numberSuffix(suffix, i,op, t, type);
@@ -1142,7 +1238,7 @@ public class SUMOtoTFAform {
                 }
                 else {
                     if (Formula.isVariable(arg)) {
-                        String t = mostSpecificTerm(varmap.get(arg));
+                        String t = mostSpecificTerm(getVarmap().get(arg));
                         if (StringUtil.emptyString(t))
                             System.out.println("Error in SUMOtoTFAform.constrainOp(): empty variable type for " + arg);
                         suffix = numberSuffix(suffix, i,op, t, type);
@@ -1237,7 +1333,7 @@ public class SUMOtoTFAform {
         for (String k : newvarmap.keySet()) {
             HashSet<String> newvartypes = newvarmap.get(k);
             String newt = mostSpecificTerm(newvartypes);
-            HashSet<String> oldvartypes = varmap.get(k);
+            HashSet<String> oldvartypes = getVarmap().get(k);
             String oldt = mostSpecificTerm(oldvartypes);
             //System.out.println("SUMOtoTFAform.constrainTypeRestriction(): newt, oldt: " +
             //        newt + ", " + oldt);
@@ -1250,13 +1346,13 @@ public class SUMOtoTFAform {
                 return;
             }
             if (StringUtil.emptyString(newt))
-                varmap.put(k,oldvartypes);
+                getVarmap().put(k,oldvartypes);
             else if (StringUtil.emptyString(oldt))
-                varmap.put(k,newvartypes);
+                getVarmap().put(k,newvartypes);
             else if (kb.isSubclass(newt,oldt))
-                varmap.put(k,newvartypes);
+                getVarmap().put(k,newvartypes);
             else
-                varmap.put(k,oldvartypes);
+                getVarmap().put(k,oldvartypes);
         }
     }
 
@@ -1274,12 +1370,12 @@ public class SUMOtoTFAform {
             oldVarmap = cloneVarmap();
             String newf = constrainFunctVarsRecurse(f);
             f = new Formula(newf);
-            HashMap<String,HashSet<String>> types = fp.findAllTypeRestrictions(f, kb);
+            HashMap<String,HashSet<String>> types = preprocessor().findAllTypeRestrictions(f, kb);
             if (debug) System.out.println("SUMOtoTFAform.constrainFunctVars(): found types: " + types);
             constrainTypeRestriction(types);
             //System.out.println("SUMOtoTFAform.constrainFunctVars(): new varmap: " + varmap);
             //System.out.println("SUMOtoTFAform.constrainFunctVars(): old varmap: " + oldVarmap);
-        } while (!varmap.equals(oldVarmap) && counter < 5);
+        } while (!getVarmap().equals(oldVarmap) && counter < 5);
         return f;
     }
 
@@ -1379,11 +1475,11 @@ public class SUMOtoTFAform {
                     if (var.equals("NumberE") || var.equals("Pi"))
                         return "";
                     if (debug) System.out.println("SUMOtoTFAform.removeNumericInstance(): s,var,vartype" +
-                            s + ", " + var + ", " + varmap.get(var));
+                            s + ", " + var + ", " + getVarmap().get(var));
                     if (arg.equals("RealNumber") || arg.equals("RationalNumber") || arg.equals("Integer"))
                         return "";
-                    if (varmap.get(var) != null)
-                        if (varmap.get(var).contains("RealNumber") || varmap.get(var).contains("RationalNumber") || varmap.get(var).contains("Integer"))
+                    if (getVarmap().get(var) != null)
+                        if (getVarmap().get(var).contains("RealNumber") || getVarmap().get(var).contains("RationalNumber") || getVarmap().get(var).contains("Integer"))
                             return "";
                     if (builtInNumericType(arg)) { // meaning a subtype actually
                         String cons = numericConstraints.get(arg);
@@ -1416,8 +1512,8 @@ public class SUMOtoTFAform {
      */
     public static boolean inconsistentVarTypes() {
 
-        for (String s : varmap.keySet()) {
-            HashSet<String> types = varmap.get(s);
+        for (String s : getVarmap().keySet()) {
+            HashSet<String> types = getVarmap().get(s);
             for (String c1 : types) {
                 for (String c2 : types) {
                     if (!c1.equals(c2)) {
@@ -1514,7 +1610,7 @@ public class SUMOtoTFAform {
                     return true;
                 else if (farg.isVariable()) {
                     if (debug) System.out.println("SUMOtoTFAform.typeConflict(): check types of: " + farg);
-                    HashSet<String> vars = varmap.get(farg.getFormula());
+                    HashSet<String> vars = getVarmap().get(farg.getFormula());
                     if (typeConflict(vars, sigType))
                         return true;
                 }
@@ -1528,6 +1624,18 @@ public class SUMOtoTFAform {
      */
     public static String sortFromRelation(String rel) {
 
+        String sort = relationSorts.get(rel);
+        if (sort == null) {
+            sort = buildSortFromRelation(rel);
+            relationSorts.put(rel,sort);
+        }
+        return sort;
+    }
+
+    /** *************************************************************
+     */
+    private static String buildSortFromRelation(String rel) {
+
         if (debug) System.out.println("SUMOtoTFAform.sortFromRelation(): rel: " + rel);
         ArrayList<String> sig = SUMOtoTFAform.relationExtractSig(rel);
         if (debug) System.out.println("SUMOtoTFAform.sortFromRelation(): sig: " + sig);
@@ -1608,15 +1716,15 @@ public class SUMOtoTFAform {
             f = new Formula(elimUnitaryLogops(f)); // remove empty (and... and (or... and =>...
         } while (!f.getFormula().equals(oldf) && counter < 5);
         if (debug) System.out.println("SUMOtoTFAform.process(): formula after elimUnitaryLogops: " + f);
-        varmap = fp.findAllTypeRestrictions(f, kb);
+        setVarmap(preprocessor().findAllTypeRestrictions(f, kb));
         f = new Formula(convertNumericFunctions(f,"").getFormula());
-        varmap = fp.findAllTypeRestrictions(f, kb);
+        setVarmap(preprocessor().findAllTypeRestrictions(f, kb));
         if (inconsistentVarTypes()) {
-            System.out.println("SUMOtoTFAform.process(): rejected inconsistent variables types: " + varmap + " in : " + f);
+            System.out.println("SUMOtoTFAform.process(): rejected inconsistent variables types: " + getVarmap() + " in : " + f);
             return "";
         }
         if (debug) System.out.println("SUMOtoTFAform.process(): formula: " + f);
-        if (debug) System.out.println("SUMOtoTFAform.process(): varmap: " + varmap);
+        if (debug) System.out.println("SUMOtoTFAform.process(): varmap: " + getVarmap());
         oldf = f.getFormula();
         counter = 0;
         do {
@@ -1642,9 +1750,9 @@ public class SUMOtoTFAform {
                 if (debug) System.out.println("process(): s: " + s);
                 String t = "";
                 String oneVar = SUMOformulaToTPTPformula.translateWord(s,s.charAt(0),false);
-                if (varmap.keySet().contains(s) && !StringUtil.emptyString(varmap.get(s))) {
-                    t = mostSpecificTerm(varmap.get(s));
-                    if (debug) System.out.println("SUMOtoTFAform.process(): varmap.get(s): " + varmap.get(s));
+                if (getVarmap().keySet().contains(s) && !StringUtil.emptyString(getVarmap().get(s))) {
+                    t = mostSpecificTerm(getVarmap().get(s));
+                    if (debug) System.out.println("SUMOtoTFAform.process(): getVarmap().get(s): " + getVarmap().get(s));
                     if (debug) System.out.println("SUMOtoTFAform.process(): t: " + t);
                     if (t != null)
                         qlist.append(oneVar + " : " + SUMOKBtoTFAKB.translateSort(kb,t) + ",");
@@ -1664,9 +1772,9 @@ public class SUMOtoTFAform {
      */
     public static String process(String s) {
 
-        filterMessage = "";
+        setFilterMessage("");
         if (s.contains("ListFn"))
-            filterMessage = "Formula contains a list operator";
+            setFilterMessage("Formula contains a list operator");
         if (StringUtil.emptyString(s) || numConstAxioms.contains(s)) // || s.contains("ListFn"))
             return "";
         Formula f = new Formula(s);
@@ -1683,6 +1791,70 @@ public class SUMOtoTFAform {
         return result;
     }
 
+    /** *************************************************************
+     * Translate one formula, including the sorts it needs for ListFn
+     * relations.  All the state for the formula is kept by the
+     * current thread or in the result.
+     */
+    public static Translation translate(Formula f) {
+
+        Translation result = new Translation();
+        result.input = f;
+        SUMOtoTFAform stfa = new SUMOtoTFAform();
+        stfa.sorts = stfa.missingSorts(f);
+        if (stfa.sorts != null)
+            result.sorts = stfa.sorts;
+        result.tff = process(f.getFormula());
+        result.filterMessage = getFilterMessage();
+        setVarmap(null);
+        return result;
+    }
+
+    /** *************************************************************
+     * Translate a list of formulas with the given number of threads
+     * (see threads).  The KB and its caches are only read, so the
+     * formulas can be translated in any order.
+     * @return the translations in the same order as the formulas
+     */
+    public static ArrayList<Translation> translateAll(List<Formula> forms) {
+
+        ArrayList<Translation> result = new ArrayList<>();
+        if (threads < 2 || forms.size() < 2 || debug) {
+            for (Formula f : forms)
+                result.add(translate(f));
+            return result;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads,forms.size()));
+        try {
+            ArrayList<Future<Translation>> futures = new ArrayList<>();
+            for (Formula f : forms) {
+                futures.add(pool.submit(() -> {
+                    if (workerFp.get() == null)
+                        workerFp.set(new FormulaPreprocessor());
+                    return translate(f);
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    result.add(futures.get(i).get());
+                }
+                catch (Exception e) {
+                    System.out.println("Error in SUMOtoTFAform.translateAll(): " + e.getMessage() +
+                            " for formula " + forms.get(i));
+                    e.printStackTrace();
+                    Translation t = new Translation();
+                    t.input = forms.get(i);
+                    t.filterMessage = "translation failed: " + e.getMessage();
+                    result.add(t);
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
     /** *************************************************************
      * if the precondition of a rule is of the form (instance ?X term)
      * @return the name of the variable in the instance statement
@@ -1726,6 +1898,25 @@ public class SUMOtoTFAform {
         return null;
     }
 
+    /** *************************************************************
+     * @return the subclasses of Integer and RealNumber, other than
+     * Integer itself, computed once rather than for every formula
+     */
+    private static HashSet<String> getNumericSubclasses() {
+
+        HashSet<String> result = numericSubclasses;
+        if (result != null)
+            return result;
+        result = new HashSet<String>();
+        if (kb.kbCache.getChildClasses("RealNumber") != null)
+            result.addAll(kb.kbCache.getChildClasses("RealNumber"));
+        result.remove("Integer");
+        if (kb.kbCache.getChildClasses("Integer") != null)
+            result.addAll(kb.kbCache.getChildClasses("Integer"));
+        numericSubclasses = result;
+        return result;
+    }
+
     /** *************************************************************
      * if all or part of a rule is of the form (instance ?X term)
      * @return the name of the type in the instance statement
@@ -1741,23 +1932,15 @@ public class SUMOtoTFAform {
             System.out.println("formula: " + f);
             return null;
         }
-        HashSet<String> intChildren = kb.kbCache.getChildClasses("Integer");
-        if (debug) System.out.println("SUMOtoTFAform.matchingInstance(): int: " + intChildren);
-        HashSet<String> realChildren = new HashSet<String>();
-        if (kb.kbCache.getChildClasses("RealNumber") != null)
-            realChildren.addAll(kb.kbCache.getChildClasses("RealNumber"));
-        if (realChildren.contains("Integer"))
-            realChildren.remove("Integer");
-        if (debug) System.out.println("SUMOtoTFAform.matchingInstance(): real: " + realChildren);
+        HashSet<String> numeric = getNumericSubclasses();
+        if (debug) System.out.println("SUMOtoTFAform.matchingInstance(): numeric: " + numeric);
         Pattern p = Pattern.compile("\\(instance \\?\\w+ (\\w+)\\)");
         Matcher m = p.matcher(f.getFormula());
         while (m.find()) {
             if (debug) System.out.println("SUMOtoTFAform.matchingInstanceTerm(): matches! ");
             String type = m.group(1);
             if (debug) System.out.println("SUMOtoTFAform.matchingInstanceTerm(): type: " + type);
-            if (intChildren.contains(type))
-                return type;
-            else if (realChildren.contains(type))
+            if (numeric.contains(type))
                 return type;
         }
         return null;
@@ -1896,7 +2079,8 @@ public class SUMOtoTFAform {
         String kbName = KBmanager.getMgr().getPref("sumokbname");
         kb = KBmanager.getMgr().getKB(kbName);
         fp = new FormulaPreprocessor();
-        fp.addOnlyNonNumericTypes = true;
+        FormulaPreprocessor.addOnlyNonNumericTypes = true;
+        clearCaches();
         buildNumericConstraints();
         numericConstantTypes.put("NumberE","RealNumber");
         numericConstantValues.put("NumberE","2.718282");
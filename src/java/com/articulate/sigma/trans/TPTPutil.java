@@ -68,10 +68,10 @@ public class TPTPutil {
 
         //System.out.println("INFO in Formula.htmlTPTPFormat(): " + f.toString());
         //System.out.println("INFO in Formula.htmlTPTPFormat(): theTptpFormulas.size()" + f.theTptpFormulas.size());
-        if (f.theTptpFormulas == null || f.theTptpFormulas.size() < 1) 
+        if (f.peekTheTptpFormulas().size() < 1) 
             return "No TPTP formula.  May not be expressible in strict first order.";        
         StringBuffer result = new StringBuffer();
-        for (String formString : f.theTptpFormulas) {
+        for (String formString : f.peekTheTptpFormulas()) {
             if (!StringUtil.emptyString(formString)) {
                 //System.out.println("INFO in Formula.htmlTPTPFormat(): TPTP formula: " + formString);
                 formString = formString.trim();
@@ -190,9 +190,9 @@ public class TPTPutil {
      */
 	public static void main(String[] args) {
         Formula f = new Formula();
-        f.theTptpFormulas = new HashSet();
+        f.setTheTptpFormulas(new HashSet<>());
         //f.theTptpFormulas.add("fof(kb_ArabicCulture_20,axiom,(( s__subclass(s__Hajj,s__Translocation) ))).");
-        f.theTptpFormulas.add("(! [V__P] : (s__instance(V__P,s__Agent) => ((s__attribute(V__P,s__Muslim) & s__capability(s__Hajj,s__agent__m,V__P)) => " +
+        f.getTheTptpFormulas().add("(! [V__P] : (s__instance(V__P,s__Agent) => ((s__attribute(V__P,s__Muslim) & s__capability(s__Hajj,s__agent__m,V__P)) => " +
         		"s__modalAttribute('(? [V__H] : (s__instance(V__H,s__Process) & s__instance(V__H,s__Hajj) & s__agent(V__H,V__P)))',s__Obligation))))");
         System.out.println(TPTPutil.htmlTPTPFormat(f,"http://sigma.ontologyportal.org:4040/sigma?kb=SUMO&term=",false));
 	}
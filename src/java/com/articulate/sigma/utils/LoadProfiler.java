@@ -0,0 +1,166 @@
+package com.articulate.sigma.utils;
+
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.
+*/
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** ***************************************************************
+ * Records wall time, process CPU time, allocation and peak heap for
+ * the named phases of loading Sigma, such as "KIF.parse" or
+ * "KBcache.buildCaches".  A phase that runs more than once, such as
+ * parsing each constituent, is accumulated.  Phases must not nest,
+ * since the heap peak is reset at the start of each one.  Nothing is
+ * recorded unless enabled is set, so the calls can stay in the load
+ * path at no real cost.
+ */
+public class LoadProfiler {
+
+    public static boolean enabled = false;
+
+    /** ***************************************************************
+     * The totals for one phase
+     */
+    public static class Phase {
+
+        public String name;
+        public int count = 0;
+        public long wallNanos = 0;
+        public long cpuNanos = 0;
+        public long allocatedBytes = 0;
+        public long peakHeapBytes = 0;
+
+        private long startWall = 0;
+        private long startCpu = 0;
+        private long startAlloc = 0;
+
+        public Phase(String n) {
+            name = n;
+        }
+    }
+
+    private static final LinkedHashMap<String,Phase> phases = new LinkedHashMap<>();
+
+    /** ***************************************************************
+     * Start timing a phase
+     */
+    public static synchronized void begin(String name) {
+
+        if (!enabled)
+            return;
+        Phase p = phases.get(name);
+        if (p == null) {
+            p = new Phase(name);
+            phases.put(name, p);
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid())
+                pool.resetPeakUsage();
+        }
+        p.startAlloc = allocatedBytes();
+        p.startCpu = cpuNanos();
+        p.startWall = System.nanoTime();
+    }
+
+    /** ***************************************************************
+     * Stop timing a phase and add the results to its totals
+     */
+    public static synchronized void end(String name) {
+
+        if (!enabled)
+            return;
+        long wall = System.nanoTime();
+        long cpu = cpuNanos();
+        long alloc = allocatedBytes();
+        Phase p = phases.get(name);
+        if (p == null || p.startWall == 0) {
+            System.out.println("Error in LoadProfiler.end(): phase not started: " + name);
+            return;
+        }
+        p.count++;
+        p.wallNanos += wall - p.startWall;
+        p.cpuNanos += cpu - p.startCpu;
+        p.allocatedBytes += alloc - p.startAlloc;
+        p.peakHeapBytes = Math.max(p.peakHeapBytes, peakHeap());
+        p.startWall = 0;
+    }
+
+    /** ***************************************************************
+     * @return the phases in the order in which they were first begun
+     */
+    public static synchronized Map<String,Phase> getPhases() {
+
+        return new LinkedHashMap<>(phases);
+    }
+
+    /** ***************************************************************
+     */
+    public static synchronized void reset() {
+
+        phases.clear();
+    }
+
+    /** ***************************************************************
+     * @return the CPU time used by the whole process, so that work done
+     * by other threads during a phase is counted, or 0 if the JVM
+     * can't report it
+     */
+    public static long cpuNanos() {
+
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean)
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        return 0;
+    }
+
+    /** ***************************************************************
+     * @return the bytes allocated so far by all live threads, or 0 if
+     * the JVM can't report it.  Allocation by threads that finish during
+     * a phase is missed.
+     */
+    public static long allocatedBytes() {
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean))
+            return 0;
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled())
+            return 0;
+        long total = 0;
+        for (long bytes : sunThreads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0)
+                total += bytes;
+        }
+        return total;
+    }
+
+    /** ***************************************************************
+     * @return the sum of the peak usage of the heap memory pools since
+     * they were last reset
+     */
+    public static long peakHeap() {
+
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid())
+                total += pool.getPeakUsage().getUsed();
+        }
+        return total;
+    }
+}
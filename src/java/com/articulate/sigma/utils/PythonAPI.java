@@ -4,15 +4,52 @@ import com.articulate.sigma.*;
 import com.articulate.sigma.tp.Vampire;
 import com.articulate.sigma.trans.TPTP3ProofProcessor;
 import com.articulate.sigma.wordNet.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
 
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** ***************************************************************
+ * The entry point of the Py4J gateway, see KBmanager.pythonServer().
+ * Each method of the first group answers one request.  The batch
+ * methods take a list of inputs, which a Python client can pass as a
+ * list when its gateway is started with auto_convert=True, and answer
+ * them all in one gateway call.  They return a JSON object of three
+ * arrays of the same length, "input", "result" and "error", where the
+ * error of an input is null unless it failed, in which case its
+ * result is null.
+ */
 public class PythonAPI {
 
+    /** The number of threads that answer the inputs of a batch */
+    public static int threads = Runtime.getRuntime().availableProcessors();
+
+    // the threads shared by all batches, started by the first parallel
+    // batch, see pool()
+    private static ExecutorService pool = null;
+
+    // held by every query of every PythonAPI, since Vampire.run()
+    // writes the same temporary files in kbDir for every query in
+    // the process, see prove()
+    private static final Object proveLock = new Object();
+
     KB kb = null;
 
+    // whether the KB has been loaded for inference, see loadForInference()
+    private boolean inferenceLoaded = false;
+
     public PythonAPI() {
         kb = KBmanager.getMgr().getKB(KBmanager.getMgr().getPref("sumokbname"));
     }
 
+    public PythonAPI(KB kb) {
+        this.kb = kb;
+    }
+
     public String getAllSub(String term, String rel) {
         return kb.kbCache.getChildTerms(term,rel).toString();
     }
@@ -23,12 +60,7 @@ public class PythonAPI {
 
     public String query(String q, int timeout) {
 
-        TPTP3ProofProcessor tpp = null;
-        kb.loadVampire();
-        Vampire vamp = kb.askVampire(q, timeout, 1);
-        System.out.println("KB.main(): completed query with result: " + StringUtil.arrayListToCRLFString(vamp.output));
-        tpp = new TPTP3ProofProcessor();
-        tpp.parseProofOutput(vamp.output, q, kb);
+        TPTP3ProofProcessor tpp = prove(q, timeout);
         return tpp.bindings + "\n\n" + tpp.proof;
     }
 
@@ -39,4 +71,196 @@ public class PythonAPI {
     public String tell(String form) {
         return kb.tell(form);
     }
+
+    /** ***************************************************************
+     * Load the KB for Vampire the first time a query needs it, rather
+     * than for every query
+     */
+    private synchronized void loadForInference() {
+
+        if (!inferenceLoaded) {
+            kb.loadVampire();
+            inferenceLoaded = true;
+        }
+    }
+
+    /** ***************************************************************
+     * Run one query at a time across all PythonAPI objects, since
+     * Vampire.run() uses the same temporary files for every query
+     */
+    private TPTP3ProofProcessor prove(String q, int timeout) {
+
+        synchronized (proveLock) {
+            loadForInference();
+            Vampire vamp = kb.askVampire(q, timeout, 1);
+            if (vamp == null)
+                throw new IllegalArgumentException("no answer from Vampire for query " + q);
+            System.out.println("PythonAPI.prove(): completed query with result: " + StringUtil.arrayListToCRLFString(vamp.output));
+            TPTP3ProofProcessor tpp = new TPTP3ProofProcessor();
+            tpp.parseProofOutput(vamp.output, q, kb);
+            return tpp;
+        }
+    }
+
+    /** ***************************************************************
+     * One function of a batch, applied to each of its inputs
+     */
+    private interface BatchFunction {
+        Object apply(String input) throws Exception;
+    }
+
+    /** ***************************************************************
+     * @return the pool of threads that answers the inputs of every
+     * parallel batch, made with the number of threads set when it is
+     * first needed.  Its threads are daemons, so that they don't keep
+     * the gateway's JVM from exiting.
+     */
+    private static synchronized ExecutorService pool() {
+
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "PythonAPI batch");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return pool;
+    }
+
+    /** ***************************************************************
+     * @return a JSON array of the values, in order.  JSONArray is a
+     * raw List, hence the suppressed warning.
+     */
+    @SuppressWarnings("unchecked")
+    private static JSONArray toJSON(Collection<?> values) {
+
+        JSONArray result = new JSONArray();
+        result.addAll(values);
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return a JSON object of the keys and values.  JSONObject is a
+     * raw Map, hence the suppressed warning.
+     */
+    @SuppressWarnings("unchecked")
+    private static JSONObject toJSON(Map<String,?> values) {
+
+        JSONObject result = new JSONObject();
+        result.putAll(values);
+        return result;
+    }
+
+    /** ***************************************************************
+     * Apply the function to each input, on the shared pool of threads
+     * if parallel, and encode the results as described for the class
+     */
+    private static String batch(List<String> inputs, boolean parallel, BatchFunction fn) {
+
+        int n = (inputs == null) ? 0 : inputs.size();
+        Object[] results = new Object[n];
+        String[] errors = new String[n];
+        if (!parallel || threads < 2 || n < 2) {
+            for (int i = 0; i < n; i++) {
+                try {
+                    results[i] = fn.apply(inputs.get(i));
+                }
+                catch (Exception e) {
+                    errors[i] = e.toString();
+                }
+            }
+        }
+        else {
+            ExecutorService pool = pool();
+            ArrayList<Future<Object>> futures = new ArrayList<>();
+            for (String input : inputs)
+                futures.add(pool.submit(() -> fn.apply(input)));
+            for (int i = 0; i < n; i++) {
+                try {
+                    results[i] = futures.get(i).get();
+                }
+                catch (ExecutionException e) {
+                    errors[i] = e.getCause().toString();
+                }
+                catch (InterruptedException e) {
+                    errors[i] = e.toString();
+                }
+            }
+        }
+        HashMap<String,Object> result = new HashMap<>();
+        result.put("input", toJSON((inputs == null) ? Collections.emptyList() : inputs));
+        result.put("result", toJSON(Arrays.asList(results)));
+        result.put("error", toJSON(Arrays.asList(errors)));
+        return toJSON(result).toJSONString();
+    }
+
+    /** ***************************************************************
+     * @return a JSON array of the strings, sorted, or an empty array
+     * for null
+     */
+    private static JSONArray sorted(Collection<String> strings) {
+
+        if (strings == null)
+            return new JSONArray();
+        return toJSON(new TreeSet<>(strings));
+    }
+
+    /** ***************************************************************
+     * @return for each term, its children under rel, see getAllSub()
+     */
+    public String getAllSubBatch(List<String> terms, String rel) {
+
+        return batch(terms, true, term -> sorted(kb.kbCache.getChildTerms(term, rel)));
+    }
+
+    /** ***************************************************************
+     * @return for each term, its words, see getWords()
+     */
+    public String getWordsBatch(List<String> terms) {
+
+        return batch(terms, true, term -> sorted(WordNet.wn.getWordsFromTerm(term).keySet()));
+    }
+
+    /** ***************************************************************
+     * @return for each term, the formulas of kind and argnum in which it
+     * appears, see formula()
+     */
+    public String formulaBatch(String kind, int argnum, List<String> terms) {
+
+        return batch(terms, true, term -> {
+            ArrayList<String> forms = new ArrayList<>();
+            for (Formula f : kb.ask(kind, argnum, term))
+                forms.add(f.getFormula());
+            return toJSON(forms);
+        });
+    }
+
+    /** ***************************************************************
+     * @return for each query, an object of its "bindings" and the
+     * "proof" steps, see query().  The queries are run one after
+     * another, see prove(), and the KB is loaded for inference only
+     * once.
+     */
+    public String queryBatch(List<String> queries, int timeout) {
+
+        return batch(queries, false, q -> {
+            TPTP3ProofProcessor tpp = prove(q, timeout);
+            ArrayList<String> proof = new ArrayList<>();
+            for (ProofStep ps : tpp.proof)
+                proof.add(ps.toString());
+            HashMap<String,Object> answer = new HashMap<>();
+            answer.put("bindings", toJSON(tpp.bindings));
+            answer.put("proof", toJSON(proof));
+            return toJSON(answer);
+        });
+    }
+
+    /** ***************************************************************
+     * @return for each formula, the status of the tell, see tell().
+     * The formulas are told in order.
+     */
+    public String tellBatch(List<String> forms) {
+
+        return batch(forms, false, form -> kb.tell(form));
+    }
 }
@@ -0,0 +1,153 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import java.util.*;
+
+/** ***************************************************************
+ * WordNet.wordCoFrequencies as a sparse matrix of sense IDs by word
+ * IDs in compressed sparse row layout.  The columns of row s, which
+ * are sorted, are cols[rowOffsets[s]] to cols[rowOffsets[s+1]-1] and
+ * counts holds the matching co-occurrence counts.  A context is
+ * converted once to a sorted array of word IDs with contextVector(),
+ * after which scoring a sense is an integer dot product of its row
+ * with the context.
+ */
+public class CoOccurrenceMatrix {
+
+    private static volatile CoOccurrenceMatrix matrix = null;
+
+    // the table the matrix was built from, to notice a reload of WordNet
+    private final Map<String,HashMap<String,Integer>> source;
+    private final int sourceSize;
+
+    private final HashMap<String,Integer> senseIDs = new HashMap<>();
+    private final HashMap<String,Integer> wordIDs = new HashMap<>();
+    private final int[] rowOffsets;
+    private final int[] cols;
+    private final int[] counts;
+
+    /** ***************************************************************
+     * @param coFrequencies a map from a sense key of the form
+     *                      word_POS_num to a map of words and the
+     *                      number of times they co-occur with the sense
+     */
+    public CoOccurrenceMatrix(Map<String,HashMap<String,Integer>> coFrequencies) {
+
+        source = coFrequencies;
+        sourceSize = coFrequencies.size();
+        int total = 0;
+        for (HashMap<String,Integer> row : coFrequencies.values()) {
+            total += row.size();
+            for (String word : row.keySet())
+                if (!wordIDs.containsKey(word))
+                    wordIDs.put(word, wordIDs.size());
+        }
+        rowOffsets = new int[coFrequencies.size() + 1];
+        cols = new int[total];
+        counts = new int[total];
+        int offset = 0;
+        for (Map.Entry<String,HashMap<String,Integer>> e : coFrequencies.entrySet()) {
+            int sense = senseIDs.size();
+            senseIDs.put(e.getKey(), sense);
+            rowOffsets[sense] = offset;
+            int start = offset;
+            for (String word : e.getValue().keySet())
+                cols[offset++] = wordIDs.get(word);
+            Arrays.sort(cols, start, offset);
+            HashMap<String,Integer> row = e.getValue();
+            for (Map.Entry<String,Integer> c : row.entrySet()) {
+                int i = Arrays.binarySearch(cols, start, offset, wordIDs.get(c.getKey()));
+                counts[i] = c.getValue();
+            }
+        }
+        rowOffsets[senseIDs.size()] = offset;
+    }
+
+    /** ***************************************************************
+     * @return the matrix for the current WordNet.wn, building it if
+     * this is the first call since WordNet was loaded.  Only building
+     * takes a lock, so concurrent annotation threads do not contend.
+     */
+    public static CoOccurrenceMatrix getMatrix() {
+
+        Map<String,HashMap<String,Integer>> current = WordNet.wn.wordCoFrequencies;
+        CoOccurrenceMatrix m = matrix;
+        if (m != null && m.source == current && m.sourceSize == current.size())
+            return m;
+        synchronized (CoOccurrenceMatrix.class) {
+            m = matrix;
+            if (m == null || m.source != current || m.sourceSize != current.size()) {
+                m = new CoOccurrenceMatrix(current);
+                matrix = m;
+            }
+            return m;
+        }
+    }
+
+    /** ***************************************************************
+     * @return the row of the sense key, or -1 if it has no
+     * co-occurrence data
+     */
+    public int senseID(String senseKey) {
+
+        Integer id = senseIDs.get(senseKey);
+        if (id == null)
+            return -1;
+        return id;
+    }
+
+    /** ***************************************************************
+     * Convert context words to the sorted IDs of their lower case
+     * forms.  Words that never co-occur with any sense are left out
+     * and repeated words are kept, so that each occurrence counts.
+     */
+    public int[] contextVector(List<String> words) {
+
+        int[] result = new int[words.size()];
+        int n = 0;
+        for (String w : words) {
+            Integer id = wordIDs.get(w.toLowerCase());
+            if (id != null)
+                result[n++] = id;
+        }
+        result = Arrays.copyOf(result, n);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** ***************************************************************
+     * @param sense a row from senseID()
+     * @param context a vector from contextVector()
+     * @return the sum of the co-occurrence counts of the sense with
+     * each word of the context
+     */
+    public int score(int sense, int[] context) {
+
+        if (sense < 0)
+            return 0;
+        int total = 0;
+        int i = rowOffsets[sense];
+        int end = rowOffsets[sense + 1];
+        for (int w : context) {
+            while (i < end && cols[i] < w)
+                i++;
+            if (i == end)
+                break;
+            if (cols[i] == w)
+                total += counts[i];
+        }
+        return total;
+    }
+}
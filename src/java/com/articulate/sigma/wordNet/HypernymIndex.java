@@ -0,0 +1,363 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import com.articulate.sigma.utils.AVPair;
+
+import java.util.*;
+
+/** ***************************************************************
+ * The hypernym hierarchy of WordNet.relations over int synset IDs.
+ * Every synset with relations gets an ID, and direct hypernyms and
+ * hyponyms are kept as CSR arrays.  The transitive closure upwards
+ * is precomputed as a sorted array of ancestor IDs per synset, so
+ * that an ancestor test is a binary search, and the depth of each
+ * synset is the length of the longest hypernym path above it.  The
+ * lowest common parent of two synsets is their common ancestor of
+ * greatest depth, and all the hyponyms of a synset are a walk down
+ * the hyponym arrays.
+ *
+ * With instances, "instance hypernym" and "instance hyponym" links
+ * are followed as well as "hypernym" and "hyponym" ones, as in
+ * WordNetUtilities.findPathsToRoot() and getAllHyponyms().  Without,
+ * only "hypernym" and "hyponym" are, as in WordNet.isHyponym().
+ * The arrays are saved with the rest of the lexicon by WordNetStore.
+ */
+public class HypernymIndex {
+
+    public final boolean instances;
+
+    // the size of WordNet.relations the index was built from
+    int relationsSize = 0;
+
+    // IDs below linked are the synsets with an entry in relations, the
+    // rest are only the targets of links
+    int linked = 0;
+    String[] synsets = null;
+    HashMap<String,Integer> ids = new HashMap<>();
+    int[] parentOffsets = null;
+    int[] parents = null;
+    int[] childOffsets = null;
+    int[] children = null;
+    int[] ancestorOffsets = null;
+    int[] ancestors = null;
+    int[] depth = null;
+
+    // hyponymous words per synset for isHyponymousWord(), least
+    // recently used first, guarded by its own lock
+    private final LinkedHashMap<String,Set<String>> wordCache =
+            new LinkedHashMap<String,Set<String>>(16, 0.75f, true) {
+                protected boolean removeEldestEntry(Map.Entry<String,Set<String>> eldest) {
+                    return size() > maxWordCacheSize;
+                }
+            };
+    private int wordCacheSource = -1;
+    public static int maxWordCacheSize = 1000;
+
+    /** ***************************************************************
+     * An index to be filled by WordNetStore
+     */
+    HypernymIndex(boolean instances) {
+
+        this.instances = instances;
+    }
+
+    /** ***************************************************************
+     */
+    public HypernymIndex(Map<String,ArrayList<AVPair>> relations, boolean instances) {
+
+        this.instances = instances;
+        relationsSize = relations.size();
+        synsets = relations.keySet().toArray(new String[0]);
+        Arrays.sort(synsets);
+        linked = synsets.length;
+        for (int i = 0; i < synsets.length; i++)
+            ids.put(synsets[i], i);
+        ArrayList<int[]> up = new ArrayList<>();
+        ArrayList<int[]> down = new ArrayList<>();
+        for (int k = 0; k < linked; k++) {
+            ArrayList<AVPair> links = relations.get(synsets[k]);
+            int[] p = new int[links.size()];
+            int[] c = new int[links.size()];
+            int np = 0, nc = 0;
+            for (AVPair link : links) {
+                if (link == null)
+                    continue;
+                if (link.attribute.equals("hypernym") || (instances && link.attribute.equals("instance hypernym")))
+                    p[np++] = id(link.value, true);
+                else if (link.attribute.equals("hyponym") || (instances && link.attribute.equals("instance hyponym")))
+                    c[nc++] = id(link.value, true);
+            }
+            up.add(Arrays.copyOf(p, np));
+            down.add(Arrays.copyOf(c, nc));
+        }
+        // synsets only named as the target of a link have no links of their own
+        int n = ids.size();
+        while (up.size() < n) {
+            up.add(new int[0]);
+            down.add(new int[0]);
+        }
+        synsets = Arrays.copyOf(synsets, n);
+        parentOffsets = new int[n + 1];
+        parents = flatten(up, parentOffsets);
+        childOffsets = new int[n + 1];
+        children = flatten(down, childOffsets);
+        computeClosure();
+    }
+
+    /** ***************************************************************
+     * @return the ID of the synset, adding it if add is true
+     */
+    private int id(String synset, boolean add) {
+
+        Integer id = ids.get(synset);
+        if (id != null)
+            return id;
+        if (!add)
+            return -1;
+        id = ids.size();
+        ids.put(synset, id);
+        if (id >= synsets.length)
+            synsets = Arrays.copyOf(synsets, Math.max(id + 1, synsets.length * 2));
+        synsets[id] = synset;
+        return id;
+    }
+
+    /** ***************************************************************
+     */
+    private static int[] flatten(List<int[]> rows, int[] offsets) {
+
+        int total = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            offsets[i] = total;
+            total += rows.get(i).length;
+        }
+        offsets[rows.size()] = total;
+        int[] result = new int[total];
+        for (int i = 0; i < rows.size(); i++)
+            System.arraycopy(rows.get(i), 0, result, offsets[i], rows.get(i).length);
+        return result;
+    }
+
+    /** ***************************************************************
+     * Compute the ancestors and depth of every synset, visiting
+     * parents before children.  Links that close a cycle are ignored.
+     */
+    private void computeClosure() {
+
+        int n = synsets.length;
+        int[][] anc = new int[n][];
+        depth = new int[n];
+        byte[] state = new byte[n]; // 0 unvisited, 1 in progress, 2 done
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        for (int start = 0; start < n; start++) {
+            if (state[start] != 0)
+                continue;
+            int sp = 0;
+            stack[sp++] = start;
+            state[start] = 1;
+            next[start] = parentOffsets[start];
+            while (sp > 0) {
+                int s = stack[sp - 1];
+                if (next[s] < parentOffsets[s + 1]) {
+                    int p = parents[next[s]++];
+                    if (state[p] == 0) {
+                        state[p] = 1;
+                        next[p] = parentOffsets[p];
+                        stack[sp++] = p;
+                    }
+                    continue;
+                }
+                // all parents are done, or on the stack if there is a cycle
+                int[] merged = new int[0];
+                int d = 0;
+                for (int i = parentOffsets[s]; i < parentOffsets[s + 1]; i++) {
+                    int p = parents[i];
+                    if (state[p] != 2)
+                        continue;
+                    merged = union(merged, anc[p], p);
+                    d = Math.max(d, depth[p] + 1);
+                }
+                anc[s] = merged;
+                depth[s] = d;
+                state[s] = 2;
+                sp--;
+            }
+        }
+        ancestorOffsets = new int[n + 1];
+        ancestors = flatten(Arrays.asList(anc), ancestorOffsets);
+    }
+
+    /** ***************************************************************
+     * @return the sorted union of a, b and extra
+     */
+    private static int[] union(int[] a, int[] b, int extra) {
+
+        int[] result = new int[a.length + b.length + 1];
+        int i = 0, j = 0, n = 0;
+        boolean extraDone = false;
+        while (i < a.length || j < b.length || !extraDone) {
+            int v = Integer.MAX_VALUE;
+            if (i < a.length) v = Math.min(v, a[i]);
+            if (j < b.length) v = Math.min(v, b[j]);
+            if (!extraDone) v = Math.min(v, extra);
+            if (i < a.length && a[i] == v) i++;
+            if (j < b.length && b[j] == v) j++;
+            if (!extraDone && extra == v) extraDone = true;
+            result[n++] = v;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /** ***************************************************************
+     * @return the number of synsets in the index
+     */
+    public int size() {
+
+        return synsets.length;
+    }
+
+    /** ***************************************************************
+     * @return true if hyper is reachable from synset over one or more
+     * hypernym links
+     */
+    public boolean isHyponym(String synset, String hyper) {
+
+        Integer s = ids.get(synset);
+        Integer h = ids.get(hyper);
+        if (s == null || h == null)
+            return false;
+        return Arrays.binarySearch(ancestors, ancestorOffsets[s], ancestorOffsets[s + 1], h) >= 0;
+    }
+
+    /** ***************************************************************
+     * @return the length of the longest hypernym path above the
+     * synset, or -1 if it is not in the index
+     */
+    public int depth(String synset) {
+
+        Integer s = ids.get(synset);
+        if (s == null)
+            return -1;
+        return depth[s];
+    }
+
+    /** ***************************************************************
+     * @return all the hypernyms of the synset, direct and indirect
+     */
+    public HashSet<String> getAllHypernyms(String synset) {
+
+        HashSet<String> result = new HashSet<>();
+        Integer s = ids.get(synset);
+        if (s == null)
+            return result;
+        for (int i = ancestorOffsets[s]; i < ancestorOffsets[s + 1]; i++)
+            result.add(synsets[ancestors[i]]);
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the common hypernym of greatest depth of the two synsets,
+     * where a synset counts as its own hypernym, or null if they have
+     * none in common
+     */
+    public String lowestCommonParent(String s1, String s2) {
+
+        Integer a = ids.get(s1);
+        Integer b = ids.get(s2);
+        if (a == null || b == null)
+            return null;
+        int best = -1;
+        int[] aa = union(Arrays.copyOfRange(ancestors, ancestorOffsets[a], ancestorOffsets[a + 1]), new int[0], a);
+        int[] bb = union(Arrays.copyOfRange(ancestors, ancestorOffsets[b], ancestorOffsets[b + 1]), new int[0], b);
+        int i = 0, j = 0;
+        while (i < aa.length && j < bb.length) {
+            if (aa[i] < bb[j])
+                i++;
+            else if (aa[i] > bb[j])
+                j++;
+            else {
+                if (best == -1 || depth[aa[i]] > depth[best])
+                    best = aa[i];
+                i++;
+                j++;
+            }
+        }
+        if (best == -1)
+            return null;
+        return synsets[best];
+    }
+
+    /** ***************************************************************
+     * @return the synset and all its hyponyms, direct and indirect, that
+     * have an entry in WordNet.relations, or an empty set if the synset
+     * has none, as WordNetUtilities.getAllHyponyms() finds them
+     */
+    public HashSet<String> getAllHyponyms(String synset) {
+
+        HashSet<String> result = new HashSet<>();
+        Integer s = ids.get(synset);
+        if (s == null || s >= linked)
+            return result;
+        BitSet seen = new BitSet(synsets.length);
+        int[] queue = new int[linked];
+        int head = 0, tail = 0;
+        queue[tail++] = s;
+        seen.set(s);
+        while (head < tail) {
+            int c = queue[head++];
+            result.add(synsets[c]);
+            for (int i = childOffsets[c]; i < childOffsets[c + 1]; i++) {
+                int child = children[i];
+                if (child < linked && !seen.get(child)) {
+                    seen.set(child);
+                    queue[tail++] = child;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the words of the synset and all its hyponyms, which are
+     * kept for the maxWordCacheSize synsets most recently asked for.
+     * The set is shared between callers and cannot be changed.
+     */
+    public Set<String> getHyponymousWords(String synset) {
+
+        int source = WordNet.wn.synsetsToWords.size();
+        synchronized (wordCache) {
+            if (source != wordCacheSource) {
+                wordCache.clear();
+                wordCacheSource = source;
+            }
+            Set<String> result = wordCache.get(synset);
+            if (result != null)
+                return result;
+        }
+        HashSet<String> words = new HashSet<>();
+        for (String s : getAllHyponyms(synset)) {
+            ArrayList<String> synsetWords = WordNet.wn.synsetsToWords.get(s);
+            if (synsetWords != null)
+                words.addAll(synsetWords);
+        }
+        Set<String> result = Collections.unmodifiableSet(words);
+        synchronized (wordCache) {
+            if (source == wordCacheSource)
+                wordCache.put(synset, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,223 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** ***************************************************************
+ * The root forms of nouns and verbs, as WordNet.nounRootForm() and
+ * verbRootForm() used to find them by trying one regular expression
+ * substitution after another.  The suffix rules of each part of
+ * speech are compiled into a trie over reversed suffixes, so a single
+ * walk back from the end of a word finds every rule that applies,
+ * and the substitution is plain string slicing.  Together with the
+ * exception tables this gives all the candidate lemmas of a word,
+ * best first, in one pass.  Results are kept in a bounded cache that
+ * is emptied when it fills or when the lexicon grows.
+ */
+public class Morphology {
+
+    // {suffix, replacement} in the order they are preferred
+    public static final String[][] nounRules = {
+            {"s", ""}, {"ses", "s"}, {"xes", "x"}, {"zes", "z"},
+            {"ches", "ch"}, {"shes", "sh"}, {"ies", "y"}};
+    public static final String[][] verbRules = {
+            {"s", ""}, {"es", ""}, {"ies", "y"}, {"ed", ""},
+            {"ed", "e"}, {"ing", "e"}, {"ing", ""}};
+
+    public static int maxCacheSize = 100000;
+
+    /** ***************************************************************
+     * A node of the reversed suffix trie.  rules holds the indexes of
+     * the rules whose suffix ends at this node.
+     */
+    private static class Node {
+
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        int[] rules = new int[0];
+
+        Node child(char c) {
+
+            for (int i = 0; i < labels.length; i++)
+                if (labels[i] == c)
+                    return children[i];
+            return null;
+        }
+
+        Node addChild(char c) {
+
+            Node n = child(c);
+            if (n != null)
+                return n;
+            n = new Node();
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            labels[labels.length - 1] = c;
+            children[children.length - 1] = n;
+            return n;
+        }
+    }
+
+    private static final Node nounTrie = compile(nounRules);
+    private static final Node verbTrie = compile(verbRules);
+    private static final List<String> none = Collections.emptyList();
+
+    private final WordNet wn;
+    private final ConcurrentHashMap<String,List<String>> cache = new ConcurrentHashMap<>();
+    private volatile long cachedLexiconSize = -1;
+
+    /** ***************************************************************
+     */
+    public Morphology(WordNet wn) {
+
+        this.wn = wn;
+    }
+
+    /** ***************************************************************
+     */
+    private static Node compile(String[][] rules) {
+
+        Node root = new Node();
+        for (int r = 0; r < rules.length; r++) {
+            String suffix = rules[r][0];
+            Node n = root;
+            for (int i = suffix.length() - 1; i >= 0; i--)
+                n = n.addChild(suffix.charAt(i));
+            n.rules = Arrays.copyOf(n.rules, n.rules.length + 1);
+            n.rules[n.rules.length - 1] = r;
+        }
+        return root;
+    }
+
+    /** ***************************************************************
+     * @return the root form of the word with the given part of speech,
+     * or null if it is not in the lexicon.  For nouns and verbs this is
+     * what nounRootForm() and verbRootForm() return.
+     */
+    public String rootForm(int pos, String mixedCase, String input) {
+
+        List<String> c = candidates(pos, mixedCase, input);
+        if (c.isEmpty())
+            return null;
+        return c.get(0);
+    }
+
+    /** ***************************************************************
+     * @param pos WordNet.NOUN, VERB, ADJECTIVE or ADVERB
+     * @param mixedCase the word as it appeared
+     * @param input usually the lower case form of mixedCase
+     * @return every lemma of the word with the given part of speech,
+     * best first: the exception table entry, then the result of each
+     * suffix rule that is in the lexicon, then mixedCase and input
+     * themselves if they are in the lexicon
+     */
+    public List<String> candidates(int pos, String mixedCase, String input) {
+
+        checkLexicon();
+        String key = pos + "\t" + mixedCase + "\t" + input;
+        List<String> result = cache.get(key);
+        if (result != null)
+            return result;
+        result = compute(pos, mixedCase, input);
+        if (cache.size() >= maxCacheSize)
+            cache.clear();
+        cache.put(key, result);
+        return result;
+    }
+
+    /** ***************************************************************
+     * Empty the cache if synsets or exceptions were added since it
+     * was filled, as happens when term formats are loaded.
+     */
+    private void checkLexicon() {
+
+        long size = (long) wn.nounSynsetHash.size() + wn.verbSynsetHash.size() +
+                wn.adjectiveSynsetHash.size() + wn.adverbSynsetHash.size() +
+                wn.exceptionNounHash.size() + wn.exceptionVerbHash.size();
+        if (size != cachedLexiconSize) {
+            cache.clear();
+            cachedLexiconSize = size;
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private List<String> compute(int pos, String mixedCase, String input) {
+
+        Map<String,HashSet<String>> synsets = null;
+        Map<String,String> exceptions = null;
+        Node trie = null;
+        String[][] rules = null;
+        switch (pos) {
+            case WordNet.NOUN:
+                synsets = wn.nounSynsetHash; exceptions = wn.exceptionNounHash;
+                trie = nounTrie; rules = nounRules;
+                break;
+            case WordNet.VERB:
+                synsets = wn.verbSynsetHash; exceptions = wn.exceptionVerbHash;
+                trie = verbTrie; rules = verbRules;
+                break;
+            case WordNet.ADJECTIVE:
+            case WordNet.ADJECTIVE_SATELLITE:
+                synsets = wn.adjectiveSynsetHash;
+                break;
+            case WordNet.ADVERB:
+                synsets = wn.adverbSynsetHash;
+                break;
+            default:
+                return none;
+        }
+        ArrayList<String> result = new ArrayList<>(2);
+        if (exceptions != null) {
+            addNew(result, exceptions.get(mixedCase));
+            addNew(result, exceptions.get(input));
+        }
+        if (trie != null) {
+            // collect the rules matching each suffix, longest suffix last
+            int[] matched = new int[rules.length];
+            int n = 0;
+            Node node = trie;
+            for (int i = input.length() - 1; i >= 0 && node != null; i--) {
+                node = node.child(input.charAt(i));
+                if (node != null)
+                    for (int r : node.rules)
+                        matched[n++] = r;
+            }
+            Arrays.sort(matched, 0, n);
+            for (int i = 0; i < n; i++) {
+                String[] rule = rules[matched[i]];
+                String lemma = input.substring(0, input.length() - rule[0].length()) + rule[1];
+                if (synsets.containsKey(lemma))
+                    addNew(result, lemma);
+            }
+        }
+        if (synsets.containsKey(mixedCase))
+            addNew(result, mixedCase);
+        if (synsets.containsKey(input))
+            addNew(result, input);
+        if (result.isEmpty())
+            return none;
+        return Collections.unmodifiableList(result);
+    }
+
+    /** ***************************************************************
+     */
+    private static void addNew(List<String> l, String s) {
+
+        if (s != null && !l.contains(s))
+            l.add(s);
+    }
+}
@@ -27,9 +27,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 public class MultiWords implements Serializable {
 
@@ -41,6 +39,36 @@ public class MultiWords implements Serializable {
 
     public static boolean debug = false;
 
+    /** ***************************************************************
+     * A node of the token trie built from multiWord.  word is the
+     * multi-word that ends at the node, if any.
+     */
+    private static class Node {
+
+        HashMap<String,Node> children = new HashMap<>();
+        String word = null;
+    }
+
+    /** ***************************************************************
+     * A multi-word found in a list of tokens
+     */
+    public static class Match {
+
+        public int start = 0;       // index of the first token
+        public int end = 0;         // index after the last token
+        public String multiWord = "";  // as it is in WordNet
+        public String synset = "";  // its most frequent sense
+
+        public String toString() {
+
+            return multiWord + "[" + start + "," + end + "):" + synset;
+        }
+    }
+
+    // rebuilt from multiWord whenever multi-words have been added
+    private transient volatile Node trie = null;
+    private transient volatile int trieSize = -1;
+
     /** ***************************************************************
      * Add a multi-word string to the multiWord member variable.  Convert
      * the wordDelimit to underscores
@@ -72,6 +100,139 @@ public class MultiWords implements Serializable {
     }
 
     /** ***************************************************************
+     * @return the token trie of all the multi-words
+     */
+    private Node getTrie() {
+
+        Node result = trie;
+        if (result != null && trieSize == multiWord.size())
+            return result;
+        synchronized (this) {
+            if (trie == null || trieSize != multiWord.size()) {
+                Node root = new Node();
+                for (String w : multiWord.values()) {
+                    Node n = root;
+                    for (String token : w.split("_"))
+                        n = n.children.computeIfAbsent(token, k -> new Node());
+                    n.word = w;
+                }
+                trie = root;
+                trieSize = multiWord.size();
+            }
+            return trie;
+        }
+    }
+
+    /** ***************************************************************
+     * @return the forms of a token to look up in the trie: the token
+     * itself, its lower case form and its root form
+     */
+    private static List<String> forms(String token) {
+
+        ArrayList<String> result = new ArrayList<>(3);
+        result.add(token);
+        String lower = token.toLowerCase();
+        if (!lower.equals(token))
+            result.add(lower);
+        String root = rootFormOf(token);
+        if (!result.contains(root))
+            result.add(root);
+        return result;
+    }
+
+    /** ***************************************************************
+     * Walk the trie from node over the tokens from pos, adding to found
+     * the length and multi-word of every multi-word that ends on the way
+     */
+    private static void walk(Node node, List<String> text, int pos, int length, TreeMap<Integer,String> found) {
+
+        if (node.word != null && !found.containsKey(length))
+            found.put(length, node.word);
+        if (pos >= text.size())
+            return;
+        for (String form : forms(text.get(pos))) {
+            Node child = node.children.get(form);
+            if (child != null)
+                walk(child, text, pos + 1, length + 1, found);
+        }
+    }
+
+    /** ***************************************************************
+     * Find the longest multi-word with a synset whose first word is
+     * head, followed by the tokens of text from pos.  Tokens after the
+     * first match as they are, in lower case or in their root form.
+     * @return the match, or null if there is none
+     */
+    private Match longest(String head, List<String> text, int pos) {
+
+        Node n = getTrie().children.get(head);
+        if (n == null)
+            return null;
+        TreeMap<Integer,String> found = new TreeMap<>();
+        walk(n, text, pos, 1, found);
+        for (Map.Entry<Integer,String> e : found.descendingMap().entrySet()) {
+            String sense = WSD.getBestDefaultSense(e.getValue());
+            if (!StringUtil.emptyString(sense)) { // only declare success if the multiword has a synset (trapping errors in the DB)
+                Match m = new Match();
+                m.end = pos - 1 + e.getKey();
+                m.multiWord = e.getValue();
+                m.synset = sense;
+                return m;
+            }
+        }
+        return null;
+    }
+
+    /** ***************************************************************
+     * Find the longest multi-word starting at text.get(start).  The
+     * first word may match in its root form, as it is or in lower case,
+     * and the first of these wins if they give multi-words of the same
+     * length.
+     * @return the match, or null if there is none
+     */
+    public Match findLongest(List<String> text, int start) {
+
+        String head = text.get(start);
+        ArrayList<String> heads = new ArrayList<>(3);
+        heads.add(rootFormOf(head));
+        for (String form : forms(head))
+            if (!heads.contains(form))
+                heads.add(form);
+        Match best = null;
+        for (String h : heads) {
+            Match m = longest(h, text, start + 1);
+            if (m != null && (best == null || m.end > best.end))
+                best = m;
+        }
+        if (best != null)
+            best.start = start;
+        return best;
+    }
+
+    /** ***************************************************************
+     * Find the multi-words of a sentence in one pass from left to right,
+     * taking the longest multi-word at each position and continuing
+     * after it.
+     */
+    public List<Match> findAll(List<String> text) {
+
+        ArrayList<Match> result = new ArrayList<>();
+        int i = 0;
+        while (i < text.size()) {
+            Match m = findLongest(text, i);
+            if (m != null) {
+                result.add(m);
+                i = m.end;
+            }
+            else
+                i++;
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the longest multi-word at the start of text, with its
+     * words as they appear in text, or an empty string
      */
     public String findMultiWord(List<String> text) {
 
@@ -89,7 +250,7 @@ public class MultiWords implements Serializable {
     }
 
     /** ***************************************************************
-     * Find the synset for a multi-word string, if it exists.
+     * Find the synset for the longest multi-word string, if it exists.
      *
      * @param text is an array of String words.
      * @param startIndex is the first word in the array to look at
@@ -101,55 +262,29 @@ public class MultiWords implements Serializable {
     public int findMultiWord(List<String> text, int startIndex, List<String> synset) {
 
         //System.out.println("INFO in MultiWords.findMultiWord(): text: '" + text + "'");
-        String rootWord = rootFormOf(text.get(startIndex));
-        return startIndex + findMultiWord(rootWord, text.get(startIndex),
-                text.subList(startIndex + 1, text.size()), synset);
+        Match m = findLongest(text, startIndex);
+        if (m == null)
+            return startIndex;
+        synset.add(m.synset);
+        return m.end;
     }
 
     /** ***************************************************************
      * @param nonRoot is the non root form of the potential multiword headword.
      *                We need to try both the root form and the original form,
      *                which includes capitalized and lower case versions.
+     * @return the number of words in the multi-word, including the
+     * head word, or 0 if none was found
      */
     public int findMultiWord(String multiWordKey, String nonRoot, List<String> multiWordTail, List<String> synset) {
 
-        if (!multiWord.containsKey(multiWordKey))
+        if (!getTrie().children.containsKey(multiWordKey))
             multiWordKey = nonRoot;
-        int wordIndex = 0;
-        if (multiWord.containsKey(multiWordKey) && !multiWordTail.isEmpty()) {
-            String foundMultiWord = multiWordKey + "_" + multiWordTail.get(wordIndex);
-            Collection<String> candidates = multiWord.get(multiWordKey);
-            while (candidates.size() > 0) {
-                ArrayList<String> newCandidates = new ArrayList<String>();
-                for (String candidate : candidates) {
-                    if (candidate.equals(foundMultiWord)) {
-                        String sense = WSD.getBestDefaultSense(foundMultiWord);
-                        if (!StringUtil.emptyString(sense)) { // only declare success if the multiword has a synset (trapping errors in the DB)
-                            synset.add(sense);
-                            return wordIndex + 2;
-                        }
-                    }
-                    else if (candidate.startsWith(foundMultiWord)) {
-                        newCandidates.add(candidate);
-                    }
-                }
-                if (newCandidates.size() > 0) {
-                    if (wordIndex > multiWordTail.size() - 1) {
-                        candidates = new ArrayList<String>();  // ran out of words, trigger an exit
-                    }
-                    else {
-                        candidates = newCandidates;
-                        wordIndex++;
-                        if (wordIndex < multiWordTail.size())
-                            foundMultiWord = foundMultiWord + "_" + multiWordTail.get(wordIndex);
-                    }
-                }
-                else {
-                    candidates = new ArrayList<String>();
-                }
-            }
-        }
-        return 0;
+        Match m = longest(multiWordKey, multiWordTail, 0);
+        if (m == null)
+            return 0;
+        synset.add(m.synset);
+        return m.end + 1;
     }
 
     /** ***************************************************************
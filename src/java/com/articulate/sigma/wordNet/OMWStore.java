@@ -0,0 +1,280 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/** ***************************************************************
+ * The Open Multilingual WordNet data of one language in an indexed
+ * binary file, so that a language can be opened without reading it
+ * into the heap.  The OMW synset keys are sorted, and each has a
+ * record holding its lemmas, definitions and examples.  The file is
+ * memory mapped and only read with absolute positions, so one store
+ * can be shared by request threads.  lookup() finds a single synset
+ * with a binary search over the keys, and load() decodes the whole
+ * language into the maps that OMWordnet keeps for resident languages.
+ *
+ * Layout, all ints big-endian:
+ *   MAGIC VERSION n
+ *   keyOffsets[n+1] keyBytes
+ *   recordOffsets[n+1] recordBytes
+ * where keys are UTF-8 and sorted by their bytes, and a record is
+ * three lists of lemmas, definitions and examples, each a short count
+ * followed by DataOutput.writeUTF() strings.
+ */
+public class OMWStore {
+
+    public static final int MAGIC = 0x534F4D57; // "SOMW"
+    public static final int VERSION = 1;
+
+    private final ByteBuffer buf;
+    private final int n;
+    private final int keyOffsetBase;
+    private final int keyBase;
+    private final int recordOffsetBase;
+    private final int recordBase;
+
+    /** ***************************************************************
+     * The entries of one synset.  A list is null when the language has
+     * nothing of that kind for the synset, as with the OMWordnet maps.
+     */
+    public static class Entry {
+
+        public ArrayList<String> words = null;
+        public ArrayList<String> glosses = null;
+        public ArrayList<String> examples = null;
+    }
+
+    /** ***************************************************************
+     * Open a file created by write()
+     */
+    public OMWStore(File file) throws IOException {
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buf = mapped;
+        }
+        if (buf.getInt(0) != MAGIC)
+            throw new IOException("not an OMW index file: " + file);
+        int version = buf.getInt(4);
+        if (version != VERSION)
+            throw new IOException("unsupported OMW index version " + version + " in " + file);
+        n = buf.getInt(8);
+        keyOffsetBase = 12;
+        keyBase = keyOffsetBase + 4 * (n + 1);
+        recordOffsetBase = keyBase + buf.getInt(keyOffsetBase + 4 * n);
+        recordBase = recordOffsetBase + 4 * (n + 1);
+    }
+
+    /** ***************************************************************
+     * @return the number of synsets in the store
+     */
+    public int size() {
+
+        return n;
+    }
+
+    /** ***************************************************************
+     */
+    private static int compareBytes(byte[] a, byte[] b) {
+
+        int len = Math.min(a.length, b.length);
+        for (int i = 0; i < len; i++) {
+            int c = (a[i] & 0xff) - (b[i] & 0xff);
+            if (c != 0)
+                return c;
+        }
+        return a.length - b.length;
+    }
+
+    /** ***************************************************************
+     * @return the given range of the file
+     */
+    private byte[] bytes(int start, int end) {
+
+        byte[] result = new byte[end - start];
+        ByteBuffer b = buf.duplicate();
+        b.position(start);
+        b.get(result);
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    private byte[] key(int i) {
+
+        return bytes(keyBase + buf.getInt(keyOffsetBase + 4 * i),
+                keyBase + buf.getInt(keyOffsetBase + 4 * (i + 1)));
+    }
+
+    /** ***************************************************************
+     */
+    private Entry record(int i) throws IOException {
+
+        byte[] b = bytes(recordBase + buf.getInt(recordOffsetBase + 4 * i),
+                recordBase + buf.getInt(recordOffsetBase + 4 * (i + 1)));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(b));
+        Entry e = new Entry();
+        e.words = readList(in);
+        e.glosses = readList(in);
+        e.examples = readList(in);
+        return e;
+    }
+
+    /** ***************************************************************
+     */
+    private static ArrayList<String> readList(DataInputStream in) throws IOException {
+
+        int count = in.readUnsignedShort();
+        if (count == 0)
+            return null;
+        ArrayList<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            result.add(in.readUTF());
+        return result;
+    }
+
+    /** ***************************************************************
+     * @param synset an OMW synset such as 02084071-n
+     * @return the entries of the synset, or null if it has none
+     */
+    public Entry lookup(String synset) {
+
+        byte[] target = synset.getBytes(StandardCharsets.UTF_8);
+        int lo = 0, hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareBytes(key(mid), target);
+            if (c < 0)
+                lo = mid + 1;
+            else if (c > 0)
+                hi = mid - 1;
+            else {
+                try {
+                    return record(mid);
+                }
+                catch (IOException e) {
+                    System.out.println("Error in OMWStore.lookup(): " + synset + ": " + e.getMessage());
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** ***************************************************************
+     * Decode every synset of the store into the given maps
+     */
+    public void load(HashMap<String,ArrayList<String>> wordnet,
+                     HashMap<String,ArrayList<String>> gloss,
+                     HashMap<String,ArrayList<String>> example) throws IOException {
+
+        for (int i = 0; i < n; i++) {
+            String key = new String(key(i), StandardCharsets.UTF_8);
+            Entry e = record(i);
+            if (e.words != null)
+                wordnet.put(key, e.words);
+            if (e.glosses != null)
+                gloss.put(key, e.glosses);
+            if (e.examples != null)
+                example.put(key, e.examples);
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private static void writeList(DataOutputStream out, ArrayList<String> l) throws IOException {
+
+        if (l == null) {
+            out.writeShort(0);
+            return;
+        }
+        out.writeShort(l.size());
+        for (String s : l)
+            out.writeUTF(s);
+    }
+
+    /** ***************************************************************
+     * Write the maps of one language, keyed by OMW synset, to a
+     * temporary file that then replaces file, so that an interrupted
+     * write never leaves a truncated index newer than its source
+     */
+    public static void write(Map<String,ArrayList<String>> wordnet,
+                             Map<String,ArrayList<String>> gloss,
+                             Map<String,ArrayList<String>> example, File file) throws IOException {
+
+        TreeSet<String> keySet = new TreeSet<>(wordnet.keySet());
+        keySet.addAll(gloss.keySet());
+        keySet.addAll(example.keySet());
+        byte[][] keys = new byte[keySet.size()][];
+        int k = 0;
+        for (String s : keySet)
+            keys[k++] = s.getBytes(StandardCharsets.UTF_8);
+        Arrays.sort(keys, OMWStore::compareBytes);
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream rec = new DataOutputStream(records);
+        int[] recordOffsets = new int[keys.length + 1];
+        for (int i = 0; i < keys.length; i++) {
+            recordOffsets[i] = rec.size();
+            String key = new String(keys[i], StandardCharsets.UTF_8);
+            writeList(rec, wordnet.get(key));
+            writeList(rec, gloss.get(key));
+            writeList(rec, example.get(key));
+        }
+        recordOffsets[keys.length] = rec.size();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keys.length);
+            int offset = 0;
+            for (byte[] key : keys) {
+                out.writeInt(offset);
+                offset += key.length;
+            }
+            out.writeInt(offset);
+            for (byte[] key : keys)
+                out.write(key);
+            for (int o : recordOffsets)
+                out.writeInt(o);
+            records.writeTo(out);
+        }
+        catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        try {
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.articulate.sigma.wordNet;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.articulate.sigma.KB;
 import com.articulate.sigma.KBmanager;
@@ -26,7 +28,8 @@ August 9, Acapulco, Mexico.
  Adam Pease
  Infosys LTD.
  */
-    // String key of language name
+    // String key of language code, only for the languages that are
+    // resident.  Use getWordnet(), getGlosses() and getExamples().
     // Interior key of a 9-digit WordNet synset and value of and ArrayList of 
     // non-English synset Strings
     public HashMap<String,HashMap<String,ArrayList<String>>> wordnets =
@@ -40,6 +43,22 @@ August 9, Acapulco, Mexico.
 
     public static boolean disable = false; // disable for debugging
 
+    // Languages are read on first request, from an OMWStore file that is
+    // built from the OMW sources the first time.  At most
+    // maxResidentLanguages are held in memory at once, besides the
+    // residentLanguages, which are loaded at startup and never evicted.
+    // residentLanguages is set from the omwLanguages preference, a space
+    // or comma separated list of language codes.
+    public static int maxResidentLanguages = 4;
+    public static HashSet<String> residentLanguages = new HashSet<>();
+
+    // language codes, least recently used first
+    private static final LinkedHashSet<String> resident = new LinkedHashSet<>();
+    // opened index files, or null for a language without data, each
+    // completed by the one thread that opens or builds it
+    private static final ConcurrentHashMap<String,CompletableFuture<OMWStore>> stores =
+            new ConcurrentHashMap<>();
+
     /** *************************************************************
      */
     private static char getOMWMappingSuffix(String SUMOmapping) {
@@ -105,15 +124,11 @@ August 9, Acapulco, Mexico.
 
     /** *************************************************************
      */
-    private static void readOMWformat(String inputFileWithPath, String langName) {
+    private static void readOMWformat(String inputFileWithPath,
+                                      HashMap<String,ArrayList<String>> wordnet,
+                                      HashMap<String,ArrayList<String>> gloss,
+                                      HashMap<String,ArrayList<String>> example) {
         
-        //System.out.println("INFO in WordNetUtilities.readOMWformat(): creating table entry for " + langName);
-        HashMap<String,ArrayList<String>> wordnet = new HashMap<String,ArrayList<String>>();
-        OMWordnet.omw.wordnets.put(langName,wordnet);
-        HashMap<String,ArrayList<String>> gloss = new HashMap<String,ArrayList<String>>();
-        OMWordnet.omw.glosses.put(langName,gloss);
-        HashMap<String,ArrayList<String>> example = new HashMap<String,ArrayList<String>>();
-        OMWordnet.omw.examples.put(langName,example);
         File inputf = new File(inputFileWithPath);
         if (!inputf.exists()) return;
         String line = "";
@@ -243,104 +258,194 @@ August 9, Acapulco, Mexico.
     }
 
     /** ***************************************************************
-     *  Check whether sources are newer than serialized version.
+     * @return the OMW source file of a language
      */
-    public static boolean serializedOld() {
+    private static File sourceFile(String code) {
 
-        File serfile = new File(baseDir + File.separator + "omw.ser");
-        Date saveDate = new Date(serfile.lastModified());
         String kbDir = KBmanager.getMgr().getPref("kbDir");
-        System.out.println("INFO in OMWordnet.readOMWfiles(): reading files: ");
-        for (int i = 0; i < lcodes.size(); i++) {
-            String filename = kbDir + File.separator + "OMW" +
-                    File.separator + lcodes.get(i)  + File.separator +
-                    "wn-data-" + lcodes.get(i) + ".tab";
-            File file = new File(filename);
-            Date fileDate = new Date(file.lastModified());
-            if (saveDate.compareTo(fileDate) < 0) {
-                return true;
-            }
-        }
-        return false;
+        return new File(kbDir + File.separator + "OMW" +
+                File.separator + code + File.separator +
+                "wn-data-" + code + ".tab");
+    }
+
+    /** ***************************************************************
+     * @return the index file of a language, built from its source file
+     */
+    public static File indexFile(String code) {
+
+        return new File(baseDir + File.separator + "omw-" + code + ".idx");
     }
 
     /** ***************************************************************
-     *  Load the most recently save serialized version.
+     * @return the opened index of a language, building the index file
+     * first if there is none or it is older than the source, or null
+     * if the language has no data.  An index is built without holding
+     * the lock of OMWordnet, so that other languages can be read
+     * meanwhile, and threads that ask for the same language wait for
+     * the one that builds it.  If building fails, null is returned and
+     * the next request tries again.
      */
-    public static void loadSerialized() {
+    private static OMWStore store(String code) {
 
-        omw = null;
+        CompletableFuture<OMWStore> future = new CompletableFuture<>();
+        CompletableFuture<OMWStore> existing = stores.putIfAbsent(code, future);
+        if (existing != null)
+            return existing.join();
+        OMWStore result = null;
+        boolean built = false;
+        File source = sourceFile(code);
+        File index = indexFile(code);
         try {
-            // Reading the object from a file
-            FileInputStream file = new FileInputStream(baseDir + File.separator + "omw.ser");
-            ObjectInputStream in = new ObjectInputStream(file);
-            // Method for deserialization of object
-            omw = (OMWordnet) in.readObject();
-            if (serializedOld()) {
-                omw = null;
-                System.out.println("OMWordnet.loadSerialized(): serialized file is older than sources, " +
-                        "reloding from sources.");
-                return;
+            if (source.exists() && (!index.exists() || index.lastModified() < source.lastModified())) {
+                System.out.println("INFO in OMWordnet.store(): indexing " + source);
+                HashMap<String,ArrayList<String>> wordnet = new HashMap<>();
+                HashMap<String,ArrayList<String>> gloss = new HashMap<>();
+                HashMap<String,ArrayList<String>> example = new HashMap<>();
+                readOMWformat(source.getPath(), wordnet, gloss, example);
+                OMWStore.write(wordnet, gloss, example, index);
             }
-            in.close();
-            file.close();
-            System.out.println("OMWordnet.loadSerialized(): OMW has been deserialized ");
+            if (index.exists())
+                result = new OMWStore(index);
+            built = true;
         }
-        catch(IOException ex) {
-            System.out.println("Error in OMWordnet.loadSerialized(): IOException is caught");
+        catch (IOException ex) {
+            System.out.println("Error in OMWordnet.store(): " + code + ": " + ex.getMessage());
             ex.printStackTrace();
         }
-        catch(ClassNotFoundException ex) {
-            System.out.println("Error in OMWordnet.loadSerialized(): ClassNotFoundException is caught");
-            ex.printStackTrace();
+        finally {
+            if (!built)
+                stores.remove(code, future);
+            future.complete(result);
         }
+        return result;
     }
 
     /** ***************************************************************
-     *  save serialized version.
+     * Make a language resident, reading it from its index if it is
+     * not, and evict the least recently used languages over
+     * maxResidentLanguages that are not in residentLanguages
      */
-    public static void serialize() {
+    private static synchronized void makeResident(String code) {
 
-        try {
-            // Reading the object from a file
-            FileOutputStream file = new FileOutputStream(baseDir + File.separator + "omw.ser");
-            ObjectOutputStream out = new ObjectOutputStream(file);
-            // Method for deserialization of object
-            out.writeObject(omw);
-            out.close();
-            file.close();
-            System.out.println("OMWordnet.serialize(): OMW has been serialized ");
+        if (resident.remove(code)) {
+            resident.add(code);
+            return;
         }
-        catch(IOException ex) {
-            System.out.println("Error in OMWordNet.serialize(): IOException is caught");
-            ex.printStackTrace();
+        HashMap<String,ArrayList<String>> wordnet = new HashMap<>();
+        HashMap<String,ArrayList<String>> gloss = new HashMap<>();
+        HashMap<String,ArrayList<String>> example = new HashMap<>();
+        OMWStore store = store(code);
+        if (store != null) {
+            try {
+                store.load(wordnet, gloss, example);
+            }
+            catch (IOException ex) {
+                System.out.println("Error in OMWordnet.makeResident(): " + code + ": " + ex.getMessage());
+            }
+        }
+        omw.wordnets.put(code, wordnet);
+        omw.glosses.put(code, gloss);
+        omw.examples.put(code, example);
+        resident.add(code);
+        Iterator<String> it = resident.iterator();
+        while (resident.size() > maxResidentLanguages + residentLanguages.size() && it.hasNext()) {
+            String old = it.next();
+            if (residentLanguages.contains(old) || old.equals(code))
+                continue;
+            it.remove();
+            omw.wordnets.remove(old);
+            omw.glosses.remove(old);
+            omw.examples.remove(old);
+        }
+    }
+
+    /** ***************************************************************
+     * @return the lemmas of a language, keyed by OMW synset, loading
+     * the language if it is not resident
+     */
+    public static HashMap<String,ArrayList<String>> getWordnet(String code) {
+
+        store(code);
+        synchronized (OMWordnet.class) {
+            makeResident(code);
+            return omw.wordnets.get(code);
         }
     }
 
+    /** ***************************************************************
+     * @return the definitions of a language, keyed by OMW synset
+     */
+    public static HashMap<String,ArrayList<String>> getGlosses(String code) {
+
+        store(code);
+        synchronized (OMWordnet.class) {
+            makeResident(code);
+            return omw.glosses.get(code);
+        }
+    }
+
+    /** ***************************************************************
+     * @return the examples of a language, keyed by OMW synset
+     */
+    public static HashMap<String,ArrayList<String>> getExamples(String code) {
+
+        store(code);
+        synchronized (OMWordnet.class) {
+            makeResident(code);
+            return omw.examples.get(code);
+        }
+    }
+
+    /** ***************************************************************
+     * @return the entries of one synset in a language, from memory if
+     * the language is resident, or else from its index without loading
+     * the language.  Null if there are none.
+     */
+    public static OMWStore.Entry lookup(String code, String synset) {
+
+        synchronized (OMWordnet.class) {
+            if (resident.contains(code)) {
+                OMWStore.Entry e = new OMWStore.Entry();
+                e.words = omw.wordnets.get(code).get(synset);
+                e.glosses = omw.glosses.get(code).get(synset);
+                e.examples = omw.examples.get(code).get(synset);
+                if (e.words == null && e.glosses == null && e.examples == null)
+                    return null;
+                return e;
+            }
+        }
+        OMWStore store = store(code);
+        if (store == null)
+            return null;
+        return store.lookup(synset);
+    }
+
     /** *************************************************************
-     * Assumes a fixed set of files in the KBs directory.
+     * Forget any loaded languages and load the residentLanguages.
+     * Other languages are read when they are first asked for.
      */
-    public static void readOMWfiles() {
+    public static synchronized void readOMWfiles() {
 
         if (disable)
             return;
-        loadSerialized();
-        if (omw != null)
-            return;
         omw = new OMWordnet();
-        String kbDir = KBmanager.getMgr().getPref("kbDir");  
-        System.out.println("INFO in OMWordnet.readOMWfiles(): reading files: ");
-        for (int i = 0; i < lcodes.size(); i++) {
-            String filename = kbDir + File.separator + "OMW" + 
-                    File.separator + lcodes.get(i)  + File.separator + 
-                    "wn-data-" + lcodes.get(i) + ".tab";
-            System.out.print(filename);
-            readOMWformat(filename,lcodes.get(i));            
+        resident.clear();
+        stores.clear();
+        residentLanguages = new HashSet<>();
+        String langs = KBmanager.getMgr().getPref("omwLanguages");
+        if (langs != null) {
+            for (String code : langs.split("[\\s,]+")) {
+                if (lcodes.contains(code))
+                    residentLanguages.add(code);
+                else if (!code.isEmpty())
+                    System.out.println("Error in OMWordnet.readOMWfiles(): unknown language code: " + code);
+            }
         }
-        serialize();
-        System.out.println();
+        System.out.println("INFO in OMWordnet.readOMWfiles(): loading languages: " + residentLanguages);
+        for (String code : residentLanguages)
+            makeResident(code);
     }
-    
+
     /** *************************************************************
      */
     public static void generateOMWOWLformat(KB kb) {
@@ -377,11 +482,16 @@ August 9, Acapulco, Mexico.
     public static String formatWords(String term, String kbName, String lang, String href) {
 
         //System.out.println("INFO in OMWordnet.formatWords(): " + term + " " + lang);
-        HashMap<String,ArrayList<String>> wordnet = omw.wordnets.get(languageToCode(lang));
+        String code = languageToCode(lang);
+        if (disable || code.equals(""))
+            return "";
+        HashMap<String,ArrayList<String>> wordnet = getWordnet(code);
         if (wordnet == null || wordnet.size() == 0)
             return "";
         StringBuffer result = new StringBuffer();
         ArrayList<String> synsets = WordNet.wn.SUMOHash.get(term);
+        if (synsets == null)
+            return "";
         int limit = synsets.size();
         if (limit > 50)
             limit = 50;
@@ -433,10 +543,11 @@ August 9, Acapulco, Mexico.
         for (int i = 0; i < lnames.size(); i++) {
             name = lnames.get(i);
             id = lcodes.get(i);
-            words = omw.wordnets.get(id).get(synset);
-            exams = omw.examples.get(id).get(synset);
-            defs = omw.glosses.get(id).get(synset);
-            if (words != null || exams != null || defs != null) {
+            OMWStore.Entry e = disable ? null : lookup(id, synset);
+            if (e != null) {
+                words = e.words;
+                exams = e.examples;
+                defs = e.glosses;
                 sb.append("<tr><td><strong>" + name.substring(0,name.length()-8) + "</strong></td>\n");
                 sb.append("<td>");
                 if (words != null)
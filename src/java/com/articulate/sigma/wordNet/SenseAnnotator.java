@@ -0,0 +1,284 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import com.articulate.sigma.DB;
+import com.articulate.sigma.KBmanager;
+import com.articulate.sigma.utils.StringUtil;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/** ***************************************************************
+ * Annotate a large corpus, one sentence per line, with the synsets
+ * and SUMO terms that WSD.collectWordSenses() finds.  Lines are read
+ * as a stream in batches of batchSize, the batches are annotated on
+ * a fixed thread pool and the annotations are written in input order
+ * as JSON Lines, one object per sentence:
+ *
+ *   {"id":12,"sentence":"...","synsets":["102084071",...],"terms":["Dog",...]}
+ *
+ * with a "sentiment" member from DB.computeSentiment() if requested.
+ * Each thread counts the SUMO terms it finds in its own map and the
+ * maps are only merged once all the batches are done.  The lexicon
+ * in WordNet.wn is only read, so no locking is needed, but it must
+ * not be reloaded while a run is in progress.
+ */
+public class SenseAnnotator {
+
+    public static boolean debug = false;
+
+    // number of sentences handed to a thread at a time
+    public static int batchSize = 500;
+
+    public int threads = Runtime.getRuntime().availableProcessors();
+    public boolean sentiment = false;
+
+    // per-thread SUMO term counts, merged by counts()
+    private final List<HashMap<String,Integer>> accumulators =
+            Collections.synchronizedList(new ArrayList<HashMap<String,Integer>>());
+    private final ThreadLocal<HashMap<String,Integer>> localCounts = ThreadLocal.withInitial(() -> {
+        HashMap<String,Integer> counts = new HashMap<>();
+        accumulators.add(counts);
+        return counts;
+    });
+
+    /** ***************************************************************
+     * @return the keys and values as a JSON object, and any Collection
+     * values as JSON arrays.  The json-simple classes are a raw Map
+     * and List, hence the suppressed warning.
+     */
+    @SuppressWarnings("unchecked")
+    private static JSONObject toJSON(Map<String,Object> values) {
+
+        JSONObject result = new JSONObject();
+        for (Map.Entry<String,Object> e : values.entrySet()) {
+            if (e.getValue() instanceof Collection) {
+                JSONArray array = new JSONArray();
+                array.addAll((Collection<?>) e.getValue());
+                result.put(e.getKey(), array);
+            }
+            else
+                result.put(e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the annotation of one sentence as a JSON object, also
+     * adding its SUMO terms to the counts of the current thread
+     */
+    public JSONObject annotate(long id, String sentence) {
+
+        HashMap<String,Object> result = new HashMap<>();
+        result.put("id", id);
+        result.put("sentence", sentence);
+        ArrayList<String> synsets = new ArrayList<>();
+        ArrayList<String> terms = new ArrayList<>();
+        String text = StringUtil.removePunctuation(StringUtil.removeHTML(sentence));
+        if (!StringUtil.emptyString(text) && !StringUtil.emptyString(text.trim())) {
+            HashMap<String,Integer> counts = localCounts.get();
+            for (String synset : WSD.collectWordSenses(sentence)) {
+                synsets.add(synset);
+                String term = WordNetUtilities.getBareSUMOTerm(WordNet.wn.getSUMOMapping(synset));
+                if (!StringUtil.emptyString(term)) {
+                    terms.add(term);
+                    counts.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        result.put("synsets", synsets);
+        result.put("terms", terms);
+        if (sentiment)
+            result.put("sentiment", DB.computeSentiment(sentence));
+        return toJSON(result);
+    }
+
+    /** ***************************************************************
+     * Annotate a batch of sentences numbered from firstID
+     * @return one line of JSON for each sentence
+     */
+    private String annotateBatch(long firstID, List<String> batch) {
+
+        StringBuilder sb = new StringBuilder();
+        long id = firstID;
+        for (String sentence : batch) {
+            try {
+                sb.append(annotate(id, sentence).toJSONString());
+            }
+            catch (Exception e) {
+                System.out.println("Error in SenseAnnotator.annotateBatch(): sentence " + id + ": " + e.getMessage());
+                HashMap<String,Object> error = new HashMap<>();
+                error.put("id", id);
+                error.put("sentence", sentence);
+                error.put("error", String.valueOf(e.getMessage()));
+                sb.append(toJSON(error).toJSONString());
+            }
+            sb.append("\n");
+            id++;
+        }
+        return sb.toString();
+    }
+
+    /** ***************************************************************
+     * Annotate every non-blank line of in and write the annotations to
+     * out in input order.  At most twice as many batches as there are
+     * threads are held in memory at once.
+     * @return the number of sentences annotated
+     */
+    public long annotate(BufferedReader in, Writer out) throws IOException {
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        int maxPending = 2 * Math.max(1, threads);
+        long count = 0;
+        try {
+            ArrayList<String> batch = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (StringUtil.emptyString(line.trim()))
+                    continue;
+                batch.add(line.trim());
+                if (batch.size() >= batchSize) {
+                    final long first = count;
+                    final List<String> b = batch;
+                    pending.add(pool.submit(() -> annotateBatch(first, b)));
+                    count += batch.size();
+                    batch = new ArrayList<>();
+                    while (pending.size() >= maxPending)
+                        out.write(next(pending));
+                }
+            }
+            if (!batch.isEmpty()) {
+                final long first = count;
+                final List<String> b = batch;
+                pending.add(pool.submit(() -> annotateBatch(first, b)));
+                count += batch.size();
+            }
+            while (!pending.isEmpty())
+                out.write(next(pending));
+            out.flush();
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        if (debug) System.out.println("SenseAnnotator.annotate(): annotated " + count + " sentences");
+        return count;
+    }
+
+    /** ***************************************************************
+     * Wait for the oldest pending batch
+     */
+    private static String next(ArrayDeque<Future<String>> pending) throws IOException {
+
+        try {
+            return pending.poll().get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+        catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /** ***************************************************************
+     * @return the SUMO terms found so far and how often, merged from the
+     * counts of each thread
+     */
+    public Map<String,Integer> counts() {
+
+        HashMap<String,Integer> result = new HashMap<>();
+        synchronized (accumulators) {
+            for (HashMap<String,Integer> counts : accumulators)
+                for (Map.Entry<String,Integer> e : counts.entrySet())
+                    result.merge(e.getKey(), e.getValue(), Integer::sum);
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     * Write the counts, most frequent first, as tab separated lines of
+     * term and count
+     */
+    public void writeCounts(Writer out) throws IOException {
+
+        ArrayList<Map.Entry<String,Integer>> entries = new ArrayList<>(counts().entrySet());
+        entries.sort((a, b) -> {
+            int c = Integer.compare(b.getValue(), a.getValue());
+            return c != 0 ? c : a.getKey().compareTo(b.getKey());
+        });
+        for (Map.Entry<String,Integer> e : entries)
+            out.write(e.getKey() + "\t" + e.getValue() + "\n");
+        out.flush();
+    }
+
+    /** ***************************************************************
+     */
+    public static void showHelp() {
+
+        System.out.println("SenseAnnotator class");
+        System.out.println("  options:");
+        System.out.println("  -h - show this help screen");
+        System.out.println("  -a <input> <output.jsonl> [threads] - annotate each line of input");
+        System.out.println("       and write the term counts to output.jsonl.counts");
+        System.out.println("  -s <input> <output.jsonl> [threads] - as -a, adding sentiment scores");
+        System.out.println("  input may be - for standard input");
+    }
+
+    /** ***************************************************************
+     */
+    public static void main(String[] args) {
+
+        if (args == null || args.length < 3 || args[0].equals("-h")) {
+            showHelp();
+            return;
+        }
+        if (!args[0].equals("-a") && !args[0].equals("-s")) {
+            showHelp();
+            return;
+        }
+        KBmanager.getMgr().initializeOnce();
+        SenseAnnotator sa = new SenseAnnotator();
+        sa.sentiment = args[0].equals("-s");
+        if (args.length > 3)
+            sa.threads = Integer.parseInt(args[3]);
+        InputStream is = null;
+        try {
+            is = args[1].equals("-") ? System.in : new FileInputStream(args[1]);
+            long start = System.currentTimeMillis();
+            long n;
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+                 Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[2]),
+                         StandardCharsets.UTF_8))) {
+                n = sa.annotate(in, out);
+            }
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(args[2] + ".counts"),
+                    StandardCharsets.UTF_8)) {
+                sa.writeCounts(out);
+            }
+            System.out.println("SenseAnnotator.main(): annotated " + n + " sentences with " + sa.threads +
+                    " threads in " + (System.currentTimeMillis() - start) / 1000.0 + " seconds");
+        }
+        catch (IOException e) {
+            System.out.println("Error in SenseAnnotator.main(): " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import java.util.*;
+
+/** ***************************************************************
+ * The stop words of WordNet.stopwords in an open addressing hash
+ * table, where each word has the ID of its position in the list.  A
+ * word can be looked up as a range of any CharSequence, so a token
+ * from Tokenizer is checked without making a String of it.  As with
+ * WordNet.isStopWord(), the range is trimmed and lower cased before
+ * it is compared.
+ */
+public class StopWords {
+
+    // the size of the list the table was built from
+    final int sourceSize;
+
+    private final String[] words;
+    // the ID + 1 of the word in each slot, or 0 for an empty slot
+    private final int[] slots;
+    private final int mask;
+
+    /** ***************************************************************
+     */
+    public StopWords(List<String> stopwords) {
+
+        sourceSize = stopwords.size();
+        words = stopwords.toArray(new String[0]);
+        int capacity = 16;
+        while (capacity < words.length * 2)
+            capacity <<= 1;
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int id = 0; id < words.length; id++) {
+            String w = words[id];
+            int slot = mix(w.hashCode()) & mask;
+            boolean duplicate = false;
+            while (slots[slot] != 0) {
+                if (words[slots[slot] - 1].equals(w)) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate)
+                slots[slot] = id + 1;
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private static int mix(int h) {
+
+        return h ^ (h >>> 16);
+    }
+
+    /** ***************************************************************
+     * The characters of java.util.regex \s and anything else that
+     * String.trim() removes
+     */
+    private static boolean isTrimmed(char c) {
+
+        return c <= ' ';
+    }
+
+    /** ***************************************************************
+     * @return the ID of the stop word, or -1 if it is not one
+     */
+    public int id(CharSequence s, int start, int end) {
+
+        while (start < end && isTrimmed(s.charAt(start)))
+            start++;
+        while (end > start && isTrimmed(s.charAt(end - 1)))
+            end--;
+        if (start == end)
+            return -1;
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80)  // leave the case rules of other scripts to String
+                return id(s.subSequence(start, end).toString().toLowerCase());
+            if (c >= 'A' && c <= 'Z')
+                c = (char) (c + ('a' - 'A'));
+            h = 31 * h + c;
+        }
+        int len = end - start;
+        for (int slot = mix(h) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            String w = words[slots[slot] - 1];
+            if (w.length() != len)
+                continue;
+            boolean same = true;
+            for (int i = 0; same && i < len; i++) {
+                char c = s.charAt(start + i);
+                if (c >= 'A' && c <= 'Z')
+                    c = (char) (c + ('a' - 'A'));
+                same = (w.charAt(i) == c);
+            }
+            if (same)
+                return slots[slot] - 1;
+        }
+        return -1;
+    }
+
+    /** ***************************************************************
+     * @return the ID of a lower case stop word, or -1
+     */
+    private int id(String lower) {
+
+        for (int slot = mix(lower.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask)
+            if (words[slots[slot] - 1].equals(lower))
+                return slots[slot] - 1;
+        return -1;
+    }
+
+    /** ***************************************************************
+     */
+    public boolean contains(CharSequence s, int start, int end) {
+
+        return id(s, start, end) >= 0;
+    }
+
+    /** ***************************************************************
+     */
+    public boolean contains(CharSequence s) {
+
+        return id(s, 0, s.length()) >= 0;
+    }
+
+    /** ***************************************************************
+     * @return the stop word with the ID
+     */
+    public String get(int id) {
+
+        return words[id];
+    }
+
+    /** ***************************************************************
+     * @return the number of words the table was built from
+     */
+    public int size() {
+
+        return words.length;
+    }
+}
@@ -0,0 +1,159 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** ***************************************************************
+ * The words of every SUMO term, from WordNet.SUMOHash and
+ * synsetsToWords, with the synset of each word and the kind of
+ * mapping of that synset to the term.  It is built once for a
+ * loaded WordNet, after termFormatsToSynsets() if term formats are
+ * used, and rebuilt if either table has grown since.  Entries are
+ * not changed after the index is built, except for the HTML of the
+ * words of a term that formatWords() creates on first request for
+ * each KB.
+ */
+public class TermWordsIndex {
+
+    // the sizes of SUMOHash and synsetsToWords the index was built from
+    final int termsSize;
+    final int synsetsSize;
+
+    private final HashMap<String,Entry> terms = new HashMap<>();
+
+    /** ***************************************************************
+     * A word of a term, the synset it came from, and the mapping
+     * suffix of that synset, one of = + @ : [ ] or a space if there is
+     * no mapping
+     */
+    public static class Sense {
+
+        public final String word;
+        public final String synset;
+        public final char mapping;
+
+        public Sense(String word, String synset, char mapping) {
+
+            this.word = word;
+            this.synset = synset;
+            this.mapping = mapping;
+        }
+
+        public String toString() {
+
+            return word + "/" + synset + mapping;
+        }
+    }
+
+    /** ***************************************************************
+     * The words of one term
+     */
+    public static class Entry {
+
+        // every word of every synset, in the order of SUMOHash
+        public final List<Sense> senses;
+        // false if some synset of the term has no words, in which case
+        // WordNet.getWordsFromTerm() returns null
+        public final boolean complete;
+        // each word with its last synset, as getWordsFromTerm() returns
+        final TreeMap<String,String> words;
+        private final SortedMap<String,String> wordView;
+        private final ConcurrentHashMap<String,String> html = new ConcurrentHashMap<>();
+
+        Entry(List<Sense> senses, boolean complete) {
+
+            this.senses = Collections.unmodifiableList(senses);
+            this.complete = complete;
+            words = new TreeMap<>();
+            for (Sense s : senses)
+                words.put(s.word, s.synset);
+            wordView = Collections.unmodifiableSortedMap(words);
+        }
+
+        /** ***************************************************************
+         * @return a copy of the words of the term and their synsets
+         */
+        public TreeMap<String,String> getWords() {
+
+            return new TreeMap<>(words);
+        }
+
+        /** ***************************************************************
+         * @return the words of the term and their synsets, without a copy
+         */
+        public SortedMap<String,String> getWordView() {
+
+            return wordView;
+        }
+
+        /** ***************************************************************
+         * @return the HTML of WordNetUtilities.formatWords() for the
+         * words, created the first time it is asked for with a KB name
+         */
+        public String formatWords(String kbName) {
+
+            return html.computeIfAbsent(kbName, k -> WordNetUtilities.formatWords(words, k));
+        }
+    }
+
+    /** ***************************************************************
+     */
+    public TermWordsIndex(WordNet wn) {
+
+        termsSize = wn.SUMOHash.size();
+        synsetsSize = wn.synsetsToWords.size();
+        for (Map.Entry<String,ArrayList<String>> e : wn.SUMOHash.entrySet()) {
+            ArrayList<Sense> senses = new ArrayList<>();
+            boolean complete = true;
+            for (String synset : e.getValue()) {
+                ArrayList<String> words = wn.synsetsToWords.get(synset);
+                if (words == null) {
+                    complete = false;
+                    continue;
+                }
+                char mapping = mappingSuffix(wn, synset);
+                for (String word : words)
+                    senses.add(new Sense(word, synset, mapping));
+            }
+            terms.put(e.getKey(), new Entry(senses, complete));
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private static char mappingSuffix(WordNet wn, String synset) {
+
+        if (synset.length() < 2 || "12345".indexOf(synset.charAt(0)) < 0)
+            return ' ';
+        return WordNetUtilities.getSUMOMappingSuffix(wn.getSUMOMapping(synset));
+    }
+
+    /** ***************************************************************
+     * @return the words of the term, or null if it has no synsets
+     */
+    public Entry get(String term) {
+
+        return terms.get(term);
+    }
+
+    /** ***************************************************************
+     * @return the number of terms in the index
+     */
+    public int size() {
+
+        return terms.size();
+    }
+}
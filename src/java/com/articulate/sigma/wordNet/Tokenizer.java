@@ -0,0 +1,191 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import java.util.*;
+
+/** ***************************************************************
+ * Split text into words or sentences as the start and end offsets
+ * of each token in the original CharSequence, without creating a
+ * String per token.  Words are separated by spaces, as in
+ * WordNet.splitToArrayList(), and sentences by a period followed by
+ * white space, as in WordNet.splitToArrayListSentence().  Tokens of
+ * nothing but white space are left out.  A Tokenizer keeps its
+ * offset arrays between calls, so one that is reused for many texts
+ * does not allocate once the arrays are large enough.  It is not
+ * thread safe.
+ */
+public class Tokenizer {
+
+    private CharSequence text = "";
+    private int size = 0;
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+
+    /** ***************************************************************
+     * The characters of java.util.regex \s
+     */
+    private static boolean isSpace(char c) {
+
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** ***************************************************************
+     * Add the token from start to end unless it is all white space
+     */
+    private void add(int start, int end) {
+
+        int i = start;
+        while (i < end && isSpace(text.charAt(i)))
+            i++;
+        if (i == end)
+            return;
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    /** ***************************************************************
+     * Split the text into words at each space
+     * @return this Tokenizer, holding the words
+     */
+    public Tokenizer words(CharSequence text) {
+
+        return words(text, 0, text.length());
+    }
+
+    /** ***************************************************************
+     * Split the text from start to end, such as a sentence from
+     * sentences(), into words.  The offsets are still into the whole
+     * text.
+     * @return this Tokenizer, holding the words
+     */
+    public Tokenizer words(CharSequence text, int start, int end) {
+
+        this.text = text;
+        size = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ' ') {
+                add(start, i);
+                start = i + 1;
+            }
+        }
+        add(start, end);
+        return this;
+    }
+
+    /** ***************************************************************
+     * Split the text into sentences at each period that is followed
+     * by a white space character.  Both characters are dropped.
+     * @return this Tokenizer, holding the sentences
+     */
+    public Tokenizer sentences(CharSequence text) {
+
+        this.text = text;
+        size = 0;
+        int n = text.length();
+        int start = 0;
+        for (int i = 0; i + 1 < n; i++) {
+            if (text.charAt(i) == '.' && isSpace(text.charAt(i + 1))) {
+                add(start, i);
+                start = i + 2;
+                i++;
+            }
+        }
+        add(start, n);
+        return this;
+    }
+
+    /** ***************************************************************
+     * @return the number of tokens
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /** ***************************************************************
+     * @return the offset of the first character of token i
+     */
+    public int start(int i) {
+
+        return starts[i];
+    }
+
+    /** ***************************************************************
+     * @return the offset after the last character of token i
+     */
+    public int end(int i) {
+
+        return ends[i];
+    }
+
+    /** ***************************************************************
+     * @return the text that was split
+     */
+    public CharSequence text() {
+
+        return text;
+    }
+
+    /** ***************************************************************
+     * @return token i as a String
+     */
+    public String get(int i) {
+
+        return text.subSequence(starts[i], ends[i]).toString();
+    }
+
+    /** ***************************************************************
+     * @return all the tokens as Strings
+     */
+    public ArrayList<String> toList() {
+
+        ArrayList<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            result.add(get(i));
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return whether token i is one of the stop words
+     */
+    public boolean isStopWord(int i, StopWords stopWords) {
+
+        return stopWords.contains(text, starts[i], ends[i]);
+    }
+
+    /** ***************************************************************
+     * Append the tokens that are not stop words to sb, separated by
+     * single spaces
+     * @return sb
+     */
+    public StringBuilder appendWithout(StopWords stopWords, StringBuilder sb) {
+
+        boolean first = true;
+        for (int i = 0; i < size; i++) {
+            if (stopWords != null && isStopWord(i, stopWords))
+                continue;
+            if (!first)
+                sb.append(' ');
+            sb.append(text, starts[i], ends[i]);
+            first = false;
+        }
+        return sb;
+    }
+}
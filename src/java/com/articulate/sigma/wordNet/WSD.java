@@ -31,6 +31,26 @@ public class WSD {
     public static int gap = 5;
     public static boolean debug = false;
 
+    /** ***************************************************************
+     * A synset and how well it fits a context
+     */
+    public static class SenseScore {
+
+        public String synset = "";  // 9-digit POS-prefixed synset
+        public int score = 0;
+
+        public SenseScore(String synset, int score) {
+
+            this.synset = synset;
+            this.score = score;
+        }
+
+        public String toString() {
+
+            return synset + ":" + score;
+        }
+    }
+
     /** ***************************************************************
      * Collect all the SUMO terms that are found in the sentence.
      */
@@ -96,27 +116,24 @@ public class WSD {
         if (debug) System.out.println("INFO in WordNet.collectWordSenses(): " + text);
         String newtext = StringUtil.removeHTML(text);
         newtext = StringUtil.removePunctuation(newtext);
-        String context = newtext;
-        text = newtext;
         ArrayList<String> result = new ArrayList<String>();
-        ArrayList<String> al = WordNet.splitToArrayList(text);
-        ArrayList<String> alcon = WordNet.splitToArrayList(context);
+        if (StringUtil.emptyString(newtext))
+            return result;
+        // the text is its own context
+        Tokenizer tokens = new Tokenizer().words(newtext);
+        ArrayList<String> al = tokens.toList();
+        int[] contextIDs = contextVector(al);
+        StopWords stopWords = WordNet.wn.getStopWords();
         for (int i = 0; i < al.size(); i++) {
             String word = (String) al.get(i);
-            //ArrayList<String> multiWordResult = new ArrayList<String>();
-            //int wordIndex = WordNet.wn.getMultiWords().findMultiWord(al, i, multiWordResult);
-            List<String> sublist = al.subList(i,al.size());
-            String multiWord = WordNet.wn.getMultiWords().findMultiWord(sublist);
-            if (!StringUtil.emptyString(multiWord)) {
-                //String theMultiWord = WordNet.wn.synsetsToWords.get(multiWordResult.get(0)).get(0);
-                Collection<String> synsets = WordNetUtilities.wordsToSynsets(multiWord);
-                if (synsets != null && synsets.size() > 0)
-                    result.add(synsets.iterator().next());
-                i = i + StringUtil.countChars(multiWord,'_');
+            MultiWords.Match multiWord = WordNet.wn.getMultiWords().findLongest(al, i);
+            if (multiWord != null) {
+                result.add(multiWord.synset);
+                i = multiWord.end - 1;
             }
             else {
-                if (!WordNet.wn.isStopWord(word)) {
-                    String synset = findWordSenseInContext(word,alcon);
+                if (!tokens.isStopWord(i, stopWords)) {
+                    String synset = findWordSenseInContext(word,contextIDs);
                     //System.out.println("INFO in WordNet.collectWordSenses(): sense in context: " + synset);
                     if (!StringUtil.emptyString(synset)) {
                         result.add(synset);
@@ -194,6 +211,16 @@ public class WSD {
     public static String findWordSenseInContext(String word, List<String> words) {
 
         if (debug) System.out.println("INFO in findWordSenseInContext(): word, words: " + word + ", " + words);
+        return findWordSenseInContext(word, contextVector(words));
+    }
+
+    /** ***************************************************************
+     * As findWordSenseInContext(String,List) but with a context that
+     * has already been converted with contextVector(), for callers that
+     * disambiguate every word of the same sentence.
+     */
+    public static String findWordSenseInContext(String word, int[] context) {
+
         int bestScore = -1;
         String bestSynset = "";
         for (int i = 1; i <= 4; i++) {
@@ -204,11 +231,10 @@ public class WSD {
                 newWord = WordNet.wn.verbRootForm(word,word.toLowerCase());
             if (newWord != null && newWord != "")
                 word = newWord;
-            TreeSet<AVPair> al = findWordSensePOS(word, words, i);
-            if (al != null && al.size() > 0) {
-                AVPair avp1 = al.pollLast();
-                bestScore = Integer.parseInt(avp1.attribute);
-                bestSynset = avp1.value;
+            List<SenseScore> scores = scoreSensesPOS(word, context, i);
+            if (!scores.isEmpty()) {
+                bestScore = scores.get(0).score;
+                bestSynset = scores.get(0).synset;
             }
         }
         if (debug) System.out.println("INFO in findWordSenseInContext(): best synset: " + bestSynset);
@@ -244,15 +270,18 @@ public class WSD {
             if (!StringUtil.emptyString(newWord))
                 word = newWord;
         }
-        TreeSet<AVPair> al = findWordSensePOS(word, words, pos);
-        if (al != null && al.size() > 0) {
-            AVPair avp1 = al.pollLast();
-            bestScore = Integer.parseInt(avp1.attribute);
-            bestSynset = avp1.value;
-            if (al != null && al.size() > 0) {
-                AVPair avp2 = al.pollLast();
-                nextBestScore = Integer.parseInt(avp2.attribute);
-                nextBestSynset = avp2.value;
+        List<SenseScore> scores = scoreSensesPOS(word, contextVector(words), pos);
+        if (!scores.isEmpty()) {
+            bestScore = scores.get(0).score;
+            bestSynset = scores.get(0).synset;
+            // senses tied with the best are not the next best, which keeps
+            // the results of when scores were the keys of a TreeSet
+            for (SenseScore ss : scores) {
+                if (ss.score < bestScore) {
+                    nextBestScore = ss.score;
+                    nextBestSynset = ss.synset;
+                    break;
+                }
             }
         }
         //if (polysemous(word,pos) && bestScore != -1)
@@ -305,88 +334,82 @@ public class WSD {
         return null;
     }
         
+    /** ***************************************************************
+     * Convert context words once for scoreSensesPOS() and
+     * findWordSenseInContext(String,int[])
+     */
+    public static int[] contextVector(List<String> words) {
+
+        return CoOccurrenceMatrix.getMatrix().contextVector(words);
+    }
+
     /** ***************************************************************
      * Return a list of scored guesses at the synset for the given word in the
      * context of the sentence.  Returns a TreeSet consisting AVPairs of
      * the key score reflecting the quality of the guess the given synset is the right one
-     * and a value of a 9-digit WordNet synset
+     * and a value of a 9-digit WordNet synset.  Since the scores are the
+     * keys, only the first synset in the lexicon with a given score is kept.
      */
     public static TreeSet<AVPair> findWordSensePOS(String word, List<String> words, int POS) {
 
         TreeSet<AVPair> result = new TreeSet<AVPair>();
-        //System.out.println("INFO in WSD.findWordSensePOS(): word, POS, text: " +
-        //        word + ", " + POS + ", " + words);
+        for (SenseScore ss : scoreSensesPOS(word, contextVector(words), POS)) {
+            AVPair score = new AVPair();
+            if (ss.score == 99999)
+                score.attribute = "00099999";
+            else
+                score.attribute = StringUtil.integerToPaddedString(ss.score);
+            score.value = ss.synset;
+            result.add(score);
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     * Score every sense of the word with the given part of speech by its
+     * co-occurrence with the context, where the score of a sense is the
+     * sum of its co-occurrence counts with each word of the context.  A
+     * sense created from a domain ontology is returned alone with the
+     * score 99999.
+     * @param context words in context from contextVector()
+     * @return the scored 9-digit synsets, best first, with ties in the
+     * order of the lexicon
+     */
+    public static List<SenseScore> scoreSensesPOS(String word, int[] context, int POS) {
+
+        ArrayList<SenseScore> result = new ArrayList<>();
         ArrayList<String> senseKeys = WordNet.wn.wordsToSenseKeys.get(word);
         List<String> termFormatBypass = termFormatBypass(word);
         if (termFormatBypass != null) {
-            AVPair score = new AVPair();
-            score.attribute = "000" + termFormatBypass.get(1);
-            score.value = termFormatBypass.get(0);
-            result.add(score);
+            result.add(new SenseScore(termFormatBypass.get(0), Integer.parseInt(termFormatBypass.get(1))));
             return result;
         }
         if (senseKeys == null) {
             senseKeys = WordNet.wn.wordsToSenseKeys.get(word.toLowerCase());
             termFormatBypass = termFormatBypass(word.toLowerCase());
             if (termFormatBypass != null) {
-                AVPair score = new AVPair();
-                score.attribute = "000" + termFormatBypass.get(1);
-                score.value = termFormatBypass.get(0);
-                result.add(score);
+                result.add(new SenseScore(termFormatBypass.get(0), Integer.parseInt(termFormatBypass.get(1))));
                 return result;
             }
             if (senseKeys == null) {
                 if (debug)
-                    System.out.println("Info in WSD.findWordSensePOS(): Word: '" + word +
+                    System.out.println("Info in WSD.scoreSensesPOS(): Word: '" + word +
                         "' not in lexicon as part of speech " + POS);
                 return result;
             }
         }
-
-        int bestSense = -1;
-        int bestTotal = -1;
-        for (int i = 0; i < senseKeys.size(); i++) {
-            String senseKey = (String) senseKeys.get(i);
-            String synset = WordNetUtilities.getSenseFromKey(senseKey);
+        CoOccurrenceMatrix matrix = CoOccurrenceMatrix.getMatrix();
+        for (String senseKey : senseKeys) {
             if (WordNetUtilities.sensePOS(senseKey) == POS) {
-                HashMap<String,Integer> senseAssoc = WordNet.wn.wordCoFrequencies.get(senseKey.intern());
-                if (senseAssoc != null) {
-                    int total = 0;
-                    for (int j = 0; j < words.size(); j++) {
-                        String lowercase = ((String) words.get(j)).toLowerCase().intern();
-                        if (senseAssoc.containsKey(lowercase)) 
-                            total = total + ((Integer) senseAssoc.get(lowercase)).intValue();                        
-                    }
-                    AVPair score = new AVPair();
-                    score.attribute = StringUtil.integerToPaddedString(total);
-                    score.value = synset;
-                    result.add(score);
-                }
-                else {
-                    AVPair score = new AVPair();
-                    score.attribute = StringUtil.integerToPaddedString(0);
-                    score.value = synset;
-                    result.add(score);
-                }
+                String synset = WordNetUtilities.getSenseFromKey(senseKey);
+                result.add(new SenseScore(synset, matrix.score(matrix.senseID(senseKey), context)));
             }
         }
+        // a stable sort, so ties stay in lexicon order
+        Collections.sort(result, (a, b) -> Integer.compare(b.score, a.score));
         return result;
-        /*
-        if (bestTotal > 5) {
-            String senseValue = (String) senses.get(bestSense);
-            String synset = WordNet.wn.senseIndex.get(senseValue.intern());
-            ArrayList<String> result = new ArrayList<String>();
-            result.add((new Integer(POS)).toString() + synset);
-            result.add(Integer.toString(bestTotal));
-            //System.out.println("INFO in WordNet.findWordSensePOS(): result: " + result);
-            return result;
-        }
-        else {
-            return Lists.newArrayList();
-        }
-        */
     }
-    
+
     /** ***************************************************************
      * Get the SUMO term that represents the best guess at
      * meaning for a word.  This method attempts to convert to root form.
@@ -673,8 +696,9 @@ public class WSD {
         ArrayList<ArrayList<String>> far = readFileIntoArray(filename);
         for (ArrayList<String> line : far) {
             String fullsent = line.get(0);
+            int[] context = contextVector(line);
             for (int i = 1; i < line.size(); i++) {
-                String synset = findWordSenseInContext(line.get(i), line);
+                String synset = findWordSenseInContext(line.get(i), context);
                 if (synset == "")
                     synset = WSD.getBestDefaultSense(line.get(i));
                 if (synset != null && synset != "") {
@@ -728,8 +752,9 @@ public class WSD {
         ArrayList<String> line = new ArrayList<String>();
         line.addAll(Arrays.asList(lineStr.split(" ")));
         HashMap<String,Integer> result = new HashMap<>();
+        int[] context = contextVector(line);
         for (int i = 1; i < line.size(); i++) {
-            String synset = findWordSenseInContext(line.get(i), line);
+            String synset = findWordSenseInContext(line.get(i), context);
             if (synset == "")
                 synset = WSD.getBestDefaultSense(line.get(i));
             if (synset != null && synset != "") {
@@ -23,6 +23,10 @@ import com.articulate.sigma.utils.StringUtil;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,6 +54,10 @@ public class WordNet implements Serializable {
     public static File baseDirFile = null;
     public static boolean initNeeded = true;
 
+    // threads for reading the source files in loadFresh(), 1 to read
+    // them one after the other
+    public static int loadThreads = Runtime.getRuntime().availableProcessors();
+
     private static HashMap<String,String> wnFilenames = new HashMap<>();
 
     /** This array contains all of the compiled Pattern objects that
@@ -95,8 +103,8 @@ public class WordNet implements Serializable {
     public Hashtable<String,String> exceptionVerbHash = new Hashtable<String,String>();
 
     // The reverse index of the above
-    private Hashtable<String,String> exceptionNounPluralHash = new Hashtable<String,String>();
-    private Hashtable<String,String> exceptionVerbPastHash = new Hashtable<String,String>();
+    Hashtable<String,String> exceptionNounPluralHash = new Hashtable<String,String>();
+    Hashtable<String,String> exceptionVerbPastHash = new Hashtable<String,String>();
 
     /** Keys are POS-prefixed synsets, values are ArrayList(s) of AVPair(s)
      * in which the attribute is a pointer type according to
@@ -162,6 +170,16 @@ public class WordNet implements Serializable {
     //private Pattern p;
     private transient Matcher m;
 
+    private transient volatile Morphology morphology = null;
+
+    // built from relations on first use, or read with the lexicon
+    transient volatile HypernymIndex hypernymIndex = null;
+    transient volatile HypernymIndex instanceHypernymIndex = null;
+
+    private transient volatile TermWordsIndex termWordsIndex = null;
+
+    private transient volatile StopWords stopWordTable = null;
+
     public static final int NOUN                = 1;
     public static final int VERB                = 2;
     public static final int ADJECTIVE           = 3;
@@ -352,13 +370,7 @@ public class WordNet implements Serializable {
             System.out.println("Error in WordNet.splitToArrayList(): empty string input");
             return null;
         }
-        String[] sentar = st.split(" ");
-        ArrayList<String> words = new ArrayList<String>(Arrays.asList(sentar));
-        for (int i = 0; i < words.size(); i++) {
-            if (words.get(i).equals("") || words.get(i) == null || words.get(i).matches("\\s*"))
-                words.remove(i);
-        }
-        return words;
+        return new Tokenizer().words(st).toList();
     }
     
     /** ***************************************************************
@@ -366,17 +378,11 @@ public class WordNet implements Serializable {
      */
     public static ArrayList<String> splitToArrayListSentence(String st) {
 
-        if (st.equals("") || st == null) {
+        if (StringUtil.emptyString(st)) {
             System.out.println("Error in WordNet.splitToArrayList(): empty string input");
             return null;
         }
-        String[] sentar = st.split("\\.\\s");
-        ArrayList<String> words = new ArrayList<String>(Arrays.asList(sentar));
-        for (int i = 0; i < words.size(); i++) {
-            if (words.get(i).equals("") || words.get(i) == null || words.get(i).matches("\\s*"))
-                words.remove(i);
-        }
-        return words;
+        return new Tokenizer().sentences(st).toList();
     }
 
     /** ***************************************************************
@@ -444,109 +450,83 @@ public class WordNet implements Serializable {
      */
     private void processPointers(String synset, String pointers) {
 
-        //System.out.println("INFO in WordNet.processPointers(): " + pointers);
-        // 0: p = Pattern.compile("^\\s*\\d\\d\\s\\S\\s\\d\\S\\s");
-        m = regexPatterns[0].matcher(pointers);
-        pointers = m.replaceFirst("");
-        //System.out.println("INFO in WordNet.processPointers(): removed prefix: " + pointers);
-
-        // Should be left with:
-        // word  lex_id  [word  lex_id...]  p_cnt  [ptr...]  [frames...]
-        // 1: p = Pattern.compile("^([a-zA-Z0-9'._\\-]\\S*)\\s([0-9a-f])\\s");
-        m = regexPatterns[1].matcher(pointers);
-        while (m.lookingAt()) {
-            String word = m.group(1);
-            //if (word.equals("roll"))
-            //    System.out.println("INFO in WordNet.processPointers(): word: " + word);
-            if (word.length() > 3 && (word.substring(word.length()-3,word.length()).equals("(a)") ||
-                    word.substring(word.length()-3,word.length()).equals("(p)")))
-                word = word.substring(0,word.length()-3);
-            if (word.length() > 4 && word.substring(word.length()-4,word.length()).equals("(ip)"))
-                word = word.substring(0,word.length()-4);
-            //String count = m.group(2);
+        WordNetParser.Synset s = new WordNetParser.Synset();
+        s.pos = synset.charAt(0) - '0';
+        WordNetParser.parseFields(pointers, s);
+        addFields(synset, s);
+    }
+
+    /** ***************************************************************
+     * Add the words, pointers and verb frames of a parsed synset, which
+     * must include the POS-prefix
+     */
+    private void addFields(String synset, WordNetParser.Synset s) {
+
+        for (String word : s.words)
             addToSynsetsToWords(word,synset.substring(1),synset.substring(0,1));
-            pointers = m.replaceFirst("");
-            m = regexPatterns[1].matcher(pointers);
-        }
-        //System.out.println("INFO in WordNet.processPointers(): removed words: " + pointers);
-
-        // Should be left with:
-        // p_cnt  [ptr...]  [frames...]
-        // 2: p = Pattern.compile("^...\\s");
-        m = regexPatterns[2].matcher(pointers);
-        pointers = m.replaceFirst("");
-
-        // Should be left with:
-        // [ptr...]  [frames...]
-        // where ptr is
-        // pointer_symbol  synset_offset  pos  source/target
-        // 3: p = Pattern.compile("^(\\S\\S?)\\s([0-9]{8})\\s(.)\\s([0-9a-f]{4})\\s?");
-        m = regexPatterns[3].matcher(pointers);
-        while (m.lookingAt()) {
-            String ptr = m.group(1);
-            String targetSynset = m.group(2);
-            String targetPOS = m.group(3);
-            //String sourceTarget = m.group(4);
-            targetPOS = (Character.valueOf(WordNetUtilities.posLetterToNumber(targetPOS.charAt(0)))).toString();
-            pointers = m.replaceFirst("");
-            m = regexPatterns[3].matcher(pointers);
-            ptr = WordNetUtilities.convertWordNetPointer(ptr);
-            AVPair avp = new AVPair();
-            avp.attribute = ptr;
-            avp.value = targetPOS + targetSynset;
-            ArrayList<AVPair> al = new ArrayList<AVPair>();
-            if (relations.keySet().contains(synset))
-                al = relations.get(synset);
-            else {
+        if (!s.pointers.isEmpty()) {
+            ArrayList<AVPair> al = relations.get(synset);
+            if (al == null) {
+                al = new ArrayList<AVPair>();
                 relations.put(synset,al);
             }
-            //System.out.println("INFO in WordNet.processPointers(): (" + avp.attribute +
-            //                   " " + synset + " " + avp.value);
-            al.add(avp);
-        }
-        if ( (pointers != null)
-                && (pointers != "")
-                && (pointers.length() > 0)
-                && !pointers.equals(" ") ) {
-            // Only for verbs may we have the following leftover
-            // f_cnt + f_num  w_num  [ +  f_num  w_num...]
-            if (synset.charAt(0) == '2') {
-                // 4: p = Pattern.compile("^..\\s");
-                m = regexPatterns[4].matcher(pointers);
-                pointers = m.replaceFirst("");
-                // 5: p = Pattern.compile("^\\+\\s(\\d\\d)\\s(\\d\\d)\\s?");
-                m = regexPatterns[5].matcher(pointers);
-                while (m.lookingAt()) {
-                    String frameNum = m.group(1);
-                    String wordNum = m.group(2);
-                    String key;
-                    if (wordNum.equals("00"))
-                        key = synset.substring(1);
-                    else {
-                        int num = Integer.valueOf(wordNum).intValue();
-                        ArrayList<String> al = synsetsToWords.get(synset);
-                        if (al == null)
-                            System.out.println("Error in WordNet.processPointers(): " + synset
-                                    + " has no words for pointers: \"" + pointers + "\"");
-                        String word = (String) al.get(num-1);
-                        key = synset.substring(1) + "-" + word;
-                    }
-                    ArrayList<String> frames = new ArrayList<String>();
-                    if (!verbFrames.keySet().contains(key))
-                        verbFrames.put(key,frames);
-                    else
-                        frames = verbFrames.get(key);
-                    frames.add(frameNum);
-                    pointers = m.replaceFirst("");
-                    m = regexPatterns[5].matcher(pointers);
-                }
+            for (int i = 0; i < s.pointers.size(); i += 2) {
+                AVPair avp = new AVPair();
+                avp.attribute = s.pointers.get(i);
+                avp.value = s.pointers.get(i + 1);
+                al.add(avp);
             }
+        }
+        for (int i = 0; i < s.frames.size(); i += 2) {
+            String frameNum = s.frames.get(i);
+            String wordNum = s.frames.get(i + 1);
+            String key;
+            if (wordNum.equals("00"))
+                key = synset.substring(1);
             else {
-                System.out.println("Error in WordNet.processPointers(): " +
-                        synset.charAt(0) + " leftover pointers: \"" + pointers + "\"");
+                int num = Integer.valueOf(wordNum).intValue();
+                ArrayList<String> al = synsetsToWords.get(synset);
+                if (al == null || num < 1 || num > al.size()) {
+                    System.out.println("Error in WordNet.addFields(): " + synset
+                            + " has no word " + wordNum + " for frame " + frameNum);
+                    continue;
+                }
+                key = synset.substring(1) + "-" + al.get(num-1);
+            }
+            ArrayList<String> frames = verbFrames.get(key);
+            if (frames == null) {
+                frames = new ArrayList<String>();
+                verbFrames.put(key,frames);
             }
+            frames.add(frameNum);
         }
-        return;
+    }
+
+    /** ***************************************************************
+     * Add a synset parsed from one of the mappings files
+     */
+    protected void addSynset(WordNetParser.Synset s) {
+
+        switch (s.pos) {
+            case NOUN:
+                nounDocumentationHash.put(s.offset,s.gloss);
+                setMaxNounSynsetID(s.offset);
+                break;
+            case VERB:
+                verbDocumentationHash.put(s.offset,s.gloss);
+                setMaxVerbSynsetID(s.offset);
+                break;
+            case ADJECTIVE:
+                adjectiveDocumentationHash.put(s.offset,s.gloss);
+                break;
+            case ADVERB:
+                adverbDocumentationHash.put(s.offset,s.gloss);
+                break;
+        }
+        String synset = s.pos + s.offset;
+        if (s.sumo != null)
+            addSUMOMapping(s.sumo,synset);
+        addFields(synset,s);
     }
 
     /** ***************************************************************
@@ -590,94 +570,98 @@ public class WordNet implements Serializable {
     }
 
     /** ***************************************************************
-     *  Create the hashtables nounSynsetHash, nounDocumentationHash,
-     *  nounSUMOhash and exceptionNounHash that contain the WordNet
-     *  noun synsets, word definitions, mappings to SUMO, and plural
-     *  exception forms, respectively.
-     *  Throws an IOException if the files are not found.
-     *  Use a default filename and path unless a non-null string is
-     *  provided, in which case assume it is a full path.
+     * @return the synsets of the mappings file for a part of speech, or
+     * null if there is no such file
      */
-    private void readNouns() throws java.io.IOException {
-    	
-        System.out.println("INFO in WordNet.readNouns(): Reading WordNet noun files");
-        LineNumberReader lr = null;
-        try {
-            // synset_offset  lex_filenum  ss_type  w_cnt  word  lex_id  [word  lex_id...]  p_cnt  [ptr...]  [frames...]  |   gloss
-            String line;
-            File nounFile = getWnFile("noun_mappings",null);
-            if (nounFile == null) {
-                System.out.println("Error in WordNet.readNouns(): The noun mappings file does not exist in " + baseDir );
-                return;
-            }
-            long t1 = System.currentTimeMillis();
-            FileReader r = new FileReader(nounFile);
-            // System.out.println( "INFO in WordNet.readNouns(): Reading file " + nounFile.getCanonicalPath() );
-            lr = new LineNumberReader(new BufferedReader(r));
-            while ((line = lr.readLine()) != null) {
-                if (lr.getLineNumber() % 1000 == 0)
-                    System.out.print('.');
-                line = line.trim();
-                if (!processNounLine(line)) {
-                    System.out.println();
-                    System.out.println( "Error in WordNet.readNouns(): No match in "
-                            + nounFile.getCanonicalPath() + " for line " + line );
-                }
-            }
-            System.out.println("x");
-            System.out.println("  " + ((System.currentTimeMillis() - t1) / 1000.0)
-                    + " seconds to process " + nounFile.getCanonicalPath() + 
-                    " with " + lr.getLineNumber() + " lines");
-            // System.out.println("INFO in WordNet.readNouns(): Reading WordNet noun exceptions");
-            nounFile = getWnFile("noun_exceptions",null);
-            if (nounFile == null) {
-                System.out.println("ERROR in WordNet.readNouns(): "
-                        + "The noun mapping exceptions file does not exist in " + baseDir);
-                return;
-            }
+    private ArrayList<WordNetParser.Synset> parseMappings(int pos) throws IOException {
 
-            t1 = System.currentTimeMillis();
-            r = new FileReader( nounFile );
-            lr = new LineNumberReader(r);
+        String[] keys = {"noun_mappings", "verb_mappings", "adj_mappings", "adv_mappings"};
+        File file = getWnFile(keys[pos - 1],null);
+        if (file == null) {
+            System.out.println("Error in WordNet.parseMappings(): The " + keys[pos - 1] +
+                    " file does not exist in " + baseDir);
+            return null;
+        }
+        return WordNetParser.parseFile(file,pos);
+    }
+
+    /** ***************************************************************
+     * Add the synsets of a mappings file in order
+     */
+    private void addSynsets(ArrayList<WordNetParser.Synset> synsets) {
+
+        if (synsets == null)
+            return;
+        for (WordNetParser.Synset s : synsets)
+            addSynset(s);
+    }
+
+    /** ***************************************************************
+     * Read noun.exc or verb.exc into the exception hashes
+     */
+    private void readExceptions(int pos) {
+
+        String key = (pos == NOUN) ? "noun_exceptions" : "verb_exceptions";
+        File file = getWnFile(key,null);
+        if (file == null) {
+            System.out.println("Error in WordNet.readExceptions(): The " + key +
+                    " file does not exist in " + baseDir);
+            return;
+        }
+        long t1 = System.currentTimeMillis();
+        try (LineNumberReader lr = new LineNumberReader(new FileReader(file))) {
+            String line;
             while ((line = lr.readLine()) != null) {
-                // 8: p = Pattern.compile("(\\S+)\\s+(\\S+)");
-                m = regexPatterns[8].matcher(line);
-                if (m.matches()) {
-                    exceptionNounHash.put(m.group(1),m.group(2));      // 1-plural, 2-singular
-                    exceptionNounPluralHash.put(m.group(2),m.group(1));
-                }
-                else {
+                if (pos == NOUN) {
+                    // 8: p = Pattern.compile("(\\S+)\\s+(\\S+)");
+                    Matcher m = regexPatterns[8].matcher(line);
+                    if (m.matches()) {
+                        exceptionNounHash.put(m.group(1),m.group(2));      // 1-plural, 2-singular
+                        exceptionNounPluralHash.put(m.group(2),m.group(1));
+                        continue;
+                    }
                     // 9: p = Pattern.compile("(\\S+)\\s+(\\S+)\\s+(\\S+)");
                     m = regexPatterns[9].matcher(line);
                     if (m.matches()) {
                         exceptionNounHash.put(m.group(1),m.group(2));      // 1-plural, 2-singular 3-alternate singular
                         exceptionNounPluralHash.put(m.group(2),m.group(1));
                         exceptionNounPluralHash.put(m.group(3),m.group(1));
+                        continue;
                     }
-                    else
-                        if (line != null && line.length() > 0 && line.charAt(0) != ';') {
-                            System.out.println("Error in WordNet.readNouns(): No match in "
-                                    + nounFile.getCanonicalPath() + " for line " + line );
-                        }
                 }
+                else {
+                    // 12: p = Pattern.compile("(\\S+)\\s+(\\S+).*");
+                    Matcher m = regexPatterns[12].matcher(line);  // TODO: Note we ignore more then one base form
+                    if (m.matches()) {
+                        exceptionVerbHash.put(m.group(1),m.group(2));          // 1-past, 2-infinitive
+                        exceptionVerbPastHash.put(m.group(2),m.group(1));
+                        continue;
+                    }
+                }
+                if (line.length() > 0 && line.charAt(0) != ';')
+                    System.out.println("Error in WordNet.readExceptions(): No match in "
+                            + file.getCanonicalPath() + " for line " + line);
             }
             System.out.println("  " + ((System.currentTimeMillis() - t1) / 1000.0)
-                    + " seconds to process " + nounFile.getCanonicalPath() );
+                    + " seconds to process " + file.getCanonicalPath());
         }
         catch (Exception ex) {
-            System.out.println("Error in WordNet.readNouns(): " + ex.getMessage());
+            System.out.println("Error in WordNet.readExceptions(): " + ex.getMessage());
             ex.printStackTrace();
         }
-        finally {
-            try {
-                if (lr != null) {
-                    lr.close();
-                }
-            }
-            catch (Exception ex) {
-            }
-        }
-        return;
+    }
+
+    /** ***************************************************************
+     *  Create the hashtables nounSynsetHash, nounDocumentationHash,
+     *  nounSUMOhash and exceptionNounHash that contain the WordNet
+     *  noun synsets, word definitions, mappings to SUMO, and plural
+     *  exception forms, respectively.
+     */
+    private void readNouns() throws java.io.IOException {
+
+        System.out.println("INFO in WordNet.readNouns(): Reading WordNet noun files");
+        addSynsets(parseMappings(NOUN));
+        readExceptions(NOUN);
     }
 
     /** ***************************************************************
@@ -701,38 +685,11 @@ public class WordNet implements Serializable {
      */
     protected boolean processNounLine(String line) {
 
-        // 6: p = Pattern.compile("^([0-9]{8})([\\S\\s]+)\\|\\s([\\S\\s]+?)\\s(\\(?\\&\\%\\S+[\\S\\s]+)$");
-        m = regexPatterns[6].matcher(line);
-        boolean anyAreNull = false;
-        if (m.matches()) {
-            for (int i = 1 ; i < 5 ; i++) {
-                anyAreNull = (m.group(i) == null);
-                if (anyAreNull) {
-                    break;
-                }
-            }
-            if (!anyAreNull ) {
-                addSUMOMapping(m.group(4),"1" + m.group(1));
-                setMaxNounSynsetID(m.group(1));
-                nounDocumentationHash.put(m.group(1),m.group(3)); // 1-synset, 2-pointers, 3-docu, 4-SUMO term
-                processPointers("1" + m.group(1),m.group(2));
-            }
-        }
-        else {
-            // 7: p = Pattern.compile("^([0-9]{8})([\\S\\s]+)\\|\\s([\\S\\s]+)$");  // no SUMO mapping
-            m = regexPatterns[7].matcher(line);
-            if (m.matches()) {
-                nounDocumentationHash.put(m.group(1),m.group(3));
-                setMaxNounSynsetID(m.group(1));
-                processPointers("1" + m.group(1),m.group(2));
-            }
-            else {
-                //System.out.println("line: " + line);
-                if (line.length() > 0 && line.charAt(0) != ';') {
-                    return false;
-                }
-            }
-        }
+        WordNetParser.Synset s = WordNetParser.parseLine(line,NOUN);
+        if (s != null)
+            addSynset(s);
+        else if (line.length() > 0 && line.charAt(0) != ';')
+            return false;
         return true;
     }
 
@@ -742,231 +699,90 @@ public class WordNet implements Serializable {
      *  verbSUMOhash and exceptionVerbHash that contain the WordNet
      *  verb synsets, word definitions, mappings to SUMO, and plural
      *  exception forms, respectively.
-     *  Throws an IOException if the files are not found.
      */
     private void readVerbs() throws java.io.IOException {
 
         System.out.println("INFO in WordNet.readVerbs(): Reading WordNet verb files");
-        LineNumberReader lr = null;
-        try {
-            String line;
-            File verbFile = getWnFile("verb_mappings",null);
-            if (verbFile == null) {
-                System.out.println("Error in WordNet.readVerbs(): The verb mappings file does not exist in " + baseDir);
-                return;
-            }
-            long t1 = System.currentTimeMillis();
-            FileReader r = new FileReader(verbFile);
-            lr = new LineNumberReader(new BufferedReader(r));
-            while ((line = lr.readLine()) != null) {
-                if (lr.getLineNumber() % 1000 == 0)
-                    System.out.print('.');
-                line = line.trim();
-                // 10: p = Pattern.compile("^([0-9]{8})([^\\|]+)\\|\\s([\\S\\s]+?)\\s(\\(?\\&\\%\\S+[\\S\\s]+)$");
-                m = regexPatterns[10].matcher(line);
-                if (m.matches()) {
-                    verbDocumentationHash.put(m.group(1),m.group(3));
-                    setMaxVerbSynsetID(m.group(1));
-                    addSUMOMapping(m.group(4),"2" + m.group(1));
-                    processPointers("2" + m.group(1),m.group(2));
-                }
-                else {
-                    // 11: p = Pattern.compile("^([0-9]{8})([^\\|]+)\\|\\s([\\S\\s]+)$");   // no SUMO mapping
-                    m = regexPatterns[11].matcher(line);
-                    if (m.matches()) {
-                        verbDocumentationHash.put(m.group(1),m.group(3));
-                        setMaxVerbSynsetID(m.group(1));
-                        processPointers("2" + m.group(1),m.group(2));
-                    }
-                    else {
-                        //System.out.println("line: " + line);
-                        if (line != null && line.length() > 0 && line.charAt(0) != ';') {
-                            System.out.println();
-                            System.out.println("Error in WordNet.readVerbs(): No match in "
-                                    + verbFile.getCanonicalPath() + " for line " + line );
-                        }
-                    }
-                }
-            }
-            System.out.println("x");
-            System.out.println("  " + ((System.currentTimeMillis() - t1) / 1000.0)
-                    + " seconds to process " + verbFile.getCanonicalPath()  + 
-                    " with " + lr.getLineNumber() + " lines");
-            // System.out.println("INFO in WordNet.readVerbs(): Reading WordNet verb exceptions");
-            verbFile = getWnFile("verb_exceptions",null);
-            if (verbFile == null) {
-                System.out.println("Error in WordNet.readVerbs(): The verb mapping exceptions file does not exist in " + baseDir);
-                return;
-            }
-            t1 = System.currentTimeMillis();
-            r = new FileReader( verbFile );
-            lr = new LineNumberReader(r);
-            while ((line = lr.readLine()) != null) {
-                // 12: p = Pattern.compile("(\\S+)\\s+(\\S+).*");  
-                m = regexPatterns[12].matcher(line);  // TODO: Note we ignore more then one base form
-                if (m.matches()) {
-                    exceptionVerbHash.put(m.group(1),m.group(2));          // 1-past, 2-infinitive
-                    exceptionVerbPastHash.put(m.group(2),m.group(1));
-                }
-                else
-                    if (line != null && line.length() > 0 && line.charAt(0) != ';')
-                        System.out.println( "Error in WordNet.readVerbs(): No match in "
-                                + verbFile.getCanonicalPath() + " for line " + line );
-            }
-            System.out.println("  " + ((System.currentTimeMillis() - t1) / 1000.0)
-                    + " seconds to process " + verbFile.getCanonicalPath() );
-        }
-        catch (Exception ex) {
-            System.out.println("Error in WordNet.readVerbs(): " + ex.getMessage());
-            ex.printStackTrace();
-        }
-        finally {
-            try {
-                if (lr != null) {
-                    lr.close();
-                }
-            }
-            catch (Exception ex) {
-            }
-        }
-        return;
+        addSynsets(parseMappings(VERB));
+        readExceptions(VERB);
     }
 
     /** ***************************************************************
      *  Create the hashtables adjectiveSynsetHash, adjectiveDocumentationHash,
      *  and adjectiveSUMOhash that contain the WordNet
      *  adjective synsets, word definitions, and mappings to SUMO, respectively.
-     *  Throws an IOException if the files are not found.
      */
     private void readAdjectives() throws java.io.IOException {
 
         System.out.println("INFO in WordNet.readAdjectives(): Reading WordNet adjective files");
-        LineNumberReader lr = null;
-        try {
-            String line;
-            File adjFile = getWnFile("adj_mappings",null);
-            if (adjFile == null) {
-                System.out.println("Error in WordNet.readAdjectives(): The adjective mappings file does not exist in " + baseDir);
-                return;
-            }
-            long t1 = System.currentTimeMillis();
-            FileReader r = new FileReader(adjFile);
-            lr = new LineNumberReader(new BufferedReader(r));
-            while ((line = lr.readLine()) != null) {
-                if (lr.getLineNumber() % 1000 == 0)
-                    System.out.print('.');
-                line = line.trim();
-                // 13: p = Pattern.compile("^([0-9]{8})([\\S\\s]+)\\|\\s([\\S\\s]+?)\\s(\\(?\\&\\%\\S+[\\S\\s]+)$");
-                m = regexPatterns[13].matcher(line);
-                if (m.matches()) {
-                    adjectiveDocumentationHash.put(m.group(1),m.group(3));
-                    addSUMOMapping(m.group(4), "3" + m.group(1));
-                    processPointers("3" + m.group(1), m.group(2));
-                }
-                else {
-                    // 14: p = Pattern.compile("^([0-9]{8})([\\S\\s]+)\\|\\s([\\S\\s]+)$");     // no SUMO mapping
-                    m = regexPatterns[14].matcher(line);
-                    if (m.matches()) {
-                        adjectiveDocumentationHash.put(m.group(1),m.group(3));
-                        processPointers("3" + m.group(1),m.group(2));
-                    }
-                    else {
-                        //System.out.println("line: " + line);
-                        if (line != null && line.length() > 0 && line.charAt(0) != ';') {
-                            System.out.println();
-                            System.out.println( "Error in WordNet.readAdjectives(): No match in "
-                                    + adjFile.getCanonicalPath() + " for line " + line );
-                        }
-                    }
-                }
-            }
-            System.out.println("x");
-            System.out.println("  " + ((System.currentTimeMillis() - t1) / 1000.0)
-                    + " seconds to process " + adjFile.getCanonicalPath() + 
-                    " with " + lr.getLineNumber() + " lines");
-        }
-        catch (Exception ex) {
-            System.out.println("Error in WordNet.readAdjectives(): " + ex.getMessage());
-            ex.printStackTrace();
-        }
-        finally {
-            try {
-                if (lr != null) {
-                    lr.close();
-                }
-            }
-            catch (Exception ex) {
-            }
-        }
-        return;
+        addSynsets(parseMappings(ADJECTIVE));
     }
 
     /** ***************************************************************
      *  Create the hashtables adverbSynsetHash, adverbDocumentationHash,
      *  and adverbSUMOhash that contain the WordNet
      *  adverb synsets, word definitions, and mappings to SUMO, respectively.
-     *  Throws an IOException if the files are not found.
      */
     private void readAdverbs() throws java.io.IOException {
 
         System.out.println("INFO in WordNet.readAdverbs(): Reading WordNet adverb files");
-        LineNumberReader lr = null;
+        addSynsets(parseMappings(ADVERB));
+    }
+
+    /** ***************************************************************
+     * Read the mappings, exception, co-frequency, stop word and sense
+     * index files on a thread pool.  The four mappings files are parsed
+     * concurrently and their synsets added in the same order as
+     * readNouns(), readVerbs(), readAdjectives() and readAdverbs() do,
+     * while the other files, which each fill their own tables, are read.
+     * The sense counts are read last since they need the sense index.
+     * A file that fails to read is reported and the others are still
+     * loaded.
+     */
+    private void readParallel() throws Exception {
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(loadThreads, 9)));
         try {
-            String line;
-            File advFile = getWnFile("adv_mappings",null);
-            if (advFile == null) {
-                System.out.println("Error in WordNet.readAdverbs(): The adverb mappings file does not exist in " + baseDir);
-                return;
+            ArrayList<Future<ArrayList<WordNetParser.Synset>>> mappings = new ArrayList<>();
+            for (int pos = NOUN; pos <= ADVERB; pos++) {
+                final int p = pos;
+                mappings.add(pool.submit(() -> parseMappings(p)));
+            }
+            ArrayList<Future<?>> others = new ArrayList<>();
+            others.add(pool.submit(() -> readExceptions(NOUN)));
+            others.add(pool.submit(() -> readExceptions(VERB)));
+            others.add(pool.submit(this::readWordCoFrequencies));
+            others.add(pool.submit(this::readStopWords));
+            others.add(pool.submit(() -> readSenseIndex(null)));
+            String[] names = {"noun_mappings", "verb_mappings", "adj_mappings", "adv_mappings"};
+            for (int i = 0; i < mappings.size(); i++) {
+                try {
+                    addSynsets(mappings.get(i).get());
+                }
+                catch (ExecutionException e) {
+                    System.out.println("Error in WordNet.readParallel(): reading " + names[i] +
+                            ": " + e.getCause().getMessage());
+                    e.getCause().printStackTrace();
+                }
             }
-            long t1 = System.currentTimeMillis();
-            FileReader r = new FileReader(advFile);
-            lr = new LineNumberReader(new BufferedReader(r));
-            while ((line = lr.readLine()) != null) {
-                if (lr.getLineNumber() % 1000 == 0)
-                    System.out.print('.');
-                line = line.trim();
-                // 15: p = Pattern.compile("^([0-9]{8})([\\S\\s]+)\\|\\s([\\S\\s]+)\\s(\\(?\\&\\%\\S+[\\S\\s]+)$");
-                m = regexPatterns[15].matcher(line);
-                if (m.matches()) {
-                    adverbDocumentationHash.put(m.group(1),m.group(3));
-                    addSUMOMapping(m.group(4),"4" + m.group(1));
-                    processPointers("4" + m.group(1),m.group(2));
+            origMaxNounSynsetID = maxNounSynsetID;
+            origMaxVerbSynsetID = maxVerbSynsetID;
+            String[] otherNames = {"noun_exceptions", "verb_exceptions", "word_frequencies", "stopwords", "sense_indexes"};
+            for (int i = 0; i < others.size(); i++) {
+                try {
+                    others.get(i).get();
                 }
-                else {
-                    // 16: p = Pattern.compile("^([0-9]{8})([\\S\\s]+)\\|\\s([\\S\\s]+)$");   // no SUMO mapping
-                    m = regexPatterns[16].matcher(line);
-                    if (m.matches()) {
-                        adverbDocumentationHash.put(m.group(1),m.group(3));
-                        processPointers("4" + m.group(1),m.group(2));
-                    }
-                    else {
-                        //System.out.println("line: " + line);
-                        if (line != null && line.length() > 0 && line.charAt(0) != ';') {
-                            System.out.println();
-                            System.out.println("Error in WordNet.readAdverbs(): No match in "
-                                    + advFile.getCanonicalPath() + " for line " + line);
-                        }
-                    }
+                catch (ExecutionException e) {
+                    System.out.println("Error in WordNet.readParallel(): reading " + otherNames[i] +
+                            ": " + e.getCause().getMessage());
+                    e.getCause().printStackTrace();
                 }
             }
-            System.out.println("x");
-            System.out.println("  " + ((System.currentTimeMillis() - t1) / 1000.0)
-                    + " seconds to process " + advFile.getCanonicalPath() + 
-                    " with " + lr.getLineNumber() + " lines");
-        }
-        catch (Exception ex) {
-            System.out.println("Error in WordNet.readAdverbs(): " + ex.getMessage());
-            ex.printStackTrace();
         }
         finally {
-            try {
-                if (lr != null) {
-                    lr.close();
-                }
-            }
-            catch (Exception ex) {
-            }
+            pool.shutdownNow();
         }
+        readSenseCount();
     }
 
     /** ***************************************************************
@@ -1599,13 +1415,57 @@ public class WordNet implements Serializable {
 
     /** ***************************************************************
      * @return true if the first POS-prefixed synset is a hyponym of the
-     * second POS-prefixed synset.
-     * This is a recursive method.
+     * second POS-prefixed synset, following only "hypernym" links, as
+     * isHyponymRecurse() does
      */
     public boolean isHyponym(String synset, String hypo) {
 
-        ArrayList<String> visited = new ArrayList<String>();
-        return isHyponymRecurse(synset,hypo,visited);
+        if (StringUtil.emptyString(synset) || StringUtil.emptyString(hypo))
+            return false;
+        return getHypernymIndex(false).isHyponym(synset,hypo);
+    }
+
+    /** ***************************************************************
+     * @param instances whether to follow "instance hypernym" and
+     *                  "instance hyponym" links as well
+     * @return the hypernym closure index of relations, which is built
+     * if this is the first call since relations changed
+     */
+    public HypernymIndex getHypernymIndex(boolean instances) {
+
+        HypernymIndex result = instances ? instanceHypernymIndex : hypernymIndex;
+        if (result != null && result.relationsSize == relations.size())
+            return result;
+        synchronized (this) {
+            result = instances ? instanceHypernymIndex : hypernymIndex;
+            if (result == null || result.relationsSize != relations.size()) {
+                result = new HypernymIndex(relations, instances);
+                if (instances)
+                    instanceHypernymIndex = result;
+                else
+                    hypernymIndex = result;
+            }
+            return result;
+        }
+    }
+
+    /** ***************************************************************
+     * @return the table of stopwords, which is built if this is the
+     * first call since the stop words were read
+     */
+    public StopWords getStopWords() {
+
+        StopWords result = stopWordTable;
+        if (result != null && result.sourceSize == stopwords.size())
+            return result;
+        synchronized (this) {
+            result = stopWordTable;
+            if (result == null || result.sourceSize != stopwords.size()) {
+                result = new StopWords(stopwords);
+                stopWordTable = result;
+            }
+            return result;
+        }
     }
 
     /** ***************************************************************
@@ -1615,20 +1475,12 @@ public class WordNet implements Serializable {
 
         if (StringUtil.emptyString(sentence))
             return "";
-        String result = "";
-        ArrayList<String> al = splitToArrayList(sentence);
-        if (al == null)
-            return "";
-        for (int i = 0; i < al.size(); i++) {
-            String word = (String) al.get(i);
-            if (!isStopWord(word)) {
-                if (result == "")
-                    result = word;
-                else
-                    result = result + " " + word;
-            }
+        StopWords sw = getStopWords();
+        if (sw.size() < 1) {
+            System.out.println("Error in WordNet.removeStopWords(): stopwords list not loaded");
+            sw = null;
         }
-        return result;
+        return new Tokenizer().words(sentence).appendWithout(sw, new StringBuilder()).toString();
     }
 
     /** ***************************************************************
@@ -1654,7 +1506,8 @@ public class WordNet implements Serializable {
     public boolean isStopWord(String word) {
 
         if (debug) System.out.println("WordNet.isStopWord(): word: " + word);
-        if (stopwords.size() < 1) {
+        StopWords sw = getStopWords();
+        if (sw.size() < 1) {
             System.out.println("Error in WordNet.isStopWord(): stopwords list not loaded");
             return false;
         }
@@ -1662,8 +1515,8 @@ public class WordNet implements Serializable {
             System.out.println("Error in WordNet.isStopWord(): empty input");
             return false;
         }
-        if (stopwords.contains(word.trim().toLowerCase())) {
-            if (debug) System.out.println("isStopWord(): contains: "  + stopwords.contains(word));
+        if (sw.contains(word)) {
+            if (debug) System.out.println("isStopWord(): contains: "  + word);
             return true;
         }
         return false;
@@ -1687,9 +1540,10 @@ public class WordNet implements Serializable {
         ArrayList<String> al = splitToArrayList(newSentence);
         if (al == null) 
             return result;
+        int[] context = WSD.contextVector(al);
         for (int i = 0; i < al.size(); i++) {
             String word = al.get(i);
-            String synset = WSD.findWordSenseInContext(word,al);
+            String synset = WSD.findWordSenseInContext(word,context);
             if (synset != null && synset != "") {
                 if (result.get(synset) == null)
                     result.put(synset,Integer.valueOf(1));
@@ -1713,12 +1567,20 @@ public class WordNet implements Serializable {
         return result;
     }
 
+    /** ***************************************************************
+     * The compact lexicon file written by WordNetStore, which replaces
+     * the Java serialized wn.ser
+     */
+    public static File lexiconFile() {
+
+        return new File(baseDir + File.separator + "wn.lex");
+    }
+
     /** ***************************************************************
      */
     public static boolean serializedExists() {
 
-        File serfile = new File(baseDir + File.separator + "wn.ser");
-        return serfile.exists();
+        return lexiconFile().exists();
     }
 
     /** ***************************************************************
@@ -1726,7 +1588,7 @@ public class WordNet implements Serializable {
      */
     public static boolean serializedOld() {
 
-        File serfile = new File(baseDir + File.separator + "wn.ser");
+        File serfile = lexiconFile();
         Date saveDate = new Date(serfile.lastModified());
         for (String f : wnFilenames.values()) {
             File file = new File(f);
@@ -1739,25 +1601,18 @@ public class WordNet implements Serializable {
     }
 
     /** ***************************************************************
-     *  Load the most recently save serialized version.
+     *  Load the most recently saved lexicon file.
      */
     public static void loadSerialized() {
 
         wn = null;
         try {
-            // Reading the object from a file
-            FileInputStream file = new FileInputStream(baseDir + File.separator + "wn.ser");
-            ObjectInputStream in = new ObjectInputStream(file);
-            // Method for deserialization of object
-            wn = (WordNet) in.readObject();
             if (serializedOld()) {
-                wn = null;
                 System.out.println("WordNet.loadSerialized(): serialized file is older than sources, " +
                         "reloding from sources.");
                 return;
             }
-            in.close();
-            file.close();
+            wn = WordNetStore.read(lexiconFile());
             System.out.println("WordNet.loadSerialized(): WN has been deserialized ");
             initNeeded = false;
             System.out.println("INFO in WordNet.loadSerialized(): origMaxNounSynsetID: " +
@@ -1765,13 +1620,10 @@ public class WordNet implements Serializable {
                     wn.maxNounSynsetID);
         }
         catch(IOException ex) {
+            wn = null;
             System.out.println("Error in WordNet.loadSerialized(): IOException is caught");
             ex.printStackTrace();
         }
-        catch(ClassNotFoundException ex) {
-            System.out.println("Error in WordNet.loadSerialized(): ClassNotFoundException is caught");
-            ex.printStackTrace();
-        }
     }
 
     /** ***************************************************************
@@ -1784,13 +1636,7 @@ public class WordNet implements Serializable {
         if (StringUtil.emptyString(wn.origMaxNounSynsetID))
             System.out.println("Error in WordNet.serialize(): empty max synset id");
         try {
-            // Reading the object from a file
-            FileOutputStream file = new FileOutputStream(baseDir + File.separator + "wn.ser");
-            ObjectOutputStream out = new ObjectOutputStream(file);
-            // Method for deserialization of object
-            out.writeObject(wn);
-            out.close();
-            file.close();
+            WordNetStore.write(wn, lexiconFile());
             System.out.println("WordNet.serialize(): WN has been serialized ");
             initNeeded = false;
         }
@@ -1812,16 +1658,23 @@ public class WordNet implements Serializable {
             wn.makeFileMap();
             wn.compileRegexPatterns();
             
-            wn.readNouns();
-            wn.readVerbs();
-            wn.readAdjectives();
-            wn.readAdverbs();
-            wn.origMaxNounSynsetID = wn.maxNounSynsetID;
-            wn.origMaxVerbSynsetID = wn.maxVerbSynsetID;
-            wn.readWordCoFrequencies();
-            wn.readStopWords();
-            wn.readSenseIndex(null);
-            wn.readSenseCount();
+            long t1 = System.currentTimeMillis();
+            if (loadThreads > 1)
+                wn.readParallel();
+            else {
+                wn.readNouns();
+                wn.readVerbs();
+                wn.readAdjectives();
+                wn.readAdverbs();
+                wn.origMaxNounSynsetID = wn.maxNounSynsetID;
+                wn.origMaxVerbSynsetID = wn.maxVerbSynsetID;
+                wn.readWordCoFrequencies();
+                wn.readStopWords();
+                wn.readSenseIndex(null);
+                wn.readSenseCount();
+            }
+            System.out.println("WordNet.loadFresh(): read sources in " +
+                    (System.currentTimeMillis() - t1) / 1000.0 + " seconds");
             serialize(); // always create a serialized version of the latest load from source
         }
         catch (Exception ex) {
@@ -1855,6 +1708,7 @@ public class WordNet implements Serializable {
                     if (wn == null)
                         loadFresh();
                 }
+                wn.getTermWordsIndex();
                 DB.readSentimentArray();                
             }
         }
@@ -1971,60 +1825,27 @@ public class WordNet implements Serializable {
     }
 
     /** ***************************************************************
-     * Return the root form of the noun, or null if it's not in the lexicon.
+     * @return the analyzer behind nounRootForm() and verbRootForm(),
+     * which also gives all the candidate lemmas of a word
      */
-    public String nounRootForm(String mixedCase, String input) {
+    public Morphology getMorphology() {
 
-        String result = null;
-
-        //System.out.println("INFO in WordNet.nounRootForm: Checking word : " + mixedCase + " and " + input);
-        if ((exceptionNounHash.containsKey(mixedCase)) ||
-                (exceptionNounHash.containsKey(input))) {
-            if (exceptionNounHash.containsKey(mixedCase))
-                result = (String) exceptionNounHash.get(mixedCase);
-            else
-                result = (String) exceptionNounHash.get(input);
-        }
-        else {
-            // Test all regular plural forms, and correct to singular.
-            if (WordNetUtilities.substTest(input,"s$","",nounSynsetHash))
-                result = WordNetUtilities.subst(input,"s$","");
-            else {
-                if (WordNetUtilities.substTest(input,"ses$","s", nounSynsetHash))
-                    result = WordNetUtilities.subst(input,"ses$","s");
-                else {
-                    if (WordNetUtilities.substTest(input,"xes$","x", nounSynsetHash))
-                        result = WordNetUtilities.subst(input,"xes$","x");
-                    else {
-                        if (WordNetUtilities.substTest(input,"zes$","z", nounSynsetHash))
-                            result = WordNetUtilities.subst(input,"zes$","z");
-                        else {
-                            if (WordNetUtilities.substTest(input,"ches$","ch", nounSynsetHash))
-                                result = WordNetUtilities.subst(input,"ches$","ch");
-                            else {
-                                if (WordNetUtilities.substTest(input,"shes$","sh", nounSynsetHash))
-                                    result = WordNetUtilities.subst(input,"shes$","sh");
-                                else {
-                                    if (WordNetUtilities.substTest(input,"ies$","y", nounSynsetHash)) // but ties and series will be false
-                                        result = WordNetUtilities.subst(input,"ies$","y");
-                                    else {
-                                        if (nounSynsetHash.containsKey(mixedCase))
-                                            result = mixedCase;
-                                        else {
-                                            if (nounSynsetHash.containsKey(input))
-                                                result = input;
-                                        }
-                                     }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        Morphology result = morphology;
+        if (result == null) {
+            result = new Morphology(this);
+            morphology = result;
         }
         return result;
     }
 
+    /** ***************************************************************
+     * Return the root form of the noun, or null if it's not in the lexicon.
+     */
+    public String nounRootForm(String mixedCase, String input) {
+
+        return getMorphology().rootForm(NOUN, mixedCase, input);
+    }
+
     /** ***************************************************************
      *  This routine converts a noun to its singular form and gets the synsets for it,
      *  then passes those synsets to sumoDisplay() for processing.
@@ -2057,48 +1878,7 @@ public class WordNet implements Serializable {
      */
     public String verbRootForm(String mixedCase, String input) {
 
-        String result = null;
-        //System.out.println("INFO in verbRootForm(): word: " + mixedCase + " " + input);
-        if ((exceptionVerbHash.containsKey(mixedCase)) ||
-                (exceptionVerbHash.containsKey(input))) {
-            //System.out.println("INFO in verbRootForm(): exception ");
-            if (exceptionVerbHash.containsKey(mixedCase))
-                result = (String) exceptionVerbHash.get(mixedCase);
-            else
-                result = (String) exceptionVerbHash.get(input);
-        }
-        else {
-            //System.out.println("INFO in verbRootForm(): not an exception: " + mixedCase);
-            // Test all regular forms and convert to present tense singular.
-            if (WordNetUtilities.substTest(input,"s$","",verbSynsetHash)) {
-                result = WordNetUtilities.subst(input,"s$","");
-                //System.out.println("INFO in verbRootForm(): word: " + result);
-            }
-            else {
-                if (WordNetUtilities.substTest(input,"es$","",verbSynsetHash))
-                    result = WordNetUtilities.subst(input,"es$","");
-                else {
-                    if (WordNetUtilities.substTest(input,"ies$","y",verbSynsetHash))
-                        result = WordNetUtilities.subst(input,"ies$","y");
-                    //else if (WordNetUtilities.substTest(input,"ied$","y",verbSynsetHash)) // new 10/29/2014
-                    //    result = WordNetUtilities.subst(input,"ied$","y");
-                    else if (WordNetUtilities.substTest(input,"ed$","",verbSynsetHash))
-                        result = WordNetUtilities.subst(input,"ed$","");
-                    else if (WordNetUtilities.substTest(input,"ed$","e",verbSynsetHash))
-                        result = WordNetUtilities.subst(input,"ed$","e");
-                    else if (WordNetUtilities.substTest(input,"ing$","e",verbSynsetHash))
-                        result = WordNetUtilities.subst(input,"ing$","e");
-                    else if (WordNetUtilities.substTest(input,"ing$","",verbSynsetHash))
-                        result = WordNetUtilities.subst(input,"ing$","");
-                    else if (verbSynsetHash.containsKey(mixedCase))
-                        result = mixedCase;
-                    else if (verbSynsetHash.containsKey(input))
-                        result = input;                    
-                }
-            }
-        }
-        //System.out.println("INFO in verbRootForm(): result: " + result);
-        return result;
+        return getMorphology().rootForm(VERB, mixedCase, input);
     }
 
     /** ***************************************************************
@@ -2275,34 +2055,43 @@ public class WordNet implements Serializable {
         return result;
     }
 
+    /** ***************************************************************
+     * @return the index of the words of each SUMO term, which is built
+     * if this is the first call since SUMOHash or synsetsToWords grew
+     */
+    public TermWordsIndex getTermWordsIndex() {
+
+        TermWordsIndex result = termWordsIndex;
+        if (result != null && result.termsSize == SUMOHash.size() &&
+                result.synsetsSize == synsetsToWords.size())
+            return result;
+        synchronized (this) {
+            result = termWordsIndex;
+            if (result == null || result.termsSize != SUMOHash.size() ||
+                    result.synsetsSize != synsetsToWords.size()) {
+                result = new TermWordsIndex(this);
+                termWordsIndex = result;
+            }
+            return result;
+        }
+    }
+
     /** ***************************************************************
      * Get the words and synsets corresponding to a SUMO term. The
      * return is a Map of words with their corresponding synset number.
      */
     public TreeMap<String,String> getWordsFromTerm(String SUMOterm) {
 
-        TreeMap<String,String> result = new TreeMap<String,String>();
-        ArrayList<String> synsets = SUMOHash.get(SUMOterm);
-        if (synsets == null) {
+        TermWordsIndex.Entry entry = getTermWordsIndex().get(SUMOterm);
+        if (entry == null) {
             System.out.println("INFO in WordNet.getWordsFromTerm(): No synsets for term : " + SUMOterm);
             return null;
         }
-        Iterator<String> it = synsets.iterator();
-        while (it.hasNext()) {
-            String synset = (String) it.next();
-            ArrayList<String> words = synsetsToWords.get(synset);
-            if (words == null) {
-                System.out.println("INFO in WordNet.getWordsFromTerm(): No words for synset: " + synset);
-                return null;
-            }
-            Iterator<String> it2 = words.iterator();
-            while (it2.hasNext()) {
-                String word = (String) it2.next();
-                result.put(word,synset);
-            }
-        }
-        return result;
+        if (!entry.complete)
+            return null;
+        return entry.getWords();
     }
+
     /** ***************************************************************
      */
     public ArrayList<String> getWordsFromSynset(String synset) {
@@ -3429,6 +3218,7 @@ public class WordNet implements Serializable {
         }
         System.out.println("\nINFO in WordNet.termFormatsToSynsets(): result (orig,max): " +
                 origMaxNounSynsetID + " and: " + maxNounSynsetID);
+        getTermWordsIndex();
         System.out.println("WordNet.termFormatsToSynsets(): seconds: " + (System.currentTimeMillis() - millis) / 1000);
     }
     
@@ -0,0 +1,286 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/** ***************************************************************
+ * A hand written parser for the lines of the WordNet mappings files,
+ * http://wordnet.princeton.edu/man/wndb.5WN with a SUMO mapping
+ * after the gloss:
+ *
+ * synset_offset  lex_filenum  ss_type  w_cnt  word  lex_id  [word  lex_id...]
+ *     p_cnt  [ptr...]  [frames...]  |   gloss  [&%Term=]
+ *
+ * It accepts exactly the lines that regexPatterns 0 to 16 did and
+ * splits them the same way, with one scan over each line instead of
+ * repeated matching and replaceFirst() calls.  Parsing only creates
+ * Synset records and does not touch the lexicon, so the four files
+ * can be parsed on separate threads, and WordNet.addSynset() merges
+ * the records into the lexicon tables in file order.
+ */
+public class WordNetParser {
+
+    /** ***************************************************************
+     * One parsed line.  pointers holds pairs of the pointer name, as
+     * WordNetUtilities.convertWordNetPointer() gives it, and the
+     * POS-prefixed target synset.  frames holds pairs of a verb frame
+     * number and the number of the word it applies to, where 00 is all
+     * the words.
+     */
+    public static class Synset {
+
+        public int pos = 0;
+        public String offset = null;
+        public String gloss = null;
+        public String sumo = null;
+        public ArrayList<String> words = new ArrayList<>();
+        public ArrayList<String> pointers = new ArrayList<>();
+        public ArrayList<String> frames = new ArrayList<>();
+    }
+
+    /** ***************************************************************
+     * The characters of java.util.regex \s
+     */
+    private static boolean isSpace(char c) {
+
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** ***************************************************************
+     * The characters of java.util.regex . without DOTALL
+     */
+    private static boolean isDot(char c) {
+
+        return c != '\n' && c != '\r' && c != '\u0085' && c != '\u2028' && c != '\u2029';
+    }
+
+    /** ***************************************************************
+     */
+    private static boolean isDigit(char c) {
+
+        return c >= '0' && c <= '9';
+    }
+
+    /** ***************************************************************
+     */
+    private static boolean isHex(char c) {
+
+        return isDigit(c) || (c >= 'a' && c <= 'f');
+    }
+
+    /** ***************************************************************
+     * The first character of a word, [a-zA-Z0-9'._\-]
+     */
+    private static boolean isWordStart(char c) {
+
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) ||
+                c == '\'' || c == '.' || c == '_' || c == '-';
+    }
+
+    /** ***************************************************************
+     * @return whether a SUMO mapping \(?&%\S+[\S\s]+ runs from i to the
+     * end of s
+     */
+    private static boolean isMappingAt(String s, int i) {
+
+        if (i < s.length() && s.charAt(i) == '(')
+            i++;
+        return i + 3 < s.length() && s.charAt(i) == '&' && s.charAt(i + 1) == '%' &&
+                !isSpace(s.charAt(i + 2));
+    }
+
+    /** ***************************************************************
+     * Split the text after "| " into the gloss and the SUMO mapping
+     * @param lastMapping take the last possible mapping rather than
+     *                    the first, as the adverb pattern did
+     * @return false if there is no mapping
+     */
+    private static boolean splitMapping(String rest, boolean lastMapping, Synset s) {
+
+        int found = -1;
+        for (int p = 1; p < rest.length() - 1; p++) {
+            if (isSpace(rest.charAt(p)) && isMappingAt(rest, p + 1)) {
+                found = p;
+                if (!lastMapping)
+                    break;
+            }
+        }
+        if (found < 0)
+            return false;
+        s.gloss = rest.substring(0, found);
+        s.sumo = rest.substring(found + 1);
+        return true;
+    }
+
+    /** ***************************************************************
+     * @param line a trimmed line of a mappings file
+     * @param pos WordNet.NOUN, VERB, ADJECTIVE or ADVERB
+     * @return the parsed line, or null if it is not a synset
+     */
+    public static Synset parseLine(String line, int pos) {
+
+        if (line.length() < 11)
+            return null;
+        for (int i = 0; i < 8; i++)
+            if (!isDigit(line.charAt(i)))
+                return null;
+        // the bars followed by a space that could end the fields, last
+        // first.  Verb fields stop at the first bar.
+        ArrayList<Integer> bars = new ArrayList<>();
+        if (pos == WordNet.VERB) {
+            int bar = line.indexOf('|', 8);
+            if (bar > 8 && bar + 2 < line.length() && isSpace(line.charAt(bar + 1)))
+                bars.add(bar);
+        }
+        else {
+            for (int bar = line.lastIndexOf('|'); bar > 8; bar = line.lastIndexOf('|', bar - 1))
+                if (bar + 2 < line.length() && isSpace(line.charAt(bar + 1)))
+                    bars.add(bar);
+        }
+        if (bars.isEmpty())
+            return null;
+        Synset s = new Synset();
+        s.pos = pos;
+        s.offset = line.substring(0, 8);
+        int bar = -1;
+        for (int b : bars) {
+            if (splitMapping(line.substring(b + 2), pos == WordNet.ADVERB, s)) {
+                bar = b;
+                break;
+            }
+        }
+        if (bar < 0) {  // no SUMO mapping
+            bar = bars.get(0);
+            s.gloss = line.substring(bar + 2);
+        }
+        parseFields(line.substring(8, bar), s);
+        return s;
+    }
+
+    /** ***************************************************************
+     * Parse the fields between the offset and the gloss,
+     * lex_filenum  ss_type  w_cnt  word  lex_id  [word  lex_id...]  p_cnt  [ptr...]  [frames...]
+     * into the words, pointers and frames of s
+     */
+    public static void parseFields(String f, Synset s) {
+
+        int n = f.length();
+        int i = 0;
+        // lex_filenum  ss_type  w_cnt
+        int j = 0;
+        while (j < n && isSpace(f.charAt(j)))
+            j++;
+        if (j + 8 <= n && isDigit(f.charAt(j)) && isDigit(f.charAt(j + 1)) && isSpace(f.charAt(j + 2)) &&
+                !isSpace(f.charAt(j + 3)) && isSpace(f.charAt(j + 4)) && isDigit(f.charAt(j + 5)) &&
+                !isSpace(f.charAt(j + 6)) && isSpace(f.charAt(j + 7)))
+            i = j + 8;
+        // word  lex_id  [word  lex_id...]
+        while (i < n && isWordStart(f.charAt(i))) {
+            int k = i + 1;
+            while (k < n && !isSpace(f.charAt(k)))
+                k++;
+            if (k + 2 >= n || !isHex(f.charAt(k + 1)) || !isSpace(f.charAt(k + 2)))
+                break;
+            String word = f.substring(i, k);
+            if (word.length() > 3 && (word.endsWith("(a)") || word.endsWith("(p)")))
+                word = word.substring(0, word.length() - 3);
+            if (word.length() > 4 && word.endsWith("(ip)"))
+                word = word.substring(0, word.length() - 4);
+            s.words.add(word);
+            i = k + 3;
+        }
+        // p_cnt
+        if (i + 3 < n && isDot(f.charAt(i)) && isDot(f.charAt(i + 1)) && isDot(f.charAt(i + 2)) &&
+                isSpace(f.charAt(i + 3)))
+            i = i + 4;
+        // pointer_symbol  synset_offset  pos  source/target
+        while (i < n && !isSpace(f.charAt(i))) {
+            int t;
+            if (i + 2 < n && !isSpace(f.charAt(i + 1)) && isSpace(f.charAt(i + 2)))
+                t = i + 3;
+            else if (i + 1 < n && isSpace(f.charAt(i + 1)))
+                t = i + 2;
+            else
+                break;
+            if (t + 15 > n)
+                break;
+            boolean ok = isSpace(f.charAt(t + 8)) && isDot(f.charAt(t + 9)) && isSpace(f.charAt(t + 10));
+            for (int d = 0; ok && d < 8; d++)
+                ok = isDigit(f.charAt(t + d));
+            for (int d = 11; ok && d < 15; d++)
+                ok = isHex(f.charAt(t + d));
+            if (!ok)
+                break;
+            String ptr = WordNetUtilities.convertWordNetPointer(f.substring(i, t - 1));
+            char targetPOS = WordNetUtilities.posLetterToNumber(f.charAt(t + 9));
+            s.pointers.add(ptr);
+            s.pointers.add(targetPOS + f.substring(t, t + 8));
+            i = t + 15;
+            if (i < n && isSpace(f.charAt(i)))
+                i++;
+        }
+        String rest = f.substring(i);
+        if (rest.length() == 0 || rest.equals(" "))
+            return;
+        // Only for verbs may we have the following leftover
+        // f_cnt + f_num  w_num  [ +  f_num  w_num...]
+        if (s.pos != WordNet.VERB) {
+            System.out.println("Error in WordNetParser.parseFields(): " +
+                    s.pos + " leftover pointers: \"" + rest + "\"");
+            return;
+        }
+        if (i + 2 < n && isDot(f.charAt(i)) && isDot(f.charAt(i + 1)) && isSpace(f.charAt(i + 2)))
+            i = i + 3;
+        while (i + 7 <= n && f.charAt(i) == '+' && isSpace(f.charAt(i + 1)) &&
+                isDigit(f.charAt(i + 2)) && isDigit(f.charAt(i + 3)) && isSpace(f.charAt(i + 4)) &&
+                isDigit(f.charAt(i + 5)) && isDigit(f.charAt(i + 6))) {
+            s.frames.add(f.substring(i + 2, i + 4));
+            s.frames.add(f.substring(i + 5, i + 7));
+            i = i + 7;
+            if (i < n && isSpace(f.charAt(i)))
+                i++;
+        }
+    }
+
+    /** ***************************************************************
+     * Parse a whole mappings file.  Lines that are not synsets, other
+     * than blank lines and ; comments, are reported.
+     */
+    public static ArrayList<Synset> parseFile(File file, int pos) throws IOException {
+
+        ArrayList<Synset> result = new ArrayList<>();
+        long t1 = System.currentTimeMillis();
+        int lines = 0;
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                Charset.defaultCharset()), 1 << 16)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                lines++;
+                line = line.trim();
+                Synset s = parseLine(line, pos);
+                if (s != null)
+                    result.add(s);
+                else if (line.length() > 0 && line.charAt(0) != ';')
+                    System.out.println("Error in WordNetParser.parseFile(): No match in "
+                            + file.getCanonicalPath() + " for line " + line);
+            }
+        }
+        System.out.println("  " + ((System.currentTimeMillis() - t1) / 1000.0)
+                + " seconds to parse " + file.getCanonicalPath() + " with " + lines + " lines");
+        return result;
+    }
+}
@@ -0,0 +1,959 @@
+/** This code is copyright Articulate Software (c) 2003.  Some portions
+copyright Teknowledge (c) 2003 and reused under the terms of the GNU license.
+This software is released under the GNU Public License <http://www.gnu.org/copyleft/gpl.html>.
+Users of this code also consent, by use of this code, to credit Articulate Software
+and Teknowledge in any writings, briefings, publications, presentations, or
+other representations of any software which incorporates, builds on, or uses this
+code.  Please cite the following article in any publication with references:
+
+Pease, A., (2003). The Sigma Ontology Development Environment,
+in Working Notes of the IJCAI-2003 Workshop on Ontology and Distributed Systems,
+August 9, Acapulco, Mexico.  See also http://sigmakee.sourceforge.net
+ */
+
+package com.articulate.sigma.wordNet;
+
+import com.articulate.sigma.utils.AVPair;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Supplier;
+
+/** ***************************************************************
+ * A compact binary lexicon file that replaces the Java serialization
+ * of the whole WordNet object in wn.ser.  Every string in the lexicon
+ * (words, synsets, sense keys, SUMO terms, glosses) is stored once in
+ * a sorted string pool and everywhere else is an int index into that
+ * pool.  Each table is written as primitive int arrays - keys, and
+ * for tables with collection values, CSR style offsets into flat
+ * value arrays, so that relations are two parallel arrays of pointer
+ * type and target synset.
+ *
+ * The file is read with one buffered sequential pass.  Since the
+ * WordNet tables are public and used directly throughout Sigma,
+ * reading decodes the arrays back into the same HashMap and Hashtable
+ * fields that loading from the sources creates, so every accessor
+ * works unchanged, and the heap held afterwards is that of those
+ * tables.  What it saves is that each pool string is decoded once and
+ * shared by every table that refers to it, rather than each table
+ * holding its own copy of a synset or word as after a load from
+ * sources or from wn.ser.  WordNetFootprint in the benchmarks measures
+ * the difference.
+ *
+ * Code that only looks words and synsets up can instead open() the
+ * file as a Lexicon, which queries the tables in place through a
+ * read-only memory mapping.  Strings are found by binary search in the
+ * pool and then by their int id in the sorted keys of a table, and
+ * only the strings of a result are decoded, so the heap held is a few
+ * table positions while the file is in pages shared by every JVM on
+ * the machine.
+ *
+ * Layout, all ints big-endian:
+ *   MAGIC VERSION
+ *   poolSize offsets[poolSize+1] byteLength utf8Bytes
+ *   followed by the tables in the order of write(), each with its keys
+ *   in the order of their ids, where a null string is -1, and then the
+ *   two HypernymIndex arrays so that the closure need not be recomputed
+ *   after a read
+ */
+public class WordNetStore {
+
+    public static final int MAGIC = 0x53574E4C; // "SWNL"
+    public static final int VERSION = 3;
+
+    public static boolean debug = false;
+
+    /** ***************************************************************
+     * Writing side: the sorted pool and the index of each string in it
+     */
+    private static class Writer {
+
+        HashMap<String,Integer> ids = new HashMap<>();
+        String[] pool = null;
+        DataOutputStream out = null;
+
+        /** ***************************************************************
+         */
+        void add(String s) {
+
+            if (s != null)
+                ids.put(s, 0);
+        }
+
+        /** ***************************************************************
+         */
+        void addAll(Collection<String> c) {
+
+            if (c == null) return;
+            for (String s : c)
+                add(s);
+        }
+
+        /** ***************************************************************
+         */
+        void addMap(Map<String,?> m) {
+
+            for (Map.Entry<String,?> e : m.entrySet()) {
+                add(e.getKey());
+                Object v = e.getValue();
+                if (v instanceof String)
+                    add((String) v);
+                else if (v instanceof Map) {
+                    for (Map.Entry<?,?> inner : ((Map<?,?>) v).entrySet()) {
+                        add((String) inner.getKey());
+                        if (inner.getValue() instanceof String)
+                            add((String) inner.getValue());
+                    }
+                }
+                else if (v instanceof Collection) {
+                    for (Object o : (Collection<?>) v) {
+                        if (o instanceof AVPair) {
+                            add(((AVPair) o).attribute);
+                            add(((AVPair) o).value);
+                        }
+                        else
+                            add((String) o);
+                    }
+                }
+            }
+        }
+
+        /** ***************************************************************
+         * Sort the strings and number them by their position
+         */
+        void buildPool() {
+
+            pool = ids.keySet().toArray(new String[0]);
+            Arrays.sort(pool);
+            for (int i = 0; i < pool.length; i++)
+                ids.put(pool[i], i);
+        }
+
+        /** ***************************************************************
+         */
+        int id(String s) {
+
+            if (s == null)
+                return -1;
+            return ids.get(s);
+        }
+
+        /** ***************************************************************
+         */
+        void writePool() throws IOException {
+
+            byte[][] bytes = new byte[pool.length][];
+            int total = 0;
+            for (int i = 0; i < pool.length; i++) {
+                bytes[i] = pool[i].getBytes(StandardCharsets.UTF_8);
+                total += bytes[i].length;
+            }
+            out.writeInt(pool.length);
+            int offset = 0;
+            for (int i = 0; i < pool.length; i++) {
+                out.writeInt(offset);
+                offset += bytes[i].length;
+            }
+            out.writeInt(offset);
+            out.writeInt(total);
+            for (byte[] b : bytes)
+                out.write(b);
+        }
+
+        /** ***************************************************************
+         */
+        void writeString(String s) throws IOException {
+
+            out.writeInt(id(s));
+        }
+
+        /** ***************************************************************
+         */
+        void writeList(Collection<String> l) throws IOException {
+
+            out.writeInt(l.size());
+            for (String s : l)
+                out.writeInt(id(s));
+        }
+
+        /** ***************************************************************
+         * n values[n]
+         */
+        void writeInts(int[] a) throws IOException {
+
+            out.writeInt(a.length);
+            for (int i : a)
+                out.writeInt(i);
+        }
+
+        /** ***************************************************************
+         * synsets linked relationsSize and then each int array
+         */
+        void writeHypernymIndex(HypernymIndex index) throws IOException {
+
+            writeList(Arrays.asList(index.synsets));
+            out.writeInt(index.linked);
+            out.writeInt(index.relationsSize);
+            writeInts(index.parentOffsets);
+            writeInts(index.parents);
+            writeInts(index.childOffsets);
+            writeInts(index.children);
+            writeInts(index.ancestorOffsets);
+            writeInts(index.ancestors);
+            writeInts(index.depth);
+        }
+
+        /** ***************************************************************
+         * Keys in the order of the pool, so that a Lexicon can find them
+         * by binary search on their ids
+         */
+        ArrayList<String> sortedKeys(Map<String,?> m) {
+
+            ArrayList<String> keys = new ArrayList<>(m.keySet());
+            Collections.sort(keys);
+            return keys;
+        }
+
+        /** ***************************************************************
+         * keys[n] values[n]
+         */
+        void writeStringMap(Map<String,String> m) throws IOException {
+
+            out.writeInt(m.size());
+            ArrayList<String> keys = sortedKeys(m);
+            for (String k : keys)
+                out.writeInt(id(k));
+            for (String k : keys)
+                out.writeInt(id(m.get(k)));
+        }
+
+        /** ***************************************************************
+         * keys[n] values[n]
+         */
+        void writeIntMap(Map<String,Integer> m) throws IOException {
+
+            out.writeInt(m.size());
+            ArrayList<String> keys = sortedKeys(m);
+            for (String k : keys)
+                out.writeInt(id(k));
+            for (String k : keys)
+                out.writeInt(m.get(k));
+        }
+
+        /** ***************************************************************
+         * keys[n] offsets[n+1] values[m]
+         */
+        void writeListMap(Map<String,? extends Collection<String>> m) throws IOException {
+
+            out.writeInt(m.size());
+            ArrayList<String> keys = sortedKeys(m);
+            for (String k : keys)
+                out.writeInt(id(k));
+            int offset = 0;
+            for (String k : keys) {
+                out.writeInt(offset);
+                offset += m.get(k).size();
+            }
+            out.writeInt(offset);
+            for (String k : keys)
+                for (String v : m.get(k))
+                    out.writeInt(id(v));
+        }
+
+        /** ***************************************************************
+         * keys[n] offsets[n+1] attributes[m] values[m]
+         */
+        void writePairMap(Map<String,? extends Collection<AVPair>> m) throws IOException {
+
+            out.writeInt(m.size());
+            ArrayList<String> keys = sortedKeys(m);
+            for (String k : keys)
+                out.writeInt(id(k));
+            int offset = 0;
+            for (String k : keys) {
+                out.writeInt(offset);
+                offset += m.get(k).size();
+            }
+            out.writeInt(offset);
+            for (String k : keys)
+                for (AVPair avp : m.get(k))
+                    out.writeInt(id(avp.attribute));
+            for (String k : keys)
+                for (AVPair avp : m.get(k))
+                    out.writeInt(id(avp.value));
+        }
+
+        /** ***************************************************************
+         * keys[n] offsets[n+1] words[m] counts[m]
+         */
+        void writeCountMap(Map<String,HashMap<String,Integer>> m) throws IOException {
+
+            out.writeInt(m.size());
+            ArrayList<String> keys = sortedKeys(m);
+            ArrayList<ArrayList<String>> inner = new ArrayList<>();
+            for (String k : keys) {
+                out.writeInt(id(k));
+                inner.add(new ArrayList<>(m.get(k).keySet()));
+            }
+            int offset = 0;
+            for (ArrayList<String> words : inner) {
+                out.writeInt(offset);
+                offset += words.size();
+            }
+            out.writeInt(offset);
+            for (ArrayList<String> words : inner)
+                for (String w : words)
+                    out.writeInt(id(w));
+            for (int i = 0; i < keys.size(); i++) {
+                HashMap<String,Integer> counts = m.get(keys.get(i));
+                for (String w : inner.get(i))
+                    out.writeInt(counts.get(w));
+            }
+        }
+    }
+
+    /** ***************************************************************
+     * Reading side: the decoded pool and the stream of the file
+     */
+    private static class Reader {
+
+        DataInputStream in = null;
+        String[] pool = null;
+
+        /** ***************************************************************
+         */
+        int getInt() throws IOException {
+
+            return in.readInt();
+        }
+
+        /** ***************************************************************
+         */
+        void readPool() throws IOException {
+
+            int n = getInt();
+            int[] offsets = readInts(n + 1);
+            int total = getInt();
+            byte[] bytes = new byte[total];
+            in.readFully(bytes);
+            pool = new String[n];
+            for (int i = 0; i < n; i++)
+                pool[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+
+        /** ***************************************************************
+         */
+        int[] readInts(int n) throws IOException {
+
+            int[] result = new int[n];
+            for (int i = 0; i < n; i++)
+                result[i] = in.readInt();
+            return result;
+        }
+
+        /** ***************************************************************
+         */
+        int[] readIntArray() throws IOException {
+
+            return readInts(getInt());
+        }
+
+        /** ***************************************************************
+         */
+        HypernymIndex readHypernymIndex(boolean instances) throws IOException {
+
+            HypernymIndex index = new HypernymIndex(instances);
+            int n = getInt();
+            index.synsets = new String[n];
+            for (int i = 0; i < n; i++) {
+                index.synsets[i] = str(getInt());
+                index.ids.put(index.synsets[i], i);
+            }
+            index.linked = getInt();
+            index.relationsSize = getInt();
+            index.parentOffsets = readIntArray();
+            index.parents = readIntArray();
+            index.childOffsets = readIntArray();
+            index.children = readIntArray();
+            index.ancestorOffsets = readIntArray();
+            index.ancestors = readIntArray();
+            index.depth = readIntArray();
+            return index;
+        }
+
+        /** ***************************************************************
+         */
+        String str(int id) {
+
+            if (id < 0)
+                return null;
+            return pool[id];
+        }
+
+        /** ***************************************************************
+         */
+        String readString() throws IOException {
+
+            return str(getInt());
+        }
+
+        /** ***************************************************************
+         */
+        void readList(Collection<String> result) throws IOException {
+
+            int n = getInt();
+            for (int id : readInts(n))
+                result.add(str(id));
+        }
+
+        /** ***************************************************************
+         */
+        void readStringMap(Map<String,String> result) throws IOException {
+
+            int n = getInt();
+            int[] keys = readInts(n);
+            int[] values = readInts(n);
+            for (int i = 0; i < n; i++)
+                result.put(str(keys[i]), str(values[i]));
+        }
+
+        /** ***************************************************************
+         */
+        void readIntMap(Map<String,Integer> result) throws IOException {
+
+            int n = getInt();
+            int[] keys = readInts(n);
+            int[] values = readInts(n);
+            for (int i = 0; i < n; i++)
+                result.put(str(keys[i]), values[i]);
+        }
+
+        /** ***************************************************************
+         */
+        void readSetMap(Map<String,HashSet<String>> result) throws IOException {
+
+            int n = getInt();
+            int[] keys = readInts(n);
+            int[] offsets = readInts(n + 1);
+            int[] values = readInts(offsets[n]);
+            for (int i = 0; i < n; i++) {
+                HashSet<String> s = new HashSet<>();
+                for (int j = offsets[i]; j < offsets[i + 1]; j++)
+                    s.add(str(values[j]));
+                result.put(str(keys[i]), s);
+            }
+        }
+
+        /** ***************************************************************
+         */
+        void readListMap(Map<String,ArrayList<String>> result) throws IOException {
+
+            int n = getInt();
+            int[] keys = readInts(n);
+            int[] offsets = readInts(n + 1);
+            int[] values = readInts(offsets[n]);
+            for (int i = 0; i < n; i++) {
+                ArrayList<String> l = new ArrayList<>(offsets[i + 1] - offsets[i]);
+                for (int j = offsets[i]; j < offsets[i + 1]; j++)
+                    l.add(str(values[j]));
+                result.put(str(keys[i]), l);
+            }
+        }
+
+        /** ***************************************************************
+         * @param collection makes the collection of the pairs of a key
+         */
+        <C extends Collection<AVPair>> void readPairMap(Map<String,C> result, Supplier<C> collection)
+                throws IOException {
+
+            int n = getInt();
+            int[] keys = readInts(n);
+            int[] offsets = readInts(n + 1);
+            int[] attributes = readInts(offsets[n]);
+            int[] values = readInts(offsets[n]);
+            for (int i = 0; i < n; i++) {
+                C c = collection.get();
+                for (int j = offsets[i]; j < offsets[i + 1]; j++)
+                    c.add(new AVPair(str(attributes[j]), str(values[j])));
+                result.put(str(keys[i]), c);
+            }
+        }
+
+        /** ***************************************************************
+         */
+        void readCountMap(Map<String,HashMap<String,Integer>> result) throws IOException {
+
+            int n = getInt();
+            int[] keys = readInts(n);
+            int[] offsets = readInts(n + 1);
+            int[] words = readInts(offsets[n]);
+            int[] counts = readInts(offsets[n]);
+            for (int i = 0; i < n; i++) {
+                HashMap<String,Integer> m = new HashMap<>();
+                for (int j = offsets[i]; j < offsets[i + 1]; j++)
+                    m.put(str(words[j]), counts[j]);
+                result.put(str(keys[i]), m);
+            }
+        }
+    }
+
+    /** ***************************************************************
+     * A read-only view of a lexicon file through a memory mapping,
+     * with the lookups of WordNet on the tables as they are in the file
+     */
+    public static class Lexicon {
+
+        // how to skip each table of the file up to multiWords, in the
+        // order of write()
+        private static final int STRINGS = 0;  // n keys[n] values[n]
+        private static final int LISTS = 1;    // n keys[n] offsets[n+1] values[m]
+        private static final int PAIRS = 2;    // n keys[n] offsets[n+1] a[m] b[m]
+        private static final int LIST = 3;     // n values[n]
+        private static final int[] KINDS = {
+                LISTS, LISTS, LISTS, LISTS,               // synset hashes
+                STRINGS, STRINGS, STRINGS, STRINGS,       // documentation
+                STRINGS, STRINGS, STRINGS, STRINGS,       // SUMO mappings
+                LISTS, LISTS,                             // SUMOHash synsetsToWords
+                STRINGS, STRINGS, STRINGS, STRINGS,       // exceptions
+                PAIRS, PAIRS, PAIRS,                      // relations co-frequencies frequencies
+                STRINGS, STRINGS, LIST,                   // caseMap senseFrequencies stopwords
+                STRINGS, STRINGS, STRINGS,                // senseIndex senseKeys reverseSenseIndex
+                LISTS, LISTS, LISTS                       // verbFrames wordsToSenseKeys multiWords
+        };
+        private static final int SYNSETS = 0;
+        private static final int DOCUMENTATION = 4;
+        private static final int SUMO = 8;
+        private static final int SUMO_HASH = 12;
+        private static final int SYNSETS_TO_WORDS = 13;
+        private static final int RELATIONS = 18;
+        private static final int SENSE_INDEX = 24;
+        private static final int WORDS_TO_SENSE_KEYS = 28;
+
+        private final ByteBuffer buf;
+        private final int poolSize;
+        private final int poolOffsets; // position of offsets[poolSize+1]
+        private final int poolBytes;   // position of the utf8 bytes
+        private final int[] tables = new int[KINDS.length]; // position of each table
+
+        /** ***************************************************************
+         */
+        private Lexicon(ByteBuffer buf, File file) throws IOException {
+
+            this.buf = buf;
+            if (buf.capacity() < 12 || buf.getInt(0) != MAGIC)
+                throw new IOException("not a WordNet lexicon file: " + file);
+            int version = buf.getInt(4);
+            if (version != VERSION)
+                throw new IOException("unsupported WordNet lexicon version " + version + " in " + file);
+            poolSize = buf.getInt(8);
+            poolOffsets = 12;
+            int total = buf.getInt(poolOffsets + 4 * (poolSize + 1));
+            poolBytes = poolOffsets + 4 * (poolSize + 2);
+            int pos = poolBytes + total + 4 * 4; // after the four max synset ids
+            for (int t = 0; t < KINDS.length; t++) {
+                tables[t] = pos;
+                int n = buf.getInt(pos);
+                switch (KINDS[t]) {
+                    case STRINGS: pos += 4 * (1 + 2 * n); break;
+                    case LISTS: pos += 4 * (1 + n + n + 1 + buf.getInt(pos + 4 * (1 + n + n))); break;
+                    case PAIRS: pos += 4 * (1 + n + n + 1 + 2 * buf.getInt(pos + 4 * (1 + n + n))); break;
+                    case LIST: pos += 4 * (1 + n); break;
+                }
+            }
+        }
+
+        /** ***************************************************************
+         * @return the string of a pool id, or null for -1
+         */
+        private String str(int id) {
+
+            if (id < 0)
+                return null;
+            int start = buf.getInt(poolOffsets + 4 * id);
+            int end = buf.getInt(poolOffsets + 4 * (id + 1));
+            byte[] bytes = new byte[end - start];
+            ByteBuffer b = buf.duplicate();
+            b.position(poolBytes + start);
+            b.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /** ***************************************************************
+         * @return the pool id of s, or -1 if it is not in the lexicon
+         */
+        private int id(String s) {
+
+            int lo = 0;
+            int hi = poolSize - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int c = str(mid).compareTo(s);
+                if (c < 0)
+                    lo = mid + 1;
+                else if (c > 0)
+                    hi = mid - 1;
+                else
+                    return mid;
+            }
+            return -1;
+        }
+
+        /** ***************************************************************
+         * @return the index of key among the keys of a table, or -1
+         */
+        private int find(int table, String key) {
+
+            if (key == null)
+                return -1;
+            int id = id(key);
+            if (id < 0)
+                return -1;
+            int pos = tables[table];
+            int lo = 0;
+            int hi = buf.getInt(pos) - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int k = buf.getInt(pos + 4 * (1 + mid));
+                if (k < id)
+                    lo = mid + 1;
+                else if (k > id)
+                    hi = mid - 1;
+                else
+                    return mid;
+            }
+            return -1;
+        }
+
+        /** ***************************************************************
+         * @return the value of key in a table of strings, or null
+         */
+        private String getString(int table, String key) {
+
+            int i = find(table, key);
+            if (i < 0)
+                return null;
+            int pos = tables[table];
+            return str(buf.getInt(pos + 4 * (1 + buf.getInt(pos) + i)));
+        }
+
+        /** ***************************************************************
+         * @param second whether to take the second value array of a
+         *               table of pairs rather than the first
+         * @return the values of the key at index i of a table of lists
+         */
+        private ArrayList<String> getList(int table, int i, boolean second) {
+
+            int pos = tables[table];
+            int n = buf.getInt(pos);
+            int offsets = pos + 4 * (1 + n);
+            int start = buf.getInt(offsets + 4 * i);
+            int end = buf.getInt(offsets + 4 * (i + 1));
+            int values = offsets + 4 * (n + 1);
+            if (second)
+                values += 4 * buf.getInt(offsets + 4 * n);
+            ArrayList<String> result = new ArrayList<>(end - start);
+            for (int j = start; j < end; j++)
+                result.add(str(buf.getInt(values + 4 * j)));
+            return result;
+        }
+
+        /** ***************************************************************
+         * @return the values of key in a table of lists, or null
+         */
+        private ArrayList<String> getList(int table, String key) {
+
+            int i = find(table, key);
+            if (i < 0)
+                return null;
+            return getList(table, i, false);
+        }
+
+        /** ***************************************************************
+         * @return the table of a part of speech among the four tables
+         * that start at first, or -1 for an improper synset
+         */
+        private static int posTable(int first, String synset) {
+
+            if (synset == null || synset.length() < 2)
+                return -1;
+            switch (synset.charAt(0)) {
+                case '1': return first;
+                case '2': return first + 1;
+                case '3': case '5': return first + 2;
+                case '4': return first + 3;
+            }
+            return -1;
+        }
+
+        /** ***************************************************************
+         * @param synset is a synset with POS-prefix
+         */
+        public String getSUMOMapping(String synset) {
+
+            int table = posTable(SUMO, synset);
+            if (table < 0)
+                return null;
+            return getString(table, synset.substring(1));
+        }
+
+        /** ***************************************************************
+         * @param synset is a synset with POS-prefix
+         */
+        public String getDocumentation(String synset) {
+
+            int table = posTable(DOCUMENTATION, synset);
+            if (table < 0)
+                return null;
+            return getString(table, synset.substring(1));
+        }
+
+        /** ***************************************************************
+         * @param synset is a synset with POS-prefix
+         */
+        public ArrayList<String> getWordsFromSynset(String synset) {
+
+            return getList(SYNSETS_TO_WORDS, synset);
+        }
+
+        /** ***************************************************************
+         * @return the synsets with POS-prefix of a root form word in
+         * every part of speech
+         */
+        public HashSet<String> getSynsetsFromWord(String word) {
+
+            HashSet<String> result = new HashSet<>();
+            for (int p = 0; p < 4; p++) {
+                ArrayList<String> synsets = getList(SYNSETS + p, word);
+                if (synsets != null)
+                    for (String synset : synsets)
+                        result.add((p + 1) + synset);
+            }
+            return result;
+        }
+
+        /** ***************************************************************
+         * @param synset is a synset with POS-prefix
+         * @return pairs of relation name and synset with POS-prefix, or
+         * null if the synset has no relations
+         */
+        public ArrayList<AVPair> getRelations(String synset) {
+
+            int i = find(RELATIONS, synset);
+            if (i < 0)
+                return null;
+            ArrayList<String> attributes = getList(RELATIONS, i, false);
+            ArrayList<String> values = getList(RELATIONS, i, true);
+            ArrayList<AVPair> result = new ArrayList<>(attributes.size());
+            for (int j = 0; j < attributes.size(); j++)
+                result.add(new AVPair(attributes.get(j), values.get(j)));
+            return result;
+        }
+
+        /** ***************************************************************
+         * @return the synsets with POS-prefix mapped to a SUMO term, or null
+         */
+        public ArrayList<String> getSynsetsFromTerm(String SUMOterm) {
+
+            return getList(SUMO_HASH, SUMOterm);
+        }
+
+        /** ***************************************************************
+         * @param senseKey is a key in the form of word_POS_num
+         * @return the 8-digit synset of the sense, or null
+         */
+        public String getSenseSynset(String senseKey) {
+
+            return getString(SENSE_INDEX, senseKey);
+        }
+
+        /** ***************************************************************
+         * @return the sense keys in the form of word_POS_num of a root
+         * form word, or null
+         */
+        public ArrayList<String> getSenseKeys(String word) {
+
+            return getList(WORDS_TO_SENSE_KEYS, word);
+        }
+    }
+
+    /** ***************************************************************
+     * Write all the tables of wn to the file
+     */
+    public static void write(WordNet wn, File file) throws IOException {
+
+        Writer w = new Writer();
+        w.add(wn.maxNounSynsetID);
+        w.add(wn.maxVerbSynsetID);
+        w.add(wn.origMaxNounSynsetID);
+        w.add(wn.origMaxVerbSynsetID);
+        w.addMap(wn.nounSynsetHash);
+        w.addMap(wn.verbSynsetHash);
+        w.addMap(wn.adjectiveSynsetHash);
+        w.addMap(wn.adverbSynsetHash);
+        w.addMap(wn.nounDocumentationHash);
+        w.addMap(wn.verbDocumentationHash);
+        w.addMap(wn.adjectiveDocumentationHash);
+        w.addMap(wn.adverbDocumentationHash);
+        w.addMap(wn.nounSUMOHash);
+        w.addMap(wn.verbSUMOHash);
+        w.addMap(wn.adjectiveSUMOHash);
+        w.addMap(wn.adverbSUMOHash);
+        w.addMap(wn.SUMOHash);
+        w.addMap(wn.synsetsToWords);
+        w.addMap(wn.exceptionNounHash);
+        w.addMap(wn.exceptionVerbHash);
+        w.addMap(wn.exceptionNounPluralHash);
+        w.addMap(wn.exceptionVerbPastHash);
+        w.addMap(wn.relations);
+        w.addMap(wn.wordCoFrequencies);
+        w.addMap(wn.wordFrequencies);
+        w.addMap(wn.caseMap);
+        w.addMap(wn.senseFrequencies);
+        w.addAll(wn.stopwords);
+        w.addMap(wn.senseIndex);
+        w.addMap(wn.senseKeys);
+        w.addMap(wn.reverseSenseIndex);
+        w.addMap(wn.verbFrames);
+        w.addMap(wn.wordsToSenseKeys);
+        w.addMap(wn.multiWords.multiWord.asMap());
+        w.addMap(wn.OMW);
+        HypernymIndex hypernyms = wn.getHypernymIndex(false);
+        HypernymIndex instanceHypernyms = wn.getHypernymIndex(true);
+        w.addAll(Arrays.asList(hypernyms.synsets));
+        w.addAll(Arrays.asList(instanceHypernyms.synsets));
+        w.buildPool();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            w.out = out;
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            w.writePool();
+            w.writeString(wn.maxNounSynsetID);
+            w.writeString(wn.maxVerbSynsetID);
+            w.writeString(wn.origMaxNounSynsetID);
+            w.writeString(wn.origMaxVerbSynsetID);
+            w.writeListMap(wn.nounSynsetHash);
+            w.writeListMap(wn.verbSynsetHash);
+            w.writeListMap(wn.adjectiveSynsetHash);
+            w.writeListMap(wn.adverbSynsetHash);
+            w.writeStringMap(wn.nounDocumentationHash);
+            w.writeStringMap(wn.verbDocumentationHash);
+            w.writeStringMap(wn.adjectiveDocumentationHash);
+            w.writeStringMap(wn.adverbDocumentationHash);
+            w.writeStringMap(wn.nounSUMOHash);
+            w.writeStringMap(wn.verbSUMOHash);
+            w.writeStringMap(wn.adjectiveSUMOHash);
+            w.writeStringMap(wn.adverbSUMOHash);
+            w.writeListMap(wn.SUMOHash);
+            w.writeListMap(wn.synsetsToWords);
+            w.writeStringMap(wn.exceptionNounHash);
+            w.writeStringMap(wn.exceptionVerbHash);
+            w.writeStringMap(wn.exceptionNounPluralHash);
+            w.writeStringMap(wn.exceptionVerbPastHash);
+            w.writePairMap(wn.relations);
+            w.writeCountMap(wn.wordCoFrequencies);
+            w.writePairMap(wn.wordFrequencies);
+            w.writeStringMap(wn.caseMap);
+            w.writeIntMap(wn.senseFrequencies);
+            w.writeList(wn.stopwords);
+            w.writeStringMap(wn.senseIndex);
+            w.writeStringMap(wn.senseKeys);
+            w.writeStringMap(wn.reverseSenseIndex);
+            w.writeListMap(wn.verbFrames);
+            w.writeListMap(wn.wordsToSenseKeys);
+            w.writeListMap(wn.multiWords.multiWord.asMap());
+            out.writeInt(wn.OMW.size());
+            for (String lang : wn.OMW.keySet()) {
+                w.writeString(lang);
+                w.writeStringMap(wn.OMW.get(lang));
+            }
+            w.writeHypernymIndex(hypernyms);
+            w.writeHypernymIndex(instanceHypernyms);
+        }
+        if (debug) System.out.println("WordNetStore.write(): " + w.pool.length + " strings, " +
+                file.length() + " bytes");
+    }
+
+    /** ***************************************************************
+     * Read a file created by write() into a new WordNet
+     */
+    public static WordNet read(File file) throws IOException {
+
+        Reader r = new Reader();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            r.in = in;
+            if (r.getInt() != MAGIC)
+                throw new IOException("not a WordNet lexicon file: " + file);
+            int version = r.getInt();
+            if (version != VERSION)
+                throw new IOException("unsupported WordNet lexicon version " + version + " in " + file);
+            r.readPool();
+            WordNet wn = new WordNet();
+            wn.maxNounSynsetID = r.readString();
+            wn.maxVerbSynsetID = r.readString();
+            wn.origMaxNounSynsetID = r.readString();
+            wn.origMaxVerbSynsetID = r.readString();
+            r.readSetMap(wn.nounSynsetHash);
+            r.readSetMap(wn.verbSynsetHash);
+            r.readSetMap(wn.adjectiveSynsetHash);
+            r.readSetMap(wn.adverbSynsetHash);
+            r.readStringMap(wn.nounDocumentationHash);
+            r.readStringMap(wn.verbDocumentationHash);
+            r.readStringMap(wn.adjectiveDocumentationHash);
+            r.readStringMap(wn.adverbDocumentationHash);
+            r.readStringMap(wn.nounSUMOHash);
+            r.readStringMap(wn.verbSUMOHash);
+            r.readStringMap(wn.adjectiveSUMOHash);
+            r.readStringMap(wn.adverbSUMOHash);
+            r.readListMap(wn.SUMOHash);
+            r.readListMap(wn.synsetsToWords);
+            r.readStringMap(wn.exceptionNounHash);
+            r.readStringMap(wn.exceptionVerbHash);
+            r.readStringMap(wn.exceptionNounPluralHash);
+            r.readStringMap(wn.exceptionVerbPastHash);
+            r.readPairMap(wn.relations, ArrayList::new);
+            r.readCountMap(wn.wordCoFrequencies);
+            r.readPairMap(wn.wordFrequencies, TreeSet::new);
+            r.readStringMap(wn.caseMap);
+            r.readIntMap(wn.senseFrequencies);
+            r.readList(wn.stopwords);
+            r.readStringMap(wn.senseIndex);
+            r.readStringMap(wn.senseKeys);
+            r.readStringMap(wn.reverseSenseIndex);
+            r.readListMap(wn.verbFrames);
+            r.readListMap(wn.wordsToSenseKeys);
+            HashMap<String,ArrayList<String>> multi = new HashMap<>();
+            r.readListMap(multi);
+            for (String first : multi.keySet())
+                wn.multiWords.multiWord.putAll(first, multi.get(first));
+            int langs = r.getInt();
+            for (int i = 0; i < langs; i++) {
+                String lang = r.readString();
+                HashMap<String,String> m = new HashMap<>();
+                r.readStringMap(m);
+                wn.OMW.put(lang, m);
+            }
+            wn.hypernymIndex = r.readHypernymIndex(false);
+            wn.instanceHypernymIndex = r.readHypernymIndex(true);
+            if (debug) System.out.println("WordNetStore.read(): " + r.pool.length + " strings from " + file);
+            return wn;
+        }
+    }
+
+    /** ***************************************************************
+     * Open a file created by write() for lookups through a read-only
+     * memory mapping, without reading its tables into a WordNet
+     */
+    public static Lexicon open(File file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (debug) System.out.println("WordNetStore.open(): " + channel.size() + " bytes from " + file);
+            return new Lexicon(buf, file);
+        }
+    }
+}
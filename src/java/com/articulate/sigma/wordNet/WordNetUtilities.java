@@ -648,6 +648,20 @@ public class WordNetUtilities {
         return result.toString();
     }
 
+    /** ***************************************************************
+     * HTML format the words of a SUMO term as formatWords() does, from
+     * WordNet.getTermWordsIndex(), which keeps the result for the next
+     * page that shows the term
+     * @return the HTML, or an empty string if the term has no words
+     */
+    public static String formatTermWords(String term, String kbName) {
+
+        TermWordsIndex.Entry entry = WordNet.wn.getTermWordsIndex().get(term);
+        if (entry == null || !entry.complete)
+            return "";
+        return entry.formatWords(kbName);
+    }
+
     /** ***************************************************************
      * HTML format a TreeMap of ArrayLists word senses
      */
@@ -1777,60 +1791,17 @@ public class WordNetUtilities {
     }
 
     /** ***************************************************************
-     */
-    private static String lowestCommonParentInner(ArrayList<String> path,
-                                                  ArrayList<ArrayList<String>> paths, int cursor) {
-
-        Iterator<ArrayList<String>> it = paths.iterator();
-        while (it.hasNext()) {
-            ArrayList<String> path2 = it.next();
-            int index1 = path.size() - cursor - 1;
-            int index2 = path2.size() - cursor - 1;
-            if (index1 < 0 || index2 < 0)
-                return null;
-            //System.out.println("lowestCommonParentInner(): index: " + index1);
-            //System.out.println("lowestCommonParentInner(): index: " + index2);
-            //System.out.println("lowestCommonParentInner() 1: " + path.get(index1));
-            //System.out.println("lowestCommonParentInner() 2: " + path2.get(index2));
-            if (path2.get(index2).equals(path.get(index1)))
-                return path.get(index1);
-        }
-        return null;
-    }
-
-    /** ***************************************************************
-     */
-    private static String lowestCommonParent(ArrayList<ArrayList<String>> paths1,
-                                            ArrayList<ArrayList<String>> paths2, int cursor) {
-
-        String bestSyn = null;
-        Iterator<ArrayList<String>> it = paths1.iterator();
-        while (it.hasNext()) {
-            String result = lowestCommonParentInner(it.next(), paths2, cursor);
-            if (result != null)
-                bestSyn = result;
-        }
-        return bestSyn;
-    }
-
-    /** ***************************************************************
+     * @return the deepest POS-prefixed synset that is a hypernym of both
+     * of the given ones, or is one of them, following "hypernym" and
+     * "instance hypernym" links as findPathsToRoot() does, or "entity"
+     * if there is none
      */
     public static String lowestCommonParent(String s1, String s2) {
 
-        ArrayList<String> base1 = new ArrayList<String>();
-        ArrayList<String> base2 = new ArrayList<String>();
-        ArrayList<ArrayList<String>> paths1 = findPathsToRoot(base1, s1);
-        ArrayList<ArrayList<String>> paths2 = findPathsToRoot(base2,s2);
-        int cursor = 0;
-        String bestSyn = "100001740"; // entity
-        String result = bestSyn;
-        while (result != null) {
-            result = lowestCommonParent(paths1,paths2,cursor);
-            cursor++;
-            if (result != null)
-                bestSyn = result;
-        }
-        return bestSyn;
+        String result = WordNet.wn.getHypernymIndex(true).lowestCommonParent(s1, s2);
+        if (result == null)
+            return "100001740"; // entity
+        return result;
     }
 
     /** ***************************************************************
@@ -1999,46 +1970,21 @@ public class WordNetUtilities {
     }
 
     /** ***************************************************************
-     * @return all the hyponyms of a given POS-prefixed synset
+     * @return the given POS-prefixed synset and all its hyponyms that
+     * have relations, or an empty set if it has none
      */
     public static HashSet<String> getAllHyponyms(String s) {
 
-        //System.out.println("getAllHyponyms(): " + s);
-        HashSet<String> result = new HashSet<String>();
-        ArrayList<AVPair> rels = WordNet.wn.relations.get(s);
-        // System.out.println("getAllHyponyms() rels: " + rels);
-        if (rels == null)
-            return result;
-        for (AVPair avp : rels) {
-            if (avp.attribute.equals("hyponym") || avp.attribute.equals("instance hyponym"))
-                result.addAll(getAllHyponyms(avp.value));
-        }
-        result.add(s);
-        return result;
+        return WordNet.wn.getHypernymIndex(true).getAllHyponyms(s);
     }
 
     /** ***************************************************************
-     * @return all the hyponyms of a given POS-prefixed synset
+     * @return all the hyponyms of a given POS-prefixed synset.  Since
+     * getAllHyponyms() is transitive this is now the same thing.
      */
     public static HashSet<String> getAllHyponymsTransitive(String s) {
 
-        //System.out.println("getAllHyponymsTransitive(): input: " + s);
-        HashSet<String> result = new HashSet<String>();
-        result.addAll(getAllHyponyms(s));
-        boolean changed = true;
-        while (changed) {
-            HashSet<String> newresult = new HashSet<String>();
-            newresult.addAll(result);
-            for (String str : result)
-                newresult.addAll(getAllHyponyms(str));
-            //System.out.println("getAllHyponymsTransitive(): " + newresult);
-            if (newresult.size() == result.size())
-                changed = false;
-            else
-                changed = true;
-            result = newresult;
-        }
-        return result;
+        return getAllHyponyms(s);
     }
 
     /** ***************************************************************
@@ -2051,17 +1997,9 @@ public class WordNetUtilities {
             System.out.println("word: '" + word + "' synsets: " + synsets);
             return false;
         }
+        HypernymIndex index = WordNet.wn.getHypernymIndex(true);
         for (String synset : synsets) {
-            HashSet<String> hypo = getAllHyponymsTransitive(synset);
-            HashSet<String> words = new HashSet<>();
-            for (String s : hypo) {
-                if (WordNet.wn.synsetsToWords.keySet().contains(s)) {
-                    ArrayList<String> newWords = WordNet.wn.synsetsToWords.get(s);
-                    //System.out.println("WordNetUtilities.isHyponymousWord(): words: "  + newWords);
-                    words.addAll(newWords);
-                }
-            }
-            if (words.contains(word))
+            if (index.getHyponymousWords(synset).contains(word))
                 return true;
         }
         return false;
@@ -0,0 +1,68 @@
+package com.articulate.sigma;
+
+import com.articulate.sigma.utils.StringUtil;
+
+import java.io.File;
+
+/** ***************************************************************
+ * Loads the small KIF fixture in test/benchmark/java/resources into
+ * a KB for the JMH benchmarks.  No config.xml, SIGMA_HOME KB
+ * directory, WordNet or theorem prover is needed.  The fixture is
+ * found from the sigma.benchmark.kif system property, or else under
+ * SIGMA_SRC, or else under the current directory.
+ */
+public class BenchmarkKB {
+
+    public static final String FIXTURE = "benchmark.kif";
+
+    private static KB kb = null;
+
+    /** ***************************************************************
+     * @return the fixture file
+     */
+    public static File fixture() {
+
+        String path = System.getProperty("sigma.benchmark.kif");
+        if (!StringUtil.emptyString(path))
+            return new File(path);
+        return resource(FIXTURE);
+    }
+
+    /** ***************************************************************
+     * @return a file of test/benchmark/java/resources under SIGMA_SRC,
+     * or else under the current directory
+     */
+    public static File resource(String name) {
+
+        String base = System.getenv("SIGMA_SRC");
+        if (StringUtil.emptyString(base))
+            base = System.getProperty("user.dir");
+        return new File(base + File.separator + "test" + File.separator + "benchmark" +
+                File.separator + "java" + File.separator + "resources", name);
+    }
+
+    /** ***************************************************************
+     * Build the KB and its caches the first time this is called and
+     * register it with KBmanager as the sumokbname KB, so that code
+     * which looks the KB up by name, such as SUMOtoTFAform, finds it.
+     */
+    public static synchronized KB getKB() {
+
+        if (kb != null)
+            return kb;
+        File f = fixture();
+        if (!f.exists())
+            throw new IllegalStateException("BenchmarkKB.getKB(): no fixture at " + f.getAbsolutePath());
+        KBmanager mgr = KBmanager.getMgr();
+        mgr.setDefaultAttributes();
+        mgr.setPref("loadLexicons", "false");
+        kb = new KB(mgr.getPref("sumokbname"), mgr.getPref("kbDir"));
+        kb.addConstituent(f.getAbsolutePath());
+        kb.kbCache = new KBcache(kb);
+        kb.kbCache.buildCaches();
+        kb.checkArity();
+        mgr.kbs.put(kb.name, kb);
+        KBmanager.initialized = true;
+        return kb;
+    }
+}
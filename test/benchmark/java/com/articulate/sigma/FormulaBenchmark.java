@@ -0,0 +1,79 @@
+package com.articulate.sigma;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** ***************************************************************
+ * Micro-benchmarks for the list accessors of Formula, which every
+ * other part of Sigma calls heavily.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormulaBenchmark {
+
+    @Param({"(instance Marie Human)",
+            "(=> (and (located ?X ?Y) (located ?Y ?Z)) (located ?X ?Z))",
+            "(documentation Human EnglishLanguage \"Modern man, the only remaining species of the &%Hominid family.\")"})
+    public String kif;
+
+    private Formula f;
+
+    /** ***************************************************************
+     */
+    @Setup
+    public void setup() {
+
+        f = new Formula(kif);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public String car() {
+
+        return f.car();
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public String cdr() {
+
+        return f.cdr();
+    }
+
+    /** ***************************************************************
+     * Walk the whole list with car() and cdrAsFormula()
+     */
+    @Benchmark
+    public void walk(Blackhole bh) {
+
+        Formula rest = f;
+        while (!rest.empty()) {
+            bh.consume(rest.car());
+            rest = rest.cdrAsFormula();
+        }
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public String getStringArgument() {
+
+        return f.getStringArgument(2);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public Formula newFormula() {
+
+        return new Formula(kif);
+    }
+}
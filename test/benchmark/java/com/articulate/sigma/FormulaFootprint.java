@@ -0,0 +1,83 @@
+package com.articulate.sigma;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/** ***************************************************************
+ * Measure the heap retained per Formula, as parsed, once the
+ * variable, term and argument caches have been filled, and after
+ * Formula.clearCaches().  The fixture is parsed the given number of
+ * times (default 200) so that there are enough formulas for a stable
+ * figure.  Run with a fixed heap, e.g.
+ *
+ * java -Xms1g -Xmx1g -cp ... com.articulate.sigma.FormulaFootprint 200
+ */
+public class FormulaFootprint {
+
+    /** ***************************************************************
+     * @return the used heap after letting the collector settle
+     */
+    private static long usedHeap() {
+
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    /** ***************************************************************
+     * Fill the caches that browsing, preprocessing and translation fill
+     */
+    private static void fillCaches(Formula f) {
+
+        f.collectAllVariables();
+        f.collectQuantifiedVariables();
+        f.collectVariables();
+        f.collectTerms();
+        f.getStringArgument(1);
+        f.getArgument(1);
+    }
+
+    /** ***************************************************************
+     */
+    public static void main(String[] args) throws Exception {
+
+        int copies = 200;
+        if (args != null && args.length > 0)
+            copies = Integer.parseInt(args[0]);
+        KBmanager.getMgr().setDefaultAttributes();
+        KBmanager.getMgr().setPref("reportDup", "no");
+        String contents = new String(Files.readAllBytes(BenchmarkKB.fixture().toPath()), StandardCharsets.UTF_8);
+        ArrayList<Formula> forms = new ArrayList<>();
+        long base = usedHeap();
+        for (int i = 0; i < copies; i++) {
+            KIF kif = new KIF();
+            kif.filename = BenchmarkKB.FIXTURE;
+            kif.parse(new StringReader(contents));
+            forms.addAll(kif.formulaMap.values());
+        }
+        long parsed = usedHeap();
+        for (Formula f : forms)
+            fillCaches(f);
+        long cached = usedHeap();
+        for (Formula f : forms)
+            f.clearCaches();
+        long cleared = usedHeap();
+        int n = forms.size();
+        System.out.println("FormulaFootprint: " + n + " formulas");
+        System.out.println("  parsed:         " + (parsed - base) / n + " bytes per formula");
+        System.out.println("  caches filled:  " + (cached - base) / n + " bytes per formula");
+        System.out.println("  caches cleared: " + (cleared - base) / n + " bytes per formula");
+    }
+}
@@ -0,0 +1,74 @@
+package com.articulate.sigma;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** ***************************************************************
+ * Benchmarks for KB lookups, the cached taxonomy tests of KBcache
+ * and FormulaPreprocessor, all over the benchmark fixture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KBBenchmark {
+
+    private KB kb;
+    private FormulaPreprocessor fp;
+    private Formula rule;
+
+    /** ***************************************************************
+     */
+    @Setup
+    public void setup() {
+
+        kb = BenchmarkKB.getKB();
+        fp = new FormulaPreprocessor();
+        rule = new Formula("(=> (and (instance ?W Walking) (agent ?W ?A)) (instance ?A Animal))");
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public ArrayList<Formula> ask() {
+
+        return kb.ask("arg", 1, "Human");
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public ArrayList<Formula> askWithRestriction() {
+
+        return kb.askWithRestriction(0, "subclass", 2, "Vertebrate");
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public boolean subclassOf() {
+
+        return kb.kbCache.subclassOf("Human", "Organism");
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public boolean isInstanceOf() {
+
+        return kb.kbCache.isInstanceOf("Marie", "Animal");
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public Set<Formula> preProcess() {
+
+        return fp.preProcess(rule, false, kb);
+    }
+}
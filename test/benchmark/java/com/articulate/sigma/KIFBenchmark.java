@@ -0,0 +1,45 @@
+package com.articulate.sigma;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/** ***************************************************************
+ * Parse the benchmark fixture from memory, so that file IO is not
+ * part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KIFBenchmark {
+
+    private String contents;
+
+    /** ***************************************************************
+     */
+    @Setup
+    public void setup() throws Exception {
+
+        contents = new String(Files.readAllBytes(BenchmarkKB.fixture().toPath()), StandardCharsets.UTF_8);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public KIF parse() {
+
+        KIF kif = new KIF();
+        kif.filename = BenchmarkKB.FIXTURE;
+        TreeSet<String> errors = kif.parse(new StringReader(contents));
+        if (!errors.isEmpty())
+            throw new IllegalStateException("KIFBenchmark.parse(): " + errors);
+        return kif;
+    }
+}
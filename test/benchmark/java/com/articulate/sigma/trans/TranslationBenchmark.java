@@ -0,0 +1,50 @@
+package com.articulate.sigma.trans;
+
+import com.articulate.sigma.BenchmarkKB;
+import com.articulate.sigma.Formula;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** ***************************************************************
+ * Benchmarks for the SUO-KIF to TPTP FOF and TFF translations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslationBenchmark {
+
+    @Param({"(=> (and (located ?X ?Y) (located ?Y ?Z)) (located ?X ?Z))",
+            "(=> (and (instance ?N1 Integer) (instance ?N2 Integer) (greaterThan ?N1 0) (greaterThan ?N2 0)) " +
+                    "(greaterThan (AdditionFn ?N1 ?N2) ?N1))"})
+    public String kif;
+
+    /** ***************************************************************
+     */
+    @Setup
+    public void setup() {
+
+        BenchmarkKB.getKB();
+        SUMOtoTFAform.initOnce();
+        SUMOtoTFAform.setNumericFunctionInfo();
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public String tptpParseSUOKIFString() {
+
+        return SUMOformulaToTPTPformula.tptpParseSUOKIFString(kif, false);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public String tffProcess() {
+
+        return SUMOtoTFAform.process(new Formula(kif));
+    }
+}
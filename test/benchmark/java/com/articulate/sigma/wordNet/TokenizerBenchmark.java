@@ -0,0 +1,90 @@
+package com.articulate.sigma.wordNet;
+
+import com.articulate.sigma.BenchmarkKB;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/** ***************************************************************
+ * Split the sample corpus in test/benchmark/java/resources into
+ * sentences and words and remove the stop words, with a WordNet that
+ * holds only a stop word list.  Throughput is in corpora per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    public static final String CORPUS = "corpus.txt";
+
+    private static final String[] STOPWORDS = {"a", "about", "after", "again", "all", "an", "and",
+            "any", "are", "as", "at", "be", "because", "been", "before", "both", "but", "by", "can",
+            "did", "do", "does", "for", "from", "had", "has", "have", "he", "her", "him", "his",
+            "how", "i", "if", "in", "into", "is", "it", "its", "more", "most", "no", "nor", "not",
+            "of", "on", "once", "only", "or", "other", "out", "over", "same", "she", "so", "some",
+            "such", "than", "that", "the", "their", "them", "then", "there", "these", "they",
+            "this", "those", "through", "to", "too", "under", "until", "up", "very", "was", "we",
+            "were", "what", "when", "where", "which", "while", "who", "why", "will", "with", "you"};
+
+    private String corpus;
+    private Tokenizer sentences = new Tokenizer();
+    private Tokenizer words = new Tokenizer();
+    private StringBuilder sb = new StringBuilder();
+
+    /** ***************************************************************
+     */
+    @Setup
+    public void setup() throws Exception {
+
+        corpus = new String(Files.readAllBytes(BenchmarkKB.resource(CORPUS).toPath()),
+                StandardCharsets.UTF_8).replace('\n', ' ');
+        WordNet wn = new WordNet();
+        wn.stopwords.addAll(Arrays.asList(STOPWORDS));
+        WordNet.wn = wn;
+    }
+
+    /** ***************************************************************
+     * The String API used by WSD and the display methods
+     */
+    @Benchmark
+    public int removeStopWords() {
+
+        int total = 0;
+        for (String sentence : WordNet.splitToArrayListSentence(corpus))
+            total += WordNet.splitToArrayList(WordNet.wn.removeStopWords(sentence)).size();
+        return total;
+    }
+
+    /** ***************************************************************
+     * The same work over offsets with reused Tokenizers
+     */
+    @Benchmark
+    public int tokenize() {
+
+        StopWords stopWords = WordNet.wn.getStopWords();
+        sentences.sentences(corpus);
+        int total = 0;
+        for (int s = 0; s < sentences.size(); s++) {
+            words.words(corpus, sentences.start(s), sentences.end(s));
+            for (int w = 0; w < words.size(); w++)
+                if (!words.isStopWord(w, stopWords))
+                    total++;
+        }
+        return total;
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public int appendWithout() {
+
+        sb.setLength(0);
+        return words.words(corpus).appendWithout(WordNet.wn.getStopWords(), sb).length();
+    }
+}
@@ -0,0 +1,155 @@
+package com.articulate.sigma.wordNet;
+
+import com.articulate.sigma.utils.AVPair;
+
+import java.io.File;
+import java.util.*;
+
+/** ***************************************************************
+ * Measure the heap retained by the WordNet tables as loaded from the
+ * sources, where each table holds its own copy of every synset and
+ * word it refers to, as read back from a WordNetStore lexicon file,
+ * where they are shared, and as opened as a mapped Lexicon, where they
+ * stay in the file.  WordNet itself is not needed: the
+ * tables are filled with generated synsets, words, glosses and
+ * relations in the numbers of WordNet 3.0, scaled by the given
+ * factor (default 1.0).  Run with a fixed heap, e.g.
+ *
+ * java -Xms2g -Xmx2g -cp ... com.articulate.sigma.wordNet.WordNetFootprint 1.0
+ */
+public class WordNetFootprint {
+
+    // synsets of each part of speech and word senses in WordNet 3.0
+    private static final int[] SYNSETS = {82115, 13767, 18156, 3621};
+    private static final int SENSES = 206941;
+    private static final int RELATIONS_PER_SYNSET = 3;
+    private static final char[] POS = {'1', '2', '3', '4'};
+    private static final String[] POS_NAMES = {"NN", "VB", "JJ", "RB"};
+
+    /** ***************************************************************
+     * @return the used heap after letting the collector settle
+     */
+    private static long usedHeap() {
+
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    /** ***************************************************************
+     * A new copy of s, as the parser of the sources makes for each
+     * table that a string is stored in
+     */
+    private static String copy(String s) {
+
+        return new String(s.toCharArray());
+    }
+
+    /** ***************************************************************
+     * Fill the main tables of a new WordNet, copying each string into
+     * each table as a load from the sources does
+     */
+    private static WordNet generate(double scale) {
+
+        WordNet wn = new WordNet();
+        Random r = new Random(42);
+        List<Map<String,HashSet<String>>> synsetHashes = Arrays.asList(wn.nounSynsetHash,
+                wn.verbSynsetHash, wn.adjectiveSynsetHash, wn.adverbSynsetHash);
+        List<Map<String,String>> docHashes = Arrays.asList(wn.nounDocumentationHash,
+                wn.verbDocumentationHash, wn.adjectiveDocumentationHash, wn.adverbDocumentationHash);
+        List<Map<String,String>> sumoHashes = Arrays.asList(wn.nounSUMOHash,
+                wn.verbSUMOHash, wn.adjectiveSUMOHash, wn.adverbSUMOHash);
+        int total = 0;
+        for (int n : SYNSETS)
+            total += (int) (n * scale);
+        int senses = (int) (SENSES * scale);
+        int words = senses * 3 / 4;
+        int sense = 0;
+        for (int p = 0; p < SYNSETS.length; p++) {
+            int n = (int) (SYNSETS[p] * scale);
+            for (int i = 0; i < n; i++) {
+                String synset = String.format("%08d", i * 10 + p);
+                String synset9 = POS[p] + synset;
+                StringBuilder gloss = new StringBuilder();
+                int glossWords = 6 + r.nextInt(12);
+                for (int g = 0; g < glossWords; g++)
+                    gloss.append(g == 0 ? "" : " ").append("gloss").append(r.nextInt(20000));
+                docHashes.get(p).put(copy(synset), gloss.toString());
+                String term = "Term" + r.nextInt(20000);
+                sumoHashes.get(p).put(copy(synset), "&%" + term + "=");
+                wn.SUMOHash.computeIfAbsent(term, k -> new ArrayList<>()).add(copy(synset9));
+                ArrayList<String> synWords = new ArrayList<>();
+                int count = Math.max(1, senses * (i + 1) / total - senses * i / total);
+                for (int w = 0; w < count && sense < senses; w++, sense++) {
+                    String word = "word_" + r.nextInt(words);
+                    synWords.add(copy(word));
+                    synsetHashes.get(p).computeIfAbsent(copy(word), k -> new HashSet<>()).add(copy(synset));
+                    String key = word + "_" + POS_NAMES[p] + "_" + (w + 1);
+                    wn.senseIndex.put(key, copy(synset));
+                    wn.reverseSenseIndex.put(copy(synset9), copy(key));
+                    wn.wordsToSenseKeys.computeIfAbsent(copy(word), k -> new ArrayList<>()).add(copy(key));
+                }
+                wn.synsetsToWords.put(copy(synset9), synWords);
+                ArrayList<AVPair> rels = new ArrayList<>();
+                for (int k = 0; k < RELATIONS_PER_SYNSET && i > 0; k++) {
+                    String target = POS[p] + String.format("%08d", r.nextInt(i) * 10 + p);
+                    rels.add(new AVPair(k == 0 ? "hypernym" : "also see", target));
+                }
+                wn.relations.put(copy(synset9), rels);
+            }
+        }
+        return wn;
+    }
+
+    /** ***************************************************************
+     */
+    public static void main(String[] args) throws Exception {
+
+        double scale = 1.0;
+        if (args != null && args.length > 0)
+            scale = Double.parseDouble(args[0]);
+        long base = usedHeap();
+        WordNet wn = generate(scale);
+        long loaded = usedHeap();
+        File f = File.createTempFile("wnfootprint", ".lex");
+        f.deleteOnExit();
+        WordNetStore.write(wn, f);
+        wn = null;
+        long dropped = usedHeap();
+        long millis = System.currentTimeMillis();
+        WordNet read = WordNetStore.read(f);
+        millis = System.currentTimeMillis() - millis;
+        long afterRead = usedHeap();
+        System.out.println("WordNetFootprint: " + read.synsetsToWords.size() + " synsets, lexicon file " +
+                f.length() / (1 << 20) + " MB");
+        System.out.println("  from sources:   " + (loaded - base) / (1 << 20) + " MB");
+        System.out.println("  from lexicon:   " + (afterRead - dropped) / (1 << 20) + " MB, read in " +
+                millis + " ms");
+        String synset = read.synsetsToWords.keySet().iterator().next();
+        read = null;
+        long beforeOpen = usedHeap();
+        millis = System.currentTimeMillis();
+        WordNetStore.Lexicon lex = WordNetStore.open(f);
+        millis = System.currentTimeMillis() - millis;
+        long nanos = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < 100000; i++)
+            if (lex.getWordsFromSynset(synset) != null)
+                found++;
+        nanos = (System.nanoTime() - nanos) / 100000;
+        long afterOpen = usedHeap();
+        System.out.println("  mapped lexicon: " + (afterOpen - beforeOpen) / (1 << 10) + " KB, opened in " +
+                millis + " ms, " + nanos + " ns a lookup of " + found);
+        f.delete();
+    }
+}
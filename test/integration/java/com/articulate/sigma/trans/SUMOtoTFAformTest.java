@@ -620,7 +620,7 @@ public class SUMOtoTFAformTest extends IntegrationTestBase {
         String s = SUMOtoTFAform.process(f);
         //KBcache.debug = true;
         boolean inc = SUMOtoTFAform.inconsistentVarTypes();
-        System.out.println("SUMOtoTFAformTest.testTypeConflict(): varmap: " + SUMOtoTFAform.varmap);
+        System.out.println("SUMOtoTFAformTest.testTypeConflict(): varmap: " + SUMOtoTFAform.getVarmap());
         if (inc)
             System.out.println("testTypeConflict(): Success!");
         else
@@ -667,7 +667,7 @@ public class SUMOtoTFAformTest extends IntegrationTestBase {
         System.out.println("formula: " + f);
         String result = SUMOtoTFAform.process(f);
         boolean inc = SUMOtoTFAform.inconsistentVarTypes();
-        System.out.println("SUMOtoTFAformTest.testTypeConflict3(): varmap: " + SUMOtoTFAform.varmap);
+        System.out.println("SUMOtoTFAformTest.testTypeConflict3(): varmap: " + SUMOtoTFAform.getVarmap());
         if (inc)
             System.out.println("testTypeConflict3(): Success!");
         else
@@ -763,12 +763,12 @@ public class SUMOtoTFAformTest extends IntegrationTestBase {
                 "(instance intelligenceQuotient Predicate) (intelligenceQuotient__2Re ?ROW1 ?ROW2)) " +
                 "(instance (ListOrderFn__2InFn (ListFn__2Fn__2ReFn ?ROW1 ?ROW2) ?NUMBER) ?CLASS))";
         Formula f = new Formula(input);
-        SUMOtoTFAform.varmap = SUMOtoTFAform.fp.findAllTypeRestrictions(f, kb);
+        SUMOtoTFAform.setVarmap(SUMOtoTFAform.fp.findAllTypeRestrictions(f, kb));
         System.out.println("testTypeConflict4(): testing missing sorts");
         stfa.sorts = stfa.missingSorts(f);
         System.out.println("testTypeConflict4(): sorts: " + stfa.sorts);
         if (stfa.sorts != null && stfa.sorts.size() > 0)
-            f.tffSorts.addAll(stfa.sorts);
+            f.getTffSorts().addAll(stfa.sorts);
         boolean actual = SUMOtoTFAform.typeConflict(f);
         if (actual)
             System.out.println("testTypeConflict4(): Success!");
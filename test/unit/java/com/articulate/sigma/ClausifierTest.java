@@ -0,0 +1,98 @@
+package com.articulate.sigma;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** *****************************************************************
+ * Clausifier does not need a KB, so this test does not load one.
+ */
+public class ClausifierTest {
+
+    private static final String DISTRIBUTE =
+            "(or (and (a1 ?X) (a2 ?X) (a3 ?X)) (and (b1 ?Y) (b2 ?Y) (b3 ?Y)))";
+
+    /** *****************************************************************
+     */
+    @After
+    public void resetLimit() {
+
+        Clausifier.maxDistributedClauses = 1000;
+    }
+
+    /** *****************************************************************
+     */
+    private static String clausify(String s) {
+
+        return Clausifier.normalizeVariables(Clausifier.clausify(new Formula(s)).getFormula());
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testImplication() {
+
+        assertEquals("(or (not (p ?VAR1)) (not (q ?VAR1)) (r ?VAR1))",
+                clausify("(=> (and (p ?X) (q ?X)) (r ?X))"));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testDistribution() {
+
+        String expected = "(and (or (b3 ?VAR1) (a3 ?VAR2)) (or (b2 ?VAR3) (a3 ?VAR4)) " +
+                "(or (b1 ?VAR5) (a3 ?VAR6)) (or (b3 ?VAR7) (a2 ?VAR8)) (or (b2 ?VAR9) (a2 ?VAR10)) " +
+                "(or (b1 ?VAR11) (a2 ?VAR12)) (or (b3 ?VAR13) (a1 ?VAR14)) (or (b2 ?VAR15) (a1 ?VAR16)) " +
+                "(or (b1 ?VAR17) (a1 ?VAR18)))";
+        assertEquals(expected, clausify(DISTRIBUTE));
+    }
+
+    /** *****************************************************************
+     * Above the limit one conjunction is replaced by a definitional
+     * literal, giving 3 + 3 clauses instead of 3 * 3
+     */
+    @Test
+    public void testDefinitionalFallback() {
+
+        Clausifier.maxDistributedClauses = 4;
+        Formula result = Clausifier.clausify(new Formula(DISTRIBUTE));
+        assertTrue(result.getFormula().contains(Clausifier.DEF_PREF));
+        ArrayList<Formula> clauses = Clausifier.separateConjunctions(result);
+        assertEquals(6, clauses.size());
+        for (Formula clause : clauses)
+            assertEquals(2, clause.listLength() - 1);
+    }
+
+    /** *****************************************************************
+     * The definitional predicates are numbered per formula, so the same
+     * formula gets the same clauses each time, and a different formula
+     * gets predicates of its own
+     */
+    @Test
+    public void testDefinitionNames() {
+
+        Clausifier.maxDistributedClauses = 4;
+        String first = clausify(DISTRIBUTE);
+        assertTrue(first.contains("_1 "));
+        assertFalse(first.contains("_2 "));
+        assertEquals(first, clausify(DISTRIBUTE));
+        String other = clausify(DISTRIBUTE.replace("b3", "c3"));
+        String pred = first.substring(first.indexOf(Clausifier.DEF_PREF));
+        pred = pred.substring(0, pred.indexOf(' '));
+        assertFalse(other.contains(pred));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testNoFallbackBelowLimit() {
+
+        assertFalse(clausify(DISTRIBUTE).contains(Clausifier.DEF_PREF));
+    }
+}
@@ -0,0 +1,148 @@
+package com.articulate.sigma;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * The term pages of DocGen.generateHTMLPages() on a small KB with no
+ * KB files, rendered on one and on several threads, and rendered
+ * again after nothing or one formula has changed
+ */
+public class DocGenPagesTest {
+
+    private KB kb = null;
+    private int savedThreads = 0;
+    private ArrayList<File> dirs = new ArrayList<>();
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        savedThreads = DocGen.threads;
+        kb = new KB("DocGenPagesTestKB");
+        UnitTestKB.tell(kb, "(instance Fido Dog)");
+        UnitTestKB.tell(kb, "(subclass Dog Canine)");
+        UnitTestKB.tell(kb, "(subclass Canine Animal)");
+        UnitTestKB.tell(kb, "(subclass Cat Animal)");
+        UnitTestKB.tell(kb, "(instance Tom Cat)");
+        UnitTestKB.tell(kb, "(documentation Dog EnglishLanguage \"A domesticated canine.\")");
+        UnitTestKB.tell(kb, "(documentation Cat EnglishLanguage \"A small feline.\")");
+        UnitTestKB.tell(kb, "(=> (instance ?X Dog) (attribute ?X Loyal))");
+        UnitTestKB.buildCaches(kb);
+    }
+
+    /** ***************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        DocGen.threads = savedThreads;
+        for (File dir : dirs) {
+            File[] files = dir.listFiles();
+            if (files != null)
+                for (File f : files)
+                    f.delete();
+            dir.delete();
+        }
+    }
+
+    /** ***************************************************************
+     * @return the number of pages written into dir by a new DocGen
+     */
+    private int generate(File dir, int threads) {
+
+        DocGen.threads = threads;
+        DocGen gen = new DocGen();
+        gen.setKB(kb);
+        return gen.generateHTMLPages(kb, gen.getAlphaList(kb), "EnglishLanguage", "", dir.getPath());
+    }
+
+    /** ***************************************************************
+     * @return the number of terms that get a page, so that a run that
+     * fails to render some pages writes fewer than this
+     */
+    private int displayable() {
+
+        DocGen gen = new DocGen();
+        gen.setKB(kb);
+        int result = 0;
+        for (String term : kb.getTerms())
+            if (gen.isLegalForDisplay(term))
+                result++;
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the contents of the files in dir, by name
+     */
+    private static TreeMap<String,String> contents(File dir) throws Exception {
+
+        TreeMap<String,String> result = new TreeMap<>();
+        for (File f : dir.listFiles())
+            result.put(f.getName(), new String(Files.readAllBytes(f.toPath()), "UTF-8"));
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    private File newDir() throws Exception {
+
+        File dir = Files.createTempDirectory("docgen").toFile();
+        dirs.add(dir);
+        return dir;
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testThreadsGiveSamePages() throws Exception {
+
+        File one = newDir();
+        File four = newDir();
+        int written = generate(one, 1);
+        assertTrue(written > 5);
+        assertEquals(displayable(), written);
+        assertEquals(written, generate(four, 4));
+        // the page hashes file and one page per term
+        assertEquals(written + 1, one.listFiles().length);
+        TreeMap<String,String> pages = contents(one);
+        assertTrue(pages.containsKey("Dog.html"));
+        assertTrue(pages.get("Dog.html").contains("A domesticated canine."));
+        // the instances section, which a failure inside it would leave out
+        assertTrue(pages.get("Dog.html").contains("Fido.html"));
+        assertEquals(pages, contents(four));
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testUnchangedPagesNotRendered() throws Exception {
+
+        File dir = newDir();
+        int written = generate(dir, 4);
+        assertEquals(displayable(), written);
+        long dogModified = new File(dir, "Dog.html").lastModified();
+        assertEquals(0, generate(dir, 4));
+        assertEquals(0, generate(dir, 1));
+        UnitTestKB.tell(kb, "(documentation Tom EnglishLanguage \"A grey cat.\")");
+        int rewritten = generate(dir, 4);
+        assertTrue(rewritten > 0);
+        assertTrue(rewritten < written);
+        assertTrue(contents(dir).get("Tom.html").contains("A grey cat."));
+        assertEquals(dogModified, new File(dir, "Dog.html").lastModified());
+        File fresh = newDir();
+        generate(fresh, 1);
+        assertEquals(contents(fresh), contents(dir));
+        new File(dir, "Cat.html").delete();
+        assertEquals(1, generate(dir, 4));
+        assertTrue(new File(dir, "Cat.html").exists());
+    }
+}
@@ -0,0 +1,81 @@
+package com.articulate.sigma;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * Pages of FormulaPostings against sorting and filtering the whole
+ * result of KB.ask(), on a small KB with no KB files
+ */
+public class FormulaPostingsTest {
+
+    public static KB kb = new KB("PostingsTestKB");
+
+    /** ***************************************************************
+     * Every third statement is from a cache file
+     */
+    @BeforeClass
+    public static void setup() {
+
+        KIF kif = new KIF();
+        for (int i = 0; i < 200; i++)
+            kif.parseStatement("(instance Thing" + ((i * 37) % 200) + " Entity)");
+        kb.merge(kif, "");
+        for (Formula f : kb.formulaMap.values()) {
+            int n = Integer.parseInt(f.getStringArgument(1).substring(5));
+            f.sourceFile = (n % 3 == 0) ? "Merge_Cache.kif" : "Merge.kif";
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private static List<Formula> oldPage(int start, int limit, boolean showCached) {
+
+        ArrayList<Formula> forms = kb.ask("arg", 2, "Entity");
+        if (!showCached)
+            forms = TaxoModel.removeCached(forms);
+        forms.sort(Formula::compareTo);
+        int end = (limit == 0) ? forms.size() : Math.min(forms.size(), start + limit);
+        if (start >= end)
+            return new ArrayList<>();
+        return forms.subList(start, end);
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testPages() {
+
+        FormulaPostings p = kb.getPostings("arg", 2, "Entity");
+        assertEquals(200, p.size(true));
+        assertEquals(133, p.size(false));
+        for (boolean showCached : new boolean[] {true, false})
+            for (int start = 0; start < 210; start += 7)
+                for (int limit : new int[] {0, 1, 25, 50, 64, 65})
+                    assertEquals(start + " " + limit + " " + showCached, oldPage(start, limit, showCached),
+                            kb.askPage("arg", 2, "Entity", start, limit, showCached));
+        assertEquals(0, kb.getPostings("arg", 2, "Nothing").size(true));
+        assertTrue(kb.askPage("arg", 1, "Nothing", 0, 50, false).isEmpty());
+    }
+
+    /** ***************************************************************
+     * Adding a formula for the key builds the postings again
+     */
+    @Test
+    public void testRebuild() {
+
+        FormulaPostings p = kb.getPostings("arg", 1, "Thing5");
+        assertSame(p, kb.getPostings("arg", 1, "Thing5"));
+        KIF kif = new KIF();
+        kif.parseStatement("(subclass Thing5 Entity)");
+        kb.merge(kif, "Other.kif");
+        FormulaPostings p2 = kb.getPostings("arg", 1, "Thing5");
+        assertNotSame(p, p2);
+        assertEquals(2, p2.size(false));
+        assertEquals("(instance Thing5 Entity)", kb.askPage("arg", 1, "Thing5", 0, 1, false).get(0).getFormula());
+    }
+}
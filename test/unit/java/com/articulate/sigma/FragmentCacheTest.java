@@ -0,0 +1,122 @@
+package com.articulate.sigma;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * FragmentCache on a small KB with no KB files
+ */
+public class FragmentCacheTest {
+
+    private KB kb = null;
+    private FragmentCache cache = FragmentCache.getCache();
+    private int renders = 0;
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        cache.clear();
+        cache.setMaxChars(1 << 20);
+        kb = new KB("FragmentTestKB");
+        UnitTestKB.tell(kb, "(instance Fido Dog)", "");
+    }
+
+    /** ***************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        cache.clear();
+        cache.setMaxChars(-1);
+    }
+
+    /** ***************************************************************
+     */
+    private String render(String html) {
+
+        renders++;
+        return html;
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testVersion() {
+
+        String key = FragmentCache.key(kb, "section", "Fido", 0);
+        assertEquals("<p>Fido</p>", cache.get(kb, key, () -> render("<p>Fido</p>")));
+        assertEquals("<p>Fido</p>", cache.get(kb, key, () -> render("<p>other</p>")));
+        assertEquals(1, renders);
+        assertEquals(1, cache.hits);
+        long version = kb.getVersion();
+        UnitTestKB.tell(kb, "(instance Rex Dog)", "");
+        assertNotEquals(version, kb.getVersion());
+        String key2 = FragmentCache.key(kb, "section", "Fido", 0);
+        assertNotEquals(key, key2);
+        assertEquals("<p>Fido Rex</p>", cache.get(kb, key2, () -> render("<p>Fido Rex</p>")));
+        assertEquals(1, cache.size());
+        // a fragment rendered from the old version is not stored
+        cache.put(kb, key, "<p>stale</p>");
+        assertEquals(1, cache.size());
+        assertNotEquals(new KB("OtherKB").getVersion(), kb.getVersion());
+    }
+
+    /** ***************************************************************
+     * The least recently used fragments go first
+     */
+    @Test
+    public void testEviction() {
+
+        char[] c = new char[100];
+        Arrays.fill(c, 'x');
+        String html = new String(c);
+        String first = FragmentCache.key(kb, 0);
+        cache.setMaxChars(9 * (first.length() + html.length()));
+        for (int i = 0; i < 9; i++)
+            cache.put(kb, FragmentCache.key(kb, i), html);
+        assertEquals(9, cache.size());
+        cache.get(kb, first, () -> render(""));
+        cache.put(kb, FragmentCache.key(kb, 9), html);
+        assertEquals(9, cache.size());
+        assertEquals(html, cache.get(kb, first, () -> render("")));
+        assertEquals(0, renders);
+        assertEquals("", cache.get(kb, FragmentCache.key(kb, 1), () -> render("")));
+        assertEquals(1, renders);
+        cache.setMaxChars(0);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.chars());
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testBrowseCounts() throws Exception {
+
+        File dir = Files.createTempDirectory("fragments").toFile();
+        kb.kbDir = dir.getPath();
+        for (int i = 0; i < 3; i++)
+            cache.recordBrowse(kb, "Dog");
+        cache.recordBrowse(kb, "Fido");
+        cache.recordBrowse(kb, "Animal");
+        assertEquals(Arrays.asList("Dog", "Animal"), cache.topTerms(kb.name, 2));
+        cache.saveCounts(kb);
+        assertTrue(FragmentCache.countsFile(kb).exists());
+        assertFalse(new File(FragmentCache.countsFile(kb).getPath() + ".tmp").exists());
+        KB other = new KB("FragmentTestKB");
+        other.kbDir = dir.getPath();
+        cache.readCounts(other);
+        assertEquals(Arrays.asList("Dog", "Animal", "Fido"), cache.topTerms(kb.name, 5));
+        assertTrue(cache.topTerms("NoKB", 5).isEmpty());
+        FragmentCache.countsFile(kb).delete();
+        dir.delete();
+    }
+}
@@ -0,0 +1,87 @@
+package com.articulate.sigma;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * Hierarchy and the graphs built from it on a small KB with no KB
+ * files
+ */
+public class HierarchyTest {
+
+    private KB kb = null;
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        kb = new KB("HierarchyTestKB");
+        UnitTestKB.tell(kb, "(subclass Animal Organism)");
+        UnitTestKB.tell(kb, "(subclass Dog Canine)");
+        UnitTestKB.tell(kb, "(subclass Canine Animal)");
+        UnitTestKB.tell(kb, "(subclass Dog Pet)");
+        UnitTestKB.tell(kb, "(subclass Cat Animal)");
+        UnitTestKB.tell(kb, "(subclass Dog Animal)", "SUMO_Cache.kif");
+        UnitTestKB.tell(kb, "(subclass Dog Dog)");
+        UnitTestKB.tell(kb, "(instance Fido Dog)");
+        UnitTestKB.buildCaches(kb);
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testAdjacency() {
+
+        Hierarchy h = kb.getHierarchy("subclass");
+        assertSame(h, kb.getHierarchy("subclass"));
+        assertEquals(Arrays.asList("Canine", "Pet"), h.parents("Dog"));
+        assertEquals(Arrays.asList("Canine", "Cat"), h.children("Animal"));
+        assertEquals(0, h.childCount("Fido"));
+        assertFalse(h.hasParents("Organism"));
+        assertEquals(-1, h.id("Fido"));
+        assertEquals(Arrays.asList("Fido"), kb.getHierarchy("instance").children("Dog"));
+        UnitTestKB.tell(kb, "(subclass Wolf Canine)");
+        Hierarchy h2 = kb.getHierarchy("subclass");
+        assertNotSame(h, h2);
+        assertEquals(Arrays.asList("Dog", "Wolf"), h2.children("Canine"));
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testEdges() {
+
+        Hierarchy h = kb.getHierarchy("subclass");
+        ArrayList<String> up = new ArrayList<>();
+        for (int[] e : h.edges("Dog", true, 2, 0))
+            up.add(h.name(e[0]) + ">" + h.name(e[1]));
+        assertEquals(Arrays.asList("Dog>Canine", "Dog>Pet", "Canine>Animal"), up);
+        assertEquals(2, h.edges("Dog", true, 5, 2).size());
+        ArrayList<String> down = new ArrayList<>();
+        for (int[] e : h.edges("Organism", false, 5, 0))
+            down.add(h.name(e[0]) + ">" + h.name(e[1]));
+        assertEquals(Arrays.asList("Animal>Organism", "Canine>Animal", "Cat>Animal", "Dog>Canine"), down);
+        assertTrue(h.edges("Dog", true, 0, 0).isEmpty());
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testGraph() {
+
+        Graph g = new Graph();
+        g.columnList.clear();
+        ArrayList<String> terms = new ArrayList<>();
+        for (String row : g.createGraph(kb, "Canine", "subclass", 1, 2, 100, true, "EnglishLanguage")) {
+            int end = row.indexOf("</a>");
+            if (end > 0)
+                terms.add(row.substring(row.lastIndexOf('>', end) + 1, end));
+        }
+        assertEquals(Arrays.asList("Animal", "Canine", "Dog", "Fido"), terms);
+    }
+}
@@ -0,0 +1,195 @@
+package com.articulate.sigma;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * KBSnapshot and the KB reads made through it, on a small KB with no
+ * KB files
+ */
+public class KBSnapshotTest {
+
+    private KB kb = null;
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        kb = new KB("SnapshotTestKB");
+        UnitTestKB.tell(kb, "(instance Fido Dog)");
+        UnitTestKB.tell(kb, "(subclass Dog Canine)");
+        UnitTestKB.tell(kb, "(termFormat EnglishLanguage Dog \"dog\")");
+    }
+
+    /** ***************************************************************
+     * A snapshot keeps the state it was built from and shares the
+     * lists whose keys did not change
+     */
+    @Test
+    public void testIsolation() {
+
+        KBSnapshot s1 = kb.snapshot();
+        assertSame(s1, kb.snapshot());
+        List<String> dogs = s1.keyed("arg-2-Dog");
+        UnitTestKB.tell(kb, "(instance Rex Dog)");
+        UnitTestKB.tell(kb, "(subclass Wolf Canine)");
+        KBSnapshot s2 = kb.snapshot();
+        assertNotSame(s1, s2);
+        assertEquals(2, s1.keyed("arg-2-Dog").size());
+        assertFalse(s1.terms.contains("Rex"));
+        assertEquals(3, s1.formulaCount());
+        assertEquals(3, s2.keyed("arg-2-Dog").size());
+        assertTrue(s2.terms.contains("Wolf"));
+        assertSame(s1.keyed("arg-1-Fido"), s2.keyed("arg-1-Fido"));
+        assertNotSame(dogs, s2.keyed("arg-2-Dog"));
+        assertEquals(3, kb.ask("arg", 2, "Dog").size());
+        assertEquals(5, kb.getCountAxioms());
+    }
+
+    /** ***************************************************************
+     * The relations that KBcache.extendInstance() adds, as the TFF
+     * translation does, are in the next snapshot
+     */
+    @Test
+    public void testExtendedInstance() {
+
+        UnitTestKB.tell(kb, "(instance AdditionFn BinaryFunction)");
+        UnitTestKB.tell(kb, "(domain AdditionFn 1 Quantity)");
+        UnitTestKB.tell(kb, "(domain AdditionFn 2 Quantity)");
+        UnitTestKB.buildCaches(kb);
+        KBSnapshot s1 = kb.snapshot();
+        kb.kbCache.extendInstance("AdditionFn", "0In1In2InFn");
+        KBSnapshot s2 = kb.snapshot();
+        assertNotSame(s1, s2);
+        assertFalse(s1.terms.contains("AdditionFn__0In1In2InFn"));
+        assertTrue(s2.terms.contains("AdditionFn__0In1In2InFn"));
+        assertTrue(kb.getTerms().contains("AdditionFn__0In1In2InFn"));
+    }
+
+    /** ***************************************************************
+     * Readers never see a torn KB while another thread merges
+     */
+    @Test
+    public void testConcurrentReads() throws Exception {
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicBoolean done = new AtomicBoolean(false);
+        try {
+            ArrayList<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(pool.submit(() -> {
+                    int reads = 0;
+                    while (!done.get() || reads == 0) {
+                        KBSnapshot s = kb.snapshot();
+                        List<String> list = s.keyed("arg-2-Dog");
+                        for (String f : list)
+                            assertNotNull(f, s.formula(f));
+                        int terms = 0;
+                        for (String t : s.terms)
+                            terms++;
+                        assertEquals(s.terms.size(), terms);
+                        assertFalse(kb.getREMatch("Dog.*", false).isEmpty());
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 0; i < 300; i++)
+                    UnitTestKB.tell(kb, "(instance Dog" + i + " Dog)");
+                done.set(true);
+            });
+            writer.get();
+            for (Future<Integer> f : readers)
+                assertTrue(f.get() > 0);
+        }
+        finally {
+            done.set(true);
+            pool.shutdown();
+        }
+        assertEquals(302, kb.ask("arg", 2, "Dog").size());
+    }
+
+    /** ***************************************************************
+     * A format map that has been returned is not changed when the maps
+     * are cleared
+     */
+    @Test
+    public void testFormatMaps() {
+
+        HashMap<String,String> formats = kb.getTermFormatMap("EnglishLanguage");
+        assertEquals("dog", formats.get("Dog"));
+        kb.clearFormatMaps();
+        assertEquals("dog", formats.get("Dog"));
+        UnitTestKB.tell(kb, "(termFormat EnglishLanguage Fido \"Fido\")");
+        assertEquals("Fido", kb.getTermFormatMap("EnglishLanguage").get("Fido"));
+        assertNull(formats.get("Fido"));
+    }
+
+    /** ***************************************************************
+     * A tell followed by a read on a KB about the size of SUMO with its
+     * cache costs far less than copying the KB, and shares the layers
+     * of the last snapshot
+     */
+    @Test
+    public void testTellThenReadCost() {
+
+        // the formulas are indexed here as KIF.parse() would, which
+        // takes minutes for this many
+        KIF kif = new KIF();
+        kif.filename = "Big.kif";
+        for (int i = 0; i < 200000; i++) {
+            String term = "Term" + i;
+            String cls = "Class" + (i % 1000);
+            String s = "(instance " + term + " " + cls + ")";
+            kif.formulaMap.put(s, new Formula(s));
+            kif.formulas.computeIfAbsent("arg-0-instance", k -> new ArrayList<>()).add(s);
+            kif.formulas.computeIfAbsent("arg-1-" + term, k -> new ArrayList<>()).add(s);
+            kif.formulas.computeIfAbsent("arg-2-" + cls, k -> new ArrayList<>()).add(s);
+            kif.terms.add(term);
+            kif.terms.add(cls);
+        }
+        kif.terms.add("instance");
+        kb.addConstituentInfo(kif);
+        int count = kb.snapshot().formulaCount();
+        assertEquals(200003, count);
+
+        long full = System.nanoTime();
+        kb.changed();
+        kb.snapshot();
+        full = System.nanoTime() - full;
+
+        int tells = 200;
+        long incremental = System.nanoTime();
+        for (int i = 0; i < tells; i++) {
+            UnitTestKB.tell(kb, "(instance NewTerm" + i + " Class7)");
+            KBSnapshot s = kb.snapshot();
+            assertEquals(count + i + 1, s.formulaCount());
+            assertTrue(s.terms.contains("NewTerm" + i));
+            assertEquals(201 + i, s.keyed("arg-2-Class7").size());
+        }
+        incremental = (System.nanoTime() - incremental) / tells;
+        System.out.println("KBSnapshotTest.testTellThenReadCost(): full snapshot ms: " + full / 1000000.0 +
+                " tell and read ms: " + incremental / 1000000.0);
+        KBSnapshot s = kb.snapshot();
+        assertTrue(s.depth() <= 20);
+        assertEquals(count + tells, s.formulas().size());
+        assertNotNull(s.formula("(instance Term5 Class5)"));
+        assertNotNull(s.formula("(instance NewTerm7 Class7)"));
+        assertEquals(kb.getTerms().size(), s.terms.size());
+        assertEquals(new ArrayList<>(kb.getTerms()), new ArrayList<>(s.terms));
+        assertTrue(incremental * 10 < full);
+        KIF again = new KIF();
+        again.parseStatement("(instance NewTerm7 Class7)");
+        assertEquals(1, kb.merge(again, "Merge.kif").size());
+        assertEquals(count + tells, kb.snapshot().formulaCount());
+        assertEquals(400, kb.snapshot().keyed("arg-2-Class7").size());
+    }
+}
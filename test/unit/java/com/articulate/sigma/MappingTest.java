@@ -0,0 +1,134 @@
+package com.articulate.sigma;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * Mapping.mapOntologies() on small KBs with no KB files, against
+ * scoring every pair of terms
+ */
+public class MappingTest {
+
+    private static final String[] WORDS = {"Dog", "Cat", "Animal", "Canine", "Feline", "House",
+            "Home", "Building", "Car", "Auto", "Vehicle", "Motor", "Organism", "Plant", "Tree"};
+
+    /** ***************************************************************
+     * A KB of terms made from WORDS, some with termFormat labels
+     */
+    private static KB makeKB(String name, Random r, int size) {
+
+        KB kb = new KB(name);
+        for (int i = 0; i < size; i++) {
+            StringBuilder term = new StringBuilder();
+            int words = 1 + r.nextInt(3);
+            for (int w = 0; w < words; w++) {
+                String word = WORDS[r.nextInt(WORDS.length)];
+                if (r.nextInt(4) == 0)
+                    word = word.substring(0, 1 + r.nextInt(word.length()));
+                term.append(word);
+            }
+            if (r.nextInt(5) == 0)
+                term.append(r.nextInt(10));
+            KIF kif = new KIF();
+            kif.parseStatement("(instance " + term + " Entity)");
+            if (r.nextInt(3) == 0) {
+                String label = WORDS[r.nextInt(WORDS.length)].toLowerCase() + " " +
+                        WORDS[r.nextInt(WORDS.length)].toLowerCase();
+                kif.parseStatement("(termFormat EnglishLanguage " + term + " \"" + label + "\")");
+            }
+            kb.merge(kif, "Merge.kif");
+        }
+        return kb;
+    }
+
+    /** ***************************************************************
+     * Score every valid pair of terms
+     */
+    private static TreeMap<String,TreeMap<Integer,String>> allPairs(KB kb1, KB kb2, int threshold, String method) {
+
+        TreeMap<String,TreeMap<Integer,String>> result = new TreeMap<>();
+        for (String term1 : kb1.getTerms()) {
+            if (!Mapping.isValidTerm(term1))
+                continue;
+            String normTerm1 = Mapping.normalize(term1);
+            String normLabel1 = Mapping.normalize(Mapping.getTermFormat(kb1, term1));
+            TreeMap<Integer,String> tm = new TreeMap<>();
+            for (String term2 : kb2.getTerms()) {
+                if (!Mapping.isValidTerm(term2))
+                    continue;
+                String normTerm2 = Mapping.normalize(term2);
+                String normLabel2 = Mapping.normalize(Mapping.getTermFormat(kb2, term2));
+                int score = Mapping.stringMatch(normTerm1, normTerm2, method);
+                if (normLabel1 != null && Mapping.isValidTerm(normLabel1))
+                    score = Math.min(score, Mapping.stringMatch(normLabel1, normTerm2, method));
+                if (normLabel2 != null && Mapping.isValidTerm(normLabel2))
+                    score = Math.min(score, Mapping.stringMatch(normTerm1, normLabel2, method));
+                if (normLabel1 != null && Mapping.isValidTerm(normLabel1) &&
+                        normLabel2 != null && Mapping.isValidTerm(normLabel2))
+                    score = Math.min(score, Mapping.stringMatch(normLabel1, normLabel2, method));
+                if (score > 0 && score < threshold)
+                    tm.put(score, term2);
+            }
+            if (!tm.isEmpty())
+                result.put(term1, tm);
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testSameAsAllPairs() {
+
+        Random r = new Random(7);
+        KB kb1 = makeKB("MappingTestKB1", r, 120);
+        KB kb2 = makeKB("MappingTestKB2", r, 150);
+        int oldThreads = Mapping.threads;
+        try {
+            for (int threads : new int[] {1, 4}) {
+                Mapping.threads = threads;
+                for (String method : new String[] {"Substring", "Levenshtein", "JaroWinkler"}) {
+                    for (int threshold : new int[] {3, 10, 25}) {
+                        TreeMap<String,TreeMap<Integer,String>> expected = allPairs(kb1, kb2, threshold, method);
+                        assertFalse(method + " " + threshold, expected.isEmpty());
+                        assertEquals(method + " " + threshold, expected,
+                                Mapping.mapOntologies(kb1, kb2, threshold, method));
+                    }
+                }
+            }
+        }
+        finally {
+            Mapping.threads = oldThreads;
+        }
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testBoundedLevenshtein() {
+
+        Random r = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            String s = randomString(r);
+            String t = randomString(r);
+            int max = r.nextInt(8);
+            int distance = Mapping.getLevenshteinDistance(s, t);
+            assertEquals(s + " " + t + " " + max, Math.min(distance, max + 1),
+                    Mapping.getLevenshteinDistance(s, t, max));
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private static String randomString(Random r) {
+
+        StringBuilder sb = new StringBuilder();
+        int len = 1 + r.nextInt(12);
+        for (int i = 0; i < len; i++)
+            sb.append((char) ('a' + r.nextInt(4)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.articulate.sigma;
+
+import com.articulate.sigma.utils.PythonAPI;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * The batch methods of PythonAPI on a small KB with no KB files
+ */
+public class PythonAPITest {
+
+    private KB kb = null;
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        kb = UnitTestKB.build("PythonAPITestKB",
+                "(subclass Dog Canine)",
+                "(subclass Wolf Canine)",
+                "(subclass Canine Animal)",
+                "(instance Fido Dog)");
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testFormulaBatch() {
+
+        PythonAPI api = new PythonAPI(kb);
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            terms.add((i % 2 == 0) ? "Canine" : "Nothing" + i);
+        JSONObject result = (JSONObject) JSONValue.parse(api.formulaBatch("arg", 2, terms));
+        JSONArray in = (JSONArray) result.get("input");
+        JSONArray out = (JSONArray) result.get("result");
+        JSONArray err = (JSONArray) result.get("error");
+        assertEquals(terms, in);
+        assertEquals(20, out.size());
+        assertEquals(20, err.size());
+        assertEquals(Arrays.asList("(subclass Dog Canine)", "(subclass Wolf Canine)"), out.get(0));
+        assertEquals(Collections.emptyList(), out.get(1));
+        assertNull(err.get(0));
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testAllSubBatch() {
+
+        HashMap<String,HashSet<String>> children = new HashMap<>();
+        children.put("Animal", new HashSet<>(Arrays.asList("Wolf", "Dog", "Canine")));
+        kb.kbCache.children.put("subclass", children);
+        PythonAPI api = new PythonAPI(kb);
+        JSONObject result = (JSONObject) JSONValue.parse(api.getAllSubBatch(Arrays.asList("Animal", "Fido"), "subclass"));
+        JSONArray out = (JSONArray) result.get("result");
+        assertEquals(Arrays.asList("Canine", "Dog", "Wolf"), out.get(0));
+        assertEquals(Collections.emptyList(), out.get(1));
+        result = (JSONObject) JSONValue.parse(api.getAllSubBatch(Collections.emptyList(), "subclass"));
+        assertTrue(((JSONArray) result.get("input")).isEmpty());
+    }
+}
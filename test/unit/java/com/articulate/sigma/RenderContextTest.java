@@ -0,0 +1,91 @@
+package com.articulate.sigma;
+
+import com.articulate.sigma.nlg.FormatTemplates;
+import com.articulate.sigma.nlg.NLGUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * RenderContext on a small KB with no KB files
+ */
+public class RenderContextTest {
+
+    private HashMap<String,HashMap<String,String>> saved = null;
+    private KB kb = null;
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        saved = NLGUtils.getKeywordMap();
+        HashMap<String,HashMap<String,String>> keywords = new HashMap<>();
+        for (String w : new String[] {"not", "and"}) {
+            HashMap<String,String> m = new HashMap<>();
+            m.put("EnglishLanguage", w);
+            keywords.put(w, m);
+        }
+        NLGUtils.setKeywordMap(keywords);
+        kb = UnitTestKB.build("RenderTestKB",
+                "(instance Fido Dog)",
+                "(format EnglishLanguage instance \"%1 is %n an &%instance of %2\")",
+                "(termFormat EnglishLanguage Dog \"dog\")");
+    }
+
+    /** ***************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        NLGUtils.setKeywordMap(saved);
+        FormatTemplates.clear();
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testDefaults() {
+
+        RenderContext ctx = new RenderContext(null, null, "");
+        assertEquals("", ctx.kbHref);
+        assertEquals("EnglishLanguage", ctx.language);
+        assertEquals("SUO-KIF", ctx.flang);
+        ctx = RenderContext.forPage("Browse.jsp", "SUMO", null, "TPTP");
+        assertTrue(ctx.kbHref.endsWith("/sigma/Browse.jsp?lang=EnglishLanguage&flang=TPTP&kb=SUMO"));
+        assertEquals("TPTP", ctx.flang);
+    }
+
+    /** ***************************************************************
+     * Each context gets the hyperlinks and words of its own paraphrase,
+     * even when rendered at the same time as others
+     */
+    @Test
+    public void testParaphrase() throws Exception {
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            ArrayList<Future<String>> results = new ArrayList<>();
+            ArrayList<RenderContext> contexts = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                RenderContext ctx = new RenderContext("page" + i + "?kb=RenderTestKB", null, null);
+                contexts.add(ctx);
+                results.add(pool.submit(() -> NLGUtils.htmlParaphrase(ctx, "(instance ?X Dog)", kb)));
+            }
+            for (int i = 0; i < 16; i++) {
+                String html = results.get(i).get();
+                assertTrue(html, html.contains("page" + i + "?kb=RenderTestKB&term=Dog"));
+                assertFalse(html, html.contains("page" + ((i + 1) % 16) + "?"));
+                assertFalse(contexts.get(i).outputMap.isEmpty());
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.articulate.sigma;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * TermIndex and the semantic network neighbors found with it on a
+ * small KB with no KB files
+ */
+public class TermIndexTest {
+
+    private KB kb = null;
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        kb = new KB("TermIndexTestKB");
+        UnitTestKB.tell(kb, "(instance Fido Dog)");
+        UnitTestKB.tell(kb, "(subclass Dog Canine)");
+        UnitTestKB.tell(kb, "(subclass Canine Animal)");
+        UnitTestKB.tell(kb, "(instance Rex Dog)", "SUMO_Cache.kif");
+        UnitTestKB.tell(kb, "(=> (instance ?X Dog) (attribute ?X Loyal))");
+        UnitTestKB.tell(kb, "(part (HeadFn Fido) Fido)");
+        UnitTestKB.tell(kb, "(names \"Fido\" Fido)");
+        UnitTestKB.buildCaches(kb);
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testIndex() {
+
+        TermIndex index = kb.getTermIndex();
+        assertSame(index, kb.getTermIndex());
+        HashSet<String> dog = new HashSet<>();
+        for (Formula f : index.formulas("Dog"))
+            dog.add(f.getFormula());
+        assertTrue(dog.contains("(instance Fido Dog)"));
+        assertTrue(dog.contains("(=> (instance ?X Dog) (attribute ?X Loyal))"));
+        assertTrue(dog.contains("(instance Rex Dog)"));
+        assertFalse(dog.contains("(subclass Canine Animal)"));
+        assertEquals(1, index.ids("HeadFn").length);
+        assertEquals(1, index.ids("\"Fido\"").length);
+        UnitTestKB.tell(kb, "(subclass Wolf Canine)");
+        assertNotSame(index, kb.getTermIndex());
+        assertEquals(1, kb.getTermIndex().ids("Wolf").length);
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testNeighbors() throws Exception {
+
+        KButilities kbu = new KButilities();
+        ArrayList<String> arcs = new ArrayList<>();
+        for (KButilities.GraphArc ga : kbu.generateSemNetNeighbors(kb, false, false, false, "Fido", 1))
+            arcs.add(ga.source + " " + ga.rel + " " + ga.target);
+        assertEquals(Arrays.asList("Dog subclass Canine", "Fido instance Dog"), arcs);
+        Set<KButilities.GraphArc> linked = kbu.generateSemNetNeighbors(kb, true, false, true, "Dog", 0);
+        assertTrue(linked.contains(kbu.new GraphArc("Dog", "link", "Loyal")));
+        assertTrue(linked.contains(kbu.new GraphArc("Rex", "instance", "Dog")));
+        StringWriter sw = new StringWriter();
+        kbu.semNetNeighborsAsJSON(kb, false, false, false, "Fido", 0, sw);
+        assertEquals("[{\"source\":\"Fido\",\"rel\":\"instance\",\"target\":\"Dog\"}]", sw.toString());
+    }
+}
@@ -0,0 +1,52 @@
+package com.articulate.sigma;
+
+/** *****************************************************************
+ * A small KB built from a few statements, with no KB files and no
+ * config, for the unit tests that do not need the KBs that
+ * UnitTestBase loads
+ */
+public class UnitTestKB {
+
+    /** ***************************************************************
+     * Tell a statement to the KB as if it were read from the given file
+     */
+    public static void tell(KB kb, String stmt, String file) {
+
+        KIF kif = new KIF();
+        kif.parseStatement(stmt);
+        kb.merge(kif, file);
+    }
+
+    /** ***************************************************************
+     * Tell a statement to the KB as if it were read from Merge.kif
+     */
+    public static void tell(KB kb, String stmt) {
+
+        tell(kb, stmt, "Merge.kif");
+    }
+
+    /** ***************************************************************
+     * Build the caches of the KB, after telling it the declaration of
+     * ListFn that KBcache needs and that would otherwise come from the
+     * KB files
+     */
+    public static void buildCaches(KB kb) {
+
+        tell(kb, "(instance ListFn VariableArityRelation)");
+        kb.kbCache = new KBcache(kb);
+        kb.kbCache.buildCaches();
+    }
+
+    /** ***************************************************************
+     * @return a new KB with the statements told from Merge.kif and its
+     * caches built
+     */
+    public static KB build(String name, String... stmts) {
+
+        KB kb = new KB(name);
+        for (String stmt : stmts)
+            tell(kb, stmt);
+        buildCaches(kb);
+        return kb;
+    }
+}
@@ -19,27 +19,51 @@ import static org.junit.Assert.*;
 // Copyright 2019 Infosys
 // adam.pease@infosys.com
 
+// Many of these tests build a small KB with UnitTestKB, or a small
+// lexicon, and do not need the KBs that UnitTestBase loads.  They are
+// listed here so that they run with the rest of the unit tests.
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+        ClausifierTest.class,
+        CoOccurrenceMatrixTest.class,
+        DocGenPagesTest.class,
         FormulaArityCheckTest.class,
         FormulaDeepEqualsTest.class,
         FormulaLogicalEqualityTest.class,
+        FormulaPostingsTest.class,
         FormulaPreprocessorComputeVariableTypesTest.class,
         FormulaPreprocessorFindExplicitTypesTest.class,
         FormulaPreprocessorTest.class,
         FormulaTest.class,
         FormulaUtilTest.class,
         FormulaUnificationTest.class,
+        FragmentCacheTest.class,
+        HierarchyTest.class,
+        HypernymIndexTest.class,
         KBcacheUnitTest.class,
         KBmanagerInitTest.class,
+        KBSnapshotTest.class,
         KBTest.class,
+        MappingTest.class,
+        MorphologyTest.class,
+        MultiWordsMatchTest.class,
         MultiWordsTest.class,
+        OMWordnetTest.class,
         PredVarInstTest.class,
+        PythonAPITest.class,
+        RenderContextTest.class,
         RowVarTest.class,
+        SenseAnnotatorTest.class,
         StringUtilTest.class,
         SUMOformulaToTPTPformulaTest.class,
+        TermIndexTest.class,
+        TermWordsIndexTest.class,
+        TokenizerTest.class,
         TPTP3ProofProcTest.class,
+        TranslateAllTest.class,
         UnitNLGTestSuite.class,
+        WordNetParserTest.class,
+        WordNetStoreTest.class,
         WordNetTest.class,
 })
 public class UnitTestSuite extends UnitTestBase {
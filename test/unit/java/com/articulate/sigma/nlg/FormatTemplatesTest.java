@@ -0,0 +1,107 @@
+package com.articulate.sigma.nlg;
+
+import com.articulate.sigma.Formula;
+import com.articulate.sigma.KB;
+import com.articulate.sigma.KIF;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * FormatTemplates with hand built format and keyword maps, so no KB
+ * files are needed
+ */
+public class FormatTemplatesTest {
+
+    private HashMap<String,HashMap<String,String>> saved = null;
+    private KB kb = null;
+    private HashMap<String,String> phraseMap = new HashMap<>();
+    private HashMap<String,String> termMap = new HashMap<>();
+
+    /** *****************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        saved = NLGUtils.getKeywordMap();
+        HashMap<String,HashMap<String,String>> keywords = new HashMap<>();
+        for (String w : new String[] {"not", "and"}) {
+            HashMap<String,String> m = new HashMap<>();
+            m.put("EnglishLanguage", w);
+            keywords.put(w, m);
+        }
+        NLGUtils.setKeywordMap(keywords);
+        kb = new KB("TemplatesTestKB");
+        phraseMap.put("part", "%1 is %n{never} a &%part of %2");
+        phraseMap.put("between", "%2 is %n between %*{1,3}[;]");
+        termMap.put("Dog", "dog");
+    }
+
+    /** *****************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        NLGUtils.setKeywordMap(saved);
+        FormatTemplates.clear();
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testCompile() {
+
+        FormatTemplates.Compiled c = new FormatTemplates.Compiled("%2 before %1, again %2%3");
+        assertEquals(3, c.args);
+        assertArrayEquals(new int[] {2, 1, 2, 3}, c.slots);
+        assertEquals("B before A, again BC", c.fill(new String[] {"A", "B", "C"}));
+        // a paraphrase with a slot in it has to be replaced in order
+        assertNull(c.fill(new String[] {"A", "%3", "C"}));
+        assertEquals(1, new FormatTemplates.Compiled("%1 and %3").args);
+        assertFalse(new FormatTemplates.Compiled("100%%1").simple);
+        assertFalse(new FormatTemplates.Compiled("%1 %2 %3 %4 %5 %6 %7 %8 %9 %10").simple);
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testTemplates() {
+
+        FormatTemplates t = FormatTemplates.get(kb, "EnglishLanguage", phraseMap, termMap);
+        assertSame(t, FormatTemplates.get(kb, "EnglishLanguage", phraseMap, termMap));
+        assertEquals("%1 is a &%part$\"part\" of %2", t.template("part", false).format);
+        assertEquals("%1 is never a &%part$\"part\" of %2", t.template("part", true).format);
+        assertSame(t.template("part", false), t.template("part", false));
+        assertNull(t.template("instance", false));
+        FormatTemplates.Template star = t.template("between", true);
+        assertEquals("%2 is not between %1 and %3",
+                star.forStatement(new Formula("(between A B C)"), "EnglishLanguage").text);
+        assertEquals("&%Dog$\"dog\"", t.atom("Dog"));
+        assertEquals("not", t.keyword("not"));
+    }
+
+    /** *****************************************************************
+     * Paraphrases are kept until the KB or the format maps change
+     */
+    @Test
+    public void testRebuild() {
+
+        FormatTemplates t = FormatTemplates.get(kb, "EnglishLanguage", phraseMap, termMap);
+        t.putParaphrase("(part Tail Dog)", false, "Tail is a part of dog");
+        assertEquals("Tail is a part of dog", t.paraphrase("(part Tail Dog)", false));
+        assertNull(t.paraphrase("(part Tail Dog)", true));
+        assertFalse(FormatTemplates.isGround("(part ?X Dog)"));
+        termMap.put("Tail", "tail");
+        FormatTemplates t2 = FormatTemplates.get(kb, "EnglishLanguage", phraseMap, termMap);
+        assertNotSame(t, t2);
+        assertNull(t2.paraphrase("(part Tail Dog)", false));
+        KIF kif = new KIF();
+        kif.parseStatement("(instance Tail BodyPart)");
+        kb.merge(kif, "");
+        assertNotSame(t2, FormatTemplates.get(kb, "EnglishLanguage", phraseMap, termMap));
+    }
+}
@@ -14,6 +14,7 @@ import static org.junit.Assert.*;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         CaseRoleTest.class,
+        FormatTemplatesTest.class,
         //HtmlParaphraseMockTest.class, TODO: restore tests
         //HtmlParaphraseTest.class,
         LanguageFormatterStackTest.class,
@@ -0,0 +1,145 @@
+package com.articulate.sigma.trans;
+
+import com.articulate.sigma.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * SUMOtoTFAform.translateAll() on one and on several threads, with a
+ * small KB that has no KB files.  The formulas reuse variable names
+ * with different types, so that variable types left over from one
+ * formula would show in the translation of the next.
+ */
+public class TranslateAllTest {
+
+    private KB savedKB = null;
+    private FormulaPreprocessor savedFp = null;
+    private boolean savedInitialized = false;
+    private boolean savedNonNumeric = false;
+    private String savedLang = null;
+    private int savedThreads = 0;
+    private KB kb = null;
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        savedKB = SUMOtoTFAform.kb;
+        savedFp = SUMOtoTFAform.fp;
+        savedInitialized = SUMOtoTFAform.initialized;
+        savedNonNumeric = FormulaPreprocessor.addOnlyNonNumericTypes;
+        savedLang = SUMOformulaToTPTPformula.lang;
+        savedThreads = SUMOtoTFAform.threads;
+        String[] stmts = {
+            "(subclass Integer RationalNumber)", "(subclass RationalNumber RealNumber)",
+            "(subclass RealNumber Number)", "(subclass Number Quantity)", "(subclass Quantity Abstract)",
+            "(subclass Abstract Entity)", "(subclass Physical Entity)", "(subclass Object Physical)",
+            "(subclass Animal Object)", "(subclass Dog Animal)",
+            "(subclass Relation Abstract)", "(subclass Predicate Relation)",
+            "(subclass BinaryPredicate Predicate)", "(subclass Function Relation)",
+            "(subclass BinaryFunction Function)", "(subclass UnaryFunction Function)",
+            "(instance part BinaryPredicate)", "(domain part 1 Object)", "(domain part 2 Object)",
+            "(instance age BinaryPredicate)", "(domain age 1 Object)", "(domain age 2 Integer)",
+            "(instance greaterThan BinaryPredicate)", "(domain greaterThan 1 Quantity)",
+            "(domain greaterThan 2 Quantity)",
+            "(instance instance BinaryPredicate)", "(domain instance 1 Entity)",
+            "(domain instance 2 SetOrClass)",
+            "(instance SuccessorFn UnaryFunction)", "(domain SuccessorFn 1 Integer)",
+            "(range SuccessorFn Integer)"
+        };
+        kb = UnitTestKB.build("TranslateAllTestKB", stmts);
+        SUMOtoTFAform.kb = kb;
+        SUMOtoTFAform.fp = new FormulaPreprocessor();
+        FormulaPreprocessor.addOnlyNonNumericTypes = true;
+        SUMOtoTFAform.initialized = true;
+        SUMOtoTFAform.clearCaches();
+        SUMOformulaToTPTPformula.lang = "tff";
+    }
+
+    /** ***************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        SUMOtoTFAform.kb = savedKB;
+        SUMOtoTFAform.fp = savedFp;
+        SUMOtoTFAform.initialized = savedInitialized;
+        FormulaPreprocessor.addOnlyNonNumericTypes = savedNonNumeric;
+        SUMOtoTFAform.clearCaches();
+        SUMOformulaToTPTPformula.lang = savedLang;
+        SUMOtoTFAform.threads = savedThreads;
+    }
+
+    /** ***************************************************************
+     * @return a few dozen formulas in which ?N is sometimes an integer
+     * and sometimes an object
+     */
+    private static ArrayList<Formula> formulas() {
+
+        ArrayList<Formula> result = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            switch (i % 4) {
+                case 0: result.add(new Formula("(=> (age ?A ?N) (greaterThan ?N " + i + "))")); break;
+                case 1: result.add(new Formula("(=> (instance ?N Dog) (exists (?A) (part ?A ?N)))")); break;
+                case 2: result.add(new Formula("(=> (age ?N ?A) (age ?N (SuccessorFn " + i + ")))")); break;
+                default: result.add(new Formula("(part Tail" + i + " Fido)")); break;
+            }
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testThreadsGiveSameTranslations() {
+
+        ArrayList<Formula> forms = formulas();
+        SUMOtoTFAform.threads = 1;
+        ArrayList<SUMOtoTFAform.Translation> one = SUMOtoTFAform.translateAll(forms);
+        SUMOtoTFAform.threads = 4;
+        ArrayList<SUMOtoTFAform.Translation> four = SUMOtoTFAform.translateAll(forms);
+        assertEquals(forms.size(), one.size());
+        assertEquals(forms.size(), four.size());
+        for (int i = 0; i < forms.size(); i++) {
+            assertSame(forms.get(i), one.get(i).input);
+            assertSame(forms.get(i), four.get(i).input);
+            assertEquals(one.get(i).tff, four.get(i).tff);
+            assertEquals(one.get(i).filterMessage, four.get(i).filterMessage);
+            assertEquals(one.get(i).sorts, four.get(i).sorts);
+        }
+        assertEquals("! [V__A : $i,V__N : $int] : (s__age(V__A, V__N) => $greater(V__N ,0))", one.get(0).tff);
+        assertEquals("s__part(s__Tail3, s__Fido)", one.get(3).tff);
+    }
+
+    /** ***************************************************************
+     * Each formula translates as it does on its own, and no variable
+     * types are left with the calling thread
+     */
+    @Test
+    public void testNoVarmapLeak() {
+
+        ArrayList<Formula> forms = formulas();
+        ArrayList<String> alone = new ArrayList<>();
+        for (Formula f : forms) {
+            SUMOtoTFAform.setVarmap(null);
+            alone.add(SUMOtoTFAform.translate(new Formula(f.getFormula())).tff);
+        }
+        for (int threads : new int[] {1, 4}) {
+            SUMOtoTFAform.threads = threads;
+            ArrayList<SUMOtoTFAform.Translation> all = SUMOtoTFAform.translateAll(forms);
+            for (int i = 0; i < forms.size(); i++)
+                assertEquals(alone.get(i), all.get(i).tff);
+            assertNull(SUMOtoTFAform.getVarmap());
+        }
+        for (int i = 1; i < forms.size(); i += 4) {
+            assertTrue(alone.get(i).contains("V__N : $i") || alone.get(i).contains("V__N:$i"));
+            assertFalse(alone.get(i).contains("$int"));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.articulate.sigma.wordNet;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+
+/** *****************************************************************
+ * CoOccurrenceMatrix does not need WordNet or a KB, so this test
+ * builds the co-occurrence table by hand.
+ */
+public class CoOccurrenceMatrixTest {
+
+    /** *****************************************************************
+     */
+    private static CoOccurrenceMatrix sample() {
+
+        HashMap<String,HashMap<String,Integer>> coFrequencies = new HashMap<>();
+        HashMap<String,Integer> money = new HashMap<>();
+        money.put("money", 5);
+        money.put("loan", 3);
+        money.put("river", 1);
+        coFrequencies.put("bank_NN_1", money);
+        HashMap<String,Integer> river = new HashMap<>();
+        river.put("river", 7);
+        river.put("water", 2);
+        coFrequencies.put("bank_NN_2", river);
+        return new CoOccurrenceMatrix(coFrequencies);
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testScore() {
+
+        CoOccurrenceMatrix m = sample();
+        int[] context = m.contextVector(Arrays.asList("The", "River", "had", "no", "money"));
+        assertEquals(6, m.score(m.senseID("bank_NN_1"), context));
+        assertEquals(7, m.score(m.senseID("bank_NN_2"), context));
+    }
+
+    /** *****************************************************************
+     * Each occurrence of a context word counts
+     */
+    @Test
+    public void testRepeatedWords() {
+
+        CoOccurrenceMatrix m = sample();
+        int[] context = m.contextVector(Arrays.asList("loan", "water", "loan"));
+        assertEquals(6, m.score(m.senseID("bank_NN_1"), context));
+        assertEquals(2, m.score(m.senseID("bank_NN_2"), context));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testUnknown() {
+
+        CoOccurrenceMatrix m = sample();
+        int[] context = m.contextVector(Arrays.asList("nothing", "here"));
+        assertEquals(0, context.length);
+        assertEquals(-1, m.senseID("bank_NN_3"));
+        assertEquals(0, m.score(-1, m.contextVector(Arrays.asList("money"))));
+    }
+}
@@ -0,0 +1,199 @@
+package com.articulate.sigma.wordNet;
+
+import com.articulate.sigma.utils.AVPair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * HypernymIndex over a small hand built hierarchy, so no WordNet or
+ * KB is needed:
+ *
+ *   entity
+ *     food
+ *       fruit
+ *         apple
+ *       dish
+ *         apple_pie  (also a hyponym of fruit)
+ *     person
+ *       Einstein  (instance)
+ */
+public class HypernymIndexTest {
+
+    private static final String ENTITY = "100001740";
+    private static final String FOOD = "100021265";
+    private static final String FRUIT = "113134947";
+    private static final String APPLE = "107739125";
+    private static final String DISH = "107557434";
+    private static final String PIE = "107628068";
+    private static final String PERSON = "100007846";
+    private static final String EINSTEIN = "110051975";
+
+    private WordNet saved = null;
+
+    /** *****************************************************************
+     */
+    private static void link(WordNet wn, String child, String parent, boolean instance) {
+
+        String up = instance ? "instance hypernym" : "hypernym";
+        String down = instance ? "instance hyponym" : "hyponym";
+        wn.relations.computeIfAbsent(child, k -> new ArrayList<>()).add(new AVPair(up, parent));
+        wn.relations.computeIfAbsent(parent, k -> new ArrayList<>()).add(new AVPair(down, child));
+    }
+
+    /** *****************************************************************
+     */
+    private static WordNet sample() {
+
+        WordNet wn = new WordNet();
+        link(wn, FOOD, ENTITY, false);
+        link(wn, FRUIT, FOOD, false);
+        link(wn, APPLE, FRUIT, false);
+        link(wn, DISH, FOOD, false);
+        link(wn, PIE, DISH, false);
+        link(wn, PIE, FRUIT, false);
+        link(wn, PERSON, ENTITY, false);
+        link(wn, EINSTEIN, PERSON, true);
+        wn.synsetsToWords.put(APPLE, new ArrayList<>(Arrays.asList("apple")));
+        wn.synsetsToWords.put(PIE, new ArrayList<>(Arrays.asList("apple_pie")));
+        wn.synsetsToWords.put(EINSTEIN, new ArrayList<>(Arrays.asList("Einstein")));
+        return wn;
+    }
+
+    /** *****************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        saved = WordNet.wn;
+        WordNet.wn = sample();
+    }
+
+    /** *****************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        WordNet.wn = saved;
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testIsHyponym() {
+
+        WordNet wn = WordNet.wn;
+        assertTrue(wn.isHyponym(APPLE, FOOD));
+        assertTrue(wn.isHyponym(PIE, FRUIT));
+        assertTrue(wn.isHyponym(PIE, ENTITY));
+        assertFalse(wn.isHyponym(FOOD, APPLE));
+        assertFalse(wn.isHyponym(APPLE, APPLE));
+        assertFalse(wn.isHyponym(APPLE, PERSON));
+        // only hypernym links, as isHyponymRecurse() follows
+        assertFalse(wn.isHyponym(EINSTEIN, PERSON));
+        assertTrue(wn.getHypernymIndex(true).isHyponym(EINSTEIN, ENTITY));
+        for (String s : wn.relations.keySet())
+            for (String h : wn.relations.keySet())
+                assertEquals(s + " " + h, wn.isHyponymRecurse(s, h, new ArrayList<>()), wn.isHyponym(s, h));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testDepthAndCommonParent() {
+
+        HypernymIndex index = WordNet.wn.getHypernymIndex(true);
+        assertEquals(0, index.depth(ENTITY));
+        assertEquals(3, index.depth(APPLE));
+        assertEquals(3, index.depth(PIE));
+        assertEquals(-1, index.depth("100000000"));
+        assertEquals(FRUIT, WordNetUtilities.lowestCommonParent(APPLE, PIE));
+        assertEquals(FRUIT, WordNetUtilities.lowestCommonParent(FRUIT, APPLE));
+        assertEquals(ENTITY, WordNetUtilities.lowestCommonParent(APPLE, EINSTEIN));
+        assertEquals(ENTITY, WordNetUtilities.lowestCommonParent(APPLE, "100000000"));
+        assertEquals(new HashSet<>(Arrays.asList(DISH, FRUIT, FOOD, ENTITY)), index.getAllHypernyms(PIE));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testHyponyms() {
+
+        assertEquals(new HashSet<>(Arrays.asList(FOOD, FRUIT, APPLE, DISH, PIE)),
+                WordNetUtilities.getAllHyponyms(FOOD));
+        assertEquals(new HashSet<>(Arrays.asList(PERSON, EINSTEIN)),
+                WordNetUtilities.getAllHyponymsTransitive(PERSON));
+        assertTrue(WordNetUtilities.getAllHyponyms("100000000").isEmpty());
+        HashSet<String> food = new HashSet<>(Arrays.asList(FOOD));
+        assertTrue(WordNetUtilities.isHyponymousWord("apple_pie", food));
+        assertFalse(WordNetUtilities.isHyponymousWord("Einstein", food));
+    }
+
+    /** *****************************************************************
+     * The words of the most recently used synsets are kept and cannot
+     * be changed
+     */
+    @Test
+    public void testHyponymousWords() {
+
+        int savedMax = HypernymIndex.maxWordCacheSize;
+        try {
+            HypernymIndex.maxWordCacheSize = 2;
+            HypernymIndex index = WordNet.wn.getHypernymIndex(true);
+            Set<String> food = index.getHyponymousWords(FOOD);
+            assertEquals(new HashSet<>(Arrays.asList("apple", "apple_pie")), food);
+            try {
+                food.add("Einstein");
+                fail("hyponymous words should be unmodifiable");
+            }
+            catch (UnsupportedOperationException expected) {
+            }
+            Set<String> person = index.getHyponymousWords(PERSON);
+            assertSame(food, index.getHyponymousWords(FOOD));
+            index.getHyponymousWords(FRUIT);
+            // PERSON is now the least recently used and was dropped
+            assertSame(food, index.getHyponymousWords(FOOD));
+            Set<String> again = index.getHyponymousWords(PERSON);
+            assertNotSame(person, again);
+            assertEquals(person, again);
+        }
+        finally {
+            HypernymIndex.maxWordCacheSize = savedMax;
+        }
+    }
+
+    /** *****************************************************************
+     * The index is rebuilt when relations grow
+     */
+    @Test
+    public void testRebuild() {
+
+        WordNet wn = WordNet.wn;
+        assertFalse(wn.isHyponym(EINSTEIN, ENTITY));
+        link(wn, "110000001", PERSON, false);
+        assertTrue(wn.isHyponym("110000001", ENTITY));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testStore() throws Exception {
+
+        File f = File.createTempFile("wnstore", ".lex");
+        f.deleteOnExit();
+        WordNetStore.write(WordNet.wn, f);
+        WordNet wn = WordNetStore.read(f);
+        assertNotNull(wn.instanceHypernymIndex);
+        assertSame(wn.instanceHypernymIndex, wn.getHypernymIndex(true));
+        assertTrue(wn.isHyponym(PIE, FOOD));
+        assertEquals(3, wn.getHypernymIndex(true).depth(PIE));
+        WordNet.wn = wn;
+        assertEquals(FRUIT, WordNetUtilities.lowestCommonParent(APPLE, PIE));
+        assertEquals(WordNetUtilities.getAllHyponyms(FOOD), sample().getHypernymIndex(true).getAllHyponyms(FOOD));
+    }
+}
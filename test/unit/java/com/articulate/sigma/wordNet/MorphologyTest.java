@@ -0,0 +1,82 @@
+package com.articulate.sigma.wordNet;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/** *****************************************************************
+ * Morphology with a small hand built lexicon, so that no KB is needed.
+ */
+public class MorphologyTest {
+
+    /** *****************************************************************
+     */
+    private static WordNet sample() {
+
+        WordNet wn = new WordNet();
+        for (String w : new String[] {"bus", "box", "church", "city", "tie", "series"})
+            wn.nounSynsetHash.put(w, new HashSet<String>());
+        for (String w : new String[] {"bake", "bak", "die", "sing", "go", "walk"})
+            wn.verbSynsetHash.put(w, new HashSet<String>());
+        wn.exceptionNounHash.put("geese", "goose");
+        wn.exceptionVerbHash.put("went", "go");
+        return wn;
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testNouns() {
+
+        WordNet wn = sample();
+        assertEquals("bus", wn.nounRootForm("buses", "buses"));
+        assertEquals("box", wn.nounRootForm("boxes", "boxes"));
+        assertEquals("church", wn.nounRootForm("Churches", "churches"));
+        assertEquals("city", wn.nounRootForm("cities", "cities"));
+        assertEquals("tie", wn.nounRootForm("ties", "ties"));
+        assertEquals("series", wn.nounRootForm("series", "series"));
+        assertEquals("goose", wn.nounRootForm("geese", "geese"));
+        assertNull(wn.nounRootForm("dogs", "dogs"));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testVerbs() {
+
+        WordNet wn = sample();
+        assertEquals("die", wn.verbRootForm("dies", "dies"));
+        assertEquals("walk", wn.verbRootForm("walked", "walked"));
+        assertEquals("sing", wn.verbRootForm("singing", "singing"));
+        assertEquals("go", wn.verbRootForm("went", "went"));
+        assertEquals("bak", wn.verbRootForm("baked", "baked"));
+    }
+
+    /** *****************************************************************
+     * All the lemmas, in the order the rules are preferred
+     */
+    @Test
+    public void testCandidates() {
+
+        WordNet wn = sample();
+        assertEquals(Arrays.asList("bak", "bake"), wn.getMorphology().candidates(WordNet.VERB, "baked", "baked"));
+        assertEquals(Arrays.asList("bake", "bak"), wn.getMorphology().candidates(WordNet.VERB, "baking", "baking"));
+        assertEquals(Arrays.asList(), wn.getMorphology().candidates(WordNet.ADVERB, "fast", "fast"));
+    }
+
+    /** *****************************************************************
+     * The cache does not hide words added to the lexicon later
+     */
+    @Test
+    public void testLexiconGrows() {
+
+        WordNet wn = sample();
+        assertNull(wn.nounRootForm("dogs", "dogs"));
+        wn.nounSynsetHash.put("dog", new HashSet<String>());
+        assertEquals("dog", wn.nounRootForm("dogs", "dogs"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.articulate.sigma.wordNet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/** *****************************************************************
+ * Multi-word matching with a small lexicon in place of WordNet, so
+ * that no KB is needed.
+ */
+public class MultiWordsMatchTest {
+
+    private WordNet saved = null;
+
+    /** *****************************************************************
+     */
+    private static void addWord(WordNet wn, String word, String senseKey, String synset) {
+
+        wn.wordsToSenseKeys.computeIfAbsent(word, k -> new ArrayList<>()).add(senseKey);
+        wn.senseIndex.put(senseKey, synset);
+    }
+
+    /** *****************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        saved = WordNet.wn;
+        WordNet wn = new WordNet();
+        wn.verbSynsetHash.put("rain", new HashSet<String>());
+        wn.nounSynsetHash.put("dog", new HashSet<String>());
+        wn.nounSynsetHash.put("table", new HashSet<String>());
+        addWord(wn, "rain_cats_and_dogs", "rain_cats_and_dogs_VB_1", "02758033");
+        addWord(wn, "table_tennis", "table_tennis_NN_1", "00507673");
+        addWord(wn, "table_tennis_table", "table_tennis_table_NN_1", "04381073");
+        addWord(wn, "hot_dog", "hot_dog_NN_1", "07697537");
+        for (String w : wn.wordsToSenseKeys.keySet())
+            wn.multiWords.addMultiWord(w);
+        wn.multiWords.addMultiWord("no_sense_here");
+        WordNet.wn = wn;
+    }
+
+    /** *****************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        WordNet.wn = saved;
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testLongest() {
+
+        List<String> text = Arrays.asList("a", "table", "tennis", "table", "top");
+        MultiWords.Match m = WordNet.wn.getMultiWords().findLongest(text, 1);
+        assertEquals("table_tennis_table", m.multiWord);
+        assertEquals(1, m.start);
+        assertEquals(4, m.end);
+        assertEquals("104381073", m.synset);
+    }
+
+    /** *****************************************************************
+     * The head word and the following words may be inflected
+     */
+    @Test
+    public void testLemmatized() {
+
+        List<String> text = Arrays.asList("it", "is", "raining", "cats", "and", "dogs");
+        List<String> synset = new ArrayList<>();
+        assertEquals(6, WordNet.wn.getMultiWords().findMultiWord(text, 2, synset));
+        assertEquals(Arrays.asList("202758033"), synset);
+        MultiWords.Match m = WordNet.wn.getMultiWords().findLongest(Arrays.asList("Hot", "dogs"), 0);
+        assertEquals("hot_dog", m.multiWord);
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testFindAll() {
+
+        List<String> text = Arrays.asList("table", "tennis", "and", "hot", "dog", "no", "sense", "here");
+        List<MultiWords.Match> all = WordNet.wn.getMultiWords().findAll(text);
+        assertEquals(2, all.size());
+        assertEquals("table_tennis", all.get(0).multiWord);
+        assertEquals("hot_dog", all.get(1).multiWord);
+        assertEquals(3, all.get(1).start);
+        assertNull(WordNet.wn.getMultiWords().findLongest(text, 5));
+    }
+
+    /** *****************************************************************
+     * Multi-words added after the first match are found
+     */
+    @Test
+    public void testAdded() {
+
+        List<String> text = Arrays.asList("ice", "cream");
+        assertNull(WordNet.wn.getMultiWords().findLongest(text, 0));
+        addWord(WordNet.wn, "ice_cream", "ice_cream_NN_1", "07614500");
+        WordNet.wn.multiWords.addMultiWord("ice_cream");
+        assertEquals("ice_cream", WordNet.wn.getMultiWords().findLongest(text, 0).multiWord);
+    }
+}
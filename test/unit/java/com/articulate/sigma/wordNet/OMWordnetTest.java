@@ -0,0 +1,150 @@
+package com.articulate.sigma.wordNet;
+
+import com.articulate.sigma.KBmanager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * Lazy loading of OMW languages from small source files written to a
+ * temporary kbDir, so no KB is needed
+ */
+public class OMWordnetTest {
+
+    private WordNet savedWN = null;
+    private String savedBaseDir = null;
+    private String savedKbDir = null;
+    private int savedMax = 0;
+    private File dir = null;
+
+    /** *****************************************************************
+     */
+    private void writeSource(String code, String... lines) throws Exception {
+
+        File langDir = new File(dir, "OMW" + File.separator + code);
+        langDir.mkdirs();
+        try (PrintWriter pw = new PrintWriter(new File(langDir, "wn-data-" + code + ".tab"), "UTF-8")) {
+            pw.println("# test data");
+            for (String line : lines)
+                pw.println(line);
+        }
+    }
+
+    /** *****************************************************************
+     */
+    @Before
+    public void setUp() throws Exception {
+
+        savedWN = WordNet.wn;
+        savedBaseDir = WordNet.baseDir;
+        savedKbDir = KBmanager.getMgr().getPref("kbDir");
+        savedMax = OMWordnet.maxResidentLanguages;
+        dir = Files.createTempDirectory("omw").toFile();
+        WordNet.baseDir = dir.getPath();
+        KBmanager.getMgr().setPref("kbDir", dir.getPath());
+        writeSource("fra",
+                "02084071-n\tfra:lemma\tchien",
+                "02084071-n\tfra:lemma\tcabot",
+                "02084071-n\tfra:def 0\tanimal domestique",
+                "02121620-n\tfra:lemma\tchat");
+        writeSource("spa",
+                "02084071-n\tspa:lemma\tperro",
+                "02084071-n\tspa:exe 0\tel perro ladra");
+        writeSource("ita",
+                "02084071-n\tita:lemma\tcane");
+        WordNet.wn = new WordNet();
+        WordNet.wn.SUMOHash.put("Dog", new ArrayList<>(Arrays.asList("102084071")));
+        OMWordnet.readOMWfiles();
+    }
+
+    /** *****************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        WordNet.wn = savedWN;
+        WordNet.baseDir = savedBaseDir;
+        KBmanager.getMgr().setPref("kbDir", savedKbDir);
+        OMWordnet.maxResidentLanguages = savedMax;
+        OMWordnet.readOMWfiles();
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testLoadOnRequest() {
+
+        assertTrue(OMWordnet.omw.wordnets.isEmpty());
+        String html = OMWordnet.formatWords("Dog", "SUMO", "FrenchLanguage", "");
+        assertTrue(html.contains("chien"));
+        assertTrue(html.contains("cabot"));
+        assertEquals(Collections.singleton("fra"), OMWordnet.omw.wordnets.keySet());
+        assertEquals(Arrays.asList("animal domestique"), OMWordnet.getGlosses("fra").get("02084071-n"));
+        assertTrue(OMWordnet.indexFile("fra").exists());
+        assertFalse(OMWordnet.indexFile("spa").exists());
+        assertEquals("", OMWordnet.formatWords("Dog", "SUMO", "GermanLanguage", ""));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testEviction() {
+
+        OMWordnet.maxResidentLanguages = 2;
+        OMWordnet.getWordnet("fra");
+        OMWordnet.getWordnet("spa");
+        OMWordnet.getWordnet("fra");
+        OMWordnet.getWordnet("ita");
+        assertEquals(new HashSet<>(Arrays.asList("fra", "ita")), OMWordnet.omw.wordnets.keySet());
+        assertEquals(Arrays.asList("perro"), OMWordnet.getWordnet("spa").get("02084071-n"));
+        assertFalse(OMWordnet.omw.wordnets.containsKey("fra"));
+    }
+
+    /** *****************************************************************
+     * Showing a synset in every language reads the indexes without
+     * making the languages resident
+     */
+    @Test
+    public void testDisplaySynset() {
+
+        String html = OMWordnet.displaySynset("SUMO", "02084071-n", "");
+        assertTrue(html.contains("chien"));
+        assertTrue(html.contains("perro"));
+        assertTrue(html.contains("el perro ladra"));
+        assertTrue(html.contains("cane"));
+        assertTrue(OMWordnet.omw.wordnets.isEmpty());
+        OMWStore.Entry e = OMWordnet.lookup("fra", "02121620-n");
+        assertEquals(Arrays.asList("chat"), e.words);
+        assertNull(e.glosses);
+        assertNull(OMWordnet.lookup("fra", "09999999-n"));
+    }
+
+    /** *****************************************************************
+     * An index that cannot be written leaves no partial file behind
+     * and is built again on the next request
+     */
+    @Test
+    public void testRetryAfterFailedIndex() throws Exception {
+
+        File index = OMWordnet.indexFile("ita");
+        File blocker = new File(index, "blocker");
+        blocker.getParentFile().mkdirs();
+        blocker.createNewFile();
+        index.setLastModified(0);
+        assertNull(OMWordnet.lookup("ita", "02084071-n"));
+        assertFalse(new File(index.getPath() + ".tmp").exists());
+        blocker.delete();
+        index.delete();
+        OMWStore.Entry e = OMWordnet.lookup("ita", "02084071-n");
+        assertNotNull(e);
+        assertEquals(Arrays.asList("cane"), e.words);
+        assertTrue(index.isFile());
+    }
+}
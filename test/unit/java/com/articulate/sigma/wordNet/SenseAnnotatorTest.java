@@ -0,0 +1,78 @@
+package com.articulate.sigma.wordNet;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/** *****************************************************************
+ * SenseAnnotator with a one word lexicon in place of WordNet, so that
+ * no KB is needed.
+ */
+public class SenseAnnotatorTest {
+
+    private WordNet saved = null;
+    private int savedBatchSize = 0;
+
+    /** *****************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        saved = WordNet.wn;
+        savedBatchSize = SenseAnnotator.batchSize;
+        WordNet wn = new WordNet();
+        wn.nounSynsetHash.put("dog", new HashSet<>(Arrays.asList("02084071")));
+        wn.nounSUMOHash.put("02084071", "&%Canine=");
+        wn.wordsToSenseKeys.put("dog", new ArrayList<>(Arrays.asList("dog_NN_1")));
+        wn.senseIndex.put("dog_NN_1", "02084071");
+        wn.stopwords.add("the");
+        WordNet.wn = wn;
+    }
+
+    /** *****************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        WordNet.wn = saved;
+        SenseAnnotator.batchSize = savedBatchSize;
+    }
+
+    /** *****************************************************************
+     * Output is in input order whatever the batching, and the counts
+     * of all the threads are merged
+     */
+    @Test
+    public void testOrderAndCounts() throws Exception {
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++)
+            sb.append("the dog barked ").append(i).append("\n\n");
+        SenseAnnotator sa = new SenseAnnotator();
+        sa.threads = 4;
+        SenseAnnotator.batchSize = 7;
+        StringWriter out = new StringWriter();
+        long n = sa.annotate(new BufferedReader(new StringReader(sb.toString())), out);
+        assertEquals(500, n);
+        String[] lines = out.toString().split("\n");
+        assertEquals(500, lines.length);
+        JSONParser parser = new JSONParser();
+        for (int i = 0; i < lines.length; i++) {
+            JSONObject obj = (JSONObject) parser.parse(lines[i]);
+            assertEquals(Long.valueOf(i), obj.get("id"));
+            assertEquals("the dog barked " + i, obj.get("sentence"));
+            assertEquals("[\"102084071\"]", obj.get("synsets").toString());
+            assertEquals("[\"Canine\"]", obj.get("terms").toString());
+        }
+        assertEquals(Integer.valueOf(500), sa.counts().get("Canine"));
+    }
+}
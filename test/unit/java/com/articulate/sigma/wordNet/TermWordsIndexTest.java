@@ -0,0 +1,92 @@
+package com.articulate.sigma.wordNet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * TermWordsIndex over a small hand built lexicon, so no KB is needed
+ */
+public class TermWordsIndexTest {
+
+    private WordNet saved = null;
+
+    /** *****************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        saved = WordNet.wn;
+        WordNet wn = new WordNet();
+        wn.SUMOHash.put("Dog", new ArrayList<>(Arrays.asList("102084071", "102085374")));
+        wn.SUMOHash.put("Running", new ArrayList<>(Arrays.asList("201926311", "100000001")));
+        wn.synsetsToWords.put("102084071", new ArrayList<>(Arrays.asList("dog", "domestic_dog")));
+        wn.synsetsToWords.put("102085374", new ArrayList<>(Arrays.asList("toy_dog", "dog")));
+        wn.synsetsToWords.put("201926311", new ArrayList<>(Arrays.asList("run")));
+        wn.nounSUMOHash.put("02084071", "&%Dog=");
+        wn.nounSUMOHash.put("02085374", "&%Dog+");
+        WordNet.wn = wn;
+    }
+
+    /** *****************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        WordNet.wn = saved;
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testWordsFromTerm() {
+
+        TreeMap<String,String> words = WordNet.wn.getWordsFromTerm("Dog");
+        assertEquals("{dog=102085374, domestic_dog=102084071, toy_dog=102085374}", words.toString());
+        words.clear();
+        assertEquals(3, WordNet.wn.getWordsFromTerm("Dog").size());
+        assertNull(WordNet.wn.getWordsFromTerm("Running"));
+        assertNull(WordNet.wn.getWordsFromTerm("Cat"));
+        TermWordsIndex.Entry e = WordNet.wn.getTermWordsIndex().get("Dog");
+        assertEquals("[dog/102084071=, domestic_dog/102084071=, toy_dog/102085374+, dog/102085374+]",
+                e.senses.toString());
+        assertEquals(' ', WordNet.wn.getTermWordsIndex().get("Running").senses.get(0).mapping);
+        assertEquals(WordNet.wn.getWordsFromTerm("Dog"), e.getWordView());
+        assertSame(e.getWordView(), e.getWordView());
+        try {
+            e.getWordView().clear();
+            fail("word view should be unmodifiable");
+        }
+        catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testFormat() {
+
+        String html = WordNetUtilities.formatTermWords("Dog", "SUMO");
+        assertEquals(WordNetUtilities.formatWords(WordNet.wn.getWordsFromTerm("Dog"), "SUMO"), html);
+        assertSame(html, WordNetUtilities.formatTermWords("Dog", "SUMO"));
+        assertTrue(WordNetUtilities.formatTermWords("Dog", "Other").contains("kb=Other"));
+        assertEquals("", WordNetUtilities.formatTermWords("Running", "SUMO"));
+    }
+
+    /** *****************************************************************
+     * Synsets added from term formats rebuild the index
+     */
+    @Test
+    public void testRebuild() {
+
+        TermWordsIndex index = WordNet.wn.getTermWordsIndex();
+        assertSame(index, WordNet.wn.getTermWordsIndex());
+        WordNet.wn.synsetsToWords.put("100000001", new ArrayList<>(Arrays.asList("jog")));
+        assertNotSame(index, WordNet.wn.getTermWordsIndex());
+        assertEquals("{jog=100000001, run=201926311}", WordNet.wn.getWordsFromTerm("Running").toString());
+    }
+}
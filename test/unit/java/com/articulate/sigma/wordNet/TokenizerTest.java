@@ -0,0 +1,92 @@
+package com.articulate.sigma.wordNet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * Tokenizer and StopWords with a hand built stop word list, so no KB
+ * is needed
+ */
+public class TokenizerTest {
+
+    private WordNet saved = null;
+
+    /** *****************************************************************
+     */
+    @Before
+    public void setUp() {
+
+        saved = WordNet.wn;
+        WordNet wn = new WordNet();
+        wn.stopwords.addAll(Arrays.asList("the", "a", "of", "is"));
+        WordNet.wn = wn;
+    }
+
+    /** *****************************************************************
+     */
+    @After
+    public void tearDown() {
+
+        WordNet.wn = saved;
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testWords() {
+
+        String text = " The  dog\tran   home \t ";
+        Tokenizer t = new Tokenizer().words(text);
+        assertEquals(Arrays.asList("The", "dog\tran", "home"), t.toList());
+        assertEquals(1, t.start(0));
+        assertEquals(4, t.end(0));
+        assertEquals(Arrays.asList("The", "dog\tran", "home"), WordNet.splitToArrayList(text));
+        assertEquals(0, t.words("   ").size());
+        assertSame(t, t.words("x"));
+        assertEquals("x", t.get(0));
+        t.words(text, 5, 18);
+        assertEquals(Arrays.asList("dog\tran", "ho"), t.toList());
+        assertEquals(6, t.start(0));
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testSentences() {
+
+        String text = "Mr. Smith left. He came back.\nThen. . he slept.";
+        assertEquals(Arrays.asList("Mr", "Smith left", "He came back", "Then", "he slept."),
+                WordNet.splitToArrayListSentence(text));
+        for (int i = 0; i < 2000; i++) {  // the offset arrays grow
+            Tokenizer t = new Tokenizer().sentences(String.join(". ", Collections.nCopies(i, "a b")));
+            assertEquals(i, t.size());
+        }
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testStopWords() {
+
+        StopWords sw = WordNet.wn.getStopWords();
+        assertSame(sw, WordNet.wn.getStopWords());
+        String text = "xTHEx Of";
+        assertEquals(0, sw.id(text, 1, 4));
+        assertEquals(2, sw.id(text, 5, 8));
+        assertEquals(-1, sw.id(text, 0, 4));
+        assertTrue(sw.contains(" a "));
+        assertFalse(sw.contains("à"));
+        assertTrue(WordNet.wn.isStopWord("Is"));
+        assertFalse(WordNet.wn.isStopWord("dog"));
+        assertEquals("dog ran home", WordNet.wn.removeStopWords("The dog  ran  home"));
+        assertEquals("", WordNet.wn.removeStopWords("the a"));
+        WordNet.wn.stopwords.add("home");
+        assertNotSame(sw, WordNet.wn.getStopWords());
+        assertEquals("dog ran", WordNet.wn.removeStopWords("The dog ran home"));
+    }
+}
@@ -0,0 +1,203 @@
+package com.articulate.sigma.wordNet;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/** *****************************************************************
+ * WordNetParser on single lines of the mappings files, so no KB is
+ * needed
+ */
+public class WordNetParserTest {
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testNounLine() {
+
+        String line = "02084071 05 n 03 dog 0 domestic_dog 0 Canis_familiaris 0 002 " +
+                "@ 02083346 n 0000 ~ 01322604 n 0000 | a member of the genus Canis &%Dog=";
+        WordNetParser.Synset s = WordNetParser.parseLine(line, WordNet.NOUN);
+        assertEquals("02084071", s.offset);
+        assertEquals("a member of the genus Canis", s.gloss);
+        assertEquals("&%Dog=", s.sumo);
+        assertEquals(Arrays.asList("dog", "domestic_dog", "Canis_familiaris"), s.words);
+        assertEquals(Arrays.asList("hypernym", "102083346", "hyponym", "101322604"), s.pointers);
+        assertTrue(s.frames.isEmpty());
+        assertNull(WordNetParser.parseLine("; a comment", WordNet.NOUN));
+        assertNull(WordNetParser.parseLine("02084071 05 n 01 dog 0 000 no gloss", WordNet.NOUN));
+    }
+
+    /** *****************************************************************
+     * Verb fields stop at the first bar and may end with frames
+     */
+    @Test
+    public void testVerbLine() {
+
+        String line = "01522276 35 v 04 wind 6 wrap 2 roll 0 twine 3 001 @ 01850315 v 0000 " +
+                "01 + 21 00 | arrange or or coil around; \"roll your hair\" &%Motion+";
+        WordNetParser.Synset s = WordNetParser.parseLine(line, WordNet.VERB);
+        assertEquals(Arrays.asList("wind", "wrap", "roll", "twine"), s.words);
+        assertEquals(Arrays.asList("hypernym", "201850315"), s.pointers);
+        assertEquals(Arrays.asList("21", "00"), s.frames);
+        assertEquals("&%Motion+", s.sumo);
+        assertEquals("arrange or or coil around; \"roll your hair\"", s.gloss);
+    }
+
+    /** *****************************************************************
+     * Adjective markers are removed, and an adverb takes the last
+     * mapping while other parts of speech take the first
+     */
+    @Test
+    public void testMappings() {
+
+        WordNetParser.Synset s = WordNetParser.parseLine(
+                "00001740 00 a 01 able(p) 0 000 | having the means &%Able+ &%Capability+", WordNet.ADJECTIVE);
+        assertEquals(Arrays.asList("able"), s.words);
+        assertEquals("having the means", s.gloss);
+        assertEquals("&%Able+ &%Capability+", s.sumo);
+        s = WordNetParser.parseLine(
+                "00001740 02 r 01 barely 0 000 | only just &%Able+ &%Capability+", WordNet.ADVERB);
+        assertEquals("only just &%Able+", s.gloss);
+        assertEquals("&%Capability+", s.sumo);
+        s = WordNetParser.parseLine("00001740 02 r 01 barely 0 000 | only just", WordNet.ADVERB);
+        assertEquals("only just", s.gloss);
+        assertNull(s.sumo);
+    }
+
+    /** *****************************************************************
+     * Parsed synsets fill the same tables as the old line readers
+     */
+    @Test
+    public void testAddSynsets() throws Exception {
+
+        File f = File.createTempFile("verb", ".txt");
+        f.deleteOnExit();
+        try (PrintWriter pw = new PrintWriter(f)) {
+            pw.println("; header");
+            pw.println("01522276 35 v 02 wind 6 wrap 2 001 @ 01850315 v 0000 02 + 21 00 + 08 02 " +
+                    "| arrange or coil around &%Motion+");
+        }
+        WordNet wn = new WordNet();
+        for (WordNetParser.Synset s : WordNetParser.parseFile(f, WordNet.VERB))
+            wn.addSynset(s);
+        assertEquals("arrange or coil around", wn.verbDocumentationHash.get("01522276"));
+        assertEquals("&%Motion+", wn.verbSUMOHash.get("01522276"));
+        assertEquals(Arrays.asList("wind", "wrap"), wn.synsetsToWords.get("201522276"));
+        assertEquals("hypernym", wn.relations.get("201522276").get(0).attribute);
+        assertEquals(Arrays.asList("21"), wn.verbFrames.get("01522276"));
+        assertEquals(Arrays.asList("08"), wn.verbFrames.get("01522276-wrap"));
+        assertEquals("01522276", wn.maxVerbSynsetID);
+    }
+
+    /** *****************************************************************
+     * Parse a line the way the old line readers did, with the regular
+     * expressions 6 and 7 (nouns), 10 and 11 (verbs), 13 and 14
+     * (adjectives) or 15 and 16 (adverbs) of WordNet.regexPatternStrings,
+     * trying the pattern with a SUMO mapping first
+     */
+    private static WordNetParser.Synset oldParse(String line, int pos) {
+
+        int withMapping = 6;
+        if (pos == WordNet.VERB)
+            withMapping = 10;
+        else if (pos == WordNet.ADJECTIVE)
+            withMapping = 13;
+        else if (pos == WordNet.ADVERB)
+            withMapping = 15;
+        WordNetParser.Synset s = new WordNetParser.Synset();
+        s.pos = pos;
+        Matcher m = Pattern.compile(WordNet.regexPatternStrings[withMapping]).matcher(line);
+        if (m.matches())
+            s.sumo = m.group(4);
+        else {
+            m = Pattern.compile(WordNet.regexPatternStrings[withMapping + 1]).matcher(line);
+            if (!m.matches())
+                return null;
+        }
+        s.offset = m.group(1);
+        s.gloss = m.group(3);
+        WordNetParser.parseFields(m.group(2), s);
+        return s;
+    }
+
+    /** *****************************************************************
+     */
+    private static void assertSameParse(String line, int pos) {
+
+        WordNetParser.Synset expected = oldParse(line, pos);
+        WordNetParser.Synset actual = WordNetParser.parseLine(line, pos);
+        if (expected == null) {
+            assertNull(line, actual);
+            return;
+        }
+        assertNotNull(line, actual);
+        assertEquals(line, expected.offset, actual.offset);
+        assertEquals(line, expected.gloss, actual.gloss);
+        assertEquals(line, expected.sumo, actual.sumo);
+        assertEquals(line, expected.words, actual.words);
+        assertEquals(line, expected.pointers, actual.pointers);
+        assertEquals(line, expected.frames, actual.frames);
+    }
+
+    /** *****************************************************************
+     * The parser splits lines exactly as the regular expressions it
+     * replaced: nouns and adjectives take the last bar that leaves a
+     * match, verbs the first bar, and all but adverbs take the first
+     * mapping
+     */
+    @Test
+    public void testMatchesOldPatterns() {
+
+        String noun = "02084071 05 n 01 dog 0 001 @ 02083346 n 0000 ";
+        String verb = "01522276 35 v 01 wind 6 001 @ 01850315 v 0000 01 + 21 00 ";
+        String adj = "00001740 00 a 01 able(p) 0 000 ";
+        String adv = "00001740 02 r 01 barely 0 000 ";
+        String[] rests = {
+                "| a dog &%Dog=",
+                "| a dog",
+                "| a dog &%Dog= &%Canine+",
+                "| a dog (&%Dog= &%Canine+)",
+                "| a | b &%Dog=",
+                "| a &%Dog= | b",
+                "| a &%Dog= | b &%Canine+",
+                "| a | b",
+                "| a &%D",
+                "| a &%Do",
+                "| a & %Dog=",
+                "|a dog &%Dog=",
+                "| a dog &%Dog= |x",
+                "| &%Dog=",
+                "|  &%Dog=",
+                "| ",
+                "|",
+                "no gloss &%Dog="
+        };
+        for (String rest : rests) {
+            assertSameParse(noun + rest, WordNet.NOUN);
+            assertSameParse(verb + rest, WordNet.VERB);
+            assertSameParse(adj + rest, WordNet.ADJECTIVE);
+            assertSameParse(adv + rest, WordNet.ADVERB);
+        }
+
+        // random glosses built from the pieces the patterns care about
+        String[] pieces = {" ", "|", "| ", "a", "&%", "&%Dog=", " &%Dog=", "(", " (&%Cat+", "x y"};
+        Random r = new Random(0);
+        for (int i = 0; i < 300; i++) {
+            StringBuilder sb = new StringBuilder("| ");
+            int n = 1 + r.nextInt(8);
+            for (int j = 0; j < n; j++)
+                sb.append(pieces[r.nextInt(pieces.length)]);
+            for (int pos : new int[] {WordNet.NOUN, WordNet.VERB, WordNet.ADJECTIVE, WordNet.ADVERB}) {
+                String prefix = pos == WordNet.VERB ? verb : noun;
+                assertSameParse(prefix + sb, pos);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.articulate.sigma.wordNet;
+
+import com.articulate.sigma.utils.AVPair;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/** *****************************************************************
+ * WordNetStore does not need WordNet or a KB, so this test builds a
+ * small lexicon by hand.
+ */
+public class WordNetStoreTest {
+
+    /** *****************************************************************
+     */
+    private static WordNet sample() {
+
+        WordNet wn = new WordNet();
+        wn.maxNounSynsetID = "00002137";
+        wn.origMaxNounSynsetID = "00002137";
+        wn.nounSynsetHash.put("bank", new HashSet<>(Arrays.asList("08420278", "09213565")));
+        wn.nounDocumentationHash.put("08420278", "a financial institution");
+        wn.nounSUMOHash.put("08420278", "&%FinancialOrganization=");
+        wn.SUMOHash.put("FinancialOrganization", new ArrayList<>(Arrays.asList("108420278")));
+        wn.synsetsToWords.put("108420278", new ArrayList<>(Arrays.asList("depository_financial_institution", "bank")));
+        wn.exceptionNounHash.put("geese", "goose");
+        ArrayList<AVPair> rels = new ArrayList<>();
+        rels.add(new AVPair("hypernym", "108057206"));
+        rels.add(new AVPair("hyponym", "108420563"));
+        wn.relations.put("108420278", rels);
+        HashMap<String,Integer> co = new HashMap<>();
+        co.put("money", 3);
+        wn.wordCoFrequencies.put("bank_NN_1", co);
+        TreeSet<AVPair> freq = new TreeSet<>();
+        freq.add(new AVPair("20", "108420278"));
+        wn.wordFrequencies.put("bank", freq);
+        wn.caseMap.put("BANK", "bank");
+        wn.senseFrequencies.put("108420278", 20);
+        wn.stopwords.add("the");
+        wn.senseIndex.put("bank_NN_1", "08420278");
+        wn.reverseSenseIndex.put("108420278", "bank_NN_1");
+        wn.wordsToSenseKeys.put("bank", new ArrayList<>(Arrays.asList("bank_NN_1")));
+        wn.multiWords.addMultiWord("bank_holiday");
+        HashMap<String,String> fra = new HashMap<>();
+        fra.put("08420278-n", "banque");
+        wn.OMW.put("fra", fra);
+        return wn;
+    }
+
+    /** *****************************************************************
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+
+        File f = File.createTempFile("wnstore", ".lex");
+        f.deleteOnExit();
+        WordNet orig = sample();
+        WordNetStore.write(orig, f);
+        WordNet wn = WordNetStore.read(f);
+        assertEquals(orig.maxNounSynsetID, wn.maxNounSynsetID);
+        assertEquals("", wn.maxVerbSynsetID);
+        assertEquals(orig.nounSynsetHash, wn.nounSynsetHash);
+        assertEquals(orig.nounDocumentationHash, wn.nounDocumentationHash);
+        assertEquals(orig.nounSUMOHash, wn.nounSUMOHash);
+        assertEquals(orig.SUMOHash, wn.SUMOHash);
+        assertEquals(orig.synsetsToWords, wn.synsetsToWords);
+        assertEquals(orig.exceptionNounHash, wn.exceptionNounHash);
+        assertEquals(orig.wordCoFrequencies, wn.wordCoFrequencies);
+        assertEquals(orig.caseMap, wn.caseMap);
+        assertEquals(orig.senseFrequencies, wn.senseFrequencies);
+        assertEquals(orig.stopwords, wn.stopwords);
+        assertEquals(orig.senseIndex, wn.senseIndex);
+        assertEquals(orig.reverseSenseIndex, wn.reverseSenseIndex);
+        assertEquals(orig.wordsToSenseKeys, wn.wordsToSenseKeys);
+        assertEquals(orig.multiWords.multiWord, wn.multiWords.multiWord);
+        assertEquals(orig.OMW, wn.OMW);
+        assertEquals(orig.relations.get("108420278").toString(), wn.relations.get("108420278").toString());
+        assertEquals(orig.wordFrequencies.get("bank").toString(), wn.wordFrequencies.get("bank").toString());
+    }
+
+    /** *****************************************************************
+     * Equal strings in different tables are read back as one instance
+     */
+    @Test
+    public void testSharedStrings() throws Exception {
+
+        File f = File.createTempFile("wnstore", ".lex");
+        f.deleteOnExit();
+        WordNetStore.write(sample(), f);
+        WordNet wn = WordNetStore.read(f);
+        String fromSenses = wn.reverseSenseIndex.keySet().iterator().next();
+        String fromWords = wn.synsetsToWords.keySet().iterator().next();
+        assertSame(fromSenses, fromWords);
+        assertTrue(wn.synsetsToWords.get("108420278").contains("bank"));
+        assertSame(wn.caseMap.get("BANK"), wn.synsetsToWords.get("108420278").get(1));
+    }
+
+    /** *****************************************************************
+     * The mapped lexicon answers lookups as the tables read back do
+     */
+    @Test
+    public void testLexicon() throws Exception {
+
+        File f = File.createTempFile("wnstore", ".lex");
+        f.deleteOnExit();
+        WordNet orig = sample();
+        orig.verbDocumentationHash.put("02289295", "deposit in a bank");
+        orig.relations.put("108057206", new ArrayList<>());
+        WordNetStore.write(orig, f);
+        WordNetStore.Lexicon lex = WordNetStore.open(f);
+        assertEquals("a financial institution", lex.getDocumentation("108420278"));
+        assertEquals("deposit in a bank", lex.getDocumentation("202289295"));
+        assertNull(lex.getDocumentation("208420278"));
+        assertNull(lex.getDocumentation("x"));
+        assertEquals("&%FinancialOrganization=", lex.getSUMOMapping("108420278"));
+        assertNull(lex.getSUMOMapping("109213565"));
+        assertEquals(orig.synsetsToWords.get("108420278"), lex.getWordsFromSynset("108420278"));
+        assertNull(lex.getWordsFromSynset("zzz"));
+        assertEquals(new HashSet<>(Arrays.asList("108420278", "109213565")), lex.getSynsetsFromWord("bank"));
+        assertTrue(lex.getSynsetsFromWord("money").isEmpty());
+        assertEquals(orig.relations.get("108420278").toString(), lex.getRelations("108420278").toString());
+        assertTrue(lex.getRelations("108057206").isEmpty());
+        assertNull(lex.getRelations("108420563"));
+        assertEquals(orig.SUMOHash.get("FinancialOrganization"), lex.getSynsetsFromTerm("FinancialOrganization"));
+        assertEquals("08420278", lex.getSenseSynset("bank_NN_1"));
+        assertEquals(Arrays.asList("bank_NN_1"), lex.getSenseKeys("bank"));
+        assertNull(lex.getSenseKeys("the"));
+    }
+}
@@ -31,7 +31,7 @@
     }
     HTMLformatter.launchEditor(filename,l);
  }
- HTMLformatter.kbHref = HTMLformatter.createHrefStart() + "/sigma/" + parentPage + "?lang=" + language + "&flang=" + flang + "&kb=" + kbName;
+ RenderContext ctx = RenderContext.forPage(parentPage, kbName, language, flang);
  if (kb != null && StringUtil.emptyString(term) && StringUtil.emptyString(relTerm) &&
     StringUtil.emptyString(nonRelTerm)) {       // Show statistics only when no term is specified.
     show.append(HTMLformatter.showStatistics(kb));
@@ -39,13 +39,13 @@
  }
  else if (kb != null && term != null && !kb.containsTerm(term)) {           // Show the alphabetic neighbors and RE matches of a term
     if (StringUtil.hasREchars(term) && StringUtil.isValidRegex(term)) {
-       show.append(HTMLformatter.termList(kb.getREMatch(term,true),HTMLformatter.kbHref));
+       show.append(HTMLformatter.termList(kb.getREMatch(term,true),ctx.kbHref));
     }
     else {
         if (StringUtil.isValidRegex(".*" + term + ".*"))
-            show.append(HTMLformatter.termList(kb.getREMatch(".*" + term + ".*",true),HTMLformatter.kbHref));
+            show.append(HTMLformatter.termList(kb.getREMatch(".*" + term + ".*",true),ctx.kbHref));
     }
-    show.append(HTMLformatter.showNeighborTerms(kb,term));
+    show.append(HTMLformatter.showNeighborTerms(ctx,kb,term));
     TreeMap<String,ArrayList<String>> tm = WordNet.wn.getSenseKeysFromWord(term);
     if (tm != null) {
         show.append("<td width=\"10%\"><img src=\"pixmaps/1pixel.gif\" width=\"1\" height=\"1\" border=\"0\"></td>");
@@ -59,11 +59,12 @@
     show.append("</td></table>");
  }
  else if ((kb != null) && (term == null) && (nonRelTerm != null) && (relTerm != null)) {
-    show.append(HTMLformatter.showNeighborTerms(kb,nonRelTerm, relTerm));
+    show.append(HTMLformatter.showNeighborTerms(ctx,kb,nonRelTerm, relTerm));
     show.append("</td></table>");
  }
  else if ((kb != null) && (term != null) && kb.containsTerm(term)) {  // Build the HTML format for all the formulas in
      term = kb.simplifyTerm(term, true);
+     FragmentCache.getCache().recordBrowse(kb,term);
      
      show.append("<title>Sigma KEE - " + term + "</title>\n");   // which the given term appears.
      show.append("<table width=\"95%\"><tr><td width=\"50%\"><font face=\"Arial,helvetica\" size=\"+3\"><b>");
@@ -104,15 +105,15 @@
          show.append(HTMLformatter.showMap(kb,term));
          show.append(HTMLformatter.showPictures(kb,term));
          show.append("</td>");
-         TreeMap<String,String> tm = WordNet.wn.getWordsFromTerm(term);
-         if (tm != null) {
+         TermWordsIndex.Entry termWords = WordNet.wn.getTermWordsIndex().get(term);
+         if (termWords != null && termWords.complete) {
              show.append("<td width=\"10%\"><img src=\"pixmaps/1pixel.gif\" width=\"1\" height=\"1\" border=\"0\"></td>");
              show.append("<td width=\"40%\"><small>");
              if (language.equals("EnglishLanguage")) 
-                 show.append(WordNetUtilities.formatWords(tm,kbName));
+                 show.append(WordNetUtilities.formatTermWords(term,kbName));
              else 
                  show.append(OMWordnet.formatWords(term,kbName,language,HTMLformatter.createHrefStart() + "/sigma/"));
-             String verbs = VerbNet.formatVerbs(tm);
+             String verbs = VerbNet.formatVerbs(termWords.getWordView());
              if (!StringUtil.emptyString(verbs))
                 show.append("<P>" + verbs);
              show.append("</small></td>");
@@ -130,13 +131,13 @@
 
      for (int arg = 1; arg < 6; arg++) {
          String argHeader = ("appearance as argument number " + arg);
-         show.append(HTMLformatter.browserSectionFormatLimit(term, argHeader, kb, language,flang,0,limit,arg,"arg"));
+         show.append(HTMLformatter.browserSectionFormatLimit(ctx,term, argHeader, kb, 0,limit,arg,"arg"));
      }
 
-     show.append(HTMLformatter.browserSectionFormatLimit(term, "antecedent", kb, language,flang,0,limit,0,"ant"));
-     show.append(HTMLformatter.browserSectionFormatLimit(term, "consequent", kb, language,flang,0,limit,0,"cons"));
-     show.append(HTMLformatter.browserSectionFormatLimit(term, "statement", kb, language,flang,0,limit,0,"stmt"));
-     show.append(HTMLformatter.browserSectionFormatLimit(term, "appearance as argument number 0", kb, language,flang,0,limit,0,"arg"));
+     show.append(HTMLformatter.browserSectionFormatLimit(ctx,term, "antecedent", kb, 0,limit,0,"ant"));
+     show.append(HTMLformatter.browserSectionFormatLimit(ctx,term, "consequent", kb, 0,limit,0,"cons"));
+     show.append(HTMLformatter.browserSectionFormatLimit(ctx,term, "statement", kb, 0,limit,0,"stmt"));
+     show.append(HTMLformatter.browserSectionFormatLimit(ctx,term, "appearance as argument number 0", kb, 0,limit,0,"arg"));
 
      show.append("<p><table align=\"left\" width=\"50%\"><tr><td bgcolor=\"#A8BACF\">" +
                  "<img src=\"pixmaps/1pixel.gif\" width=\"1\" height=\"1\" border=\"0\"></td></tr>" +
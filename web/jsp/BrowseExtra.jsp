@@ -35,7 +35,7 @@
  String type = request.getParameter("type");
  Map theMap = null;     // Map of natural language format strings.
 
- HTMLformatter.kbHref = "http://" + hostname + ":" + port + "/sigma/Browse.jsp" + "?lang=" + language + "?flang=" + flang + "&kb=" + kbName;
+ RenderContext ctx = RenderContext.forPage("Browse.jsp", kbName, language, flang);
 
  if (kb != null && (term == null || term.equals("")))        // Show statistics only when no term is specified.
     show.append(HTMLformatter.showStatistics(kb));
@@ -76,7 +76,7 @@
     if (role != null && !role.equalsIgnoreCase("guest")) {
         limit = 200;
     }
-    show.append(HTMLformatter.browserSectionFormatLimit(term,"", kb, language,flang,start,limit,arg,type));
+    show.append(HTMLformatter.browserSectionFormatLimit(ctx,term,"", kb, start,limit,arg,type));
  }
 %>
 <%=show.toString() %><BR>
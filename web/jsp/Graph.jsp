@@ -161,7 +161,7 @@ function setWidth(id) {
    			  }
    			  else {
    			      out.println("<p><b>Error producing graph.</b></p>");
-   			      out.println(HTMLformatter.formatErrorsWarnings(g.errors,kb));
+   			      out.println(HTMLformatter.formatErrorsWarnings(RenderContext.forPage("Browse.jsp",kbName,language,flang),g.errors,kb));
    			  }
           }
   %>
@@ -50,7 +50,7 @@
   if (forms == null || forms.size() == 0)
       out.println("<b>No intersection of terms " + term1 + " and " + term2 + " found.</b><P>");
   else
-      out.println(HTMLformatter.formatFormulaList(forms,"",  kb, language,  flang, 0, 0, ""));
+      out.println(HTMLformatter.formatFormulaList(RenderContext.forPage("Browse.jsp",kbName,language,flang),forms,"",  kb, 0, 0, ""));
   %>
   </table>
 <p>
@@ -69,7 +69,6 @@
               first = false;
           }
           kb = (KB) KBmanager.getMgr().getKB(kbName2);
-          HTMLformatter.kbHref = HTMLformatter.createHrefStart() + "/sigma/Browse.jsp?lang=" + language;
 %>
           <TR VALIGN="center" <%= odd==false? "bgcolor=#eeeeee":""%>>
             <TD><%=kbName2%></TD>
@@ -146,15 +145,16 @@
       while (kbNames.hasNext()) {
           kbName3 = (String) kbNames.next();
           kb = (KB) KBmanager.getMgr().getKB(kbName3);
-          System.out.println("INFO in KBs.jsp href:" + HTMLformatter.kbHref);
+          RenderContext ctx = RenderContext.forPage("Browse.jsp", kb.name, language, flang);
+          System.out.println("INFO in KBs.jsp href:" + ctx.kbHref);
           if (!kb.errors.isEmpty()) {
               out.println("<br/><b>Errors in KB " + kb.name + "</b><br>\n");
               kbErrorsFound = true;
-           	  out.println(HTMLformatter.formatErrorsWarnings(kb.errors,kb));
+           	  out.println(HTMLformatter.formatErrorsWarnings(ctx,kb.errors,kb));
           }
           if (!kb.warnings.isEmpty()) {
               out.println("<br/><b>Warnings in KB " + kb.name + "</b><br>\n");
-              out.println(HTMLformatter.formatErrorsWarnings(kb.warnings,kb));
+              out.println(HTMLformatter.formatErrorsWarnings(ctx,kb.warnings,kb));
           }
      }  
    
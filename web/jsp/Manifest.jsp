@@ -274,17 +274,17 @@ if (role != null && role.equalsIgnoreCase("admin")) {
     </FORM>
 
 <% } 
-  HTMLformatter.kbHref = HTMLformatter.createHrefStart() + "/sigma/Browse.jsp?";
+  RenderContext ctx = RenderContext.forPage("Browse.jsp", kb.name, language, flang);
   String er = KBmanager.getMgr().getError();
   if (!kb.errors.isEmpty()) {
-      TreeSet<String> errors = kb.errors;
+      Set<String> errors = kb.errors;
       out.println("<br/><b>Errors in KB " + kb.name + "</b><br>\n");
-      out.println(HTMLformatter.formatErrorsWarnings(errors,kb));
+      out.println(HTMLformatter.formatErrorsWarnings(ctx,errors,kb));
   }
   if (!kb.warnings.isEmpty()) {
       TreeSet<String> warns = kb.warnings;
       out.println("<br/><b>Warnings in KB " + kb.name + "</b><br>\n");
-      out.println(HTMLformatter.formatErrorsWarnings(warns,kb));
+      out.println(HTMLformatter.formatErrorsWarnings(ctx,warns,kb));
   }
 
   if (StringUtil.isNonEmptyString(er)) 
@@ -18,16 +18,16 @@ August 9, Acapulco, Mexico.  See also http://github.com/ontologyportal
  
  Map theMap = null;     // Map of natural language format strings.
 
- HTMLformatter.kbHref = HTMLformatter.createHrefStart() + "/sigma/" + parentPage + "?lang=" + language + "&simple=yes&kb=" + kbName;
+ RenderContext ctx = new RenderContext(HTMLformatter.createHrefStart() + "/sigma/" + parentPage + "?lang=" + language + "&simple=yes&kb=" + kbName, language, flang);
 
  if (kb != null && StringUtil.emptyString(term) && StringUtil.emptyString(relTerm) && StringUtil.emptyString(nonRelTerm))       // Show statistics only when no term is specified.
      show.append(HTMLformatter.showStatistics(kb));
  else if (kb != null && term != null && !kb.containsTerm(term)) {           // Show the alphabetic neighbors of a term                                                           
-    show.append(HTMLformatter.showNeighborTerms(kb,term));
+    show.append(HTMLformatter.showNeighborTerms(ctx,kb,term));
     show.append("</td></TABLE>");
  }
  else if ((kb != null) && (term == null) && (nonRelTerm != null) && (relTerm != null)) {
-    show.append(HTMLformatter.showNeighborTerms(kb,nonRelTerm, relTerm));
+    show.append(HTMLformatter.showNeighborTerms(ctx,kb,nonRelTerm, relTerm));
     show.append("</td></table>");
  }
  else if (kb != null && kb.containsTerm(term)) {                // Build the HTML format for all the formulas in                                                           
@@ -73,7 +73,7 @@ August 9, Acapulco, Mexico.  See also http://github.com/ontologyportal
     if (StringUtil.emptyString(defaultNS))
         defaultNS = language;
     TreeMap alphaList = gen.getAlphaList(kb); // tfm
-    show.append(DocGen.getInstance(kb.name).createPage(kb,HTMLformatter.kbHref,term,alphaList,limit,defaultNS,formatToken));
+    show.append(DocGen.getInstance(kb.name).createPage(kb,ctx.kbHref,term,alphaList,limit,defaultNS,formatToken));
     show.append("<P><table ALIGN='LEFT' WIDTH='50%'><tr><TD BGCOLOR='#A8BACF'>" +
                 "<IMG SRC='pixmaps/1pixel.gif' width=1 height=1 border=0></TD></tr>" +
                 "</table><BR>\n");
@@ -284,7 +284,7 @@
                 conjectureFormula.theFormula = stmt;
                 conjectureFormula.theFormula = conjectureFormula.makeQuantifiersExplicit(true);
                 conjectureFormula.tptpParse(true, kb);
-                Iterator it = conjectureFormula.getTheTptpFormulas().iterator();
+                Iterator it = conjectureFormula.peekTheTptpFormulas().iterator();
                 String theTPTPFormula = (String) it.next();
                 String originalConjecture = theTPTPFormula;
                 if (isQuestion)